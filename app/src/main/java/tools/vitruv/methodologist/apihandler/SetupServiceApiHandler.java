@@ -1,9 +1,19 @@
 package tools.vitruv.methodologist.apihandler;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
@@ -11,26 +21,31 @@ import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.BodyInserters;
-import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
 import tools.vitruv.methodologist.apihandler.dto.response.GenModelInspectionResponse;
+import tools.vitruv.methodologist.apihandler.dto.response.VsumValidationResponse;
 import tools.vitruv.methodologist.exception.SetupServiceException;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.service.FileStorageService;
+import tools.vitruv.methodologist.general.storage.SpooledContent;
 
 /**
  * Component responsible for handling API calls to the external setup-service. Provides
- * functionality to build a VSUM from the supplied metamodel, genmodel and reaction files and
- * download the generated artifact (ZIP or JAR) as raw bytes.
+ * functionality to build a VSUM from the supplied metamodel, genmodel and reaction files and stream
+ * the generated JAR into a file, or to only validate those files.
  */
 @Component
+@Slf4j
 public class SetupServiceApiHandler {
   public static final int DEFAULT_RESPONSE_TIMEOUT_IN_SECONDS = 300;
-  public static final int DEFAULT_MAX_RESPONSE_SIZE_IN_BYTES = 524_288_000;
-  public static final String BUILD_URL = "/api/vsum/build";
   public static final String JAR_URL = "/api/vsum/jar";
+  public static final String VALIDATE_URL = "/api/vsum/validate";
   public static final String PROCESS_GENMODEL_URL = "/api/genmodel/process";
   public static final String INSPECT_GENMODEL_URL = "/api/genmodel/inspect";
   public static final String METAMODEL_FILES_PART = "metamodelFiles";
@@ -38,133 +53,210 @@ public class SetupServiceApiHandler {
   public static final String REACTION_FILES_PART = "reactionFiles";
   public static final String FILE_PART = "file";
 
-  private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
   private static final MediaType APPLICATION_JAR =
       MediaType.parseMediaType("application/java-archive");
 
   private final WebClient webClient;
+  private final FileStorageService fileStorageService;
+  private final long multipartMemoryBudget;
+  private final Duration validateRetryAfter;
+  private volatile Instant validateUnsupportedUntil = Instant.MIN;
 
   /**
    * Constructs a SetupServiceApiHandler with the specified base URL. Configures WebClient with a
-   * response timeout and the maximum in-memory payload size so large build artifacts can be
-   * buffered.
+   * response timeout; build artifacts are streamed to disk and never buffered in memory.
    *
    * @param baseUrl the base URL of the setup-service
-   * @param maxResponseSize maximum size in bytes of the build artifact buffered in memory
    * @param responseTimeoutSeconds the response timeout in seconds for build requests
+   * @param fileStorageService service used to read the stored file contents
+   * @param multipartMemoryBudget total size of the file parts of one request kept on the heap;
+   *     further parts are spooled to disk
+   * @param validateRetryAfter how long a setup-service without the validate endpoint is not asked
+   *     to validate again
    */
   public SetupServiceApiHandler(
       @Value("${third_api.setup_service.base_url}") String baseUrl,
-      @Value(
-              "${third_api.setup_service.max_response_size:"
-                  + DEFAULT_MAX_RESPONSE_SIZE_IN_BYTES
-                  + "}")
-          int maxResponseSize,
       @Value(
               "${third_api.setup_service.timeout-seconds:"
                   + DEFAULT_RESPONSE_TIMEOUT_IN_SECONDS
                   + "}")
-          int responseTimeoutSeconds) {
+          int responseTimeoutSeconds,
+      FileStorageService fileStorageService,
+      @Value("${third_api.setup_service.multipart-memory-budget:1MB}")
+          DataSize multipartMemoryBudget,
+      @Value("${third_api.setup_service.validate-retry-after:10m}") Duration validateRetryAfter) {
+    this.fileStorageService = fileStorageService;
+    this.multipartMemoryBudget = multipartMemoryBudget.toBytes();
+    this.validateRetryAfter = validateRetryAfter;
     HttpClient httpClient =
         HttpClient.create().responseTimeout(Duration.ofSeconds(responseTimeoutSeconds));
 
     this.webClient =
         WebClient.builder()
             .baseUrl(baseUrl)
-            .exchangeStrategies(
-                ExchangeStrategies.builder()
-                    .codecs(
-                        configurer -> configurer.defaultCodecs().maxInMemorySize(maxResponseSize))
-                    .build())
             .clientConnector(new ReactorClientHttpConnector(httpClient))
             .build();
   }
 
   /**
-   * Builds a VSUM and downloads the result as a ZIP archive.
+   * Builds a VSUM and streams the resulting JAR file into {@code target}. The artifact is written
+   * as it arrives, with backpressure, so its size does not affect the memory used.
    *
    * @param metamodelFiles the metamodel (.ecore) files
    * @param genmodelFiles the genmodel (.genmodel) files
    * @param reactionFiles the reaction (.reactions) files
-   * @return the generated ZIP artifact as a byte array
+   * @param target the file the artifact is written to; existing content is replaced
+   * @return the size of the artifact in bytes
    * @throws SetupServiceException if the setup-service call fails or returns an empty artifact
    */
-  public byte[] buildVsumZipOrThrow(
+  public long downloadVsumJarOrThrow(
       List<FileStorage> metamodelFiles,
       List<FileStorage> genmodelFiles,
-      List<FileStorage> reactionFiles) {
-    return requestArtifactOrThrow(
-        BUILD_URL, APPLICATION_ZIP, metamodelFiles, genmodelFiles, reactionFiles);
+      List<FileStorage> reactionFiles,
+      Path target) {
+    long size;
+    try (FileParts parts = artifactParts(metamodelFiles, genmodelFiles, reactionFiles)) {
+      Flux<DataBuffer> body =
+          retrieveArtifact(JAR_URL, APPLICATION_JAR, parts).bodyToFlux(DataBuffer.class);
+      DataBufferUtils.write(
+              body,
+              target,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE)
+          .block();
+      size = Files.size(target);
+    } catch (SetupServiceException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SetupServiceException(
+          "Failed to call setup-service '" + JAR_URL + "': " + e.getMessage());
+    }
+
+    if (size == 0) {
+      throw new SetupServiceException(
+          "Setup-service returned an empty artifact for '" + JAR_URL + "'.");
+    }
+    return size;
   }
 
   /**
-   * Builds a VSUM and downloads the result as a JAR file.
+   * Validates a VSUM via the setup-service {@code /api/vsum/validate} endpoint. The setup-service
+   * checks the files and runs code generation, but skips compilation and fat-JAR packaging, so no
+   * artifact is transferred.
+   *
+   * <p>Both a valid (2xx) and an invalid (HTTP 422) VSUM are returned as a {@link
+   * VsumValidationResponse} whose {@code status} is the HTTP status. Setup-service versions without
+   * the endpoint answer 404 Not Found or 501 Not Implemented, which yields an empty result so the
+   * caller can fall back to a full build; other error statuses raise a {@link
+   * SetupServiceException}. Such an answer is remembered for {@code
+   * third_api.setup_service.validate-retry-after}, during which the result is empty without asking
+   * the setup-service again.
    *
    * @param metamodelFiles the metamodel (.ecore) files
    * @param genmodelFiles the genmodel (.genmodel) files
    * @param reactionFiles the reaction (.reactions) files
-   * @return the generated JAR artifact as a byte array
-   * @throws SetupServiceException if the setup-service call fails or returns an empty artifact
+   * @return the validation result and its diagnostics, or empty if the setup-service does not
+   *     support validation
+   * @throws SetupServiceException if the setup-service call fails for any reason other than a 422
+   *     validation failure or a missing endpoint
    */
-  public byte[] buildVsumJarOrThrow(
+  public Optional<VsumValidationResponse> validateVsumOrThrow(
       List<FileStorage> metamodelFiles,
       List<FileStorage> genmodelFiles,
       List<FileStorage> reactionFiles) {
-    return requestArtifactOrThrow(
-        JAR_URL, APPLICATION_JAR, metamodelFiles, genmodelFiles, reactionFiles);
+    if (Instant.now().isBefore(validateUnsupportedUntil)) {
+      return Optional.empty();
+    }
+    try (FileParts parts = artifactParts(metamodelFiles, genmodelFiles, reactionFiles)) {
+      return webClient
+          .post()
+          .uri(VALIDATE_URL)
+          .contentType(MediaType.MULTIPART_FORM_DATA)
+          .accept(MediaType.APPLICATION_JSON)
+          .body(BodyInserters.fromMultipartData(parts.build()))
+          .exchangeToMono(
+              response -> {
+                int status = response.statusCode().value();
+                if (response.statusCode().is2xxSuccessful()
+                    || status == HttpStatus.UNPROCESSABLE_ENTITY.value()) {
+                  return response
+                      .bodyToMono(VsumValidationResponse.class)
+                      .defaultIfEmpty(new VsumValidationResponse())
+                      .doOnNext(body -> body.setStatus(status));
+                }
+                if (status == HttpStatus.NOT_FOUND.value()
+                    || status == HttpStatus.NOT_IMPLEMENTED.value()) {
+                  log.info(
+                      "Setup-service cannot validate VSUMs, not asking again for {}",
+                      validateRetryAfter);
+                  validateUnsupportedUntil = Instant.now().plus(validateRetryAfter);
+                  return response.releaseBody().then(Mono.empty());
+                }
+                return response
+                    .bodyToMono(String.class)
+                    .defaultIfEmpty("")
+                    .flatMap(
+                        body ->
+                            Mono.error(
+                                new SetupServiceException(
+                                    "Setup-service request to '"
+                                        + VALIDATE_URL
+                                        + "' failed with status "
+                                        + response.statusCode()
+                                        + ": "
+                                        + body)));
+              })
+          .blockOptional();
+    } catch (SetupServiceException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SetupServiceException(
+          "Failed to call setup-service '" + VALIDATE_URL + "': " + e.getMessage());
+    }
   }
 
-  private byte[] requestArtifactOrThrow(
-      String uri,
-      MediaType acceptType,
+  private FileParts artifactParts(
       List<FileStorage> metamodelFiles,
       List<FileStorage> genmodelFiles,
       List<FileStorage> reactionFiles) {
-    MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
-    addFileParts(bodyBuilder, METAMODEL_FILES_PART, metamodelFiles);
-    addFileParts(bodyBuilder, GENMODEL_FILES_PART, genmodelFiles);
-    addFileParts(bodyBuilder, REACTION_FILES_PART, reactionFiles);
-
-    byte[] artifact;
+    FileParts parts = new FileParts();
     try {
-      artifact =
-          webClient
-              .post()
-              .uri(uri)
-              .contentType(MediaType.MULTIPART_FORM_DATA)
-              .accept(acceptType, MediaType.APPLICATION_OCTET_STREAM)
-              .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
-              .retrieve()
-              .onStatus(
-                  HttpStatusCode::isError,
-                  response ->
-                      response
-                          .bodyToMono(String.class)
-                          .defaultIfEmpty("")
-                          .flatMap(
-                              body ->
-                                  Mono.error(
-                                      new SetupServiceException(
-                                          "Setup-service request to '"
-                                              + uri
-                                              + "' failed with status "
-                                              + response.statusCode()
-                                              + ": "
-                                              + body))))
-              .bodyToMono(byte[].class)
-              .block();
-    } catch (SetupServiceException e) {
+      parts.addOptional(METAMODEL_FILES_PART, metamodelFiles);
+      parts.addOptional(GENMODEL_FILES_PART, genmodelFiles);
+      parts.addOptional(REACTION_FILES_PART, reactionFiles);
+      return parts;
+    } catch (RuntimeException e) {
+      parts.close();
       throw e;
-    } catch (Exception e) {
-      throw new SetupServiceException(
-          "Failed to call setup-service '" + uri + "': " + e.getMessage());
     }
+  }
 
-    if (artifact == null || artifact.length == 0) {
-      throw new SetupServiceException(
-          "Setup-service returned an empty artifact for '" + uri + "'.");
-    }
-    return artifact;
+  private WebClient.ResponseSpec retrieveArtifact(
+      String uri, MediaType acceptType, FileParts parts) {
+    return webClient
+        .post()
+        .uri(uri)
+        .contentType(MediaType.MULTIPART_FORM_DATA)
+        .accept(acceptType, MediaType.APPLICATION_OCTET_STREAM)
+        .body(BodyInserters.fromMultipartData(parts.build()))
+        .retrieve()
+        .onStatus(
+            HttpStatusCode::isError,
+            response ->
+                response
+                    .bodyToMono(String.class)
+                    .defaultIfEmpty("")
+                    .flatMap(
+                        body ->
+                            Mono.error(
+                                new SetupServiceException(
+                                    "Setup-service request to '"
+                                        + uri
+                                        + "' failed with status "
+                                        + response.statusCode()
+                                        + ": "
+                                        + body))));
   }
 
   /**
@@ -176,18 +268,16 @@ public class SetupServiceApiHandler {
    * @throws SetupServiceException if the setup-service call fails or returns an empty file
    */
   public byte[] processGenModelOrThrow(FileStorage genModelFile) {
-    MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
-    addFilePart(bodyBuilder, FILE_PART, genModelFile);
-
     byte[] processed;
-    try {
+    try (FileParts parts = new FileParts()) {
+      parts.addRequired(FILE_PART, genModelFile);
       processed =
           webClient
               .post()
               .uri(PROCESS_GENMODEL_URL)
               .contentType(MediaType.MULTIPART_FORM_DATA)
               .accept(MediaType.APPLICATION_OCTET_STREAM)
-              .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
+              .body(BodyInserters.fromMultipartData(parts.build()))
               .retrieve()
               .onStatus(
                   HttpStatusCode::isError,
@@ -205,7 +295,9 @@ public class SetupServiceApiHandler {
                                               + response.statusCode()
                                               + ": "
                                               + body))))
-              .bodyToMono(byte[].class)
+              .bodyToFlux(DataBuffer.class)
+              .as(DataBufferUtils::join)
+              .map(SetupServiceApiHandler::toBytes)
               .block();
     } catch (SetupServiceException e) {
       throw e;
@@ -235,17 +327,15 @@ public class SetupServiceApiHandler {
    *     validation failure
    */
   public GenModelInspectionResponse inspectGenModelOrThrow(FileStorage genModelFile) {
-    MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
-    addFilePart(bodyBuilder, FILE_PART, genModelFile);
-
-    try {
+    try (FileParts parts = new FileParts()) {
+      parts.addRequired(FILE_PART, genModelFile);
       GenModelInspectionResponse inspection =
           webClient
               .post()
               .uri(INSPECT_GENMODEL_URL)
               .contentType(MediaType.MULTIPART_FORM_DATA)
               .accept(MediaType.APPLICATION_JSON)
-              .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
+              .body(BodyInserters.fromMultipartData(parts.build()))
               .exchangeToMono(
                   response -> {
                     if (response.statusCode().is2xxSuccessful()
@@ -282,25 +372,73 @@ public class SetupServiceApiHandler {
     }
   }
 
-  private void addFilePart(MultipartBodyBuilder bodyBuilder, String partName, FileStorage file) {
-    if (file == null || file.getData() == null || file.getData().length == 0) {
-      throw new SetupServiceException("Cannot send an empty file to the setup-service.");
+  private static byte[] toBytes(DataBuffer buffer) {
+    try {
+      byte[] bytes = new byte[buffer.readableByteCount()];
+      buffer.read(bytes);
+      return bytes;
+    } finally {
+      DataBufferUtils.release(buffer);
     }
-    String filename = file.getFilename() == null ? partName : file.getFilename();
-    bodyBuilder.part(partName, new ByteArrayResource(file.getData())).filename(filename);
   }
 
-  private void addFileParts(
-      MultipartBodyBuilder bodyBuilder, String partName, List<FileStorage> files) {
-    if (CollectionUtils.isEmpty(files)) {
-      return;
+  /**
+   * File parts of a multipart request. The content of each file is spooled from storage when it is
+   * added, so the request can be encoded outside the transaction. Files are kept on the heap until
+   * their total size reaches {@code third_api.setup_service.multipart-memory-budget}; every further
+   * file is spooled to disk and read from its spill file while the body is written, so the heap
+   * used per request does not grow with the number of files. Closing the parts deletes the spill
+   * files.
+   */
+  private final class FileParts implements AutoCloseable {
+    private final MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
+    private final List<SpooledContent> contents = new ArrayList<>();
+    private long remainingMemory = multipartMemoryBudget;
+
+    void addRequired(String partName, FileStorage file) {
+      if (file == null || !add(partName, file)) {
+        throw new SetupServiceException("Cannot send an empty file to the setup-service.");
+      }
+    }
+
+    void addOptional(String partName, List<FileStorage> files) {
+      if (CollectionUtils.isEmpty(files)) {
+        return;
+      }
+      for (FileStorage file : files) {
+        if (file != null) {
+          add(partName, file);
+        }
+      }
+    }
+
+    MultiValueMap<String, HttpEntity<?>> build() {
+      return bodyBuilder.build();
     }
-    for (FileStorage file : files) {
-      if (file == null || file.getData() == null || file.getData().length == 0) {
-        continue;
+
+    private boolean add(String partName, FileStorage file) {
+      SpooledContent content = fileStorageService.spoolContent(file, remainingMemory);
+      contents.add(content);
+      if (!content.isSpilledToDisk()) {
+        remainingMemory -= content.size();
+      }
+      if (content.size() == 0) {
+        return false;
       }
       String filename = file.getFilename() == null ? partName : file.getFilename();
-      bodyBuilder.part(partName, new ByteArrayResource(file.getData())).filename(filename);
+      bodyBuilder.part(partName, content.asResource()).filename(filename);
+      return true;
+    }
+
+    @Override
+    public void close() {
+      for (SpooledContent content : contents) {
+        try {
+          content.close();
+        } catch (IOException e) {
+          log.warn("Failed to delete spooled setup-service request content", e);
+        }
+      }
     }
   }
 }
@@ -0,0 +1,46 @@
+package tools.vitruv.methodologist.apihandler.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.io.Serializable;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response returned by the setup-service {@code /api/vsum/validate} endpoint.
+ *
+ * <p>The service validates the metamodels and reactions and runs code generation, but neither
+ * compiles nor packages the result. It responds with HTTP 200 when the VSUM can be built and with
+ * HTTP 422 when it cannot; both carry the {@code diagnostics} found. A 422 may instead carry only
+ * the generic error payload ({@code errorCode}, {@code message}, {@code path}, {@code timestamp}).
+ * {@code status} always holds the HTTP status of the response.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class VsumValidationResponse implements Serializable {
+  private String errorCode;
+  private String message;
+  private String path;
+  private Integer status;
+  private Long timestamp;
+  private List<Diagnostic> diagnostics;
+
+  /** A single problem reported by the setup-service, located in one of the submitted files. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Diagnostic implements Serializable {
+    private String severity;
+    private String file;
+    private Integer line;
+    private Integer column;
+    private String message;
+  }
+}
@@ -35,6 +35,9 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 import tools.vitruv.methodologist.exception.LspProcessException;
+import tools.vitruv.methodologist.general.process.ProcessExecutor;
+import tools.vitruv.methodologist.general.process.ProcessRequest;
+import tools.vitruv.methodologist.general.service.FileStorageService;
 import tools.vitruv.methodologist.vsum.model.MetaModel;
 import tools.vitruv.methodologist.vsum.service.MetaModelService;
 
@@ -42,6 +45,7 @@ import tools.vitruv.methodologist.vsum.service.MetaModelService;
 @Component
 public class LspWebSocketHandler extends TextWebSocketHandler {
 
+  private static final String PROCESS_NAME = "reactions-lsp";
   private static final Logger logger = LoggerFactory.getLogger(LspWebSocketHandler.class);
   private static final long TIMEOUT_MS = 10L * 60 * 1000; // 10 minutes inactivity timeout
   private static final long CLEANUP_INTERVAL_SECONDS = 60; // Check every 60 seconds
@@ -49,17 +53,26 @@ public class LspWebSocketHandler extends TextWebSocketHandler {
   private final ConcurrentHashMap<String, Long> lastActivity = new ConcurrentHashMap<>();
   private final ScheduledExecutorService cleanupScheduler = Executors.newScheduledThreadPool(1);
   private final MetaModelService metaModelService;
+  private final FileStorageService fileStorageService;
+  private final ProcessExecutor processExecutor;
 
   @Value("${reactions.ide.jar.path}")
   private Resource jarResource;
 
   /**
-   * Constructs a new LspWebSocketHandler with the required metamodel service.
+   * Constructs a new LspWebSocketHandler with the required metamodel and file storage services.
    *
    * @param metaModelService the service for metamodel operations
+   * @param fileStorageService the service used to stream ecore files into the session workspace
+   * @param processExecutor the executor starting the language server processes
    */
-  public LspWebSocketHandler(MetaModelService metaModelService) {
+  public LspWebSocketHandler(
+      MetaModelService metaModelService,
+      FileStorageService fileStorageService,
+      ProcessExecutor processExecutor) {
     this.metaModelService = metaModelService;
+    this.fileStorageService = fileStorageService;
+    this.processExecutor = processExecutor;
 
     // Start periodic cleanup task
     cleanupScheduler.scheduleAtFixedRate(
@@ -110,32 +123,32 @@ public class LspWebSocketHandler extends TextWebSocketHandler {
     List<MetaModel> metamodels = metaModelService.findAccessibleByProject(vsumId);
 
     for (MetaModel mm : metamodels) {
-      byte[] ecoreData = mm.getEcoreFile().getData();
       String fileName = mm.getEcoreFile().getFilename();
       Path ecoreFile = modelDir.resolve(fileName);
-      Files.write(ecoreFile, ecoreData);
+      fileStorageService.copyContent(mm.getEcoreFile(), ecoreFile);
     }
 
     String jarPath = getJarPath();
 
     String javaHome = System.getProperty("java.home");
     String javaExecutable = javaHome + File.separator + "bin" + File.separator + "java";
-    ProcessBuilder pb = new ProcessBuilder(javaExecutable, "-jar", jarPath);
-    pb.directory(userProject.toFile());
-    pb.redirectErrorStream(true);
-
-    Process process = pb.start();
-
-    new Thread(
-            () -> {
-              try {
-                int code = process.waitFor();
-                logger.error("LSP process exited for session {} with code {}", sessionId, code);
-              } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-              }
-            })
-        .start();
+    Process process =
+        processExecutor.start(
+            ProcessRequest.builder()
+                .name(PROCESS_NAME)
+                .command(List.of(javaExecutable, "-jar", jarPath))
+                .directory(userProject)
+                .redirectErrorStream(true)
+                .build());
+
+    process
+        .onExit()
+        .thenAccept(
+            exited ->
+                logger.error(
+                    "LSP process exited for session {} with code {}",
+                    sessionId,
+                    exited.exitValue()));
 
     BufferedWriter writer =
         new BufferedWriter(
@@ -147,9 +160,11 @@ public class LspWebSocketHandler extends TextWebSocketHandler {
         new LspServerProcess(session, process, writer, reader, sessionDir);
     sessions.put(sessionId, lspProcess);
 
-    new Thread(lspProcess::readFromLsp).start();
+    Thread.ofVirtual().name(PROCESS_NAME + "-reader-" + sessionId).start(lspProcess::readFromLsp);
 
-    new Thread(
+    Thread.ofVirtual()
+        .name(PROCESS_NAME + "-workspace-" + sessionId)
+        .start(
             () -> {
               try {
                 Thread.sleep(500);
@@ -166,8 +181,7 @@ public class LspWebSocketHandler extends TextWebSocketHandler {
               } catch (Exception e) {
                 logger.error("💥 Failed to send workspaceReady: {}", e.getMessage());
               }
-            })
-        .start();
+            });
   }
 
   @Override
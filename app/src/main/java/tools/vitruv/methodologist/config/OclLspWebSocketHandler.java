@@ -30,6 +30,9 @@ import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import tools.vitruv.methodologist.general.process.ProcessExecutor;
+import tools.vitruv.methodologist.general.process.ProcessRequest;
+import tools.vitruv.methodologist.general.service.FileStorageService;
 import tools.vitruv.methodologist.vsum.model.MetaModel;
 import tools.vitruv.methodologist.vsum.service.MetaModelService;
 
@@ -41,6 +44,7 @@ import tools.vitruv.methodologist.vsum.service.MetaModelService;
 @Component
 public class OclLspWebSocketHandler extends TextWebSocketHandler {
 
+  private static final String PROCESS_NAME = "ocl-lsp";
   private static final Logger logger = LoggerFactory.getLogger(OclLspWebSocketHandler.class);
   private static final long TIMEOUT_MS = 10L * 60 * 1000;
   private static final long CLEANUP_INTERVAL_SECONDS = 60;
@@ -49,6 +53,8 @@ public class OclLspWebSocketHandler extends TextWebSocketHandler {
   private final ConcurrentHashMap<String, Long> lastActivity = new ConcurrentHashMap<>();
   private final ScheduledExecutorService cleanupScheduler = Executors.newScheduledThreadPool(1);
   private final MetaModelService metaModelService;
+  private final FileStorageService fileStorageService;
+  private final ProcessExecutor processExecutor;
 
   /**
    * Private base directory owned exclusively by this process. All temp files and session dirs are
@@ -63,10 +69,18 @@ public class OclLspWebSocketHandler extends TextWebSocketHandler {
    * Constructs a new {@code OclLspWebSocketHandler}.
    *
    * @param metaModelService service for accessing metamodel data
+   * @param fileStorageService service used to stream ecore files into the session workspace
+   * @param processExecutor executor starting the language server processes
    * @throws IOException if the private base temp directory cannot be created
    */
-  public OclLspWebSocketHandler(MetaModelService metaModelService) throws IOException {
+  public OclLspWebSocketHandler(
+      MetaModelService metaModelService,
+      FileStorageService fileStorageService,
+      ProcessExecutor processExecutor)
+      throws IOException {
     this.metaModelService = metaModelService;
+    this.fileStorageService = fileStorageService;
+    this.processExecutor = processExecutor;
     Path vitruvoclHome = Path.of(System.getProperty("user.home")).resolve(".vitruvocl");
     Files.createDirectories(vitruvoclHome);
     this.appTempBase = vitruvoclHome.resolve("app-" + UUID.randomUUID());
@@ -137,9 +151,8 @@ public class OclLspWebSocketHandler extends TextWebSocketHandler {
     if (vsumId != null) {
       List<MetaModel> metamodels = metaModelService.findAccessibleByProject(vsumId);
       for (MetaModel mm : metamodels) {
-        byte[] ecoreData = mm.getEcoreFile().getData();
         String fileName = mm.getEcoreFile().getFilename();
-        Files.write(ecoreDir.resolve(fileName), ecoreData);
+        fileStorageService.copyContent(mm.getEcoreFile(), ecoreDir.resolve(fileName));
       }
     }
 
@@ -147,22 +160,23 @@ public class OclLspWebSocketHandler extends TextWebSocketHandler {
     String javaHome = System.getProperty("java.home");
     String javaExecutable = javaHome + File.separator + "bin" + File.separator + "java";
 
-    ProcessBuilder pb = new ProcessBuilder(javaExecutable, "-jar", jarPath);
-    pb.directory(userProject.toFile());
-    pb.redirectErrorStream(true);
-
-    Process process = pb.start();
-
-    new Thread(
-            () -> {
-              try {
-                int code = process.waitFor();
-                logger.error("OCL-LSP process exited for session {} with code {}", sessionId, code);
-              } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-              }
-            })
-        .start();
+    Process process =
+        processExecutor.start(
+            ProcessRequest.builder()
+                .name(PROCESS_NAME)
+                .command(List.of(javaExecutable, "-jar", jarPath))
+                .directory(userProject)
+                .redirectErrorStream(true)
+                .build());
+
+    process
+        .onExit()
+        .thenAccept(
+            exited ->
+                logger.error(
+                    "OCL-LSP process exited for session {} with code {}",
+                    sessionId,
+                    exited.exitValue()));
 
     BufferedWriter writer =
         new BufferedWriter(
@@ -173,10 +187,12 @@ public class OclLspWebSocketHandler extends TextWebSocketHandler {
     OclLspProcess lspProcess = new OclLspProcess(session, process, writer, reader, sessionDir);
     sessions.put(sessionId, lspProcess);
 
-    new Thread(lspProcess::readFromLsp).start();
+    Thread.ofVirtual().name(PROCESS_NAME + "-reader-" + sessionId).start(lspProcess::readFromLsp);
 
     // Notify client that workspace is ready
-    new Thread(
+    Thread.ofVirtual()
+        .name(PROCESS_NAME + "-workspace-" + sessionId)
+        .start(
             () -> {
               try {
                 Thread.sleep(500);
@@ -190,8 +206,7 @@ public class OclLspWebSocketHandler extends TextWebSocketHandler {
               } catch (Exception e) {
                 logger.error("💥 Failed to send workspaceReady for OCL-LSP: {}", e.getMessage());
               }
-            })
-        .start();
+            });
   }
 
   @Override
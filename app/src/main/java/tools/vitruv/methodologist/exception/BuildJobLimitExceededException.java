@@ -0,0 +1,16 @@
+package tools.vitruv.methodologist.exception;
+
+/**
+ * Exception thrown when a user submits a build while already having the maximum number of builds
+ * queued or running.
+ */
+public class BuildJobLimitExceededException extends RuntimeException {
+  /**
+   * Constructs a new {@code BuildJobLimitExceededException} with the given detail message.
+   *
+   * @param message description of the exceeded limit
+   */
+  public BuildJobLimitExceededException(String message) {
+    super(message);
+  }
+}
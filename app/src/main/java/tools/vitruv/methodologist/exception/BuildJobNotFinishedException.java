@@ -0,0 +1,16 @@
+package tools.vitruv.methodologist.exception;
+
+/**
+ * Exception thrown when the artifact of a build job is requested before the job succeeded, i.e.
+ * while it is still queued or running, or after it failed.
+ */
+public class BuildJobNotFinishedException extends RuntimeException {
+  /**
+   * Constructs a new {@code BuildJobNotFinishedException} with the given detail message.
+   *
+   * @param message description of the job state
+   */
+  public BuildJobNotFinishedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,24 @@
+package tools.vitruv.methodologist.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Exception thrown when a build is submitted while the build queue holds the maximum number of
+ * queued jobs. Clients should retry after {@link #getRetryAfter()}.
+ */
+@Getter
+public class BuildQueueFullException extends RuntimeException {
+  private final Duration retryAfter;
+
+  /**
+   * Constructs a new {@code BuildQueueFullException}.
+   *
+   * @param message description of the rejection
+   * @param retryAfter time after which the client should retry
+   */
+  public BuildQueueFullException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -0,0 +1,30 @@
+package tools.vitruv.methodologist.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Exception thrown when a build or precheck request is rejected because its workload already runs
+ * at its concurrency limit, or because the host is overloaded. Clients should retry after {@link
+ * #getRetryAfter()}.
+ */
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+  private final Duration retryAfter;
+  private final boolean overloaded;
+
+  /**
+   * Constructs a new {@code ConcurrencyLimitExceededException}.
+   *
+   * @param message description of the rejection
+   * @param retryAfter time after which the client should retry
+   * @param overloaded whether the request was rejected because of the host's load rather than the
+   *     workload's limit
+   */
+  public ConcurrencyLimitExceededException(
+      String message, Duration retryAfter, boolean overloaded) {
+    super(message);
+    this.retryAfter = retryAfter;
+    this.overloaded = overloaded;
+  }
+}
@@ -0,0 +1,19 @@
+package tools.vitruv.methodologist.exception;
+
+/**
+ * Unchecked exception indicating that the stored content of a file could not be read or written.
+ *
+ * <p>Wraps the underlying I/O or JDBC failure so callers of the file storage service do not need to
+ * deal with checked exceptions.
+ */
+public class FileContentException extends RuntimeException {
+  /**
+   * Creates a new {@code FileContentException} with a detail message and root cause.
+   *
+   * @param message human-readable description of the error
+   * @param cause underlying cause of the failure
+   */
+  public FileContentException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
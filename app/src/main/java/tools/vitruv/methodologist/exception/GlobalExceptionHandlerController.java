@@ -16,9 +16,11 @@
 
 package tools.vitruv.methodologist.exception;
 
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -448,6 +450,124 @@ public class GlobalExceptionHandlerController {
     return ErrorResponse.builder().message(ex.getMessage()).path(getPath(request)).build();
   }
 
+  /**
+   * Handles requests that do not fit the state of a resumable upload session. Returns a CONFLICT
+   * (409) response so the client can query the session and resume from the reported offset.
+   *
+   * @param ex the caught UploadSessionConflictException
+   * @param handlerMethod the handler method that threw the exception
+   * @param request the current web request
+   * @return ErrorResponse with conflict details
+   */
+  @ExceptionHandler(value = UploadSessionConflictException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  @ResponseBody
+  public ErrorResponse uploadSessionConflictException(
+      UploadSessionConflictException ex, HandlerMethod handlerMethod, ServletWebRequest request) {
+    return ErrorResponse.builder()
+        .error(HttpStatus.CONFLICT.getReasonPhrase())
+        .message(Objects.requireNonNull(ex.getMessage()))
+        .path(getPath(request))
+        .build();
+  }
+
+  /**
+   * Handles build submissions of users that already have the maximum number of builds queued or
+   * running. Returns a TOO_MANY_REQUESTS (429) response.
+   *
+   * @param ex the caught BuildJobLimitExceededException
+   * @param handlerMethod the handler method that threw the exception
+   * @param request the current web request
+   * @return ErrorResponse with the exceeded limit
+   */
+  @ExceptionHandler(value = BuildJobLimitExceededException.class)
+  @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+  @ResponseBody
+  public ErrorResponse buildJobLimitExceededException(
+      BuildJobLimitExceededException ex, HandlerMethod handlerMethod, ServletWebRequest request) {
+    return ErrorResponse.builder()
+        .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+        .message(Objects.requireNonNull(ex.getMessage()))
+        .path(getPath(request))
+        .build();
+  }
+
+  /**
+   * Handles build submissions while the build queue is full. Returns a SERVICE_UNAVAILABLE (503)
+   * response with a {@code Retry-After} header.
+   *
+   * @param ex the caught BuildQueueFullException
+   * @param handlerMethod the handler method that threw the exception
+   * @param request the current web request
+   * @return ErrorResponse with the rejection details
+   */
+  @ExceptionHandler(value = BuildQueueFullException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  @ResponseBody
+  public ErrorResponse buildQueueFullException(
+      BuildQueueFullException ex, HandlerMethod handlerMethod, ServletWebRequest request) {
+    HttpServletResponse response = request.getResponse();
+    if (response != null) {
+      response.setHeader(
+          HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())));
+    }
+    return ErrorResponse.builder()
+        .error(TEMPORARY_UNAVAILABLE_ERROR)
+        .message(Objects.requireNonNull(ex.getMessage()))
+        .path(getPath(request))
+        .build();
+  }
+
+  /**
+   * Handles build and precheck requests rejected by an adaptive concurrency limiter. Returns a
+   * SERVICE_UNAVAILABLE (503) response if the host is overloaded and a TOO_MANY_REQUESTS (429)
+   * response if the workload runs at its limit, both with a {@code Retry-After} header.
+   *
+   * @param ex the caught ConcurrencyLimitExceededException
+   * @param handlerMethod the handler method that threw the exception
+   * @param request the current web request
+   * @return ResponseEntity containing ErrorResponse with the rejection details
+   */
+  @ExceptionHandler(value = ConcurrencyLimitExceededException.class)
+  public ResponseEntity<ErrorResponse> concurrencyLimitExceededException(
+      ConcurrencyLimitExceededException ex,
+      HandlerMethod handlerMethod,
+      ServletWebRequest request) {
+    HttpStatus status =
+        ex.isOverloaded() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+    ErrorResponse errorResponse =
+        ErrorResponse.builder()
+            .error(ex.isOverloaded() ? TEMPORARY_UNAVAILABLE_ERROR : status.getReasonPhrase())
+            .message(Objects.requireNonNull(ex.getMessage()))
+            .path(getPath(request))
+            .build();
+    return ResponseEntity.status(status)
+        .header(
+            HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+        .body(errorResponse);
+  }
+
+  /**
+   * Handles requests for the artifact of a build job that has not succeeded. Returns a CONFLICT
+   * (409) response.
+   *
+   * @param ex the caught BuildJobNotFinishedException
+   * @param handlerMethod the handler method that threw the exception
+   * @param request the current web request
+   * @return ErrorResponse with the job state
+   */
+  @ExceptionHandler(value = BuildJobNotFinishedException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  @ResponseBody
+  public ErrorResponse buildJobNotFinishedException(
+      BuildJobNotFinishedException ex, HandlerMethod handlerMethod, ServletWebRequest request) {
+    return ErrorResponse.builder()
+        .error(HttpStatus.CONFLICT.getReasonPhrase())
+        .message(Objects.requireNonNull(ex.getMessage()))
+        .path(getPath(request))
+        .build();
+  }
+
   /**
    * Handles bad request exceptions from HTTP client operations.
    *
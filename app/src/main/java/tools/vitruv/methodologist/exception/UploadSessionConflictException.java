@@ -0,0 +1,16 @@
+package tools.vitruv.methodologist.exception;
+
+/**
+ * Exception thrown when an upload request does not fit the state or the limits of its upload
+ * session, for example a chunk that does not start at the number of bytes received so far.
+ */
+public class UploadSessionConflictException extends RuntimeException {
+  /**
+   * Constructs a new {@code UploadSessionConflictException} with the given detail message.
+   *
+   * @param message description of the conflict
+   */
+  public UploadSessionConflictException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,229 @@
+package tools.vitruv.methodologist.general.concurrency;
+
+import static tools.vitruv.methodologist.messages.Error.CONCURRENCY_LIMIT_EXCEEDED_ERROR;
+import static tools.vitruv.methodologist.messages.Error.SYSTEM_OVERLOADED_ERROR;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import tools.vitruv.methodologist.exception.ConcurrencyLimitExceededException;
+
+/**
+ * Bounds the number of concurrent requests of one workload by a limit that adapts to how the
+ * workload and the host behave (additive increase, multiplicative decrease).
+ *
+ * <p>Requests beyond the limit are rejected immediately with a {@link
+ * ConcurrencyLimitExceededException} rather than queued, and so are requests arriving while {@code
+ * overloaded} reports the host as overloaded, unless fewer than the minimum limit are running.
+ *
+ * <p>Each completed request adjusts the limit. If it took longer than {@code latencyTolerance}
+ * times the average latency of the workload, or the host is overloaded, the limit is multiplied by
+ * {@code backoffRatio}. Otherwise, while at least half of the limit is in use, it grows by {@code 1
+ * / limit}, which adds 1 once a full limit of requests completed. A request failing with an
+ * exception, e.g. because it timed out or the remote service returned an error, decreases the limit
+ * as well, but its latency is not counted into the average.
+ *
+ * <p>The limit, the requests in flight and the rejections are published as {@code
+ * build.limiter.limit}, {@code build.limiter.in.flight} and {@code build.limiter.rejected}, tagged
+ * with the workload.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+  private static final double LATENCY_SMOOTHING = 0.1;
+  private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+
+  private final String workload;
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final double latencyTolerance;
+  private final Duration maxRetryAfter;
+  private final BooleanSupplier overloaded;
+  private final LongSupplier nanoTime;
+  private final Counter rejectedByLimit;
+  private final Counter rejectedByLoad;
+
+  private double limit;
+  private int inFlight;
+  private double averageLatencyNanos;
+
+  /**
+   * Constructs an AdaptiveConcurrencyLimiter.
+   *
+   * @param workload name of the limited workload, used in messages and metric tags
+   * @param initialLimit the limit before any request completed
+   * @param minLimit the lowest limit; this many requests are admitted regardless of the host load
+   * @param maxLimit the highest limit
+   * @param backoffRatio factor applied to the limit when a request signals overload
+   * @param latencyTolerance multiple of the average latency above which a request signals overload
+   * @param maxRetryAfter upper bound of the retry delay suggested to rejected requests
+   * @param overloaded reports whether the host is overloaded
+   * @param meterRegistry the registry the limiter metrics are published to
+   */
+  public AdaptiveConcurrencyLimiter(
+      String workload,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      double backoffRatio,
+      double latencyTolerance,
+      Duration maxRetryAfter,
+      BooleanSupplier overloaded,
+      MeterRegistry meterRegistry) {
+    this(
+        workload,
+        initialLimit,
+        minLimit,
+        maxLimit,
+        backoffRatio,
+        latencyTolerance,
+        maxRetryAfter,
+        overloaded,
+        meterRegistry,
+        System::nanoTime);
+  }
+
+  AdaptiveConcurrencyLimiter(
+      String workload,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      double backoffRatio,
+      double latencyTolerance,
+      Duration maxRetryAfter,
+      BooleanSupplier overloaded,
+      MeterRegistry meterRegistry,
+      LongSupplier nanoTime) {
+    this.workload = workload;
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+    this.backoffRatio = backoffRatio;
+    this.latencyTolerance = latencyTolerance;
+    this.maxRetryAfter =
+        maxRetryAfter.compareTo(MIN_RETRY_AFTER) < 0 ? MIN_RETRY_AFTER : maxRetryAfter;
+    this.overloaded = overloaded;
+    this.nanoTime = nanoTime;
+    Gauge.builder("build.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Current concurrency limit of the workload")
+        .tag("workload", workload)
+        .register(meterRegistry);
+    Gauge.builder("build.limiter.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+        .description("Requests of the workload currently running")
+        .tag("workload", workload)
+        .register(meterRegistry);
+    this.rejectedByLimit = rejected(meterRegistry, workload, "limit");
+    this.rejectedByLoad = rejected(meterRegistry, workload, "overload");
+  }
+
+  /**
+   * Runs {@code work} if the workload is below its limit and the host is not overloaded.
+   *
+   * @param work the request to run
+   * @param <T> the result type of the request
+   * @return the result of {@code work}
+   * @throws ConcurrencyLimitExceededException if the request is rejected
+   */
+  public <T> T execute(Supplier<T> work) {
+    acquire();
+    long start = nanoTime.getAsLong();
+    boolean completed = false;
+    try {
+      T result = work.get();
+      completed = true;
+      return result;
+    } finally {
+      release(nanoTime.getAsLong() - start, !completed);
+    }
+  }
+
+  /** Returns the current limit, rounded down. */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /** Returns the number of requests currently running. */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  private void acquire() {
+    boolean hostOverloaded = overloaded.getAsBoolean();
+    synchronized (this) {
+      if (inFlight >= (int) limit) {
+        rejectedByLimit.increment();
+        throw new ConcurrencyLimitExceededException(
+            String.format(CONCURRENCY_LIMIT_EXCEEDED_ERROR, workload), retryAfter(), false);
+      }
+      if (hostOverloaded && inFlight >= minLimit) {
+        rejectedByLoad.increment();
+        throw new ConcurrencyLimitExceededException(
+            String.format(SYSTEM_OVERLOADED_ERROR, workload), retryAfter(), true);
+      }
+      inFlight++;
+    }
+  }
+
+  /** Frees the slot of a request, adjusting the limit by its latency and outcome. */
+  private void release(long latencyNanos, boolean failed) {
+    boolean hostOverloaded = overloaded.getAsBoolean();
+    synchronized (this) {
+      int running = inFlight;
+      inFlight--;
+      boolean slow =
+          !failed
+              && averageLatencyNanos > 0
+              && latencyNanos > averageLatencyNanos * latencyTolerance;
+      double previous = limit;
+      if (failed || slow || hostOverloaded) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+      } else if (running * 2 >= limit) {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+      }
+      if (!failed) {
+        averageLatencyNanos =
+            averageLatencyNanos == 0
+                ? latencyNanos
+                : averageLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - averageLatencyNanos);
+      }
+      if ((int) previous != (int) limit) {
+        log.info(
+            "Concurrency limit of {} changed from {} to {} ({})",
+            workload,
+            (int) previous,
+            (int) limit,
+            failed
+                ? "failed request"
+                : slow ? "slow request" : hostOverloaded ? "host overloaded" : "increase");
+      }
+    }
+  }
+
+  /**
+   * Estimates when a slot frees up: with {@code inFlight} requests taking the average latency, one
+   * completes every {@code average / inFlight}.
+   */
+  private Duration retryAfter() {
+    if (averageLatencyNanos == 0) {
+      return MIN_RETRY_AFTER;
+    }
+    Duration estimate = Duration.ofNanos((long) (averageLatencyNanos / Math.max(1, inFlight)));
+    if (estimate.compareTo(MIN_RETRY_AFTER) < 0) {
+      return MIN_RETRY_AFTER;
+    }
+    return estimate.compareTo(maxRetryAfter) > 0 ? maxRetryAfter : estimate;
+  }
+
+  private static Counter rejected(MeterRegistry meterRegistry, String workload, String reason) {
+    return Counter.builder("build.limiter.rejected")
+        .description("Requests rejected by the concurrency limiter")
+        .tag("workload", workload)
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,12 @@
+package tools.vitruv.methodologist.general.concurrency;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration that binds the {@code build.limiter} properties to {@link
+ * ConcurrencyLimiterProperties}.
+ */
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimiterProperties.class)
+public class ConcurrencyLimiterConfig {}
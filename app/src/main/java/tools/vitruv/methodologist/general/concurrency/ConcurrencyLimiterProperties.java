@@ -0,0 +1,29 @@
+package tools.vitruv.methodologist.general.concurrency;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of the adaptive concurrency limiters, bound to the {@code build.limiter}
+ * prefix.
+ *
+ * <p>A {@code maxLimit} of {@code 0} sizes the limit of the local workloads by the CPUs available
+ * to the application, see {@link SystemLoad#effectiveCpus()}. Requests of remote workloads, which
+ * do not load this host, are bounded by {@code remoteMaxLimit} instead.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "build.limiter")
+public class ConcurrencyLimiterProperties {
+  private int initialLimit = 2;
+  private int minLimit = 1;
+  private int maxLimit;
+  private int remoteMaxLimit = 16;
+  private double backoffRatio = 0.9;
+  private double latencyTolerance = 2.0;
+  private double maxCpuLoad = 0.9;
+  private double minFreeMemory = 0.1;
+  private Duration maxRetryAfter = Duration.ofSeconds(60);
+}
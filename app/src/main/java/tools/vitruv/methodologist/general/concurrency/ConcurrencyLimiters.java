@@ -0,0 +1,89 @@
+package tools.vitruv.methodologist.general.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the {@link AdaptiveConcurrencyLimiter} of each build and precheck workload.
+ *
+ * <p>Metamodel builds and Vitruv CLI runs start JVMs on this host, so their limits are capped by
+ * {@link SystemLoad#effectiveCpus()} unless {@code build.limiter.max-limit} is set, and they back
+ * off while the host is overloaded. Setup-service calls run on another host; their limits only
+ * follow their latency and failures and are capped by {@code build.limiter.remote-max-limit}. Each
+ * kind of setup-service call has its own limiter, as a GenModel inspection takes a fraction of the
+ * time of a JAR build; sharing one latency average would make every build look slow.
+ */
+@Component
+public class ConcurrencyLimiters {
+  private final AdaptiveConcurrencyLimiter metamodelBuild;
+  private final AdaptiveConcurrencyLimiter vitruvCli;
+  private final AdaptiveConcurrencyLimiter setupServiceGenModel;
+  private final AdaptiveConcurrencyLimiter setupServiceValidate;
+  private final AdaptiveConcurrencyLimiter setupServiceBuild;
+
+  /**
+   * Constructs the limiters.
+   *
+   * @param properties the limiter configuration
+   * @param systemLoad the load signal of this host
+   * @param meterRegistry the registry the limiter metrics are published to
+   */
+  public ConcurrencyLimiters(
+      ConcurrencyLimiterProperties properties, SystemLoad systemLoad, MeterRegistry meterRegistry) {
+    int localMaxLimit =
+        properties.getMaxLimit() > 0 ? properties.getMaxLimit() : systemLoad.effectiveCpus();
+    this.metamodelBuild =
+        limiter("metamodel-build", properties, localMaxLimit, systemLoad, meterRegistry);
+    this.vitruvCli = limiter("vitruv-cli", properties, localMaxLimit, systemLoad, meterRegistry);
+    int remoteMaxLimit = properties.getRemoteMaxLimit();
+    this.setupServiceGenModel =
+        limiter("setup-service-genmodel", properties, remoteMaxLimit, null, meterRegistry);
+    this.setupServiceValidate =
+        limiter("setup-service-validate", properties, remoteMaxLimit, null, meterRegistry);
+    this.setupServiceBuild =
+        limiter("setup-service-build", properties, remoteMaxLimit, null, meterRegistry);
+  }
+
+  /** Returns the limiter of metamodel builds. */
+  public AdaptiveConcurrencyLimiter metamodelBuild() {
+    return metamodelBuild;
+  }
+
+  /** Returns the limiter of Vitruv CLI builds and GenModel prechecks. */
+  public AdaptiveConcurrencyLimiter vitruvCli() {
+    return vitruvCli;
+  }
+
+  /** Returns the limiter of GenModel inspections and processing by the setup-service. */
+  public AdaptiveConcurrencyLimiter setupServiceGenModel() {
+    return setupServiceGenModel;
+  }
+
+  /** Returns the limiter of VSUM validations by the setup-service. */
+  public AdaptiveConcurrencyLimiter setupServiceValidate() {
+    return setupServiceValidate;
+  }
+
+  /** Returns the limiter of VSUM JAR builds by the setup-service. */
+  public AdaptiveConcurrencyLimiter setupServiceBuild() {
+    return setupServiceBuild;
+  }
+
+  private static AdaptiveConcurrencyLimiter limiter(
+      String workload,
+      ConcurrencyLimiterProperties properties,
+      int maxLimit,
+      SystemLoad systemLoad,
+      MeterRegistry meterRegistry) {
+    return new AdaptiveConcurrencyLimiter(
+        workload,
+        properties.getInitialLimit(),
+        properties.getMinLimit(),
+        maxLimit,
+        properties.getBackoffRatio(),
+        properties.getLatencyTolerance(),
+        properties.getMaxRetryAfter(),
+        systemLoad == null ? () -> false : systemLoad::isOverloaded,
+        meterRegistry);
+  }
+}
@@ -0,0 +1,191 @@
+package tools.vitruv.methodologist.general.concurrency;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports whether the host is too loaded to start another build.
+ *
+ * <p>The host counts as overloaded while the CPU load of the application's container or machine, as
+ * reported by the {@link com.sun.management.OperatingSystemMXBean}, exceeds {@code
+ * build.limiter.max-cpu-load}, or while the share of available memory drops below {@code
+ * build.limiter.min-free-memory}. Available memory is read from {@code MemAvailable} in {@code
+ * /proc/meminfo} where it exists, since the free memory reported by the JVM excludes the page cache
+ * and would report a healthy host as full. Both are sampled at most once per second.
+ *
+ * <p>{@link #effectiveCpus()} is the CPU quota of the application's cgroup, if it has one, and the
+ * number of processors otherwise.
+ */
+@Component
+@Slf4j
+public class SystemLoad {
+  private static final Duration SAMPLE_INTERVAL = Duration.ofSeconds(1);
+  private static final Path CGROUP_ROOT = Path.of("/sys/fs/cgroup");
+  private static final Path MEMINFO = Path.of("/proc/meminfo");
+
+  private final double maxCpuLoad;
+  private final double minFreeMemory;
+  private final int effectiveCpus;
+  private final com.sun.management.OperatingSystemMXBean os;
+  private volatile Sample last;
+
+  /**
+   * Constructs a SystemLoad.
+   *
+   * @param properties the limiter configuration holding the load thresholds
+   */
+  @Autowired
+  public SystemLoad(ConcurrencyLimiterProperties properties) {
+    this(
+        properties.getMaxCpuLoad(),
+        properties.getMinFreeMemory(),
+        effectiveCpus(CGROUP_ROOT, Runtime.getRuntime().availableProcessors()));
+  }
+
+  SystemLoad(double maxCpuLoad, double minFreeMemory, int effectiveCpus) {
+    this.maxCpuLoad = maxCpuLoad;
+    this.minFreeMemory = minFreeMemory;
+    this.effectiveCpus = effectiveCpus;
+    this.os =
+        ManagementFactory.getOperatingSystemMXBean()
+                instanceof com.sun.management.OperatingSystemMXBean bean
+            ? bean
+            : null;
+    log.info("Sizing local build limits for {} CPUs", effectiveCpus);
+  }
+
+  /** Returns the number of CPUs the application may use, at least 1. */
+  public int effectiveCpus() {
+    return effectiveCpus;
+  }
+
+  /** Returns whether the CPU load or the memory usage of the host exceeds its threshold. */
+  public boolean isOverloaded() {
+    Sample sample = sample();
+    return sample.cpuLoad() > maxCpuLoad || sample.freeMemory() < minFreeMemory;
+  }
+
+  private Sample sample() {
+    Sample sample = last;
+    long now = System.nanoTime();
+    if (sample == null || now - sample.takenAt() > SAMPLE_INTERVAL.toNanos()) {
+      sample = new Sample(now, cpuLoad(), freeMemory());
+      last = sample;
+    }
+    return sample;
+  }
+
+  private double cpuLoad() {
+    if (os == null) {
+      return 0;
+    }
+    double load = os.getCpuLoad();
+    return load < 0 ? 0 : load;
+  }
+
+  private double freeMemory() {
+    OptionalDouble available = availableMemoryShare(MEMINFO);
+    if (available.isPresent()) {
+      return available.getAsDouble();
+    }
+    if (os == null || os.getTotalMemorySize() <= 0) {
+      return 1;
+    }
+    return (double) os.getFreeMemorySize() / os.getTotalMemorySize();
+  }
+
+  /**
+   * Returns the CPU quota of the cgroup mounted at {@code cgroupRoot}, rounded up, or {@code
+   * processors} if there is none or it is larger.
+   */
+  static int effectiveCpus(Path cgroupRoot, int processors) {
+    OptionalDouble quota = cgroupCpuQuota(cgroupRoot);
+    if (quota.isEmpty()) {
+      return Math.max(1, processors);
+    }
+    return Math.max(1, Math.min(processors, (int) Math.ceil(quota.getAsDouble())));
+  }
+
+  /**
+   * Reads the CPU quota, in CPUs, from {@code cpu.max} of cgroup v2 or from {@code
+   * cpu.cfs_quota_us} and {@code cpu.cfs_period_us} of cgroup v1.
+   */
+  static OptionalDouble cgroupCpuQuota(Path cgroupRoot) {
+    List<String> v2 = readWords(cgroupRoot.resolve("cpu.max"));
+    if (v2.size() == 2) {
+      return quota(parse(v2.get(0)), parse(v2.get(1)));
+    }
+    for (String controller : List.of("cpu", "cpu,cpuacct")) {
+      Path dir = cgroupRoot.resolve(controller);
+      List<String> quota = readWords(dir.resolve("cpu.cfs_quota_us"));
+      List<String> period = readWords(dir.resolve("cpu.cfs_period_us"));
+      if (quota.size() == 1 && period.size() == 1) {
+        return quota(parse(quota.get(0)), parse(period.get(0)));
+      }
+    }
+    return OptionalDouble.empty();
+  }
+
+  /** Reads the share of {@code MemAvailable} in {@code MemTotal} from a meminfo file. */
+  static OptionalDouble availableMemoryShare(Path meminfo) {
+    if (!Files.isReadable(meminfo)) {
+      return OptionalDouble.empty();
+    }
+    try {
+      long total = -1;
+      long available = -1;
+      for (String line : Files.readAllLines(meminfo)) {
+        String[] words = line.trim().split("\\s+");
+        if (words.length >= 2 && words[0].equals("MemTotal:")) {
+          total = Long.parseLong(words[1]);
+        } else if (words.length >= 2 && words[0].equals("MemAvailable:")) {
+          available = Long.parseLong(words[1]);
+        }
+      }
+      return total > 0 && available >= 0
+          ? OptionalDouble.of((double) available / total)
+          : OptionalDouble.empty();
+    } catch (IOException | NumberFormatException e) {
+      log.debug("Cannot read {}: {}", meminfo, e.getMessage());
+      return OptionalDouble.empty();
+    }
+  }
+
+  private static OptionalDouble quota(OptionalLong quota, OptionalLong period) {
+    if (quota.isEmpty() || period.isEmpty() || quota.getAsLong() <= 0 || period.getAsLong() <= 0) {
+      return OptionalDouble.empty();
+    }
+    return OptionalDouble.of((double) quota.getAsLong() / period.getAsLong());
+  }
+
+  private static OptionalLong parse(String word) {
+    try {
+      return OptionalLong.of(Long.parseLong(word));
+    } catch (NumberFormatException e) {
+      return OptionalLong.empty();
+    }
+  }
+
+  private static List<String> readWords(Path file) {
+    if (!Files.isReadable(file)) {
+      return List.of();
+    }
+    try {
+      String content = Files.readString(file).trim();
+      return content.isEmpty() ? List.of() : List.of(content.split("\\s+"));
+    } catch (IOException e) {
+      return List.of();
+    }
+  }
+
+  private record Sample(long takenAt, double cpuLoad, double freeMemory) {}
+}
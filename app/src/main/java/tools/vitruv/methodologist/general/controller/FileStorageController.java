@@ -1,25 +1,35 @@
 package tools.vitruv.methodologist.general.controller;
 
+import static tools.vitruv.methodologist.messages.Message.FILES_UPLOADED_SUCCESSFULLY;
 import static tools.vitruv.methodologist.messages.Message.FILE_REMOVED_SUCCESSFULLY;
 import static tools.vitruv.methodologist.messages.Message.FILE_UPLOADED_SUCCESSFULLY;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
-import org.springframework.core.io.ByteArrayResource;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tools.vitruv.methodologist.ResponseTemplateDto;
 import tools.vitruv.methodologist.config.KeycloakAuthentication;
 import tools.vitruv.methodologist.general.FileEnumType;
@@ -35,15 +45,25 @@ import tools.vitruv.methodologist.general.service.FileStorageService;
 @RequestMapping("/api/")
 @Validated
 public class FileStorageController {
+  private static final String GZIP = "gzip";
+  private static final int GZIP_BUFFER_SIZE = 8192;
+  private static final Set<FileEnumType> GZIP_TYPES =
+      EnumSet.of(FileEnumType.ECORE, FileEnumType.GEN_MODEL, FileEnumType.REACTION);
+
   private final FileStorageService fileStorageService;
+  private final long gzipMinSizeBytes;
 
   /**
    * Constructs a new FileStorageController with the specified service.
    *
    * @param fileStorageService the service for file storage operations
+   * @param gzipMinSize minimum content size for which downloads are gzip-encoded
    */
-  public FileStorageController(FileStorageService fileStorageService) {
+  public FileStorageController(
+      FileStorageService fileStorageService,
+      @Value("${storage.download.gzip-min-size:1KB}") DataSize gzipMinSize) {
     this.fileStorageService = fileStorageService;
+    this.gzipMinSizeBytes = gzipMinSize.toBytes();
   }
 
   /**
@@ -78,6 +98,43 @@ public class FileStorageController {
         .build();
   }
 
+  /**
+   * Uploads several files to the server in one request. Either all files are stored or none.
+   *
+   * @param authentication the Keycloak authentication object containing user details
+   * @param files the multipart files to upload
+   * @param types the type of each file, in the order of {@code files}
+   * @return ResponseTemplateDto containing the stored files' IDs in the order of {@code files}
+   * @throws Exception if file upload fails
+   */
+  @Operation(
+      summary = "Upload several files",
+      description = "Upload several files to the server in one request")
+  @PostMapping(
+      value = "/upload/batch",
+      consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @PreAuthorize("hasRole('user')")
+  public ResponseTemplateDto<List<FileStorageResponse>> uploadBatch(
+      KeycloakAuthentication authentication,
+      @Parameter(
+              description = "Files to upload",
+              content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA_VALUE))
+          @RequestParam("files")
+          List<MultipartFile> files,
+      @Parameter(description = "Type of each file, in the order of the files")
+          @RequestParam("types")
+          List<FileEnumType> types)
+      throws Exception {
+    String email = authentication.getParsedToken().getEmail();
+    List<FileStorageResponse> response = fileStorageService.storeFiles(email, files, types);
+
+    return ResponseTemplateDto.<List<FileStorageResponse>>builder()
+        .data(response)
+        .message(FILES_UPLOADED_SUCCESSFULLY)
+        .build();
+  }
+
   /**
    * Updates an existing stored file by overwriting its contents with a newly uploaded file.
    *
@@ -119,21 +176,80 @@ public class FileStorageController {
   /**
    * Downloads a file from the server.
    *
+   * <p>The content is streamed from storage, so the memory used per download does not depend on the
+   * file size. A single byte range requested via {@code Range} is answered with 206 Partial
+   * Content, honouring {@code If-Range}, and an unsatisfiable range with 416. Full downloads of
+   * ecore, genmodel and reaction files are gzip-encoded when the client accepts it. The SHA-256 of
+   * the content serves as entity tag. The body is read under the storage key the headers were
+   * computed from, so both describe the same content even if the file is overwritten meanwhile.
+   *
    * @param id the ID of the file to download
-   * @return ResponseEntity containing the file as a ByteArrayResource
+   * @param requestHeaders the request headers
+   * @return ResponseEntity streaming the requested content
    */
   @GetMapping(value = "/files/{id}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
   @PreAuthorize("hasRole('user')")
-  public ResponseEntity<ByteArrayResource> download(@PathVariable Long id) {
+  public ResponseEntity<StreamingResponseBody> download(
+      @PathVariable Long id, @RequestHeader HttpHeaders requestHeaders) {
     FileStorage f = fileStorageService.getFile(id);
-    byte[] bytes = f.getData();
+    long size = f.getSizeBytes();
+    String etag = "\"" + f.getSha256() + "\"";
+    boolean compressible = GZIP_TYPES.contains(f.getType());
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(
+        MediaType.parseMediaType(
+            f.getContentType() == null ? "application/octet-stream" : f.getContentType()));
+    headers.set(
+        HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + f.getFilename() + "\"");
+    headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+    if (compressible) {
+      headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    if (matchesAny(requestHeaders.getIfNoneMatch(), etag)) {
+      headers.setETag(etag);
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+    }
+
+    HttpRange range = requestedRange(requestHeaders, etag);
+    if (range != null) {
+      headers.setETag(etag);
+      long start = range.getRangeStart(size);
+      long end = range.getRangeEnd(size);
+      if (start >= size) {
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .headers(headers)
+            .build();
+      }
+      long length = end - start + 1;
+      headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+      headers.setContentLength(length);
+      return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+          .headers(headers)
+          .body(out -> fileStorageService.streamContent(f, start, length, out));
+    }
+
+    if (compressible && size >= gzipMinSizeBytes && acceptsGzip(requestHeaders)) {
+      // the encoded representation is not byte-identical, so only a weak validator applies
+      headers.setETag("W/" + etag);
+      headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+      return ResponseEntity.ok()
+          .headers(headers)
+          .body(
+              out -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                fileStorageService.streamContent(f, 0, size, gzip);
+                gzip.finish();
+              });
+    }
+
+    headers.setETag(etag);
+    headers.setContentLength(size);
     return ResponseEntity.ok()
-        .contentType(
-            MediaType.parseMediaType(
-                f.getContentType() == null ? "application/octet-stream" : f.getContentType()))
-        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + f.getFilename() + "\"")
-        .contentLength(bytes == null ? 0 : bytes.length)
-        .body(new ByteArrayResource(bytes));
+        .headers(headers)
+        .body(out -> fileStorageService.streamContent(f, 0, size, out));
   }
 
   /**
@@ -151,4 +267,59 @@ public class FileStorageController {
     fileStorageService.remove(callerEmail, id);
     return ResponseTemplateDto.<Void>builder().message(FILE_REMOVED_SUCCESSFULLY).build();
   }
+
+  private static boolean matchesAny(List<String> entityTags, String etag) {
+    for (String candidate : entityTags) {
+      String opaque = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+      if ("*".equals(opaque) || etag.equals(opaque)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the single byte range to serve, or {@code null} if the full content is to be sent. The
+   * range is ignored when it is malformed, lists several ranges or {@code If-Range} does not match
+   * the current entity tag.
+   */
+  private static HttpRange requestedRange(HttpHeaders requestHeaders, String etag) {
+    String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+    if (rangeHeader == null) {
+      return null;
+    }
+    String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+    if (ifRange != null && !ifRange.equals(etag)) {
+      return null;
+    }
+    try {
+      List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+      return ranges.size() == 1 ? ranges.get(0) : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static boolean acceptsGzip(HttpHeaders requestHeaders) {
+    for (String acceptEncoding : requestHeaders.getValuesAsList(HttpHeaders.ACCEPT_ENCODING)) {
+      String[] parts = acceptEncoding.split(";");
+      String coding = parts[0].trim();
+      if (GZIP.equalsIgnoreCase(coding) || "*".equals(coding)) {
+        return parts.length < 2 || !isZeroQuality(parts[1]);
+      }
+    }
+    return false;
+  }
+
+  private static boolean isZeroQuality(String parameter) {
+    String trimmed = parameter.trim();
+    if (!trimmed.startsWith("q=")) {
+      return false;
+    }
+    try {
+      return Double.parseDouble(trimmed.substring(2)) == 0;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
 }
@@ -0,0 +1,148 @@
+package tools.vitruv.methodologist.general.controller;
+
+import static tools.vitruv.methodologist.messages.Message.FILE_UPLOADED_SUCCESSFULLY;
+import static tools.vitruv.methodologist.messages.Message.UPLOAD_CHUNK_RECEIVED_SUCCESSFULLY;
+import static tools.vitruv.methodologist.messages.Message.UPLOAD_SESSION_ABORTED_SUCCESSFULLY;
+import static tools.vitruv.methodologist.messages.Message.UPLOAD_SESSION_CREATED_SUCCESSFULLY;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import java.io.InputStream;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tools.vitruv.methodologist.ResponseTemplateDto;
+import tools.vitruv.methodologist.config.KeycloakAuthentication;
+import tools.vitruv.methodologist.general.controller.requestdto.UploadSessionPostRequest;
+import tools.vitruv.methodologist.general.controller.responsedto.FileStorageResponse;
+import tools.vitruv.methodologist.general.controller.responsedto.UploadSessionResponse;
+import tools.vitruv.methodologist.general.service.UploadSessionService;
+
+/**
+ * REST controller for resumable uploads. A file is announced, sent in chunks of raw bytes and
+ * completed; an interrupted upload continues at the offset reported by the session.
+ */
+@RestController
+@RequestMapping("/api/")
+@Validated
+public class UploadSessionController {
+  private final UploadSessionService uploadSessionService;
+
+  /**
+   * Constructs a new UploadSessionController with the specified service.
+   *
+   * @param uploadSessionService the service for resumable uploads
+   */
+  public UploadSessionController(UploadSessionService uploadSessionService) {
+    this.uploadSessionService = uploadSessionService;
+  }
+
+  /**
+   * Starts a resumable upload.
+   *
+   * @param authentication the Keycloak authentication object containing user details
+   * @param request description of the file to upload
+   * @return ResponseTemplateDto containing the new session
+   */
+  @Operation(
+      summary = "Start a resumable upload",
+      description = "Announce a file that is going to be uploaded in chunks")
+  @PostMapping("/v1/upload-sessions")
+  @PreAuthorize("hasRole('user')")
+  public ResponseTemplateDto<UploadSessionResponse> create(
+      KeycloakAuthentication authentication, @Valid @RequestBody UploadSessionPostRequest request) {
+    String email = authentication.getParsedToken().getEmail();
+    return ResponseTemplateDto.<UploadSessionResponse>builder()
+        .data(uploadSessionService.create(email, request))
+        .message(UPLOAD_SESSION_CREATED_SUCCESSFULLY)
+        .build();
+  }
+
+  /**
+   * Returns the state of a resumable upload.
+   *
+   * @param authentication the Keycloak authentication object containing user details
+   * @param uploadId the session identifier
+   * @return ResponseTemplateDto containing the session state
+   */
+  @GetMapping("/v1/upload-sessions/{uploadId}")
+  @PreAuthorize("hasRole('user')")
+  public ResponseTemplateDto<UploadSessionResponse> status(
+      KeycloakAuthentication authentication, @PathVariable String uploadId) {
+    String email = authentication.getParsedToken().getEmail();
+    return ResponseTemplateDto.<UploadSessionResponse>builder()
+        .data(uploadSessionService.status(email, uploadId))
+        .build();
+  }
+
+  /**
+   * Uploads one chunk of a resumable upload.
+   *
+   * @param authentication the Keycloak authentication object containing user details
+   * @param uploadId the session identifier
+   * @param offset position of the first chunk byte within the file
+   * @param chunk the raw chunk bytes
+   * @return ResponseTemplateDto containing the session state after the chunk
+   */
+  @Operation(
+      summary = "Upload a chunk",
+      description = "Write raw bytes at the given offset of a resumable upload")
+  @PutMapping(
+      value = "/v1/upload-sessions/{uploadId}",
+      consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  @PreAuthorize("hasRole('user')")
+  public ResponseTemplateDto<UploadSessionResponse> writeChunk(
+      KeycloakAuthentication authentication,
+      @PathVariable String uploadId,
+      @RequestParam long offset,
+      InputStream chunk) {
+    String email = authentication.getParsedToken().getEmail();
+    return ResponseTemplateDto.<UploadSessionResponse>builder()
+        .data(uploadSessionService.writeChunk(email, uploadId, offset, chunk))
+        .message(UPLOAD_CHUNK_RECEIVED_SUCCESSFULLY)
+        .build();
+  }
+
+  /**
+   * Completes a resumable upload and stores the file.
+   *
+   * @param authentication the Keycloak authentication object containing user details
+   * @param uploadId the session identifier
+   * @return ResponseTemplateDto containing the stored file's ID
+   */
+  @PostMapping("/v1/upload-sessions/{uploadId}/complete")
+  @PreAuthorize("hasRole('user')")
+  public ResponseTemplateDto<FileStorageResponse> complete(
+      KeycloakAuthentication authentication, @PathVariable String uploadId) {
+    String email = authentication.getParsedToken().getEmail();
+    return ResponseTemplateDto.<FileStorageResponse>builder()
+        .data(uploadSessionService.complete(email, uploadId))
+        .message(FILE_UPLOADED_SUCCESSFULLY)
+        .build();
+  }
+
+  /**
+   * Cancels a resumable upload.
+   *
+   * @param authentication the Keycloak authentication object containing user details
+   * @param uploadId the session identifier
+   * @return response indicating the upload was cancelled
+   */
+  @DeleteMapping("/v1/upload-sessions/{uploadId}")
+  @PreAuthorize("hasRole('user')")
+  public ResponseTemplateDto<Void> abort(
+      KeycloakAuthentication authentication, @PathVariable String uploadId) {
+    String email = authentication.getParsedToken().getEmail();
+    uploadSessionService.abort(email, uploadId);
+    return ResponseTemplateDto.<Void>builder().message(UPLOAD_SESSION_ABORTED_SUCCESSFULLY).build();
+  }
+}
@@ -0,0 +1,27 @@
+package tools.vitruv.methodologist.general.controller.requestdto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tools.vitruv.methodologist.general.FileEnumType;
+
+/**
+ * Request DTO for starting a resumable upload. Describes the file that is going to be sent in
+ * chunks.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionPostRequest {
+  @NotNull @NotBlank private String filename;
+  private String contentType;
+  @NotNull private FileEnumType type;
+  @NotNull @Positive private Long size;
+}
@@ -0,0 +1,25 @@
+package tools.vitruv.methodologist.general.controller.responsedto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Response DTO describing the state of a resumable upload. The next chunk has to start at {@code
+ * receivedBytes} and must not be larger than {@code chunkSize}.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+  private String uploadId;
+  private long size;
+  private long receivedBytes;
+  private long chunkSize;
+  private Instant expiresAt;
+}
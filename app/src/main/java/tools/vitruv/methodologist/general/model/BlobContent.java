@@ -0,0 +1,47 @@
+package tools.vitruv.methodologist.general.model;
+
+import jakarta.persistence.Basic;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.validation.constraints.NotNull;
+import java.sql.Blob;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * Entity class representing file content kept in the database by {@link
+ * tools.vitruv.methodologist.general.storage.DatabaseBlobStore}. Each row holds one large object
+ * addressed by its content key.
+ */
+@Data
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlobContent {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @NotNull
+  @Column(unique = true)
+  private String storageKey;
+
+  @Lob
+  @Basic(fetch = FetchType.LAZY)
+  @NotNull
+  private Blob data;
+
+  @NotNull private long sizeBytes;
+
+  @CreationTimestamp private Instant createdAt;
+}
@@ -0,0 +1,56 @@
+package tools.vitruv.methodologist.general.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import tools.vitruv.methodologist.general.storage.ContentCodec;
+
+/**
+ * Entity class representing one unique file content, identified by its SHA-256, size and storage
+ * codec, across the whole installation. Every {@link FileStorage} refers to exactly one content
+ * through its storage key; {@link #refCount} counts those references so unreferenced content can be
+ * reclaimed by {@link tools.vitruv.methodologist.general.service.FileContentService}.
+ */
+@Data
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileContent {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /** Key of the content in the {@link tools.vitruv.methodologist.general.storage.BlobStore}. */
+  @NotNull
+  @Column(unique = true)
+  private String storageKey;
+
+  @NotNull private String sha256;
+
+  @NotNull private long sizeBytes;
+
+  @NotNull
+  @Enumerated(EnumType.STRING)
+  private ContentCodec codec;
+
+  @NotNull private long storedSizeBytes;
+
+  @NotNull private long refCount;
+
+  /** When the content was found unreferenced; {@code null} while it is in use. */
+  private Instant markedAt;
+
+  @CreationTimestamp private Instant createdAt;
+}
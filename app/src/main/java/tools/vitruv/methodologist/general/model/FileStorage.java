@@ -1,6 +1,5 @@
 package tools.vitruv.methodologist.general.model;
 
-import jakarta.persistence.Basic;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -9,8 +8,8 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
 import lombok.AllArgsConstructor;
@@ -19,11 +18,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import tools.vitruv.methodologist.general.FileEnumType;
+import tools.vitruv.methodologist.general.storage.ContentCodec;
 import tools.vitruv.methodologist.user.model.User;
 
 /**
- * Entity class representing a file stored in the database. Contains metadata and binary content of
- * uploaded files.
+ * Entity class representing a file stored in the database. Contains the metadata of uploaded files;
+ * their content is kept in the {@link tools.vitruv.methodologist.general.storage.BlobStore} under
+ * {@link #storageKey}. Loading a file, or an entity referring to one, therefore never reads the
+ * content; it is only read through {@link
+ * tools.vitruv.methodologist.general.service.FileStorageService}.
  */
 @Data
 @Builder
@@ -32,7 +35,8 @@ import tools.vitruv.methodologist.user.model.User;
 @AllArgsConstructor
 public class FileStorage {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "file_storage_seq")
+  @SequenceGenerator(name = "file_storage_seq", allocationSize = 50)
   private Long id;
 
   @NotNull private String filename;
@@ -47,10 +51,17 @@ public class FileStorage {
 
   @NotNull private String sha256;
 
-  @Lob
-  @Basic(fetch = FetchType.LAZY)
+  /** Key of the content in the {@link tools.vitruv.methodologist.general.storage.BlobStore}. */
+  @NotNull private String storageKey;
+
+  /** Encoding of the content in the store; {@link #sizeBytes} and {@link #sha256} are unencoded. */
   @NotNull
-  private byte[] data;
+  @Enumerated(EnumType.STRING)
+  @Builder.Default
+  private ContentCodec codec = ContentCodec.NONE;
+
+  /** Size of the encoded content in the store. */
+  @NotNull private long storedSizeBytes;
 
   @NotNull
   @ManyToOne(fetch = FetchType.LAZY)
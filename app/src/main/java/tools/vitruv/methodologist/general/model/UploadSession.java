@@ -0,0 +1,65 @@
+package tools.vitruv.methodologist.general.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import tools.vitruv.methodologist.general.FileEnumType;
+import tools.vitruv.methodologist.user.model.User;
+
+/**
+ * Entity class representing a resumable upload in progress. The client sends the file in chunks;
+ * {@link #receivedBytes} is the offset at which the next chunk has to start. The chunks are
+ * assembled in a file on the server until the upload is completed and stored as {@link
+ * FileStorage}.
+ */
+@Data
+@Builder
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /** Public identifier of the session, used in the upload URLs. */
+  @NotNull
+  @Column(unique = true)
+  private String uploadId;
+
+  @NotNull
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "user_id")
+  private User user;
+
+  @NotNull private String filename;
+
+  @NotNull private String contentType;
+
+  @NotNull
+  @Enumerated(EnumType.STRING)
+  private FileEnumType type;
+
+  /** Size of the complete file as announced by the client. */
+  @NotNull private long totalSize;
+
+  @NotNull private long receivedBytes;
+
+  @CreationTimestamp private Instant createdAt;
+
+  @NotNull private Instant expiresAt;
+}
@@ -0,0 +1,91 @@
+package tools.vitruv.methodologist.general.model.repository;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import tools.vitruv.methodologist.general.model.BlobContent;
+
+/**
+ * Spring Data repository for {@link BlobContent} entities, the file content kept in the database.
+ */
+public interface BlobContentRepository extends CrudRepository<BlobContent, Long> {
+
+  /**
+   * Finds the content stored under the given key.
+   *
+   * @param storageKey the content key
+   * @return the content, if present
+   */
+  Optional<BlobContent> findByStorageKey(String storageKey);
+
+  /**
+   * Checks whether content is stored under the given key.
+   *
+   * @param storageKey the content key
+   * @return {@code true} if the content exists
+   */
+  boolean existsByStorageKey(String storageKey);
+
+  /**
+   * Returns the size of the content stored under the given key.
+   *
+   * @param storageKey the content key
+   * @return the content size in bytes, if the content exists
+   */
+  @Query("SELECT b.sizeBytes FROM BlobContent b WHERE b.storageKey = :storageKey")
+  Optional<Long> findSizeBytesByStorageKey(@Param("storageKey") String storageKey);
+
+  /**
+   * Deletes the row of the content stored under the given key. The large object holding the content
+   * is unlinked by the {@code trg_blob_content_unlink_data} trigger.
+   *
+   * @param storageKey the content key
+   */
+  @Modifying
+  @Query("DELETE FROM BlobContent b WHERE b.storageKey = :storageKey")
+  void deleteByStorageKey(@Param("storageKey") String storageKey);
+
+  /**
+   * Returns content keys in ascending order.
+   *
+   * @param pageable the page of keys to return
+   * @return the content keys of the requested page
+   */
+  @Query("SELECT b.storageKey FROM BlobContent b ORDER BY b.storageKey")
+  List<String> findStorageKeys(Pageable pageable);
+
+  /**
+   * Tries to take the transaction-scoped advisory lock with the given key.
+   *
+   * @param key the lock key
+   * @return {@code true} if the lock was taken; it is released when the transaction ends
+   */
+  @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+  boolean tryAdvisoryLock(@Param("key") long key);
+
+  /**
+   * Unlinks up to {@code batchSize} large objects of the current database user that no {@code
+   * blob_content} row refers to. Large objects created by transactions that have not committed yet
+   * are invisible to the query and therefore never touched.
+   *
+   * @param batchSize maximum number of large objects to unlink
+   * @return the size in bytes of every unlinked large object
+   */
+  @Query(
+      value =
+          """
+          WITH orphan AS (SELECT m.oid, lo_lseek64(lo_open(m.oid, 262144), 0, 2) AS size_bytes
+                          FROM pg_largeobject_metadata m
+                          WHERE m.lomowner = (SELECT r.oid FROM pg_roles r WHERE r.rolname = current_user)
+                            AND NOT EXISTS (SELECT 1 FROM blob_content b WHERE b.data = m.oid)
+                          ORDER BY m.oid
+                          LIMIT :batchSize)
+          SELECT size_bytes FROM orphan WHERE lo_unlink(oid) = 1
+          """,
+      nativeQuery = true)
+  List<Long> unlinkOrphanedLargeObjects(@Param("batchSize") int batchSize);
+}
@@ -0,0 +1,165 @@
+package tools.vitruv.methodologist.general.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import tools.vitruv.methodologist.general.model.FileContent;
+
+/**
+ * Spring Data repository for {@link FileContent} entities, the reference-counted registry of unique
+ * file contents.
+ */
+public interface FileContentRepository extends CrudRepository<FileContent, Long> {
+
+  /**
+   * Finds the content registered under the given key.
+   *
+   * @param storageKey the content key
+   * @return the content, if present
+   */
+  Optional<FileContent> findByStorageKey(String storageKey);
+
+  /**
+   * Adds a reference to the content with the given key, registering the content on first use. A
+   * pending garbage collection mark is cleared.
+   *
+   * <p>The upsert locks the row until the surrounding transaction ends, so the content cannot be
+   * collected while the referencing file is being written. A row registered by {@link
+   * #registerUnknown(String)} takes over the description of the content.
+   *
+   * @param storageKey the content key
+   * @param sha256 the SHA-256 of the content
+   * @param sizeBytes the size of the content
+   * @param codec the name of the codec the content is stored with
+   * @param storedSizeBytes the size of the encoded content
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO file_content (storage_key, sha256, size_bytes, codec, stored_size_bytes, ref_count)
+          VALUES (:storageKey, :sha256, :sizeBytes, :codec, :storedSizeBytes, 1)
+          ON CONFLICT (storage_key)
+              DO UPDATE SET ref_count = file_content.ref_count + 1, marked_at = NULL,
+                  sha256 = CASE WHEN file_content.size_bytes < 0
+                      THEN EXCLUDED.sha256 ELSE file_content.sha256 END,
+                  codec = CASE WHEN file_content.size_bytes < 0
+                      THEN EXCLUDED.codec ELSE file_content.codec END,
+                  stored_size_bytes = CASE WHEN file_content.size_bytes < 0
+                      THEN EXCLUDED.stored_size_bytes ELSE file_content.stored_size_bytes END,
+                  size_bytes = CASE WHEN file_content.size_bytes < 0
+                      THEN EXCLUDED.size_bytes ELSE file_content.size_bytes END
+          """,
+      nativeQuery = true)
+  void acquire(
+      @Param("storageKey") String storageKey,
+      @Param("sha256") String sha256,
+      @Param("sizeBytes") long sizeBytes,
+      @Param("codec") String codec,
+      @Param("storedSizeBytes") long storedSizeBytes);
+
+  /**
+   * Returns those of the given keys that are registered.
+   *
+   * @param storageKeys the content keys to look up
+   * @return the registered keys
+   */
+  @Query("SELECT c.storageKey FROM FileContent c WHERE c.storageKey IN (:storageKeys)")
+  List<String> findStorageKeysIn(@Param("storageKeys") Collection<String> storageKeys);
+
+  /**
+   * Registers content found in the blob store without a row, e.g. because the upload writing it
+   * rolled back, as unreferenced and marked, so the garbage collection deletes it after the grace
+   * period. Its description is unknown and recorded as a negative size.
+   *
+   * <p>If an upload of the same content has registered it but not committed yet, the insert waits
+   * for that upload and then does nothing, so content in use is never registered as unreferenced.
+   *
+   * @param storageKey the content key
+   * @return {@code 1} if the content was registered, {@code 0} if it already was
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO file_content
+              (storage_key, sha256, size_bytes, codec, stored_size_bytes, ref_count, marked_at)
+          VALUES (:storageKey, :storageKey, -1, 'NONE', -1, 0, (now() AT TIME ZONE 'utc'))
+          ON CONFLICT DO NOTHING
+          """,
+      nativeQuery = true)
+  int registerUnknown(@Param("storageKey") String storageKey);
+
+  /**
+   * Removes a reference from the content with the given key.
+   *
+   * @param storageKey the content key
+   * @return the number of updated rows; {@code 0} if the content is unknown or unreferenced
+   */
+  @Modifying
+  @Query(
+      "UPDATE FileContent c SET c.refCount = c.refCount - 1"
+          + " WHERE c.storageKey = :storageKey AND c.refCount > 0")
+  int release(@Param("storageKey") String storageKey);
+
+  /**
+   * Returns content ids greater than {@code afterId} in ascending order.
+   *
+   * @param afterId the last id of the previous page
+   * @param pageable the page size
+   * @return the ids of the requested page
+   */
+  @Query("SELECT c.id FROM FileContent c WHERE c.id > :afterId ORDER BY c.id")
+  List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+  /**
+   * Marks those of the given contents that no file refers to anymore. Already marked contents keep
+   * their mark, so the grace period counts from the first time the content was found unreferenced.
+   *
+   * <p>Besides the reference count, the file table itself is checked, which also catches files
+   * removed without going through the file storage service.
+   *
+   * @param ids the contents to check
+   * @return the number of newly marked contents
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE file_content c
+          SET marked_at = (now() AT TIME ZONE 'utc')
+          WHERE c.id IN (:ids)
+            AND c.marked_at IS NULL
+            AND (c.ref_count <= 0
+              OR NOT EXISTS (SELECT 1 FROM file_storage fs WHERE fs.storage_key = c.storage_key))
+          """,
+      nativeQuery = true)
+  int markUnreferenced(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Locks up to {@code batchSize} contents that have been marked for longer than the grace period
+   * and are still unreferenced. Rows locked by concurrent uploads are skipped.
+   *
+   * @param graceSeconds minimum age of the mark in seconds
+   * @param batchSize maximum number of contents to return
+   * @return the locked contents
+   */
+  @Query(
+      value =
+          """
+          SELECT * FROM file_content c
+          WHERE c.marked_at < (now() AT TIME ZONE 'utc') - :graceSeconds * INTERVAL '1 second'
+            AND NOT EXISTS (SELECT 1 FROM file_storage fs WHERE fs.storage_key = c.storage_key)
+          ORDER BY c.id
+          LIMIT :batchSize
+          FOR UPDATE SKIP LOCKED
+          """,
+      nativeQuery = true)
+  List<FileContent> lockSweepable(
+      @Param("graceSeconds") long graceSeconds, @Param("batchSize") int batchSize);
+}
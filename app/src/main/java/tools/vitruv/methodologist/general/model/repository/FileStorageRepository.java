@@ -1,9 +1,12 @@
 package tools.vitruv.methodologist.general.model.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import tools.vitruv.methodologist.general.FileEnumType;
 import tools.vitruv.methodologist.general.model.FileStorage;
 import tools.vitruv.methodologist.user.model.User;
@@ -25,6 +28,16 @@ public interface FileStorageRepository extends CrudRepository<FileStorage, Long>
    */
   boolean existsByUserAndSha256AndSizeBytes(User user, String sha256, long sizeBytes);
 
+  /**
+   * Finds the files of the given user whose content has one of the given SHA-256 hashes, so a whole
+   * batch of uploads can be checked for duplicates with a single query.
+   *
+   * @param user the user who owns the files
+   * @param sha256s the SHA-256 hashes to look for
+   * @return the matching files
+   */
+  List<FileStorage> findByUserAndSha256In(User user, Collection<String> sha256s);
+
   /**
    * Finds a {@link tools.vitruv.methodologist.general.model.FileStorage} by its unique identifier
    * and file type. This method is useful when multiple file records may exist with the same
@@ -76,4 +89,53 @@ public interface FileStorageRepository extends CrudRepository<FileStorage, Long>
    */
   @SuppressWarnings("checkstyle:MethodName")
   Optional<FileStorage> findByIdAndUser_EmailAndUser_RemovedAtIsNull(Long id, String callerEmail);
+
+  /**
+   * Locks up to {@code batchSize} files that were created before the grace period and that nothing
+   * refers to: no meta model, relation, view or constraint rule set, and no VSUM history snapshot,
+   * archived or not, since restoring a snapshot reattaches its files. Rows locked by concurrent
+   * transactions are skipped. Files without a creation time are never returned.
+   *
+   * @param graceSeconds minimum age of the file in seconds
+   * @param batchSize maximum number of files to return
+   * @return the locked files, oldest first
+   */
+  @Query(
+      value =
+          """
+          SELECT fs.* FROM file_storage fs
+          WHERE fs.created_at < (now() AT TIME ZONE 'utc') - :graceSeconds * INTERVAL '1 second'
+            AND NOT EXISTS (SELECT 1 FROM meta_model m WHERE m.ecore_file_id = fs.id)
+            AND NOT EXISTS (SELECT 1 FROM meta_model m WHERE m.gen_model_file_id = fs.id)
+            AND NOT EXISTS (SELECT 1 FROM meta_model_relation r WHERE r.reaction_file_id = fs.id)
+            AND NOT EXISTS (SELECT 1 FROM vsum_view v WHERE v.file_storage_id = fs.id)
+            AND NOT EXISTS (SELECT 1 FROM constraint_rule_set c WHERE c.file_storage_id = fs.id)
+            AND NOT EXISTS (
+              SELECT 1 FROM vsum_history h
+              WHERE h.representation @> jsonb_build_object('views',
+                  jsonb_build_array(jsonb_build_object('fileStorageId', fs.id)))
+                 OR h.representation @> jsonb_build_object('metaModelsRealation',
+                  jsonb_build_array(jsonb_build_object('relationFileStorage', fs.id))))
+            AND NOT EXISTS (
+              SELECT 1 FROM vsum_history_archive h
+              WHERE h.representation @> jsonb_build_object('views',
+                  jsonb_build_array(jsonb_build_object('fileStorageId', fs.id)))
+                 OR h.representation @> jsonb_build_object('metaModelsRealation',
+                  jsonb_build_array(jsonb_build_object('relationFileStorage', fs.id))))
+          ORDER BY fs.created_at, fs.id
+          LIMIT :batchSize
+          FOR UPDATE OF fs SKIP LOCKED
+          """,
+      nativeQuery = true)
+  List<FileStorage> lockOrphans(
+      @Param("graceSeconds") long graceSeconds, @Param("batchSize") int batchSize);
+
+  /**
+   * Tries to take the transaction-scoped advisory lock with the given key.
+   *
+   * @param key the lock key
+   * @return {@code true} if the lock was taken; it is released when the transaction ends
+   */
+  @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+  boolean tryAdvisoryLock(@Param("key") long key);
 }
@@ -0,0 +1,48 @@
+package tools.vitruv.methodologist.general.model.repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import tools.vitruv.methodologist.general.model.UploadSession;
+
+/** Spring Data repository for {@link UploadSession} entities. */
+public interface UploadSessionRepository extends CrudRepository<UploadSession, Long> {
+
+  /**
+   * Finds an upload session of an active user.
+   *
+   * @param uploadId the public session identifier
+   * @param email the email of the user owning the session
+   * @return the session, if present
+   */
+  Optional<UploadSession> findByUploadIdAndUser_EmailAndUser_RemovedAtIsNull(
+      String uploadId, String email);
+
+  /**
+   * Finds and locks an upload session of an active user, so chunks of the same session are written
+   * one at a time.
+   *
+   * @param uploadId the public session identifier
+   * @param email the email of the user owning the session
+   * @return the locked session, if present
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(
+      "SELECT s FROM UploadSession s WHERE s.uploadId = :uploadId"
+          + " AND s.user.email = :email AND s.user.removedAt IS NULL")
+  Optional<UploadSession> lockByUploadIdAndUserEmail(
+      @Param("uploadId") String uploadId, @Param("email") String email);
+
+  /**
+   * Finds the sessions that expired before the given time.
+   *
+   * @param time the reference time
+   * @return the expired sessions
+   */
+  List<UploadSession> findByExpiresAtBefore(Instant time);
+}
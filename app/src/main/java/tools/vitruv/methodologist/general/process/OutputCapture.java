@@ -0,0 +1,90 @@
+package tools.vitruv.methodologist.general.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains a process stream on its own virtual thread, so the child never blocks on a full pipe, and
+ * keeps the last {@code maxBytes} bytes of it. Earlier output is discarded and reported as
+ * truncated.
+ */
+@Slf4j
+final class OutputCapture {
+  private final byte[] buffer;
+  private final CountDownLatch done = new CountDownLatch(1);
+  private long total;
+
+  private OutputCapture(int maxBytes) {
+    this.buffer = new byte[Math.max(1, maxBytes)];
+  }
+
+  /**
+   * Starts draining {@code in}.
+   *
+   * @param in the stream to drain; closed once it ends
+   * @param maxBytes number of bytes kept from the end of the stream
+   * @param threadName name of the draining thread
+   * @return the running capture
+   */
+  static OutputCapture start(InputStream in, int maxBytes, String threadName) {
+    OutputCapture capture = new OutputCapture(maxBytes);
+    Thread.ofVirtual().name(threadName).start(() -> capture.drain(in));
+    return capture;
+  }
+
+  /**
+   * Waits until the stream ended and returns what was kept of it. Returns the output so far if the
+   * stream is still open after {@code timeout}, e.g. because a grandchild inherited it.
+   */
+  String await(Duration timeout) throws InterruptedException {
+    if (!done.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      log.debug("Output stream still open after {}, using the output read so far", timeout);
+    }
+    return toString();
+  }
+
+  @Override
+  public synchronized String toString() {
+    if (total <= buffer.length) {
+      return new String(buffer, 0, (int) total, StandardCharsets.UTF_8);
+    }
+    int start = (int) (total % buffer.length);
+    byte[] ordered = new byte[buffer.length];
+    System.arraycopy(buffer, start, ordered, 0, buffer.length - start);
+    System.arraycopy(buffer, 0, ordered, buffer.length - start, start);
+    return "...(truncated "
+        + (total - buffer.length)
+        + " bytes)\n"
+        + new String(ordered, StandardCharsets.UTF_8);
+  }
+
+  private void drain(InputStream in) {
+    byte[] chunk = new byte[8192];
+    try (in) {
+      int read;
+      while ((read = in.read(chunk)) != -1) {
+        append(chunk, read);
+      }
+    } catch (IOException e) {
+      log.debug("Stopped reading process output: {}", e.getMessage());
+    } finally {
+      done.countDown();
+    }
+  }
+
+  private synchronized void append(byte[] chunk, int length) {
+    int offset = Math.max(0, length - buffer.length);
+    for (int i = offset; i < length; ) {
+      int position = (int) ((total + i) % buffer.length);
+      int count = Math.min(length - i, buffer.length - position);
+      System.arraycopy(chunk, i, buffer, position, count);
+      i += count;
+    }
+    total += length;
+  }
+}
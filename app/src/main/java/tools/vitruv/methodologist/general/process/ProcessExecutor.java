@@ -0,0 +1,329 @@
+package tools.vitruv.methodologist.general.process;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Bounds, measures and cleans up the child processes run through it. A process is started from its
+ * request's command or, with {@link #run(ProcessRequest, ProcessStarter)}, by a starter supplied by
+ * the caller; processes created in any other way are neither counted nor cleaned up.
+ *
+ * <p>{@link #run(ProcessRequest)} is for processes that run to completion. At most {@code
+ * process.max-concurrent} of them run at a time; further calls queue for up to {@code
+ * process.queue-timeout}. Stdout and stderr are drained concurrently while the process runs and
+ * capped at {@code process.max-captured-output} each. A process exceeding its timeout is killed
+ * together with its descendants, and so is the process of a caller interrupted while waiting, which
+ * is how a run is cancelled.
+ *
+ * <p>{@link #start(ProcessRequest)} is for long-running processes the caller talks to, like
+ * language servers. At most {@code process.max-interactive} of them run at a time; further calls
+ * fail immediately instead of queueing.
+ *
+ * <p>Every process records its wall time in {@code process.wall.time} and, where the platform
+ * reports it, its CPU time in {@code process.cpu.time}, both tagged with the request name.
+ */
+@Component
+@Slf4j
+public class ProcessExecutor {
+  private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(100);
+  private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(5);
+  private static final Duration DESTROY_GRACE = Duration.ofSeconds(5);
+
+  private final Semaphore runSlots;
+  private final Semaphore interactiveSlots;
+  private final Duration queueTimeout;
+  private final int maxCapturedBytes;
+  private final MeterRegistry meterRegistry;
+  private final Set<Process> running = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger queued = new AtomicInteger();
+
+  /**
+   * Constructs a ProcessExecutor.
+   *
+   * @param maxConcurrent number of processes {@link #run(ProcessRequest)} runs at a time
+   * @param maxInteractive number of processes {@link #start(ProcessRequest)} keeps at a time
+   * @param queueTimeout time a run waits for a free slot before it fails
+   * @param maxCapturedOutput number of bytes kept from the end of stdout and of stderr
+   * @param meterRegistry the registry the process metrics are published to
+   */
+  public ProcessExecutor(
+      @Value("${process.max-concurrent:4}") int maxConcurrent,
+      @Value("${process.max-interactive:16}") int maxInteractive,
+      @Value("${process.queue-timeout:5m}") Duration queueTimeout,
+      @Value("${process.max-captured-output:1MB}") DataSize maxCapturedOutput,
+      MeterRegistry meterRegistry) {
+    this.runSlots = new Semaphore(Math.max(1, maxConcurrent), true);
+    this.interactiveSlots = new Semaphore(Math.max(1, maxInteractive));
+    this.queueTimeout = queueTimeout;
+    this.maxCapturedBytes = (int) Math.min(Integer.MAX_VALUE, maxCapturedOutput.toBytes());
+    this.meterRegistry = meterRegistry;
+    Gauge.builder("process.running", running, Set::size)
+        .description("Child processes currently running")
+        .register(meterRegistry);
+    Gauge.builder("process.queued", queued, AtomicInteger::get)
+        .description("Process runs waiting for a free slot")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts a process for a {@link ProcessRequest}; implemented by {@link ProcessExecutor} with a
+   * {@link ProcessBuilder}, and replaceable for tests.
+   */
+  @FunctionalInterface
+  public interface ProcessStarter {
+    /** Starts the process described by {@code request}. */
+    Process start(ProcessRequest request) throws IOException;
+  }
+
+  /**
+   * Runs a process to completion, see the class documentation.
+   *
+   * @param request the process to run
+   * @return the exit code, output and timings of the process
+   * @throws IOException if the process cannot be started or no slot becomes free in time
+   * @throws InterruptedException if the caller is interrupted; the process is killed
+   */
+  public ProcessResult run(ProcessRequest request) throws IOException, InterruptedException {
+    return run(request, ProcessExecutor::startProcess);
+  }
+
+  /**
+   * Runs a process started by {@code starter} to completion, see {@link #run(ProcessRequest)}.
+   *
+   * @param request the process to run
+   * @param starter starts the process
+   * @return the exit code, output and timings of the process
+   * @throws IOException if the process cannot be started or no slot becomes free in time
+   * @throws InterruptedException if the caller is interrupted; the process is killed
+   */
+  public ProcessResult run(ProcessRequest request, ProcessStarter starter)
+      throws IOException, InterruptedException {
+    acquireRunSlot(request);
+    try {
+      return runAcquired(request, starter);
+    } finally {
+      runSlots.release();
+    }
+  }
+
+  /**
+   * Starts a long-running process, see the class documentation. The caller owns its streams and
+   * stops it with {@link #destroy(Process)}; its metrics are recorded once it exited.
+   *
+   * @param request the process to start; its timeout is ignored
+   * @return the started process
+   * @throws IOException if the process cannot be started or too many are running
+   */
+  public Process start(ProcessRequest request) throws IOException {
+    if (!interactiveSlots.tryAcquire()) {
+      throw new IOException("Too many " + request.getName() + " processes are running");
+    }
+    long startNanos = System.nanoTime();
+    Process process;
+    try {
+      process = startProcess(request);
+    } catch (IOException | RuntimeException e) {
+      interactiveSlots.release();
+      throw e;
+    }
+    running.add(process);
+    process
+        .onExit()
+        .whenComplete(
+            (exited, error) -> {
+              interactiveSlots.release();
+              running.remove(process);
+              record(request, exitOutcome(process), startNanos, Optional.empty());
+            });
+    return process;
+  }
+
+  /**
+   * Stops a process and its descendants, first gracefully and after a grace period forcibly.
+   *
+   * @param process the process to stop
+   */
+  public void destroy(Process process) {
+    destroyTree(process, false);
+    try {
+      if (!process.waitFor(DESTROY_GRACE.toMillis(), TimeUnit.MILLISECONDS)) {
+        destroyTree(process, true);
+      }
+    } catch (InterruptedException e) {
+      destroyTree(process, true);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Kills all processes still running. */
+  @PreDestroy
+  public void shutdown() {
+    for (Process process : running) {
+      destroyTree(process, true);
+    }
+  }
+
+  private void acquireRunSlot(ProcessRequest request) throws IOException, InterruptedException {
+    queued.incrementAndGet();
+    try {
+      if (!runSlots.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        throw new IOException(
+            "No slot for a " + request.getName() + " process became free within " + queueTimeout);
+      }
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+
+  private ProcessResult runAcquired(ProcessRequest request, ProcessStarter starter)
+      throws IOException, InterruptedException {
+    long startNanos = System.nanoTime();
+    Process process = starter.start(request);
+    running.add(process);
+    Optional<Duration> cpuTime = Optional.empty();
+    String outcome = "error";
+    try {
+      closeInput(process);
+      OutputCapture stdout =
+          OutputCapture.start(
+              process.getInputStream(), maxCapturedBytes, request.getName() + "-stdout");
+      OutputCapture stderr =
+          request.isRedirectErrorStream()
+              ? null
+              : OutputCapture.start(
+                  process.getErrorStream(), maxCapturedBytes, request.getName() + "-stderr");
+
+      Sample sample = awaitExit(process, request.getTimeout());
+      cpuTime = sample.cpuTime();
+      if (!sample.exited()) {
+        destroyTree(process, true);
+        outcome = "timeout";
+        log.warn("{} process timed out after {}", request.getName(), request.getTimeout());
+      } else {
+        outcome = process.exitValue() == 0 ? "success" : "failure";
+      }
+
+      return ProcessResult.builder()
+          .exitCode(sample.exited() ? process.exitValue() : -1)
+          .stdout(stdout.await(DRAIN_TIMEOUT))
+          .stderr(stderr == null ? "" : stderr.await(DRAIN_TIMEOUT))
+          .timedOut(!sample.exited())
+          .wallTime(Duration.ofNanos(System.nanoTime() - startNanos))
+          .cpuTime(cpuTime.orElse(null))
+          .build();
+    } catch (InterruptedException e) {
+      outcome = "cancelled";
+      destroyTree(process, true);
+      throw e;
+    } finally {
+      running.remove(process);
+      record(request, outcome, startNanos, cpuTime);
+    }
+  }
+
+  /**
+   * Waits for the process to exit, sampling its CPU time, since it is no longer available once the
+   * process exited.
+   */
+  private static Sample awaitExit(Process process, Duration timeout) throws InterruptedException {
+    long deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+    Optional<Duration> cpuTime = Optional.empty();
+    while (true) {
+      Optional<Duration> sampled = cpuTime(process);
+      if (sampled.isPresent()) {
+        cpuTime = sampled;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return new Sample(false, cpuTime);
+      }
+      long wait = Math.min(remaining, SAMPLE_INTERVAL.toNanos());
+      if (process.waitFor(wait, TimeUnit.NANOSECONDS)) {
+        return new Sample(true, cpuTime);
+      }
+    }
+  }
+
+  private static Optional<Duration> cpuTime(Process process) {
+    try {
+      return process.toHandle().info().totalCpuDuration();
+    } catch (UnsupportedOperationException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static void destroyTree(Process process, boolean forcibly) {
+    try {
+      process
+          .descendants()
+          .forEach(
+              child -> {
+                if (forcibly) {
+                  child.destroyForcibly();
+                } else {
+                  child.destroy();
+                }
+              });
+    } catch (UnsupportedOperationException e) {
+      log.debug("Cannot list the descendants of {}", process);
+    }
+    if (forcibly) {
+      process.destroyForcibly();
+    } else {
+      process.destroy();
+    }
+  }
+
+  private static void closeInput(Process process) {
+    try {
+      process.getOutputStream().close();
+    } catch (IOException e) {
+      log.debug("Failed to close the stdin of {}", process, e);
+    }
+  }
+
+  private static String exitOutcome(Process process) {
+    return process.exitValue() == 0 ? "success" : "failure";
+  }
+
+  private void record(
+      ProcessRequest request, String outcome, long startNanos, Optional<Duration> cpuTime) {
+    Timer.builder("process.wall.time")
+        .description("Wall time of child processes")
+        .tag("name", request.getName())
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    cpuTime.ifPresent(
+        cpu ->
+            Timer.builder("process.cpu.time")
+                .description("CPU time of child processes")
+                .tag("name", request.getName())
+                .register(meterRegistry)
+                .record(cpu));
+  }
+
+  private static Process startProcess(ProcessRequest request) throws IOException {
+    ProcessBuilder builder = new ProcessBuilder(request.getCommand());
+    if (request.getDirectory() != null) {
+      builder.directory(request.getDirectory().toFile());
+    }
+    return builder.redirectErrorStream(request.isRedirectErrorStream()).start();
+  }
+
+  private record Sample(boolean exited, Optional<Duration> cpuTime) {}
+}
@@ -0,0 +1,25 @@
+package tools.vitruv.methodologist.general.process;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Description of a child process started through the {@link ProcessExecutor}.
+ *
+ * <p>{@code name} identifies the kind of process in metrics and thread names, e.g. {@code
+ * vitruv-cli}. {@code directory} defaults to the working directory of the application, and a {@code
+ * null} {@code timeout} lets the process run until it exits on its own.
+ */
+@Value
+@Builder
+public class ProcessRequest {
+  @NonNull String name;
+  @NonNull List<String> command;
+  Path directory;
+  boolean redirectErrorStream;
+  Duration timeout;
+}
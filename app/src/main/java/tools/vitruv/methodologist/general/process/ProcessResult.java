@@ -0,0 +1,29 @@
+package tools.vitruv.methodologist.general.process;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Outcome of a child process run by the {@link ProcessExecutor}.
+ *
+ * <p>{@code stdout} and {@code stderr} hold at most the configured number of bytes each, keeping
+ * the end of the output. {@code stderr} is empty if it was redirected into {@code stdout}. If the
+ * process timed out it was killed, {@code exitCode} is {@code -1} and the output is whatever it
+ * wrote until then. {@code cpuTime} is {@code null} if the platform does not report it.
+ */
+@Value
+@Builder
+public class ProcessResult {
+  int exitCode;
+  String stdout;
+  String stderr;
+  boolean timedOut;
+  Duration wallTime;
+  Duration cpuTime;
+
+  /** Returns whether the process exited in time with exit code 0. */
+  public boolean isSuccess() {
+    return !timedOut && exitCode == 0;
+  }
+}
@@ -0,0 +1,105 @@
+package tools.vitruv.methodologist.general.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.vitruv.methodologist.general.model.repository.FileContentRepository;
+import tools.vitruv.methodologist.general.storage.BlobStore;
+
+/**
+ * Finds content in the {@link BlobStore} that no {@code file_content} row knows about.
+ *
+ * <p>The file system and S3 stores write content outside the database transaction of the upload, so
+ * an upload that rolls back, or an instance that stops before committing, leaves content behind
+ * that the garbage collection of {@link FileContentService} never sees. This job lists the store
+ * and registers such content as unreferenced, so the next collection deletes it once the grace
+ * period has passed. Only content older than the grace period is considered, and registration waits
+ * for uploads of the same content that have not committed yet.
+ */
+@Service
+@Slf4j
+public class BlobStoreReconciliationService {
+  private final BlobStoreReconciliationService self;
+  private final BlobStore blobStore;
+  private final FileContentRepository fileContentRepository;
+  private final int batchSize;
+  private final Duration gracePeriod;
+
+  /**
+   * Constructs a {@link BlobStoreReconciliationService}.
+   *
+   * @param self lazy-loaded self-reference for transactional batch calls
+   * @param blobStore the store holding the content
+   * @param fileContentRepository repository of the registered contents
+   * @param batchSize number of keys handled per transaction
+   * @param gracePeriod minimum age of content before it is considered
+   */
+  public BlobStoreReconciliationService(
+      @Lazy BlobStoreReconciliationService self,
+      BlobStore blobStore,
+      FileContentRepository fileContentRepository,
+      @Value("${storage.gc.batch-size:100}") int batchSize,
+      @Value("${storage.gc.grace-period:1h}") Duration gracePeriod) {
+    this.self = self;
+    this.blobStore = blobStore;
+    this.fileContentRepository = fileContentRepository;
+    this.batchSize = batchSize;
+    this.gracePeriod = gracePeriod;
+  }
+
+  /**
+   * Scheduled task that registers unknown content for collection.
+   *
+   * <p>Runs daily at 00:30 by default, so the registered content is collected by the next file
+   * content collection.
+   */
+  @Scheduled(cron = "${storage.reconciliation.cron:0 30 0 * * ?}")
+  public void reconcile() {
+    Instant writtenBefore = Instant.now().minus(gracePeriod);
+    int registered = 0;
+    try (Stream<String> keys = blobStore.keys(writtenBefore)) {
+      Iterator<String> iterator = keys.iterator();
+      List<String> batch = new ArrayList<>(batchSize);
+      while (iterator.hasNext()) {
+        batch.add(iterator.next());
+        if (batch.size() == batchSize || !iterator.hasNext()) {
+          registered += self.registerBatch(batch);
+          batch.clear();
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Blob store reconciliation failed to list the stored content", e);
+    }
+    log.info("Blob store reconciliation: registered {} unknown contents", registered);
+  }
+
+  /**
+   * Registers those of the given keys that have no {@code file_content} row as unreferenced.
+   *
+   * @param keys keys listed from the store
+   * @return the number of registered contents
+   */
+  @Transactional
+  public int registerBatch(List<String> keys) {
+    Set<String> known = new HashSet<>(fileContentRepository.findStorageKeysIn(keys));
+    int registered = 0;
+    for (String key : keys) {
+      if (!known.contains(key)) {
+        registered += fileContentRepository.registerUnknown(key);
+      }
+    }
+    return registered;
+  }
+}
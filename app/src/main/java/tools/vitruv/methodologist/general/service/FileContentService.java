@@ -0,0 +1,155 @@
+package tools.vitruv.methodologist.general.service;
+
+import static tools.vitruv.methodologist.messages.Error.FILE_CONTENT_DELETE_ERROR;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.vitruv.methodologist.exception.FileContentException;
+import tools.vitruv.methodologist.general.model.FileContent;
+import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.model.repository.FileContentRepository;
+import tools.vitruv.methodologist.general.storage.BlobStore;
+
+/**
+ * Keeps track of which stored contents are in use and reclaims the ones that are not.
+ *
+ * <p>Every unique content is registered once in {@link FileContent}, no matter how many users
+ * uploaded it or how often it was cloned. {@link FileStorageService} adds a reference whenever a
+ * file starts pointing at a content and removes it when the file is deleted or overwritten.
+ *
+ * <p>Unreferenced content is reclaimed by a mark-and-sweep collection running in batches: the mark
+ * phase flags contents that no file refers to, and the sweep phase deletes contents that stayed
+ * unreferenced for the whole grace period from the {@link BlobStore}. Contents locked by an
+ * in-flight upload are skipped, and adding a reference clears the mark, so content is never deleted
+ * while a file is being written against it.
+ */
+@Service
+@Slf4j
+public class FileContentService {
+  private final FileContentService self;
+  private final FileContentRepository fileContentRepository;
+  private final BlobStore blobStore;
+  private final int batchSize;
+  private final Duration gracePeriod;
+
+  /**
+   * Constructs a {@link FileContentService}.
+   *
+   * @param self lazy-loaded self-reference for transactional batch calls
+   * @param fileContentRepository repository of the registered contents
+   * @param blobStore the store holding the content
+   * @param batchSize number of contents handled per transaction during collection
+   * @param gracePeriod minimum time a content stays unreferenced before it is deleted
+   */
+  public FileContentService(
+      @Lazy FileContentService self,
+      FileContentRepository fileContentRepository,
+      BlobStore blobStore,
+      @Value("${storage.gc.batch-size:100}") int batchSize,
+      @Value("${storage.gc.grace-period:1h}") Duration gracePeriod) {
+    this.self = self;
+    this.fileContentRepository = fileContentRepository;
+    this.blobStore = blobStore;
+    this.batchSize = batchSize;
+    this.gracePeriod = gracePeriod;
+  }
+
+  /**
+   * Adds a reference to the content the given file points at, registering the content on first use.
+   *
+   * <p>Must be called before the content is written to the store, within the transaction that
+   * persists the referencing file.
+   *
+   * @param fileStorage the file referencing the content
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void acquire(FileStorage fileStorage) {
+    fileContentRepository.acquire(
+        fileStorage.getStorageKey(),
+        fileStorage.getSha256(),
+        fileStorage.getSizeBytes(),
+        fileStorage.getCodec().name(),
+        fileStorage.getStoredSizeBytes());
+  }
+
+  /**
+   * Removes a reference from the content stored under {@code storageKey}. The content itself is
+   * deleted later by the garbage collection.
+   *
+   * @param storageKey the content key; ignored if {@code null}
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void release(String storageKey) {
+    if (storageKey != null) {
+      fileContentRepository.release(storageKey);
+    }
+  }
+
+  /**
+   * Scheduled task that reclaims unreferenced content.
+   *
+   * <p>Runs daily at 01:00 by default. Each batch runs in its own transaction.
+   */
+  @Scheduled(cron = "${storage.gc.cron:0 0 1 * * ?}")
+  public void collectGarbage() {
+    int marked = 0;
+    long afterId = 0;
+    List<Long> ids;
+    while (!(ids = fileContentRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize)))
+        .isEmpty()) {
+      marked += self.markBatch(ids);
+      afterId = ids.get(ids.size() - 1);
+    }
+
+    int swept = 0;
+    int batch;
+    do {
+      batch = self.sweepBatch();
+      swept += batch;
+    } while (batch == batchSize);
+
+    log.info("File content collection: marked {} contents, deleted {} contents", marked, swept);
+  }
+
+  /**
+   * Marks those of the given contents that are no longer referenced.
+   *
+   * @param ids the contents to check
+   * @return the number of newly marked contents
+   */
+  @Transactional
+  public int markBatch(List<Long> ids) {
+    return fileContentRepository.markUnreferenced(ids);
+  }
+
+  /**
+   * Deletes up to one batch of contents whose mark is older than the grace period and that are
+   * still unreferenced.
+   *
+   * @return the number of deleted contents
+   * @throws FileContentException if a content cannot be deleted from the store
+   */
+  @Transactional
+  public int sweepBatch() {
+    List<FileContent> contents =
+        fileContentRepository.lockSweepable(gracePeriod.toSeconds(), batchSize);
+    for (FileContent content : contents) {
+      try {
+        blobStore.delete(content.getStorageKey());
+      } catch (IOException e) {
+        throw new FileContentException(FILE_CONTENT_DELETE_ERROR + content.getStorageKey(), e);
+      }
+    }
+    fileContentRepository.deleteAll(contents);
+    return contents.size();
+  }
+}
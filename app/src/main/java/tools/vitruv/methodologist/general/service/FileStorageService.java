@@ -1,62 +1,77 @@
 package tools.vitruv.methodologist.general.service;
 
-import static tools.vitruv.methodologist.messages.Error.FILE_HASHING_EXCEPTION;
+import static tools.vitruv.methodologist.messages.Error.BATCH_UPLOAD_TYPES_MISMATCH_ERROR;
+import static tools.vitruv.methodologist.messages.Error.FILE_CONTENT_READ_ERROR;
+import static tools.vitruv.methodologist.messages.Error.FILE_CONTENT_WRITE_ERROR;
 import static tools.vitruv.methodologist.messages.Error.FILE_ID_NOT_FOUND_ERROR;
 import static tools.vitruv.methodologist.messages.Error.USER_EMAIL_NOT_FOUND_ERROR;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import tools.vitruv.methodologist.exception.FileAlreadyExistsException;
-import tools.vitruv.methodologist.exception.FileHashingException;
+import tools.vitruv.methodologist.exception.FileContentException;
 import tools.vitruv.methodologist.exception.NotFoundException;
 import tools.vitruv.methodologist.general.FileEnumType;
 import tools.vitruv.methodologist.general.controller.responsedto.FileStorageResponse;
 import tools.vitruv.methodologist.general.mapper.FileStorageMapper;
 import tools.vitruv.methodologist.general.model.FileStorage;
 import tools.vitruv.methodologist.general.model.repository.FileStorageRepository;
+import tools.vitruv.methodologist.general.storage.BlobStore;
+import tools.vitruv.methodologist.general.storage.CompressionPolicy;
+import tools.vitruv.methodologist.general.storage.ContentCodec;
+import tools.vitruv.methodologist.general.storage.ContentSpooler;
+import tools.vitruv.methodologist.general.storage.SpooledContent;
+import tools.vitruv.methodologist.general.storage.ZipStreamWriter;
 import tools.vitruv.methodologist.user.model.User;
 import tools.vitruv.methodologist.user.model.repository.UserRepository;
 
 /**
  * Service class that handles file storage operations including storing, retrieving, and deleting
  * files. Provides deduplication of files based on SHA-256 hash and file size.
+ *
+ * <p>File metadata is kept in {@link FileStorage}; the content is kept in the configured {@link
+ * BlobStore} under its SHA-256, so identical contents are stored once across all users. Content is
+ * compressed with the codec {@link CompressionPolicy} picks for the file type, unless compression
+ * does not make it smaller; size and SHA-256 always describe the uncompressed content. Every change
+ * of the content a file points at is reported to {@link FileContentService}, which counts the
+ * references and reclaims content no file uses anymore. Uploads are ingested as streams: the
+ * content is hashed while it is spooled by {@link ContentSpooler} and then streamed into the store,
+ * so no upload is materialized as a whole on the heap. Stored content is read back through {@link
+ * #openContent(FileStorage)}, {@link #readContent(FileStorage)}, {@link #copyContent(FileStorage,
+ * Path)} and {@link #streamContent(FileStorage, long, long, OutputStream)}.
  */
 @Service
+@Slf4j
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class FileStorageService {
   FileStorageRepository fileStorageRepository;
   UserRepository userRepository;
   FileStorageMapper fileStorageMapper;
-
-  /**
-   * Computes the SHA\-256 digest of the given bytes and returns its lowercase hexadecimal string.
-   *
-   * <p>Uses {@link java.security.MessageDigest} with the {@code SHA\-256} algorithm and wraps any
-   * algorithm lookup failure into {@link
-   * tools.vitruv.methodologist.exception.FileHashingException}.
-   *
-   * @param data the bytes to hash; must not be {@code null}
-   * @return lowercase hex representation of the SHA\-256 digest
-   * @throws tools.vitruv.methodologist.exception.FileHashingException if hashing cannot be
-   *     performed
-   */
-  private String sha256Hex(byte[] data) {
-    try {
-      MessageDigest md = MessageDigest.getInstance("SHA-256");
-      return HexFormat.of().formatHex(md.digest(data));
-    } catch (NoSuchAlgorithmException e) {
-      throw new FileHashingException(FILE_HASHING_EXCEPTION, e);
-    }
-  }
+  ContentSpooler contentSpooler;
+  BlobStore blobStore;
+  FileContentService fileContentService;
+  CompressionPolicy compressionPolicy;
+  PlatformTransactionManager transactionManager;
 
   /**
    * Stores a file in the system with deduplication based on SHA-256 hash and file size. If a file
@@ -81,22 +96,99 @@ public class FileStorageService {
       throw new IllegalArgumentException("File is empty");
     }
 
-    byte[] data = file.getBytes();
-    String sha = sha256Hex(data);
+    try (SpooledContent content = spool(file)) {
+      return storeUpload(user, content, file.getOriginalFilename(), file.getContentType(), type);
+    }
+  }
 
-    if (fileStorageRepository.existsByUserAndSha256AndSizeBytes(user, sha, data.length)) {
+  /**
+   * Stores several files of one user in a single transaction, applying the same deduplication as
+   * {@link #storeFile(String, MultipartFile, FileEnumType)} to every file.
+   *
+   * <p>The files are hashed concurrently by {@link ContentSpooler#spoolAll(List)}. All of them are
+   * checked against the stored files of the user with one query and against each other, and the new
+   * rows are inserted in one batch. Either all files are stored or none.
+   *
+   * @param callerUserEmail email of the user storing the files
+   * @param files the files to store
+   * @param types the type of each file, in the order of {@code files}
+   * @return the stored files' IDs in the order of {@code files}
+   * @throws IOException if reading a file fails
+   * @throws NotFoundException if the user email is not found
+   * @throws IllegalArgumentException if a file is empty or the types do not match the files
+   * @throws FileAlreadyExistsException if the user already owns a file with the content of one of
+   *     the files, or the batch contains the same content twice
+   */
+  @Transactional
+  public List<FileStorageResponse> storeFiles(
+      String callerUserEmail, List<MultipartFile> files, List<FileEnumType> types)
+      throws IOException {
+    User user =
+        userRepository
+            .findByEmailIgnoreCaseAndRemovedAtIsNull(callerUserEmail)
+            .orElseThrow(() -> new NotFoundException(USER_EMAIL_NOT_FOUND_ERROR));
+    if (files.isEmpty() || files.size() != types.size()) {
+      throw new IllegalArgumentException(BATCH_UPLOAD_TYPES_MISMATCH_ERROR);
+    }
+    if (files.stream().anyMatch(MultipartFile::isEmpty)) {
+      throw new IllegalArgumentException("File is empty");
+    }
+
+    List<SpooledContent> contents = contentSpooler.spoolAll(files);
+    try {
+      Set<String> known = new HashSet<>();
+      fileStorageRepository
+          .findByUserAndSha256In(user, contents.stream().map(SpooledContent::sha256).toList())
+          .forEach(existing -> known.add(existing.getSha256() + ":" + existing.getSizeBytes()));
+      for (SpooledContent content : contents) {
+        if (!known.add(content.sha256() + ":" + content.size())) {
+          throw new FileAlreadyExistsException();
+        }
+      }
+
+      List<FileStorage> fileStorages = new ArrayList<>(files.size());
+      for (int i = 0; i < files.size(); i++) {
+        MultipartFile file = files.get(i);
+        FileStorage fileStorage =
+            newFileStorage(user, file.getOriginalFilename(), file.getContentType(), types.get(i));
+        storeContent(fileStorage, contents.get(i));
+        fileStorages.add(fileStorage);
+      }
+      fileStorageRepository.saveAll(fileStorages);
+
+      return fileStorages.stream()
+          .map(fileStorage -> FileStorageResponse.builder().id(fileStorage.getId()).build())
+          .toList();
+    } finally {
+      contents.forEach(FileStorageService::closeQuietly);
+    }
+  }
+
+  /**
+   * Stores content that has already been received and hashed as a new file of the given user,
+   * applying the same deduplication as {@link #storeFile(String, MultipartFile, FileEnumType)}.
+   *
+   * <p>The content is not closed.
+   *
+   * @param user the owner of the new file
+   * @param content the received content
+   * @param filename the original file name
+   * @param contentType the MIME type; {@code application/octet-stream} if {@code null}
+   * @param type the type of file being stored
+   * @return FileStorageResponse containing the stored file's ID
+   * @throws FileAlreadyExistsException if the user already owns a file with identical content
+   * @throws FileContentException if the content cannot be written to the store
+   */
+  @Transactional
+  public FileStorageResponse storeUpload(
+      User user, SpooledContent content, String filename, String contentType, FileEnumType type) {
+    if (fileStorageRepository.existsByUserAndSha256AndSizeBytes(
+        user, content.sha256(), content.size())) {
       throw new FileAlreadyExistsException();
     }
 
-    FileStorage fileStorage = new FileStorage();
-    fileStorage.setFilename(file.getOriginalFilename());
-    fileStorage.setType(type);
-    fileStorage.setContentType(
-        file.getContentType() == null ? "application/octet-stream" : file.getContentType());
-    fileStorage.setSizeBytes(data.length);
-    fileStorage.setSha256(sha);
-    fileStorage.setData(data);
-    fileStorage.setUser(user);
+    FileStorage fileStorage = newFileStorage(user, filename, contentType, type);
+    storeContent(fileStorage, content);
     fileStorageRepository.save(fileStorage);
 
     return FileStorageResponse.builder().id(fileStorage.getId()).build();
@@ -126,6 +218,9 @@ public class FileStorageService {
   @Transactional
   public FileStorage clone(FileStorage fileStorage) {
     FileStorage clonedFileStorage = fileStorageMapper.clone(fileStorage);
+    if (clonedFileStorage.getStorageKey() != null) {
+      fileContentService.acquire(clonedFileStorage);
+    }
     fileStorageRepository.save(clonedFileStorage);
     return clonedFileStorage;
   }
@@ -170,16 +265,13 @@ public class FileStorageService {
       throw new IllegalArgumentException("File is empty");
     }
 
-    byte[] data = file.getBytes();
-    String sha = sha256Hex(data);
-
     existing.setFilename(file.getOriginalFilename());
     existing.setType(FileEnumType.REACTION);
     existing.setContentType(
         file.getContentType() == null ? "application/octet-stream" : file.getContentType());
-    existing.setSizeBytes(data.length);
-    existing.setSha256(sha);
-    existing.setData(data);
+    try (SpooledContent content = spool(file)) {
+      storeContent(existing, content);
+    }
 
     fileStorageRepository.save(existing);
 
@@ -195,6 +287,7 @@ public class FileStorageService {
    */
   @Transactional
   public void deleteFiles(List<FileStorage> fileStorages) {
+    fileStorages.forEach(this::releaseContent);
     fileStorageRepository.deleteAll(fileStorages);
   }
 
@@ -218,6 +311,7 @@ public class FileStorageService {
             .findByIdAndUser_EmailAndUser_RemovedAtIsNull(id, callerEmail)
             .orElseThrow(() -> new NotFoundException(FILE_ID_NOT_FOUND_ERROR));
 
+    releaseContent(fileStorage);
     fileStorageRepository.delete(fileStorage);
   }
 
@@ -230,10 +324,295 @@ public class FileStorageService {
    */
   @Transactional
   public FileStorage overwriteStoredContent(FileStorage fileStorage, byte[] data) {
-    byte[] safeData = data == null ? new byte[0] : data;
-    fileStorage.setSizeBytes(safeData.length);
-    fileStorage.setSha256(sha256Hex(safeData));
-    fileStorage.setData(safeData);
+    storeContent(fileStorage, SpooledContent.of(data));
     return fileStorageRepository.save(fileStorage);
   }
+
+  /**
+   * Removes the reference the given file holds on its content, for files that are about to be
+   * deleted outside of this service, e.g. through orphan removal.
+   *
+   * @param fileStorage the file that no longer uses its content
+   */
+  @Transactional
+  public void releaseContent(FileStorage fileStorage) {
+    fileContentService.release(fileStorage.getStorageKey());
+  }
+
+  /**
+   * Opens a stream over the stored content of the given file.
+   *
+   * <p>Depending on the configured store the content may be streamed from a large object, so the
+   * stream must be consumed and closed within the surrounding transaction.
+   *
+   * @param fileStorage the file whose content to read
+   * @return a stream over the content; empty if the file has no content
+   * @throws FileContentException if the content cannot be opened
+   */
+  @Transactional(readOnly = true)
+  public InputStream openContent(FileStorage fileStorage) {
+    if (fileStorage.getStorageKey() == null) {
+      return InputStream.nullInputStream();
+    }
+    try {
+      return codecOf(fileStorage).open(blobStore, fileStorage.getStorageKey());
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_READ_ERROR + fileStorage.getId(), e);
+    }
+  }
+
+  /**
+   * Adds the content of the given file to a ZIP archive under {@code name}.
+   *
+   * <p>Content stored with {@link ContentCodec#DEFLATE} is copied into the archive as it is,
+   * without being decompressed and compressed again. Other content is streamed from the store and
+   * deflated on the fly; content stored with a preset dictionary has to be decoded first, since ZIP
+   * readers do not support dictionaries. Like {@link #openContent(FileStorage)}, this has to run
+   * within a transaction.
+   *
+   * @param zip the archive to add the entry to
+   * @param name the entry path inside the archive
+   * @param fileStorage the file whose content to add
+   * @throws IOException if writing to the archive fails
+   * @throws FileContentException if the content cannot be read
+   */
+  @Transactional(readOnly = true)
+  public void writeZipEntry(ZipStreamWriter zip, String name, FileStorage fileStorage)
+      throws IOException {
+    Instant modified =
+        fileStorage.getCreatedAt() == null ? Instant.now() : fileStorage.getCreatedAt();
+    if (codecOf(fileStorage) == ContentCodec.DEFLATE) {
+      InputStream in;
+      try {
+        in = blobStore.get(fileStorage.getStorageKey());
+      } catch (IOException e) {
+        throw new FileContentException(FILE_CONTENT_READ_ERROR + fileStorage.getId(), e);
+      }
+      try (in) {
+        zip.putDeflated(name, modified, fileStorage.getSizeBytes(), in);
+      }
+      return;
+    }
+    try (InputStream in = openContent(fileStorage)) {
+      zip.putCompressed(name, modified, fileStorage.getSizeBytes(), in, compressionPolicy.level());
+    }
+  }
+
+  /**
+   * Writes {@code length} content bytes of the given file, starting at {@code offset}, to {@code
+   * out}.
+   *
+   * <p>The content is read under the storage key and codec of the given metadata, not of the file
+   * as it is stored now. A key always refers to the same bytes, so the written content matches the
+   * metadata the caller answered with even if the file is overwritten meanwhile.
+   *
+   * <p>The content is copied from the store in fixed-size chunks, so memory use does not depend on
+   * the file or range size. The range refers to the uncompressed content; compressed content is
+   * decoded on the fly. The caller must make sure the range lies within the content. No database
+   * connection is held during the transfer unless the store can only be read within a transaction.
+   *
+   * @param fileStorage the file metadata the content is read for
+   * @param offset zero-based position of the first byte to write
+   * @param length number of bytes to write
+   * @param out the target stream; not closed
+   * @throws FileContentException if the content cannot be opened
+   * @throws IOException if writing to {@code out} fails
+   */
+  public void streamContent(FileStorage fileStorage, long offset, long length, OutputStream out)
+      throws IOException {
+    if (fileStorage.getStorageKey() == null || length <= 0) {
+      return;
+    }
+    if (!blobStore.readsWithinTransaction()) {
+      transferContent(fileStorage, offset, length, out);
+      return;
+    }
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(true);
+    try {
+      transaction.executeWithoutResult(
+          status -> {
+            try {
+              transferContent(fileStorage, offset, length, out);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void transferContent(FileStorage fileStorage, long offset, long length, OutputStream out)
+      throws IOException {
+    InputStream in;
+    try {
+      in = codecOf(fileStorage).open(blobStore, fileStorage.getStorageKey(), offset, length);
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_READ_ERROR + fileStorage.getId(), e);
+    }
+    try (in) {
+      in.transferTo(out);
+    }
+  }
+
+  /**
+   * Reads the complete stored content of the given file into memory.
+   *
+   * <p>Intended for small files and for callers that need the content as a whole.
+   *
+   * @param fileStorage the file whose content to read
+   * @return the content bytes; empty if the file has no content
+   * @throws FileContentException if the content cannot be read
+   */
+  @Transactional(readOnly = true)
+  public byte[] readContent(FileStorage fileStorage) {
+    try (InputStream in = openContent(fileStorage)) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_READ_ERROR + fileStorage.getId(), e);
+    }
+  }
+
+  /**
+   * Copies the stored content of the given file into a {@link SpooledContent}, so it can be read
+   * outside the transaction. Content above the spool memory threshold is spilled to disk, which
+   * keeps the heap used per file bounded.
+   *
+   * @param fileStorage the file whose content to copy
+   * @return the spooled content; must be closed by the caller
+   * @throws FileContentException if the content cannot be read or spooled
+   */
+  @Transactional(readOnly = true)
+  public SpooledContent spoolContent(FileStorage fileStorage) {
+    return spoolContent(fileStorage, Long.MAX_VALUE);
+  }
+
+  /**
+   * Copies the stored content of the given file into a {@link SpooledContent}, keeping at most
+   * {@code memoryThreshold} bytes on the heap. Callers spooling several files at once use it to
+   * bound the heap used by all of them together.
+   *
+   * @param fileStorage the file whose content to copy
+   * @param memoryThreshold maximum content size kept on the heap, capped by the spool memory
+   *     threshold
+   * @return the spooled content; must be closed by the caller
+   * @throws FileContentException if the content cannot be read or spooled
+   */
+  @Transactional(readOnly = true)
+  public SpooledContent spoolContent(FileStorage fileStorage, long memoryThreshold) {
+    try (InputStream in = openContent(fileStorage)) {
+      return contentSpooler.spool(in, memoryThreshold);
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_READ_ERROR + fileStorage.getId(), e);
+    }
+  }
+
+  /**
+   * Streams the stored content of the given file into {@code target}, replacing an existing file.
+   *
+   * @param fileStorage the file whose content to copy
+   * @param target the destination path
+   * @throws FileContentException if the content cannot be read or the target cannot be written
+   */
+  @Transactional(readOnly = true)
+  public void copyContent(FileStorage fileStorage, Path target) {
+    try (InputStream in = openContent(fileStorage)) {
+      Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_READ_ERROR + fileStorage.getId(), e);
+    }
+  }
+
+  /**
+   * Creates a new, not yet persisted file owned by {@code user} with the given content.
+   *
+   * @param user the owner of the file
+   * @param filename the file name
+   * @param type the file type
+   * @param contentType the MIME type of the content
+   * @param data the file content
+   * @return the transient file entity
+   */
+  @Transactional
+  public FileStorage newFile(
+      User user, String filename, FileEnumType type, String contentType, byte[] data) {
+    FileStorage fileStorage =
+        FileStorage.builder()
+            .filename(filename)
+            .type(type)
+            .contentType(contentType)
+            .user(user)
+            .build();
+    storeContent(fileStorage, SpooledContent.of(data));
+    return fileStorage;
+  }
+
+  private static FileStorage newFileStorage(
+      User user, String filename, String contentType, FileEnumType type) {
+    FileStorage fileStorage = new FileStorage();
+    fileStorage.setFilename(filename);
+    fileStorage.setType(type);
+    fileStorage.setContentType(contentType == null ? "application/octet-stream" : contentType);
+    fileStorage.setUser(user);
+    return fileStorage;
+  }
+
+  private static void closeQuietly(SpooledContent content) {
+    try {
+      content.close();
+    } catch (IOException e) {
+      log.warn("Failed to delete spooled upload content", e);
+    }
+  }
+
+  private SpooledContent spool(MultipartFile file) throws IOException {
+    try (InputStream in = file.getInputStream()) {
+      return contentSpooler.spool(in);
+    }
+  }
+
+  private void storeContent(FileStorage fileStorage, SpooledContent content) {
+    ContentCodec codec = compressionPolicy.codecFor(fileStorage.getType());
+    try (SpooledContent encoded = codec == ContentCodec.NONE ? null : encode(codec, content)) {
+      SpooledContent stored = content;
+      if (encoded != null && encoded.size() < content.size()) {
+        stored = encoded;
+      } else {
+        codec = ContentCodec.NONE;
+      }
+      String key = codec.storageKey(content.sha256());
+      String previousKey = fileStorage.getStorageKey();
+      boolean changed = !key.equals(previousKey);
+      fileStorage.setSizeBytes(content.size());
+      fileStorage.setSha256(content.sha256());
+      fileStorage.setStorageKey(key);
+      fileStorage.setCodec(codec);
+      fileStorage.setStoredSizeBytes(stored.size());
+      if (changed) {
+        // reference first: this locks the content against a concurrent sweep before it is written
+        fileContentService.acquire(fileStorage);
+      }
+      // stores outside the database keep this content if the transaction rolls back;
+      // BlobStoreReconciliationService registers it for collection later
+      try (InputStream in = stored.openStream()) {
+        blobStore.put(key, in, stored.size());
+      }
+      if (changed) {
+        fileContentService.release(previousKey);
+      }
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_WRITE_ERROR + fileStorage.getFilename(), e);
+    }
+  }
+
+  private SpooledContent encode(ContentCodec codec, SpooledContent content) throws IOException {
+    try (InputStream in = codec.encode(content.openStream(), compressionPolicy.level())) {
+      return contentSpooler.spool(in);
+    }
+  }
+
+  private static ContentCodec codecOf(FileStorage fileStorage) {
+    return fileStorage.getCodec() == null ? ContentCodec.NONE : fileStorage.getCodec();
+  }
 }
@@ -0,0 +1,89 @@
+package tools.vitruv.methodologist.general.service;
+
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.vitruv.methodologist.general.model.repository.BlobContentRepository;
+import tools.vitruv.methodologist.general.storage.LargeObjectMetrics;
+
+/**
+ * Reclaims PostgreSQL large objects that no stored content refers to anymore.
+ *
+ * <p>Deleting a {@code blob_content} row unlinks its large object through a trigger, but large
+ * objects left behind before that trigger existed, or by content migrated to another blob store,
+ * stay in {@code pg_largeobject} until they are unlinked explicitly. This job finds them in
+ * batches, each in its own transaction. An advisory lock keeps multiple instances from reconciling
+ * at the same time.
+ */
+@Service
+@Slf4j
+public class LargeObjectReconciliationService {
+  static final long LOCK_KEY = 0x6c6f5f7265636f6eL;
+
+  private final LargeObjectReconciliationService self;
+  private final BlobContentRepository blobContentRepository;
+  private final LargeObjectMetrics largeObjectMetrics;
+  private final int batchSize;
+
+  /**
+   * Constructs a {@link LargeObjectReconciliationService}.
+   *
+   * @param self lazy-loaded self-reference for transactional batch calls
+   * @param blobContentRepository repository of the content stored in the database
+   * @param largeObjectMetrics metrics recording the reclaimed large objects
+   * @param batchSize number of large objects unlinked per transaction
+   */
+  public LargeObjectReconciliationService(
+      @Lazy LargeObjectReconciliationService self,
+      BlobContentRepository blobContentRepository,
+      LargeObjectMetrics largeObjectMetrics,
+      @Value("${storage.large-objects.batch-size:100}") int batchSize) {
+    this.self = self;
+    this.blobContentRepository = blobContentRepository;
+    this.largeObjectMetrics = largeObjectMetrics;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Scheduled task that unlinks orphaned large objects.
+   *
+   * <p>Runs daily at 01:30 by default, after the file content collection.
+   */
+  @Scheduled(cron = "${storage.large-objects.reconciliation-cron:0 30 1 * * ?}")
+  public void reconcile() {
+    long objects = 0;
+    long bytes = 0;
+    List<Long> batch;
+    do {
+      batch = self.reconcileBatch();
+      objects += batch.size();
+      bytes += batch.stream().mapToLong(Long::longValue).sum();
+    } while (batch.size() == batchSize);
+    log.info("Large object reconciliation: unlinked {} objects, {} bytes", objects, bytes);
+  }
+
+  /**
+   * Unlinks up to one batch of orphaned large objects. Does nothing if another instance is
+   * reconciling.
+   *
+   * @return the sizes of the unlinked large objects
+   */
+  @Transactional
+  public List<Long> reconcileBatch() {
+    if (!blobContentRepository.tryAdvisoryLock(LOCK_KEY)) {
+      return List.of();
+    }
+    List<Long> sizes = blobContentRepository.unlinkOrphanedLargeObjects(batchSize);
+    if (!sizes.isEmpty()) {
+      largeObjectMetrics.reclaimed(
+          LargeObjectMetrics.SOURCE_RECONCILIATION,
+          sizes.size(),
+          sizes.stream().mapToLong(Long::longValue).sum());
+    }
+    return sizes;
+  }
+}
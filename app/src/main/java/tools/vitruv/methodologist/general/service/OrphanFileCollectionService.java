@@ -0,0 +1,164 @@
+package tools.vitruv.methodologist.general.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.model.repository.FileStorageRepository;
+
+/**
+ * Deletes stored files that nothing refers to anymore.
+ *
+ * <p>Files are uploaded before they are attached to a meta model, relation, view or constraint rule
+ * set, and replacing a rule set's OCL file leaves the previous one behind. Files that stay
+ * unattached for longer than the grace period are deleted in batches, each in its own transaction,
+ * until none are left or the time budget of the run is used up. Files still referenced by a VSUM
+ * history snapshot are kept, since restoring the snapshot reattaches them.
+ *
+ * <p>Deleting a file only releases its content; the content itself is reclaimed afterwards by the
+ * {@link FileContentService} collection. An advisory lock keeps multiple instances from collecting
+ * at the same time.
+ */
+@Service
+@Slf4j
+public class OrphanFileCollectionService {
+  static final long LOCK_KEY = 0x6f727068616e6673L;
+
+  private final OrphanFileCollectionService self;
+  private final FileStorageRepository fileStorageRepository;
+  private final FileContentService fileContentService;
+  private final int batchSize;
+  private final Duration gracePeriod;
+  private final Duration timeBudget;
+  private final Clock clock;
+  private final Counter deletedFiles;
+  private final Counter deletedBytes;
+  private final Timer runs;
+
+  /**
+   * Constructs an {@link OrphanFileCollectionService}.
+   *
+   * @param self lazy-loaded self-reference for transactional batch calls
+   * @param fileStorageRepository repository of the stored files
+   * @param fileContentService service tracking the references to stored content
+   * @param meterRegistry the registry the collection metrics are published to
+   * @param batchSize number of files deleted per transaction
+   * @param gracePeriod minimum age of a file before it is deleted
+   * @param timeBudget time after which a run stops starting new batches
+   */
+  @Autowired
+  public OrphanFileCollectionService(
+      @Lazy OrphanFileCollectionService self,
+      FileStorageRepository fileStorageRepository,
+      FileContentService fileContentService,
+      MeterRegistry meterRegistry,
+      @Value("${storage.orphans.batch-size:100}") int batchSize,
+      @Value("${storage.orphans.grace-period:24h}") Duration gracePeriod,
+      @Value("${storage.orphans.time-budget:5m}") Duration timeBudget) {
+    this(
+        self,
+        fileStorageRepository,
+        fileContentService,
+        meterRegistry,
+        batchSize,
+        gracePeriod,
+        timeBudget,
+        Clock.systemUTC());
+  }
+
+  OrphanFileCollectionService(
+      OrphanFileCollectionService self,
+      FileStorageRepository fileStorageRepository,
+      FileContentService fileContentService,
+      MeterRegistry meterRegistry,
+      int batchSize,
+      Duration gracePeriod,
+      Duration timeBudget,
+      Clock clock) {
+    this.self = self;
+    this.fileStorageRepository = fileStorageRepository;
+    this.fileContentService = fileContentService;
+    this.batchSize = batchSize;
+    this.gracePeriod = gracePeriod;
+    this.timeBudget = timeBudget;
+    this.clock = clock;
+    this.deletedFiles =
+        Counter.builder("storage.orphan_files.deleted")
+            .description("Unreferenced files deleted by the orphan collection")
+            .register(meterRegistry);
+    this.deletedBytes =
+        Counter.builder("storage.orphan_files.deleted.bytes")
+            .description("Bytes of unreferenced files deleted by the orphan collection")
+            .baseUnit(BaseUnits.BYTES)
+            .register(meterRegistry);
+    this.runs =
+        Timer.builder("storage.orphan_files.collection")
+            .description("Duration of the orphan file collection runs")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Scheduled task that deletes unreferenced files.
+   *
+   * <p>Runs daily at 00:45 by default, before the file content collection, so content freed here is
+   * marked in the same night.
+   */
+  @Scheduled(cron = "${storage.orphans.cron:0 45 0 * * ?}")
+  public void collect() {
+    Instant start = clock.instant();
+    Instant deadline = start.plus(timeBudget);
+    int deleted = 0;
+    int batch;
+    do {
+      batch = self.deleteBatch();
+      deleted += batch;
+    } while (batch == batchSize && clock.instant().isBefore(deadline));
+    Duration elapsed = Duration.between(start, clock.instant());
+    runs.record(elapsed);
+
+    if (batch == batchSize) {
+      log.warn(
+          "Orphan file collection: deleted {} files, time budget of {} exhausted",
+          deleted,
+          timeBudget);
+    } else {
+      log.info("Orphan file collection: deleted {} files in {}", deleted, elapsed);
+    }
+  }
+
+  /**
+   * Deletes up to one batch of files that are older than the grace period and unreferenced. Does
+   * nothing if another instance is collecting.
+   *
+   * @return the number of deleted files
+   */
+  @Transactional
+  public int deleteBatch() {
+    if (!fileStorageRepository.tryAdvisoryLock(LOCK_KEY)) {
+      return 0;
+    }
+    List<FileStorage> orphans =
+        fileStorageRepository.lockOrphans(gracePeriod.toSeconds(), batchSize);
+    if (orphans.isEmpty()) {
+      return 0;
+    }
+    orphans.forEach(file -> fileContentService.release(file.getStorageKey()));
+    fileStorageRepository.deleteAll(orphans);
+
+    deletedFiles.increment(orphans.size());
+    deletedBytes.increment(orphans.stream().mapToLong(FileStorage::getSizeBytes).sum());
+    return orphans.size();
+  }
+}
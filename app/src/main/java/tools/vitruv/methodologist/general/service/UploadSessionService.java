@@ -0,0 +1,488 @@
+package tools.vitruv.methodologist.general.service;
+
+import static tools.vitruv.methodologist.messages.Error.FILE_CONTENT_WRITE_ERROR;
+import static tools.vitruv.methodologist.messages.Error.UPLOAD_CHUNK_TOO_LARGE_ERROR;
+import static tools.vitruv.methodologist.messages.Error.UPLOAD_FILE_TOO_LARGE_ERROR;
+import static tools.vitruv.methodologist.messages.Error.UPLOAD_INCOMPLETE_ERROR;
+import static tools.vitruv.methodologist.messages.Error.UPLOAD_OFFSET_MISMATCH_ERROR;
+import static tools.vitruv.methodologist.messages.Error.UPLOAD_PART_FILE_MISSING_ERROR;
+import static tools.vitruv.methodologist.messages.Error.UPLOAD_SESSION_NOT_FOUND_ERROR;
+import static tools.vitruv.methodologist.messages.Error.UPLOAD_SIZE_EXCEEDED_ERROR;
+import static tools.vitruv.methodologist.messages.Error.USER_EMAIL_NOT_FOUND_ERROR;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import tools.vitruv.methodologist.exception.FileAlreadyExistsException;
+import tools.vitruv.methodologist.exception.FileContentException;
+import tools.vitruv.methodologist.exception.FileHashingException;
+import tools.vitruv.methodologist.exception.NotFoundException;
+import tools.vitruv.methodologist.exception.UploadSessionConflictException;
+import tools.vitruv.methodologist.general.controller.requestdto.UploadSessionPostRequest;
+import tools.vitruv.methodologist.general.controller.responsedto.FileStorageResponse;
+import tools.vitruv.methodologist.general.controller.responsedto.UploadSessionResponse;
+import tools.vitruv.methodologist.general.model.UploadSession;
+import tools.vitruv.methodologist.general.model.repository.UploadSessionRepository;
+import tools.vitruv.methodologist.general.storage.SpooledContent;
+import tools.vitruv.methodologist.messages.Error;
+import tools.vitruv.methodologist.user.model.User;
+import tools.vitruv.methodologist.user.model.repository.UserRepository;
+
+/**
+ * Service implementing resumable, chunked uploads.
+ *
+ * <p>A client announces a file with {@link #create(String, UploadSessionPostRequest)}, sends its
+ * content in chunks with {@link #writeChunk(String, String, long, InputStream)} and finishes with
+ * {@link #complete(String, String)}, which stores the assembled file through {@link
+ * FileStorageService} with the usual deduplication. Chunks are appended to a part file on disk, so
+ * neither a chunk nor the file is held on the heap, and an interrupted upload continues at the
+ * {@code receivedBytes} reported by {@link #status(String, String)}.
+ *
+ * <p>A chunk is first received into a chunk file of its own, without holding a database connection,
+ * so a slow client does not tie one up. Only then is the session row locked, the chunk appended to
+ * the part file from the local disk and the session updated. A chunk either lands completely or not
+ * at all: a failed chunk is cut off the part file again and the upload continues at the chunk's
+ * offset. The SHA-256 is computed incrementally while chunks are appended; the digest state is kept
+ * in memory only and rebuilt from the part file when it does not match the session, for example
+ * after a restart or a retried chunk. Sessions that are not completed in time are purged together
+ * with their part files.
+ *
+ * <p>Sessions are stored in the database, but part files live in {@code storage.upload.directory}.
+ * With several instances, that directory must be shared by all of them, or all requests of an
+ * upload must be routed to the instance that created it; otherwise chunks sent to another instance
+ * are rejected.
+ */
+@Service
+@Slf4j
+public class UploadSessionService {
+  private static final int COPY_BUFFER_SIZE = 8192;
+  private static final String PART_SUFFIX = ".part";
+  private static final String CHUNK_SUFFIX = ".chunk";
+
+  private final UploadSessionService self;
+  private final UploadSessionRepository uploadSessionRepository;
+  private final UserRepository userRepository;
+  private final FileStorageService fileStorageService;
+  private final Path directory;
+  private final long maxFileSizeBytes;
+  private final long chunkSizeBytes;
+  private final Duration sessionTtl;
+  private final Clock clock;
+  private final Map<String, HashState> hashStates = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs an {@link UploadSessionService}.
+   *
+   * @param self lazy-loaded self-reference for the transactional chunk append
+   * @param uploadSessionRepository repository of the open upload sessions
+   * @param userRepository repository used to resolve the uploading user
+   * @param fileStorageService service storing completed uploads
+   * @param directory directory holding the part files
+   * @param maxFileSize largest file that can be uploaded
+   * @param chunkSize largest chunk accepted per request
+   * @param sessionTtl time after which an incomplete upload is discarded
+   */
+  @Autowired
+  public UploadSessionService(
+      @Lazy UploadSessionService self,
+      UploadSessionRepository uploadSessionRepository,
+      UserRepository userRepository,
+      FileStorageService fileStorageService,
+      @Value("${storage.upload.directory:${java.io.tmpdir}/methodologist-uploads}") Path directory,
+      @Value("${storage.upload.max-file-size:1GB}") DataSize maxFileSize,
+      @Value("${storage.upload.chunk-size:8MB}") DataSize chunkSize,
+      @Value("${storage.upload.session-ttl:24h}") Duration sessionTtl) {
+    this(
+        self,
+        uploadSessionRepository,
+        userRepository,
+        fileStorageService,
+        directory,
+        maxFileSize,
+        chunkSize,
+        sessionTtl,
+        Clock.systemUTC());
+  }
+
+  UploadSessionService(
+      UploadSessionService self,
+      UploadSessionRepository uploadSessionRepository,
+      UserRepository userRepository,
+      FileStorageService fileStorageService,
+      Path directory,
+      DataSize maxFileSize,
+      DataSize chunkSize,
+      Duration sessionTtl,
+      Clock clock) {
+    this.self = self;
+    this.uploadSessionRepository = uploadSessionRepository;
+    this.userRepository = userRepository;
+    this.fileStorageService = fileStorageService;
+    this.directory = directory;
+    this.maxFileSizeBytes = maxFileSize.toBytes();
+    this.chunkSizeBytes = chunkSize.toBytes();
+    this.sessionTtl = sessionTtl;
+    this.clock = clock;
+  }
+
+  /**
+   * Opens an upload session for a file of the announced size.
+   *
+   * @param callerUserEmail email of the uploading user
+   * @param request description of the file
+   * @return the new session
+   * @throws NotFoundException if the user email is not found
+   * @throws UploadSessionConflictException if the file exceeds the maximum file size
+   * @throws FileContentException if the part file cannot be created
+   */
+  @Transactional
+  public UploadSessionResponse create(String callerUserEmail, UploadSessionPostRequest request) {
+    User user =
+        userRepository
+            .findByEmailIgnoreCaseAndRemovedAtIsNull(callerUserEmail)
+            .orElseThrow(() -> new NotFoundException(USER_EMAIL_NOT_FOUND_ERROR));
+    if (request.getSize() > maxFileSizeBytes) {
+      throw new UploadSessionConflictException(
+          String.format(UPLOAD_FILE_TOO_LARGE_ERROR, maxFileSizeBytes));
+    }
+
+    UploadSession session =
+        UploadSession.builder()
+            .uploadId(UUID.randomUUID().toString())
+            .user(user)
+            .filename(request.getFilename())
+            .contentType(
+                request.getContentType() == null
+                    ? "application/octet-stream"
+                    : request.getContentType())
+            .type(request.getType())
+            .totalSize(request.getSize())
+            .receivedBytes(0)
+            .expiresAt(clock.instant().plus(sessionTtl))
+            .build();
+    try {
+      Files.createDirectories(directory);
+      Files.deleteIfExists(partFile(session));
+      Files.createFile(partFile(session));
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_WRITE_ERROR + session.getFilename(), e);
+    }
+    uploadSessionRepository.save(session);
+    return toResponse(session);
+  }
+
+  /**
+   * Returns the state of an upload session, in particular the offset the next chunk has to start
+   * at.
+   *
+   * @param callerUserEmail email of the user owning the session
+   * @param uploadId the session identifier
+   * @return the session state
+   * @throws NotFoundException if the session does not exist or belongs to another user
+   */
+  @Transactional(readOnly = true)
+  public UploadSessionResponse status(String callerUserEmail, String uploadId) {
+    return toResponse(
+        uploadSessionRepository
+            .findByUploadIdAndUser_EmailAndUser_RemovedAtIsNull(uploadId, callerUserEmail)
+            .orElseThrow(() -> new NotFoundException(UPLOAD_SESSION_NOT_FOUND_ERROR)));
+  }
+
+  /**
+   * Writes one chunk of the file, starting at {@code offset}.
+   *
+   * <p>The offset must not be beyond the bytes received so far; a smaller offset replaces the
+   * content from there on, which lets a client retry a chunk whose response got lost. The chunk
+   * must neither exceed the configured chunk size nor the announced file size. The chunk is
+   * received before the session is locked, see {@link #appendChunk(String, String, long, Path)}.
+   *
+   * @param callerUserEmail email of the user owning the session
+   * @param uploadId the session identifier
+   * @param offset position of the first chunk byte within the file
+   * @param chunk the chunk content; not closed
+   * @return the session state after the chunk
+   * @throws NotFoundException if the session does not exist or belongs to another user
+   * @throws UploadSessionConflictException if the chunk does not fit the session
+   * @throws FileContentException if the chunk cannot be read or written
+   */
+  public UploadSessionResponse writeChunk(
+      String callerUserEmail, String uploadId, long offset, InputStream chunk) {
+    UploadSessionResponse current = self.status(callerUserEmail, uploadId);
+    checkOffset(offset, current.getReceivedBytes());
+    long limit = Math.min(chunkSizeBytes, current.getSize() - offset);
+
+    Path chunkFile = null;
+    try {
+      Files.createDirectories(directory);
+      chunkFile = Files.createTempFile(directory, uploadId + "-", CHUNK_SUFFIX);
+      try (FileChannel channel = FileChannel.open(chunkFile, StandardOpenOption.WRITE)) {
+        copy(chunk, channel, 0, limit, null);
+      }
+      if (chunk.read() != -1) {
+        throw new UploadSessionConflictException(
+            limit == chunkSizeBytes
+                ? String.format(UPLOAD_CHUNK_TOO_LARGE_ERROR, chunkSizeBytes)
+                : String.format(UPLOAD_SIZE_EXCEEDED_ERROR, current.getSize()));
+      }
+      return self.appendChunk(callerUserEmail, uploadId, offset, chunkFile);
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_WRITE_ERROR + uploadId, e);
+    } finally {
+      deleteQuietly(chunkFile);
+    }
+  }
+
+  /**
+   * Appends a received chunk to the part file of its session, while the session row is locked.
+   *
+   * @param callerUserEmail email of the user owning the session
+   * @param uploadId the session identifier
+   * @param offset position of the first chunk byte within the file
+   * @param chunkFile file holding the complete chunk; not deleted
+   * @return the session state after the chunk
+   * @throws NotFoundException if the session does not exist or belongs to another user
+   * @throws UploadSessionConflictException if the offset no longer matches the session or its part
+   *     file is not available on this instance
+   * @throws FileContentException if the chunk cannot be written
+   */
+  @Transactional(noRollbackFor = {UploadSessionConflictException.class, FileContentException.class})
+  public UploadSessionResponse appendChunk(
+      String callerUserEmail, String uploadId, long offset, Path chunkFile) {
+    UploadSession session = lock(callerUserEmail, uploadId);
+    checkOffset(offset, session.getReceivedBytes());
+    Path partFile = partFile(session);
+    if (!Files.exists(partFile)) {
+      throw new UploadSessionConflictException(UPLOAD_PART_FILE_MISSING_ERROR);
+    }
+
+    HashState state = hashStates.remove(uploadId);
+    try (FileChannel channel =
+            FileChannel.open(partFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        InputStream chunk = Files.newInputStream(chunkFile)) {
+      // from here on, a failed chunk leaves the upload at its offset, so the client can retry it
+      session.setReceivedBytes(offset);
+      uploadSessionRepository.save(session);
+      channel.truncate(offset);
+      if (state == null || state.position() != offset) {
+        state = new HashState(digestPrefix(channel, offset), offset);
+      }
+      long written = copy(chunk, channel, offset, Long.MAX_VALUE, state.digest());
+      channel.force(false);
+      session.setReceivedBytes(offset + written);
+      hashStates.put(uploadId, new HashState(state.digest(), offset + written));
+    } catch (IOException e) {
+      truncateQuietly(partFile, offset);
+      throw new FileContentException(FILE_CONTENT_WRITE_ERROR + session.getFilename(), e);
+    }
+    uploadSessionRepository.save(session);
+    return toResponse(session);
+  }
+
+  /**
+   * Completes an upload whose content has been received in full and stores it as a file of the
+   * user. The session ends, also if the user already owns a file with the same content.
+   *
+   * @param callerUserEmail email of the user owning the session
+   * @param uploadId the session identifier
+   * @return FileStorageResponse containing the stored file's ID
+   * @throws NotFoundException if the session does not exist or belongs to another user
+   * @throws UploadSessionConflictException if not all bytes have been received yet
+   * @throws FileAlreadyExistsException if the user already owns a file with identical content
+   */
+  @Transactional(noRollbackFor = FileAlreadyExistsException.class)
+  public FileStorageResponse complete(String callerUserEmail, String uploadId) {
+    UploadSession session = lock(callerUserEmail, uploadId);
+    if (session.getReceivedBytes() != session.getTotalSize()) {
+      throw new UploadSessionConflictException(
+          String.format(
+              UPLOAD_INCOMPLETE_ERROR, session.getReceivedBytes(), session.getTotalSize()));
+    }
+
+    Path file = partFile(session);
+    HashState state = hashStates.remove(uploadId);
+    String sha256;
+    try {
+      if (state == null || state.position() != session.getTotalSize()) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+          state = new HashState(digestPrefix(channel, session.getTotalSize()), 0);
+        }
+      }
+      sha256 = HexFormat.of().formatHex(state.digest().digest());
+    } catch (IOException e) {
+      throw new FileContentException(FILE_CONTENT_WRITE_ERROR + session.getFilename(), e);
+    }
+
+    FileStorageResponse response;
+    try {
+      response =
+          fileStorageService.storeUpload(
+              session.getUser(),
+              SpooledContent.adopt(file, session.getTotalSize(), sha256),
+              session.getFilename(),
+              session.getContentType(),
+              session.getType());
+    } catch (FileAlreadyExistsException e) {
+      discard(session);
+      throw e;
+    }
+    discard(session);
+    return response;
+  }
+
+  /**
+   * Cancels an upload and discards the bytes received so far.
+   *
+   * @param callerUserEmail email of the user owning the session
+   * @param uploadId the session identifier
+   * @throws NotFoundException if the session does not exist or belongs to another user
+   */
+  @Transactional
+  public void abort(String callerUserEmail, String uploadId) {
+    discard(lock(callerUserEmail, uploadId));
+  }
+
+  /**
+   * Scheduled task that discards expired upload sessions and their part files.
+   *
+   * <p>Runs every 15 minutes by default.
+   */
+  @Scheduled(cron = "${storage.upload.cleanup-cron:0 */15 * * * ?}")
+  @Transactional
+  public void purgeExpired() {
+    List<UploadSession> expired = uploadSessionRepository.findByExpiresAtBefore(clock.instant());
+    expired.forEach(this::discard);
+    if (!expired.isEmpty()) {
+      log.info("Discarded {} expired upload sessions", expired.size());
+    }
+  }
+
+  private UploadSession lock(String callerUserEmail, String uploadId) {
+    return uploadSessionRepository
+        .lockByUploadIdAndUserEmail(uploadId, callerUserEmail)
+        .orElseThrow(() -> new NotFoundException(UPLOAD_SESSION_NOT_FOUND_ERROR));
+  }
+
+  private static void checkOffset(long offset, long receivedBytes) {
+    if (offset < 0 || offset > receivedBytes) {
+      throw new UploadSessionConflictException(
+          String.format(UPLOAD_OFFSET_MISMATCH_ERROR, offset, receivedBytes));
+    }
+  }
+
+  private void discard(UploadSession session) {
+    hashStates.remove(session.getUploadId());
+    uploadSessionRepository.delete(session);
+    try {
+      Files.deleteIfExists(partFile(session));
+    } catch (IOException e) {
+      log.warn("Failed to delete part file of upload {}", session.getUploadId(), e);
+    }
+    // chunks are deleted once appended; this only finds those of an instance that stopped
+    try (DirectoryStream<Path> chunks =
+        Files.newDirectoryStream(directory, session.getUploadId() + "-*" + CHUNK_SUFFIX)) {
+      chunks.forEach(UploadSessionService::deleteQuietly);
+    } catch (IOException e) {
+      log.warn("Failed to delete chunk files of upload {}", session.getUploadId(), e);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Failed to delete chunk file {}", file, e);
+    }
+  }
+
+  private static void truncateQuietly(Path file, long size) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(size);
+    } catch (IOException e) {
+      log.warn("Failed to truncate part file {}", file, e);
+    }
+  }
+
+  private Path partFile(UploadSession session) {
+    return directory.resolve(session.getUploadId() + PART_SUFFIX);
+  }
+
+  private UploadSessionResponse toResponse(UploadSession session) {
+    return UploadSessionResponse.builder()
+        .uploadId(session.getUploadId())
+        .size(session.getTotalSize())
+        .receivedBytes(session.getReceivedBytes())
+        .chunkSize(chunkSizeBytes)
+        .expiresAt(session.getExpiresAt())
+        .build();
+  }
+
+  private static long copy(
+      InputStream in, FileChannel channel, long position, long limit, MessageDigest digest)
+      throws IOException {
+    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+    long written = 0;
+    int read;
+    while (written < limit
+        && (read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - written))) != -1) {
+      if (digest != null) {
+        digest.update(buffer, 0, read);
+      }
+      ByteBuffer source = ByteBuffer.wrap(buffer, 0, read);
+      while (source.hasRemaining()) {
+        written += channel.write(source, position + written);
+      }
+    }
+    return written;
+  }
+
+  private static MessageDigest digestPrefix(FileChannel channel, long length) throws IOException {
+    MessageDigest digest = newSha256();
+    ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+    long position = 0;
+    while (position < length) {
+      buffer.clear().limit((int) Math.min(buffer.capacity(), length - position));
+      int read = channel.read(buffer, position);
+      if (read == -1) {
+        throw new IOException("Part file is shorter than the received bytes");
+      }
+      digest.update(buffer.flip());
+      position += read;
+    }
+    return digest;
+  }
+
+  private static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new FileHashingException(Error.FILE_HASHING_EXCEPTION, e);
+    }
+  }
+
+  private record HashState(MessageDigest digest, long position) {}
+}
@@ -0,0 +1,363 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static tools.vitruv.methodologist.messages.Error.BUILD_ARTIFACT_TOO_LARGE_ERROR;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import tools.vitruv.methodologist.exception.BuildArtifactCreationException;
+
+/**
+ * Disk-backed cache of generated build artifacts, keyed by a hash of the build inputs.
+ *
+ * <p>Artifacts are kept as files under {@code storage.artifact-cache.directory} and evicted least
+ * recently used first once their total size exceeds {@code storage.artifact-cache.max-size}.
+ * Artifacts larger than {@code storage.artifact-cache.max-entry-size} are rejected, since they
+ * could not be kept for later downloads. The access order is kept in the file modification times,
+ * so the cache survives restarts.
+ *
+ * <p>Artifacts are written to disk as they are produced and served from there, so neither building
+ * nor downloading one holds it in memory. An artifact is pinned while a stream opened on it is
+ * open; evicting a pinned artifact only removes it from the cache, and its file is deleted once the
+ * last stream is closed. Several instances may share the directory; artifacts written by one
+ * instance are served by the others, while each instance enforces the size limit on its own.
+ */
+@Component
+@Slf4j
+public class ArtifactCache {
+  static final String CACHE_NAME = "build_artifacts";
+  private static final String SUFFIX = ".bin";
+  private static final Pattern KEY = Pattern.compile("[0-9a-f]{16,128}");
+
+  private final Path directory;
+  private final long maxBytes;
+  private final long maxEntryBytes;
+  private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, Integer> pins = new HashMap<>();
+  private final Set<String> evictedWhilePinned = new HashSet<>();
+  private long totalBytes;
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  /**
+   * Constructs an ArtifactCache and loads the artifacts already present in its directory.
+   *
+   * @param directory directory holding the cached artifacts
+   * @param maxSize total size of the cached artifacts
+   * @param maxEntrySize size of the largest artifact that is cached
+   * @param meterRegistry the registry the cache metrics are published to
+   * @throws IOException if the directory cannot be created or read
+   */
+  public ArtifactCache(
+      @Value("${storage.artifact-cache.directory:${java.io.tmpdir}/methodologist-artifacts}")
+          Path directory,
+      @Value("${storage.artifact-cache.max-size:2GB}") DataSize maxSize,
+      @Value("${storage.artifact-cache.max-entry-size:512MB}") DataSize maxEntrySize,
+      MeterRegistry meterRegistry)
+      throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.maxBytes = maxSize.toBytes();
+    this.maxEntryBytes = Math.min(maxEntrySize.toBytes(), maxBytes);
+    this.hits = gets(meterRegistry, "hit");
+    this.misses = gets(meterRegistry, "miss");
+    this.evictions =
+        Counter.builder("cache.evictions")
+            .description("Artifacts evicted from the cache")
+            .tag("cache", CACHE_NAME)
+            .register(meterRegistry);
+    Gauge.builder("cache.weighted.size", this, ArtifactCache::totalBytes)
+        .description("Bytes of artifacts held in the cache")
+        .baseUnit(BaseUnits.BYTES)
+        .tag("cache", CACHE_NAME)
+        .register(meterRegistry);
+    load();
+  }
+
+  /**
+   * Returns the artifact cached under {@code key}, building and caching it if it is not present.
+   * The builder runs outside any lock, so concurrent misses for the same key may each build it;
+   * callers that need a single build per key coalesce their calls themselves.
+   *
+   * @param key hex-encoded hash of the build inputs
+   * @param builder writes the artifact on a miss
+   * @return the artifact
+   * @throws UncheckedIOException if the artifact cannot be written to the cache directory
+   * @throws BuildArtifactCreationException if the artifact is larger than the entry limit
+   */
+  public CachedArtifact computeIfAbsent(String key, ArtifactWriter builder) {
+    Optional<CachedArtifact> cached = get(key);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    try {
+      return put(key, builder);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not store build artifact " + key, e);
+    }
+  }
+
+  /**
+   * Returns the artifact cached under {@code key} and marks it as most recently used. An artifact
+   * written to the directory by another instance sharing it is picked up as well.
+   *
+   * @param key hex-encoded hash of the build inputs
+   * @return the cached artifact; empty on a miss
+   */
+  public Optional<CachedArtifact> get(String key) {
+    Path file = fileOf(key);
+    synchronized (this) {
+      if (entries.get(key) == null && !adopt(key, file)) {
+        misses.increment();
+        return Optional.empty();
+      }
+      try {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      } catch (NoSuchFileException e) {
+        totalBytes -= entries.remove(key);
+        misses.increment();
+        return Optional.empty();
+      } catch (IOException e) {
+        log.debug("Could not update the access time of build artifact {}", key, e);
+      }
+      hits.increment();
+    }
+    return Optional.of(new CachedArtifact(key, new PinnedFileResource(key, file)));
+  }
+
+  /**
+   * Caches the given artifact, evicting the least recently used artifacts as needed.
+   *
+   * @param key hex-encoded hash of the build inputs
+   * @param artifact the artifact content
+   * @return the artifact
+   * @throws IOException if the artifact cannot be written
+   * @throws BuildArtifactCreationException if the artifact is larger than the entry limit
+   */
+  public CachedArtifact put(String key, byte[] artifact) throws IOException {
+    return put(key, file -> Files.write(file, artifact));
+  }
+
+  /**
+   * Caches the artifact written by {@code writer}, evicting the least recently used artifacts as
+   * needed. The artifact is written to a temporary file in the cache directory, so it never has to
+   * fit in memory.
+   *
+   * @param key hex-encoded hash of the build inputs
+   * @param writer writes the artifact content to the given file
+   * @return the artifact
+   * @throws IOException if the artifact cannot be written
+   * @throws BuildArtifactCreationException if the artifact is larger than the entry limit; it is
+   *     deleted again
+   */
+  public CachedArtifact put(String key, ArtifactWriter writer) throws IOException {
+    Path file = fileOf(key);
+    Path temp = Files.createTempFile(directory, key, ".tmp");
+    long size;
+    try {
+      writer.write(temp);
+      size = Files.size(temp);
+      if (size > maxEntryBytes) {
+        throw new BuildArtifactCreationException(
+            String.format(BUILD_ARTIFACT_TOO_LARGE_ERROR, size, maxEntryBytes));
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+
+    synchronized (this) {
+      try {
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        Files.deleteIfExists(temp);
+        throw e;
+      }
+      evictedWhilePinned.remove(key);
+      Long previous = entries.put(key, size);
+      totalBytes += size - (previous == null ? 0 : previous);
+      Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+      while (totalBytes > maxBytes && eldest.hasNext()) {
+        Map.Entry<String, Long> entry = eldest.next();
+        if (!entry.getKey().equals(key)) {
+          totalBytes -= entry.getValue();
+          eldest.remove();
+          evict(entry.getKey());
+        }
+      }
+    }
+    return new CachedArtifact(key, new PinnedFileResource(key, file));
+  }
+
+  /** Deletes the file of an artifact removed from the cache, or defers it while it is pinned. */
+  private void evict(String key) throws IOException {
+    evictions.increment();
+    if (pins.containsKey(key)) {
+      evictedWhilePinned.add(key);
+    } else {
+      Files.deleteIfExists(fileOf(key));
+    }
+  }
+
+  private synchronized void pin(String key) {
+    pins.merge(key, 1, Integer::sum);
+  }
+
+  private synchronized void unpin(String key) {
+    if (pins.merge(key, -1, Integer::sum) > 0) {
+      return;
+    }
+    pins.remove(key);
+    if (evictedWhilePinned.remove(key)) {
+      try {
+        Files.deleteIfExists(fileOf(key));
+      } catch (IOException e) {
+        log.warn("Could not delete evicted build artifact {}", key, e);
+      }
+    }
+  }
+
+  private boolean adopt(String key, Path file) {
+    try {
+      long size = Files.size(file);
+      evictedWhilePinned.remove(key);
+      entries.put(key, size);
+      totalBytes += size;
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  synchronized long totalBytes() {
+    return totalBytes;
+  }
+
+  private void load() throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path file : stream) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(SUFFIX)) {
+          files.add(file);
+        } else if (name.endsWith(".tmp")) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+    files.sort(Comparator.comparing(ArtifactCache::lastModified));
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      long size = Files.size(file);
+      entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+      totalBytes += size;
+    }
+    Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+    while (totalBytes > maxBytes && eldest.hasNext()) {
+      Map.Entry<String, Long> entry = eldest.next();
+      totalBytes -= entry.getValue();
+      Files.deleteIfExists(fileOf(entry.getKey()));
+      eldest.remove();
+    }
+  }
+
+  private Path fileOf(String key) {
+    if (!KEY.matcher(key).matches()) {
+      throw new IllegalArgumentException("Invalid artifact key: " + key);
+    }
+    return directory.resolve(key + SUFFIX);
+  }
+
+  private static FileTime lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  /** Writes an artifact to a file. */
+  @FunctionalInterface
+  public interface ArtifactWriter {
+    /**
+     * Writes the artifact content to {@code target}, replacing the content of the empty file.
+     *
+     * @param target the file to write to
+     * @throws IOException if the artifact cannot be written
+     */
+    void write(Path target) throws IOException;
+  }
+
+  /** A cached artifact file that is pinned while a stream opened on it is open. */
+  private final class PinnedFileResource extends FileSystemResource {
+    private final String key;
+
+    PinnedFileResource(String key, Path file) {
+      super(file);
+      this.key = key;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      pin(key);
+      InputStream in;
+      try {
+        in = super.getInputStream();
+      } catch (IOException | RuntimeException e) {
+        unpin(key);
+        throw e;
+      }
+      return new FilterInputStream(in) {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+          if (closed) {
+            return;
+          }
+          closed = true;
+          try {
+            super.close();
+          } finally {
+            unpin(key);
+          }
+        }
+      };
+    }
+  }
+
+  private static Counter gets(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("cache.gets")
+        .description("Build artifact lookups")
+        .tag("cache", CACHE_NAME)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,90 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for the payload of stored files.
+ *
+ * <p>{@link tools.vitruv.methodologist.general.model.FileStorage} only keeps metadata and the key
+ * under which its content lives in the store. Keys are derived from the content (its SHA-256), so
+ * storing the same content twice is a no-op and a key always refers to the same bytes.
+ */
+public interface BlobStore {
+
+  /**
+   * Stores {@code content} under {@code key} unless content with that key already exists.
+   *
+   * <p>The stream is consumed before this method returns, but it is not closed.
+   *
+   * @param key the content key
+   * @param content the content to store
+   * @param size the number of bytes in {@code content}
+   * @throws IOException if the content cannot be written
+   */
+  void put(String key, InputStream content, long size) throws IOException;
+
+  /**
+   * Opens a stream over the content stored under {@code key}.
+   *
+   * @param key the content key
+   * @return a stream over the complete content; must be closed by the caller
+   * @throws FileNotFoundException if no content is stored under {@code key}
+   * @throws IOException if the content cannot be opened
+   */
+  InputStream get(String key) throws IOException;
+
+  /**
+   * Opens a stream over {@code length} bytes of the content stored under {@code key}, starting at
+   * the zero-based position {@code offset}.
+   *
+   * @param key the content key
+   * @param offset position of the first byte to read
+   * @param length number of bytes to read
+   * @return a stream over the requested range; must be closed by the caller
+   * @throws FileNotFoundException if no content is stored under {@code key}
+   * @throws IOException if the content cannot be opened
+   */
+  InputStream get(String key, long offset, long length) throws IOException;
+
+  /**
+   * Tells whether content is stored under {@code key}.
+   *
+   * @param key the content key
+   * @return {@code true} if the content exists
+   * @throws IOException if the store cannot be queried
+   */
+  boolean exists(String key) throws IOException;
+
+  /**
+   * Deletes the content stored under {@code key}. Deleting missing content is a no-op.
+   *
+   * @param key the content key
+   * @throws IOException if the content cannot be deleted
+   */
+  void delete(String key) throws IOException;
+
+  /**
+   * Lists the keys of the content written before {@code writtenBefore}, so content that was written
+   * by a transaction that did not commit can be found. Stores that write within the database
+   * transaction never keep such content and list nothing.
+   *
+   * @param writtenBefore only content written before this time is listed
+   * @return the content keys; must be closed by the caller
+   * @throws IOException if the store cannot be listed
+   */
+  Stream<String> keys(Instant writtenBefore) throws IOException;
+
+  /**
+   * Tells whether content can only be read within a database transaction. Readers of other stores
+   * stream content without holding a database connection.
+   *
+   * @return {@code true} if reads need a transaction
+   */
+  default boolean readsWithinTransaction() {
+    return false;
+  }
+}
@@ -0,0 +1,129 @@
+package tools.vitruv.methodologist.general.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import tools.vitruv.methodologist.general.model.repository.BlobContentRepository;
+
+/**
+ * Spring configuration creating the {@link BlobStore} selected by {@code storage.backend}.
+ *
+ * <p>The {@link DatabaseBlobStore} is always registered, since it is the source when content is
+ * migrated to another backend. Other backends are wrapped in a {@link FallbackBlobStore}, so
+ * content not migrated yet is still read from the database.
+ */
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+public class BlobStoreConfig {
+
+  /**
+   * Creates the store keeping content as large objects in the database.
+   *
+   * @param blobContentRepository repository of the stored content
+   * @param entityManager the shared entity manager
+   * @param largeObjectMetrics metrics recording the reclaimed large objects
+   * @return the database store
+   */
+  @Bean
+  public DatabaseBlobStore databaseBlobStore(
+      BlobContentRepository blobContentRepository,
+      EntityManager entityManager,
+      LargeObjectMetrics largeObjectMetrics) {
+    return new DatabaseBlobStore(blobContentRepository, entityManager, largeObjectMetrics);
+  }
+
+  /**
+   * Creates the client of the S3 backend. As a bean, it is closed when the application shuts down.
+   *
+   * @param properties the storage configuration
+   * @return the S3 client
+   */
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+  public S3Client s3Client(StorageProperties properties) {
+    return buildS3Client(properties.getS3());
+  }
+
+  /**
+   * Creates the store used for all file content, wrapped in a {@link CachingBlobStore} unless
+   * {@code storage.cache.enabled} is {@code false}.
+   *
+   * @param properties the storage configuration
+   * @param databaseBlobStore the database store, used for the {@code database} backend and as
+   *     fallback of the others
+   * @param s3Client the S3 client, present for the {@code s3} backend
+   * @param meterRegistry the registry the cache metrics are published to
+   * @return the configured store
+   */
+  @Bean
+  @Primary
+  public BlobStore blobStore(
+      StorageProperties properties,
+      DatabaseBlobStore databaseBlobStore,
+      ObjectProvider<S3Client> s3Client,
+      MeterRegistry meterRegistry) {
+    BlobStore backend = backendStore(properties, databaseBlobStore, s3Client);
+    if (backend != databaseBlobStore) {
+      backend = new FallbackBlobStore(backend, databaseBlobStore);
+    }
+    StorageProperties.Cache cache = properties.getCache();
+    if (!cache.isEnabled()) {
+      return backend;
+    }
+    return new CachingBlobStore(
+        backend,
+        cache.getMaxSize().toBytes(),
+        cache.getMaxEntrySize().toBytes(),
+        cache.isOffHeap(),
+        meterRegistry);
+  }
+
+  private static BlobStore backendStore(
+      StorageProperties properties,
+      DatabaseBlobStore databaseBlobStore,
+      ObjectProvider<S3Client> s3Client) {
+    return switch (properties.getBackend()) {
+      case DATABASE -> databaseBlobStore;
+      case FILESYSTEM -> {
+        if (properties.getFilesystem().getRoot() == null) {
+          throw new IllegalStateException("storage.filesystem.root must be set");
+        }
+        yield new FileSystemBlobStore(properties.getFilesystem().getRoot());
+      }
+      case S3 -> {
+        StorageProperties.S3 s3 = properties.getS3();
+        if (s3.getBucket() == null || s3.getBucket().isBlank()) {
+          throw new IllegalStateException("storage.s3.bucket must be set");
+        }
+        yield new S3BlobStore(s3Client.getObject(), s3.getBucket(), s3.getKeyPrefix());
+      }
+    };
+  }
+
+  static S3Client buildS3Client(StorageProperties.S3 s3) {
+    S3ClientBuilder builder =
+        S3Client.builder()
+            .region(Region.of(s3.getRegion()))
+            .forcePathStyle(s3.isPathStyleAccess())
+            .credentialsProvider(
+                s3.getAccessKey() == null
+                    ? DefaultCredentialsProvider.create()
+                    : StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(s3.getAccessKey(), s3.getSecretKey())));
+    if (s3.getEndpoint() != null) {
+      builder.endpointOverride(s3.getEndpoint());
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,52 @@
+package tools.vitruv.methodologist.general.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@link BlobStoreMigrationService} on startup when {@code storage.migration.enabled} is
+ * set, moving all content still kept in the database into the configured store.
+ *
+ * <p>The application already serves requests while the batches are copied. Content not moved yet is
+ * read from the database through the {@link FallbackBlobStore}.
+ */
+@Component
+@Slf4j
+public class BlobStoreMigrationRunner implements ApplicationRunner {
+  private final BlobStoreMigrationService migrationService;
+  private final StorageProperties properties;
+
+  /**
+   * Constructs a BlobStoreMigrationRunner.
+   *
+   * @param migrationService the service moving the content
+   * @param properties the storage configuration
+   */
+  public BlobStoreMigrationRunner(
+      BlobStoreMigrationService migrationService, StorageProperties properties) {
+    this.migrationService = migrationService;
+    this.properties = properties;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!properties.getMigration().isEnabled()) {
+      return;
+    }
+    if (!migrationService.isMigrationTargetConfigured()) {
+      log.warn("storage.migration.enabled is set, but storage.backend is database; skipping");
+      return;
+    }
+    int batchSize = properties.getMigration().getBatchSize();
+    long migrated = 0;
+    int moved;
+    while ((moved = migrationService.migrateBatch(batchSize)) > 0) {
+      migrated += moved;
+      log.info("Moved {} contents out of the database so far", migrated);
+    }
+    log.info(
+        "Content migration to {} finished, {} contents moved", properties.getBackend(), migrated);
+  }
+}
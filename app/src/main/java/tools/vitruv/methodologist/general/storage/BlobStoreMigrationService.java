@@ -0,0 +1,88 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.vitruv.methodologist.exception.FileContentException;
+import tools.vitruv.methodologist.general.model.BlobContent;
+import tools.vitruv.methodologist.general.model.repository.BlobContentRepository;
+import tools.vitruv.methodologist.messages.Error;
+
+/**
+ * Moves file content out of the database into the configured {@link BlobStore}.
+ *
+ * <p>Content is copied in batches. Each batch runs in its own transaction: a content is copied to
+ * the target store, and its large object is unlinked and its {@code blob_content} row deleted only
+ * after the copy succeeded. Since keys do not change, file metadata needs no update and the
+ * migration can be interrupted and resumed at any time.
+ */
+@Service
+@Slf4j
+public class BlobStoreMigrationService {
+  private final BlobContentRepository blobContentRepository;
+  private final DatabaseBlobStore databaseBlobStore;
+  private final BlobStore targetStore;
+
+  /**
+   * Constructs a BlobStoreMigrationService.
+   *
+   * @param blobContentRepository repository of the content kept in the database
+   * @param databaseBlobStore the store the content is moved out of
+   * @param targetStore the configured store the content is moved into
+   */
+  public BlobStoreMigrationService(
+      BlobContentRepository blobContentRepository,
+      DatabaseBlobStore databaseBlobStore,
+      BlobStore targetStore) {
+    this.blobContentRepository = blobContentRepository;
+    this.databaseBlobStore = databaseBlobStore;
+    this.targetStore = targetStore;
+  }
+
+  /**
+   * Tells whether content can be migrated, i.e. whether a store other than the database is
+   * configured.
+   *
+   * @return {@code true} if the configured store is not the database
+   */
+  public boolean isMigrationTargetConfigured() {
+    BlobStore target =
+        targetStore instanceof CachingBlobStore cachingBlobStore
+            ? cachingBlobStore.delegate()
+            : targetStore;
+    return target != databaseBlobStore;
+  }
+
+  /**
+   * Moves up to {@code batchSize} contents from the database into the configured store.
+   *
+   * @param batchSize maximum number of contents to move
+   * @return the number of moved contents; {@code 0} once the database holds no more content
+   * @throws IllegalStateException if the configured store is the database
+   * @throws FileContentException if a content cannot be copied
+   */
+  @Transactional
+  public int migrateBatch(int batchSize) {
+    if (!isMigrationTargetConfigured()) {
+      throw new IllegalStateException("storage.backend must not be database to migrate content");
+    }
+    List<String> keys = blobContentRepository.findStorageKeys(PageRequest.of(0, batchSize));
+    for (String key : keys) {
+      BlobContent content =
+          blobContentRepository
+              .findByStorageKey(key)
+              .orElseThrow(() -> new IllegalStateException("Content vanished: " + key));
+      try (InputStream in = databaseBlobStore.get(key)) {
+        targetStore.put(key, in, content.getSizeBytes());
+      } catch (IOException e) {
+        throw new FileContentException(Error.FILE_CONTENT_WRITE_ERROR + key, e);
+      }
+      databaseBlobStore.delete(key);
+    }
+    return keys.size();
+  }
+}
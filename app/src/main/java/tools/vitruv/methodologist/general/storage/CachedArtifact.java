@@ -0,0 +1,11 @@
+package tools.vitruv.methodologist.general.storage;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A build artifact returned by the {@link ArtifactCache}.
+ *
+ * @param key hex-encoded hash of the build inputs, usable as entity tag
+ * @param content the artifact content
+ */
+public record CachedArtifact(String key, Resource content) {}
@@ -0,0 +1,194 @@
+package tools.vitruv.methodologist.general.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * {@link BlobStore} decorator keeping recently read content in memory.
+ *
+ * <p>Keys are derived from the content, so a cached entry can never become stale and needs no
+ * invalidation other than on {@link #delete(String)}. Entries are weighed by their size in bytes
+ * and evicted once the total exceeds the configured budget. Content read from the delegate is
+ * streamed to the reader as it arrives and copied into the cache on the way; the copy is dropped as
+ * soon as the content exceeds the entry limit, and content that is not read to its end is not
+ * cached. Entries are kept in read-only buffers, optionally allocated off-heap, and every reader
+ * gets its own view, so cached bytes cannot be modified.
+ *
+ * <p>Writes always go to the delegate, even for cached keys, so content deleted from the delegate
+ * by another instance is restored by the next upload of it.
+ */
+public class CachingBlobStore implements BlobStore {
+  static final String CACHE_NAME = "blob_content";
+
+  private final BlobStore delegate;
+  private final Cache<String, ByteBuffer> cache;
+  private final long maxEntryBytes;
+  private final boolean offHeap;
+
+  /**
+   * Constructs a CachingBlobStore.
+   *
+   * @param delegate the store holding the content
+   * @param maxBytes total number of content bytes kept in the cache
+   * @param maxEntryBytes size of the largest content that is cached
+   * @param offHeap whether cached content is kept in direct buffers outside the Java heap
+   * @param meterRegistry the registry the cache metrics are published to
+   */
+  public CachingBlobStore(
+      BlobStore delegate,
+      long maxBytes,
+      long maxEntryBytes,
+      boolean offHeap,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.maxEntryBytes = Math.min(Math.min(maxEntryBytes, maxBytes), Integer.MAX_VALUE - 8);
+    this.offHeap = offHeap;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .<String, ByteBuffer>weigher((key, buffer) -> buffer.capacity())
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    Gauge.builder(
+            "cache.weighted.size",
+            cache,
+            c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+        .description("Bytes of content held in the cache")
+        .baseUnit(BaseUnits.BYTES)
+        .tag("cache", CACHE_NAME)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns the store this cache reads through to.
+   *
+   * @return the decorated store
+   */
+  public BlobStore delegate() {
+    return delegate;
+  }
+
+  @Override
+  public void put(String key, InputStream content, long size) throws IOException {
+    delegate.put(key, content, size);
+  }
+
+  @Override
+  public InputStream get(String key) throws IOException {
+    ByteBuffer cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return new ByteBufferInputStream(cached.duplicate());
+    }
+    return new CachingInputStream(key, delegate.get(key));
+  }
+
+  @Override
+  public InputStream get(String key, long offset, long length) throws IOException {
+    ByteBuffer cached = cache.getIfPresent(key);
+    if (cached == null) {
+      return delegate.get(key, offset, length);
+    }
+    int from = (int) Math.min(offset, cached.capacity());
+    int to = (int) Math.min(from + Math.max(length, 0), cached.capacity());
+    return new ByteBufferInputStream(cached.duplicate().position(from).limit(to));
+  }
+
+  @Override
+  public boolean exists(String key) throws IOException {
+    return cache.asMap().containsKey(key) || delegate.exists(key);
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    cache.invalidate(key);
+    delegate.delete(key);
+  }
+
+  @Override
+  public Stream<String> keys(Instant writtenBefore) throws IOException {
+    return delegate.keys(writtenBefore);
+  }
+
+  @Override
+  public boolean readsWithinTransaction() {
+    return delegate.readsWithinTransaction();
+  }
+
+  private ByteBuffer toBuffer(byte[] data) {
+    if (!offHeap) {
+      return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+    return ByteBuffer.allocateDirect(data.length).put(data).flip().asReadOnlyBuffer();
+  }
+
+  /** Passes content through to the reader and caches it once it was read to its end. */
+  private final class CachingInputStream extends FilterInputStream {
+    private final String key;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    private CachingInputStream(String key, InputStream in) {
+      super(in);
+      this.key = key;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = in.read();
+      if (b < 0) {
+        complete();
+      } else if (fits(1)) {
+        copy.write(b);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = in.read(b, off, len);
+      if (n < 0) {
+        complete();
+      } else if (fits(n)) {
+        copy.write(b, off, n);
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      copy = null;
+      return in.skip(n);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private boolean fits(int n) {
+      if (copy != null && copy.size() + (long) n > maxEntryBytes) {
+        copy = null;
+      }
+      return copy != null;
+    }
+
+    private void complete() {
+      if (copy != null) {
+        cache.put(key, toBuffer(copy.toByteArray()));
+        copy = null;
+      }
+    }
+  }
+}
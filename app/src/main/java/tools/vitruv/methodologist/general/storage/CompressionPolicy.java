@@ -0,0 +1,55 @@
+package tools.vitruv.methodologist.general.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.vitruv.methodologist.general.FileEnumType;
+
+/**
+ * Chooses the {@link ContentCodec} new file content is stored with.
+ *
+ * <p>All supported file types are XML or plain text and compress well. Ecore and GenModel files use
+ * the deflate codec with the EMF dictionary; the other types use plain deflate.
+ */
+@Component
+public class CompressionPolicy {
+  private final boolean enabled;
+  private final int level;
+
+  /**
+   * Constructs a CompressionPolicy.
+   *
+   * @param enabled whether new content is compressed at all
+   * @param level the deflate compression level, from 1 (fastest) to 9 (smallest)
+   */
+  public CompressionPolicy(
+      @Value("${storage.compression.enabled:true}") boolean enabled,
+      @Value("${storage.compression.level:6}") int level) {
+    this.enabled = enabled;
+    this.level = level;
+  }
+
+  /**
+   * Returns the codec new content of the given type is stored with.
+   *
+   * @param type the file type; {@code null} if unknown
+   * @return the codec to use
+   */
+  public ContentCodec codecFor(FileEnumType type) {
+    if (!enabled || type == null) {
+      return ContentCodec.NONE;
+    }
+    return switch (type) {
+      case ECORE, GEN_MODEL -> ContentCodec.DEFLATE_EMF;
+      case REACTION, NEO_JOIN, OCL -> ContentCodec.DEFLATE;
+    };
+  }
+
+  /**
+   * Returns the deflate compression level.
+   *
+   * @return the level passed to {@link ContentCodec#encode(java.io.InputStream, int)}
+   */
+  public int level() {
+    return level;
+  }
+}
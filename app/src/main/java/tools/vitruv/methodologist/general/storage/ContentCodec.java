@@ -0,0 +1,152 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encoding applied to file content before it is written to the {@link BlobStore}.
+ *
+ * <p>The deflate codecs produce raw deflate data (no zlib or gzip framing), since the logical size
+ * and SHA-256 are kept in the file metadata anyway. {@link #DEFLATE_EMF} additionally primes the
+ * compressor with a preset dictionary of common Ecore and GenModel markup, which pays off most for
+ * small models. Since stored content can only be decoded with the dictionary it was written with, a
+ * dictionary must never change once released; a new dictionary requires a new codec.
+ *
+ * <p>The codec is part of the storage key, so the same content stored with different codecs never
+ * shares an object in the store.
+ */
+public enum ContentCodec {
+  NONE(null, null),
+  DEFLATE("deflate", null),
+  DEFLATE_EMF("deflate-emf1", "/storage/emf-v1.dict");
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final String keySuffix;
+  private final byte[] dictionary;
+
+  ContentCodec(String keySuffix, String dictionaryResource) {
+    this.keySuffix = keySuffix;
+    this.dictionary = dictionaryResource == null ? null : loadDictionary(dictionaryResource);
+  }
+
+  /**
+   * Returns the key under which content with the given SHA-256 is stored with this codec.
+   *
+   * @param sha256 the SHA-256 of the logical content
+   * @return the storage key
+   */
+  public String storageKey(String sha256) {
+    return keySuffix == null ? sha256 : sha256 + "-" + keySuffix;
+  }
+
+  /**
+   * Wraps {@code raw} into a stream yielding the encoded content.
+   *
+   * @param raw the logical content; closed when the returned stream is closed
+   * @param level the deflate compression level, ignored by {@link #NONE}
+   * @return a stream over the encoded content
+   */
+  public InputStream encode(InputStream raw, int level) {
+    if (this == NONE) {
+      return raw;
+    }
+    Deflater deflater = new Deflater(level, true);
+    if (dictionary != null) {
+      deflater.setDictionary(dictionary);
+    }
+    return new DeflaterInputStream(raw, deflater, BUFFER_SIZE) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          deflater.end();
+        }
+      }
+    };
+  }
+
+  /**
+   * Wraps {@code stored} into a stream yielding the logical content.
+   *
+   * @param stored the encoded content; closed when the returned stream is closed
+   * @return a stream over the logical content
+   */
+  public InputStream decode(InputStream stored) {
+    if (this == NONE) {
+      return stored;
+    }
+    Inflater inflater = new Inflater(true);
+    if (dictionary != null) {
+      inflater.setDictionary(dictionary);
+    }
+    return new InflaterInputStream(stored, inflater, BUFFER_SIZE) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          inflater.end();
+        }
+      }
+    };
+  }
+
+  /**
+   * Opens the logical content stored under {@code key}.
+   *
+   * @param store the store holding the content
+   * @param key the storage key
+   * @return a stream over the logical content; must be closed by the caller
+   * @throws IOException if the content cannot be opened
+   */
+  public InputStream open(BlobStore store, String key) throws IOException {
+    return decode(store.get(key));
+  }
+
+  /**
+   * Opens {@code length} bytes of the logical content stored under {@code key}, starting at the
+   * zero-based logical position {@code offset}.
+   *
+   * <p>Unencoded content is read with a ranged read from the store. Encoded content has to be
+   * decoded from its start, skipping everything before {@code offset}.
+   *
+   * @param store the store holding the content
+   * @param key the storage key
+   * @param offset position of the first logical byte to read
+   * @param length number of logical bytes to read
+   * @return a stream over the requested range; must be closed by the caller
+   * @throws IOException if the content cannot be opened or is shorter than {@code offset}
+   */
+  public InputStream open(BlobStore store, String key, long offset, long length)
+      throws IOException {
+    if (this == NONE) {
+      return store.get(key, offset, length);
+    }
+    InputStream in = open(store, key);
+    try {
+      in.skipNBytes(offset);
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+    return new BoundedInputStream(in, length);
+  }
+
+  private static byte[] loadDictionary(String resource) {
+    try (InputStream in = ContentCodec.class.getResourceAsStream(resource)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing compression dictionary " + resource);
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
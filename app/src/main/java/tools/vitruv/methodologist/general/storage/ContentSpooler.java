@@ -0,0 +1,135 @@
+package tools.vitruv.methodologist.general.storage;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Creates {@link SpooledContent} instances with the configured heap threshold and spill directory.
+ *
+ * <p>Uploads up to {@code storage.spool.memory-threshold} bytes are kept on the heap; larger ones
+ * are spilled to files under {@code storage.spool.directory}. The parts of a batch upload are
+ * spooled concurrently on a pool of {@code storage.spool.parallelism} threads shared by all
+ * requests, which bounds the CPU spent on hashing regardless of the number of parts.
+ */
+@Component
+public class ContentSpooler {
+  private final long memoryThresholdBytes;
+  private final Path spillDirectory;
+  private final ExecutorService executor;
+
+  /**
+   * Constructs a ContentSpooler.
+   *
+   * @param memoryThreshold maximum content size kept on the heap per upload
+   * @param spillDirectory directory receiving spill files for larger uploads
+   * @param parallelism number of threads spooling the parts of batch uploads
+   */
+  public ContentSpooler(
+      @Value("${storage.spool.memory-threshold:1MB}") DataSize memoryThreshold,
+      @Value("${storage.spool.directory:${java.io.tmpdir}/methodologist-spool}")
+          Path spillDirectory,
+      @Value("${storage.spool.parallelism:4}") int parallelism) {
+    this.memoryThresholdBytes = memoryThreshold.toBytes();
+    this.spillDirectory = spillDirectory;
+    this.executor =
+        Executors.newFixedThreadPool(
+            parallelism, Thread.ofPlatform().name("content-spooler-", 1).daemon().factory());
+  }
+
+  /**
+   * Spools and hashes the given stream. The stream is not closed.
+   *
+   * @param source the content to spool
+   * @return the spooled content; must be closed by the caller
+   * @throws IOException if reading the source or writing the spill file fails
+   */
+  public SpooledContent spool(InputStream source) throws IOException {
+    return SpooledContent.spool(source, memoryThresholdBytes, spillDirectory);
+  }
+
+  /**
+   * Spools and hashes the given stream, keeping at most {@code memoryThreshold} bytes on the heap
+   * and never more than the configured threshold. The stream is not closed.
+   *
+   * @param source the content to spool
+   * @param memoryThreshold maximum content size kept on the heap for this content
+   * @return the spooled content; must be closed by the caller
+   * @throws IOException if reading the source or writing the spill file fails
+   */
+  public SpooledContent spool(InputStream source, long memoryThreshold) throws IOException {
+    return SpooledContent.spool(
+        source, Math.min(memoryThreshold, memoryThresholdBytes), spillDirectory);
+  }
+
+  /**
+   * Spools and hashes all given sources concurrently. Each source is opened and closed on a pool
+   * thread. If any source fails, the contents spooled so far are closed and the first failure is
+   * thrown.
+   *
+   * @param sources the contents to spool
+   * @return the spooled contents in the order of {@code sources}; must be closed by the caller
+   * @throws IOException if reading a source or writing a spill file fails
+   */
+  public List<SpooledContent> spoolAll(List<? extends InputStreamSource> sources)
+      throws IOException {
+    List<CompletableFuture<SpooledContent>> futures = new ArrayList<>(sources.size());
+    for (InputStreamSource source : sources) {
+      futures.add(CompletableFuture.supplyAsync(() -> spoolSource(source), executor));
+    }
+
+    List<SpooledContent> contents = new ArrayList<>(futures.size());
+    RuntimeException failure = null;
+    for (CompletableFuture<SpooledContent> future : futures) {
+      try {
+        contents.add(future.join());
+      } catch (CompletionException e) {
+        failure = failure == null ? unwrap(e) : failure;
+      }
+    }
+    if (failure == null) {
+      return contents;
+    }
+    for (SpooledContent content : contents) {
+      try {
+        content.close();
+      } catch (IOException e) {
+        failure.addSuppressed(e);
+      }
+    }
+    if (failure instanceof UncheckedIOException unchecked) {
+      throw unchecked.getCause();
+    }
+    throw failure;
+  }
+
+  /** Stops the spooling threads. */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private SpooledContent spoolSource(InputStreamSource source) {
+    try (InputStream in = source.getInputStream()) {
+      return spool(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static RuntimeException unwrap(CompletionException e) {
+    return e.getCause() instanceof RuntimeException cause ? cause : e;
+  }
+}
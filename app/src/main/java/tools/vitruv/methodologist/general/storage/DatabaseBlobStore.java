@@ -0,0 +1,126 @@
+package tools.vitruv.methodologist.general.storage;
+
+import jakarta.persistence.EntityManager;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.engine.jdbc.BlobProxy;
+import tools.vitruv.methodologist.general.model.BlobContent;
+import tools.vitruv.methodologist.general.model.repository.BlobContentRepository;
+
+/**
+ * {@link BlobStore} keeping each content as a PostgreSQL large object in the {@code blob_content}
+ * table.
+ *
+ * <p>Large objects can only be accessed inside a transaction, so every method must be called from a
+ * transactional context and returned streams must be consumed before that transaction ends. Reads
+ * go through the driver's large object API and are streamed in chunks. A trigger on {@code
+ * blob_content} unlinks the large object whenever its row is deleted, so deleting the row is all it
+ * takes to reclaim the space.
+ */
+public class DatabaseBlobStore implements BlobStore {
+  private final BlobContentRepository blobContentRepository;
+  private final EntityManager entityManager;
+  private final LargeObjectMetrics largeObjectMetrics;
+
+  /**
+   * Constructs a DatabaseBlobStore.
+   *
+   * @param blobContentRepository repository of the stored content
+   * @param entityManager entity manager used to write the content immediately
+   * @param largeObjectMetrics metrics recording the reclaimed large objects
+   */
+  public DatabaseBlobStore(
+      BlobContentRepository blobContentRepository,
+      EntityManager entityManager,
+      LargeObjectMetrics largeObjectMetrics) {
+    this.blobContentRepository = blobContentRepository;
+    this.entityManager = entityManager;
+    this.largeObjectMetrics = largeObjectMetrics;
+  }
+
+  @Override
+  public void put(String key, InputStream content, long size) {
+    if (blobContentRepository.existsByStorageKey(key)) {
+      return;
+    }
+    BlobContent blobContent =
+        BlobContent.builder()
+            .storageKey(key)
+            .data(BlobProxy.generateProxy(content, size))
+            .sizeBytes(size)
+            .build();
+    entityManager.persist(blobContent);
+    // the proxy reads the caller's stream, which is only guaranteed to be open during this call
+    entityManager.flush();
+  }
+
+  @Override
+  public InputStream get(String key) throws IOException {
+    try {
+      return data(key).getBinaryStream();
+    } catch (SQLException e) {
+      throw new IOException("Failed to open content " + key, e);
+    }
+  }
+
+  @Override
+  public InputStream get(String key, long offset, long length) throws IOException {
+    if (length <= 0) {
+      return InputStream.nullInputStream();
+    }
+    try {
+      return data(key).getBinaryStream(offset + 1, length);
+    } catch (SQLException e) {
+      throw new IOException("Failed to open content " + key, e);
+    }
+  }
+
+  @Override
+  public boolean exists(String key) {
+    return blobContentRepository.existsByStorageKey(key);
+  }
+
+  /**
+   * Tells whether the database holds no content at all, e.g. once it was migrated to another store.
+   *
+   * @return {@code true} if no content is stored
+   */
+  public boolean isEmpty() {
+    return blobContentRepository.count() == 0;
+  }
+
+  @Override
+  public void delete(String key) {
+    Optional<Long> sizeBytes = blobContentRepository.findSizeBytesByStorageKey(key);
+    if (sizeBytes.isEmpty()) {
+      return;
+    }
+    blobContentRepository.deleteByStorageKey(key);
+    largeObjectMetrics.reclaimed(LargeObjectMetrics.SOURCE_DELETE, 1, sizeBytes.get());
+  }
+
+  /** Content is written within the caller's transaction, so there is never any to reconcile. */
+  @Override
+  public Stream<String> keys(Instant writtenBefore) {
+    return Stream.empty();
+  }
+
+  /** Content lives in large objects, which can only be read within a transaction. */
+  @Override
+  public boolean readsWithinTransaction() {
+    return true;
+  }
+
+  private Blob data(String key) throws FileNotFoundException {
+    return blobContentRepository
+        .findByStorageKey(key)
+        .map(BlobContent::getData)
+        .orElseThrow(() -> new FileNotFoundException(key));
+  }
+}
@@ -0,0 +1,110 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * {@link BlobStore} reading content the configured store does not have yet from the {@link
+ * DatabaseBlobStore}.
+ *
+ * <p>Switching {@code storage.backend} away from {@code database} leaves existing content in the
+ * database until the {@link BlobStoreMigrationService} has moved it, which may take a while or not
+ * happen at all if {@code storage.migration.enabled} is off. Until then, reads missing in the
+ * configured store fall back to the database, so no content becomes unreadable. Once the database
+ * holds no more content, the fallback is skipped.
+ *
+ * <p>New content is only written to the configured store. Deletes remove the content from both.
+ */
+public class FallbackBlobStore implements BlobStore {
+  private final BlobStore primary;
+  private final DatabaseBlobStore fallback;
+  private volatile boolean fallbackDrained;
+
+  /**
+   * Constructs a FallbackBlobStore.
+   *
+   * @param primary the configured store
+   * @param fallback the database store content is migrated out of
+   */
+  public FallbackBlobStore(BlobStore primary, DatabaseBlobStore fallback) {
+    this.primary = primary;
+    this.fallback = fallback;
+  }
+
+  /**
+   * Returns the configured store.
+   *
+   * @return the store all content is written to
+   */
+  public BlobStore primary() {
+    return primary;
+  }
+
+  @Override
+  public void put(String key, InputStream content, long size) throws IOException {
+    primary.put(key, content, size);
+  }
+
+  @Override
+  public InputStream get(String key) throws IOException {
+    try {
+      return primary.get(key);
+    } catch (FileNotFoundException e) {
+      if (!inFallback(key)) {
+        throw e;
+      }
+      return fallback.get(key);
+    }
+  }
+
+  @Override
+  public InputStream get(String key, long offset, long length) throws IOException {
+    try {
+      return primary.get(key, offset, length);
+    } catch (FileNotFoundException e) {
+      if (!inFallback(key)) {
+        throw e;
+      }
+      return fallback.get(key, offset, length);
+    }
+  }
+
+  @Override
+  public boolean exists(String key) throws IOException {
+    return primary.exists(key) || inFallback(key);
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    primary.delete(key);
+    if (!fallbackDrained) {
+      fallback.delete(key);
+    }
+  }
+
+  @Override
+  public Stream<String> keys(Instant writtenBefore) throws IOException {
+    return primary.keys(writtenBefore);
+  }
+
+  @Override
+  public boolean readsWithinTransaction() {
+    return !fallbackDrained || primary.readsWithinTransaction();
+  }
+
+  private boolean inFallback(String key) {
+    if (fallbackDrained) {
+      return false;
+    }
+    if (fallback.exists(key)) {
+      return true;
+    }
+    if (fallback.isEmpty()) {
+      fallbackDrained = true;
+    }
+    return false;
+  }
+}
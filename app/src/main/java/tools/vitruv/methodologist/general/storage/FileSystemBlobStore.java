@@ -0,0 +1,115 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link BlobStore} keeping each content as a file below a root directory.
+ *
+ * <p>Content is stored at {@code <root>/<key[0..2]>/<key[2..4]>/<key>} so no single directory grows
+ * unbounded. New content is first written to a temporary file next to its target and then moved
+ * into place atomically, so readers never observe partially written content.
+ */
+public class FileSystemBlobStore implements BlobStore {
+  private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9_-]{4,}");
+
+  private final Path root;
+
+  /**
+   * Constructs a FileSystemBlobStore.
+   *
+   * @param root the directory holding the content; created when missing
+   */
+  public FileSystemBlobStore(Path root) {
+    this.root = root;
+  }
+
+  @Override
+  public void put(String key, InputStream content, long size) throws IOException {
+    Path target = pathOf(key);
+    if (Files.exists(target)) {
+      return;
+    }
+    Files.createDirectories(target.getParent());
+    Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+    try {
+      long written = Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+      if (written != size) {
+        throw new IOException(
+            "Content size mismatch for " + key + ": expected " + size + " but got " + written);
+      }
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Override
+  public InputStream get(String key) throws IOException {
+    try {
+      return Files.newInputStream(pathOf(key));
+    } catch (NoSuchFileException e) {
+      throw new FileNotFoundException(key);
+    }
+  }
+
+  @Override
+  public InputStream get(String key, long offset, long length) throws IOException {
+    SeekableByteChannel channel;
+    try {
+      channel = Files.newByteChannel(pathOf(key));
+    } catch (NoSuchFileException e) {
+      throw new FileNotFoundException(key);
+    }
+    try {
+      channel.position(offset);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return new BoundedInputStream(Channels.newInputStream(channel), length);
+  }
+
+  @Override
+  public boolean exists(String key) {
+    return Files.exists(pathOf(key));
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    Files.deleteIfExists(pathOf(key));
+  }
+
+  @Override
+  public Stream<String> keys(Instant writtenBefore) throws IOException {
+    if (!Files.isDirectory(root)) {
+      return Stream.empty();
+    }
+    // content lives two directory levels below the root; temporary files do not match the pattern
+    return Files.find(
+            root,
+            3,
+            (path, attributes) ->
+                attributes.isRegularFile()
+                    && attributes.lastModifiedTime().toInstant().isBefore(writtenBefore)
+                    && KEY_PATTERN.matcher(path.getFileName().toString()).matches())
+        .map(path -> path.getFileName().toString());
+  }
+
+  private Path pathOf(String key) {
+    if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+      throw new IllegalArgumentException("Invalid content key: " + key);
+    }
+    return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+  }
+}
@@ -0,0 +1,54 @@
+package tools.vitruv.methodologist.general.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the PostgreSQL large objects reclaimed by the {@link DatabaseBlobStore} and by the
+ * reconciliation of orphaned large objects.
+ *
+ * <p>Publishes {@code storage.large_objects.reclaimed} (number of objects) and {@code
+ * storage.large_objects.reclaimed.bytes}, both tagged with the {@code source} that reclaimed them.
+ */
+@Component
+public class LargeObjectMetrics {
+  /** Source tag for large objects unlinked because their content was deleted. */
+  public static final String SOURCE_DELETE = "delete";
+
+  /** Source tag for orphaned large objects unlinked by the reconciliation. */
+  public static final String SOURCE_RECONCILIATION = "reconciliation";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Constructs a LargeObjectMetrics.
+   *
+   * @param meterRegistry the registry the counters are published to
+   */
+  public LargeObjectMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Records reclaimed large objects.
+   *
+   * @param source what reclaimed the objects, one of the {@code SOURCE_} constants
+   * @param objects number of reclaimed objects
+   * @param bytes total size of the reclaimed objects
+   */
+  public void reclaimed(String source, long objects, long bytes) {
+    Counter.builder("storage.large_objects.reclaimed")
+        .description("Large objects unlinked from the database")
+        .tag("source", source)
+        .register(meterRegistry)
+        .increment(objects);
+    Counter.builder("storage.large_objects.reclaimed.bytes")
+        .description("Bytes of large objects unlinked from the database")
+        .baseUnit(BaseUnits.BYTES)
+        .tag("source", source)
+        .register(meterRegistry)
+        .increment(bytes);
+  }
+}
@@ -0,0 +1,135 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.stream.Stream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * {@link BlobStore} keeping each content as an object in an S3-compatible bucket (AWS S3, MinIO,
+ * Ceph RGW, ...).
+ *
+ * <p>Objects are named {@code <keyPrefix><key>}. Ranged reads are served with an HTTP {@code Range}
+ * request, so only the requested bytes are transferred.
+ */
+public class S3BlobStore implements BlobStore {
+  private static final int NOT_FOUND = 404;
+
+  private final S3Client s3Client;
+  private final String bucket;
+  private final String keyPrefix;
+
+  /**
+   * Constructs an S3BlobStore.
+   *
+   * @param s3Client the client used to access the bucket
+   * @param bucket the bucket holding the content
+   * @param keyPrefix prefix prepended to every object name; may be empty
+   */
+  public S3BlobStore(S3Client s3Client, String bucket, String keyPrefix) {
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+    this.keyPrefix = keyPrefix == null ? "" : keyPrefix;
+  }
+
+  @Override
+  public void put(String key, InputStream content, long size) throws IOException {
+    if (exists(key)) {
+      return;
+    }
+    try {
+      s3Client.putObject(
+          PutObjectRequest.builder()
+              .bucket(bucket)
+              .key(objectName(key))
+              .contentLength(size)
+              .build(),
+          RequestBody.fromInputStream(content, size));
+    } catch (SdkException e) {
+      throw new IOException("Failed to store " + key + " in bucket " + bucket, e);
+    }
+  }
+
+  @Override
+  public InputStream get(String key) throws IOException {
+    return getObject(key, GetObjectRequest.builder().bucket(bucket).key(objectName(key)).build());
+  }
+
+  @Override
+  public InputStream get(String key, long offset, long length) throws IOException {
+    return getObject(
+        key,
+        GetObjectRequest.builder()
+            .bucket(bucket)
+            .key(objectName(key))
+            .range("bytes=" + offset + "-" + (offset + length - 1))
+            .build());
+  }
+
+  @Override
+  public boolean exists(String key) throws IOException {
+    try {
+      s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectName(key)).build());
+      return true;
+    } catch (NoSuchKeyException e) {
+      return false;
+    } catch (S3Exception e) {
+      if (e.statusCode() == NOT_FOUND) {
+        return false;
+      }
+      throw new IOException("Failed to look up " + key + " in bucket " + bucket, e);
+    } catch (SdkException e) {
+      throw new IOException("Failed to look up " + key + " in bucket " + bucket, e);
+    }
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    try {
+      s3Client.deleteObject(
+          DeleteObjectRequest.builder().bucket(bucket).key(objectName(key)).build());
+    } catch (SdkException e) {
+      throw new IOException("Failed to delete " + key + " from bucket " + bucket, e);
+    }
+  }
+
+  @Override
+  public Stream<String> keys(Instant writtenBefore) throws IOException {
+    try {
+      return s3Client
+          .listObjectsV2Paginator(
+              ListObjectsV2Request.builder().bucket(bucket).prefix(keyPrefix).build())
+          .contents()
+          .stream()
+          .filter(object -> object.lastModified().isBefore(writtenBefore))
+          .map(object -> object.key().substring(keyPrefix.length()));
+    } catch (SdkException e) {
+      throw new IOException("Failed to list bucket " + bucket, e);
+    }
+  }
+
+  private InputStream getObject(String key, GetObjectRequest request) throws IOException {
+    try {
+      return s3Client.getObject(request);
+    } catch (NoSuchKeyException e) {
+      throw new FileNotFoundException(key);
+    } catch (SdkException e) {
+      throw new IOException("Failed to read " + key + " from bucket " + bucket, e);
+    }
+  }
+
+  private String objectName(String key) {
+    return keyPrefix + key;
+  }
+}
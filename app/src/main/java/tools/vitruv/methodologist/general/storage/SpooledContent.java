@@ -0,0 +1,198 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import tools.vitruv.methodologist.exception.FileHashingException;
+import tools.vitruv.methodologist.messages.Error;
+
+/**
+ * Content of a single upload, hashed while it is copied from its source.
+ *
+ * <p>Bytes are read through a {@link DigestInputStream} in fixed-size chunks, so the SHA-256 digest
+ * and the size are known as soon as the source is drained. Content up to the memory threshold stays
+ * on the heap; larger content is spilled to a temporary file, which keeps the heap used per upload
+ * bounded by the threshold. The spill file is deleted on {@link #close()}.
+ */
+public final class SpooledContent implements Closeable {
+  static final int COPY_BUFFER_SIZE = 8192;
+
+  private final byte[] memory;
+  private final Path file;
+  private final long size;
+  private final String sha256;
+
+  private SpooledContent(byte[] memory, Path file, long size, String sha256) {
+    this.memory = memory;
+    this.file = file;
+    this.size = size;
+    this.sha256 = sha256;
+  }
+
+  /**
+   * Drains {@code source}, hashing every byte, and buffers the content on the heap or, once it
+   * exceeds {@code memoryThreshold} bytes, in a temporary file under {@code spillDirectory}.
+   *
+   * <p>The source stream is not closed.
+   *
+   * @param source the content to spool
+   * @param memoryThreshold maximum number of bytes kept on the heap
+   * @param spillDirectory directory receiving the spill file; created when missing
+   * @return the spooled content
+   * @throws IOException if reading the source or writing the spill file fails
+   */
+  public static SpooledContent spool(InputStream source, long memoryThreshold, Path spillDirectory)
+      throws IOException {
+    MessageDigest digest = newSha256();
+    DigestInputStream in = new DigestInputStream(source, digest);
+    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+    ByteArrayOutputStream memory = new ByteArrayOutputStream(COPY_BUFFER_SIZE);
+    OutputStream spill = null;
+    Path file = null;
+    long size = 0;
+    try {
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        size += read;
+        if (spill == null && size > memoryThreshold) {
+          Files.createDirectories(spillDirectory);
+          file = Files.createTempFile(spillDirectory, "upload-", ".spool");
+          spill = new BufferedOutputStream(Files.newOutputStream(file), COPY_BUFFER_SIZE);
+          memory.writeTo(spill);
+          memory = null;
+        }
+        if (spill != null) {
+          spill.write(buffer, 0, read);
+        } else {
+          memory.write(buffer, 0, read);
+        }
+      }
+      if (spill != null) {
+        spill.close();
+      }
+    } catch (IOException | RuntimeException e) {
+      closeQuietly(spill);
+      if (file != null) {
+        Files.deleteIfExists(file);
+      }
+      throw e;
+    }
+    return new SpooledContent(
+        memory == null ? null : memory.toByteArray(),
+        file,
+        size,
+        HexFormat.of().formatHex(digest.digest()));
+  }
+
+  /**
+   * Wraps content that is already held on the heap.
+   *
+   * @param data the content; {@code null} is treated as empty
+   * @return the spooled content
+   */
+  public static SpooledContent of(byte[] data) {
+    byte[] safeData = data == null ? new byte[0] : data;
+    return new SpooledContent(
+        safeData, null, safeData.length, HexFormat.of().formatHex(newSha256().digest(safeData)));
+  }
+
+  /**
+   * Takes ownership of a file whose content has already been hashed, for example the parts of a
+   * resumable upload assembled on disk. The file is deleted on {@link #close()}.
+   *
+   * @param file the file holding the content
+   * @param size the number of content bytes
+   * @param sha256 the lowercase hexadecimal SHA-256 digest of the content
+   * @return the spooled content
+   */
+  public static SpooledContent adopt(Path file, long size, String sha256) {
+    return new SpooledContent(null, file, size, sha256);
+  }
+
+  /**
+   * Returns the number of content bytes.
+   *
+   * @return the content size in bytes
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns the lowercase hexadecimal SHA-256 digest of the content.
+   *
+   * @return the content hash
+   */
+  public String sha256() {
+    return sha256;
+  }
+
+  /**
+   * Tells whether the content exceeded the memory threshold and lives in a spill file.
+   *
+   * @return {@code true} if the content was spilled to disk
+   */
+  public boolean isSpilledToDisk() {
+    return file != null;
+  }
+
+  /**
+   * Opens a new stream over the content. May be called repeatedly until the content is closed.
+   *
+   * @return a stream positioned at the first content byte
+   * @throws IOException if the spill file cannot be opened
+   */
+  public InputStream openStream() throws IOException {
+    return memory != null ? new ByteArrayInputStream(memory) : Files.newInputStream(file);
+  }
+
+  /**
+   * Returns the content as a resource that can be read repeatedly until the content is closed.
+   * Spilled content is read from its file on demand rather than loaded onto the heap.
+   *
+   * @return a resource over the content
+   */
+  public Resource asResource() {
+    return memory != null ? new ByteArrayResource(memory) : new FileSystemResource(file);
+  }
+
+  /** Deletes the spill file, if any. */
+  @Override
+  public void close() throws IOException {
+    if (file != null) {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new FileHashingException(Error.FILE_HASHING_EXCEPTION, e);
+    }
+  }
+
+  private static void closeQuietly(Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+    try {
+      closeable.close();
+    } catch (IOException ignored) {
+      // the original failure is more relevant than the close failure
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.net.URI;
+import java.nio.file.Path;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties for the file content store.
+ *
+ * <p>Bound to the {@code storage} prefix. {@code storage.backend} selects where file content is
+ * kept; the nested groups configure the individual backends, the migration of content that is still
+ * kept in the database and the in-memory content cache.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "storage")
+public class StorageProperties {
+  private Backend backend = Backend.DATABASE;
+  private final FileSystem filesystem = new FileSystem();
+  private final S3 s3 = new S3();
+  private final Migration migration = new Migration();
+  private final Cache cache = new Cache();
+
+  /** Available content store backends. */
+  public enum Backend {
+    DATABASE,
+    FILESYSTEM,
+    S3
+  }
+
+  /** Settings of the {@link FileSystemBlobStore}. */
+  @Getter
+  @Setter
+  public static class FileSystem {
+    private Path root;
+  }
+
+  /** Settings of the {@link S3BlobStore}. */
+  @Getter
+  @Setter
+  public static class S3 {
+    private URI endpoint;
+    private String region = "us-east-1";
+    private String bucket;
+    private String keyPrefix = "";
+    private String accessKey;
+    private String secretKey;
+    private boolean pathStyleAccess = true;
+  }
+
+  /** Settings of the {@link BlobStoreMigrationService}. */
+  @Getter
+  @Setter
+  public static class Migration {
+    private boolean enabled;
+    private int batchSize = 50;
+  }
+
+  /** Settings of the {@link CachingBlobStore}. */
+  @Getter
+  @Setter
+  public static class Cache {
+    private boolean enabled = true;
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    private DataSize maxEntrySize = DataSize.ofMegabytes(4);
+    private boolean offHeap;
+  }
+}
@@ -0,0 +1,322 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a ZIP archive to a stream entry by entry, without buffering entries or the archive.
+ *
+ * <p>Unlike {@link java.util.zip.ZipOutputStream}, the writer accepts data that is already raw
+ * deflate compressed, as produced by {@link ContentCodec#DEFLATE}, and copies it into the archive
+ * unchanged; it is only inflated on the fly to compute the CRC-32 the format requires. Other
+ * content is deflated while it is written. Every entry is followed by a data descriptor, so sizes
+ * and checksums need not be known before the entry data is written, and ZIP64 records are added
+ * once the archive outgrows the classic format limits.
+ *
+ * <p>Memory use is independent of the entry sizes; only the central directory, a few dozen bytes
+ * per entry, is kept until {@link #close()}. Closing finishes the archive but does not close the
+ * target stream.
+ */
+public final class ZipStreamWriter implements Closeable {
+  private static final int BUFFER_SIZE = 8192;
+  private static final int LOCAL_HEADER = 0x04034b50;
+  private static final int DATA_DESCRIPTOR = 0x08074b50;
+  private static final int CENTRAL_HEADER = 0x02014b50;
+  private static final int ZIP64_END = 0x06064b50;
+  private static final int ZIP64_LOCATOR = 0x07064b50;
+  private static final int END = 0x06054b50;
+  private static final int DEFLATED = 8;
+  private static final int FLAGS = 0x0808; // data descriptor, UTF-8 names
+  private static final int VERSION = 20;
+  private static final int VERSION_ZIP64 = 45;
+  private static final long MAX_32 = 0xFFFFFFFFL;
+  private static final int MAX_16 = 0xFFFF;
+
+  private final OutputStream out;
+  private final byte[] scratch = new byte[8];
+  private final List<Entry> entries = new ArrayList<>();
+  private long written;
+  private boolean closed;
+
+  /**
+   * Constructs a ZipStreamWriter.
+   *
+   * @param out the stream receiving the archive; not closed by this writer
+   */
+  public ZipStreamWriter(OutputStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Adds an entry whose content is already raw deflate data. The data is copied unchanged.
+   *
+   * @param name the entry path inside the archive
+   * @param modified the modification time of the entry
+   * @param size the uncompressed size of the content; decides whether ZIP64 sizes are used
+   * @param deflated the raw deflate data; read to its end, not closed
+   * @throws IOException if writing fails or the data is not valid raw deflate data of {@code size}
+   *     bytes
+   */
+  public void putDeflated(String name, Instant modified, long size, InputStream deflated)
+      throws IOException {
+    Entry entry = begin(name, modified, size);
+    CRC32 crc = new CRC32();
+    Inflater inflater = new Inflater(true);
+    try {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      byte[] inflated = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = deflated.read(buffer)) != -1) {
+        write(buffer, 0, read);
+        entry.compressedSize += read;
+        inflater.setInput(buffer, 0, read);
+        int count;
+        while ((count = inflater.inflate(inflated)) > 0) {
+          crc.update(inflated, 0, count);
+        }
+      }
+      if (!inflater.finished() || inflater.getBytesWritten() != size) {
+        throw new ZipException("Truncated or corrupt deflate data for entry " + name);
+      }
+    } catch (DataFormatException e) {
+      throw new ZipException("Invalid deflate data for entry " + name + ": " + e.getMessage());
+    } finally {
+      inflater.end();
+    }
+    entry.size = size;
+    entry.crc = crc.getValue();
+    end(entry);
+  }
+
+  /**
+   * Adds an entry, deflating its content while it is written.
+   *
+   * @param name the entry path inside the archive
+   * @param modified the modification time of the entry
+   * @param size the size of the content; decides whether ZIP64 sizes are used
+   * @param content the content; read to its end, not closed
+   * @param level the deflate compression level
+   * @throws IOException if reading the content or writing the archive fails
+   */
+  public void putCompressed(
+      String name, Instant modified, long size, InputStream content, int level) throws IOException {
+    Entry entry = begin(name, modified, size);
+    CRC32 crc = new CRC32();
+    Deflater deflater = new Deflater(level, true);
+    try {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      byte[] compressed = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = content.read(buffer)) != -1) {
+        crc.update(buffer, 0, read);
+        deflater.setInput(buffer, 0, read);
+        while (!deflater.needsInput()) {
+          drain(deflater, compressed);
+        }
+      }
+      deflater.finish();
+      while (!deflater.finished()) {
+        drain(deflater, compressed);
+      }
+      entry.size = deflater.getBytesRead();
+      entry.compressedSize = deflater.getBytesWritten();
+    } finally {
+      deflater.end();
+    }
+    entry.crc = crc.getValue();
+    end(entry);
+  }
+
+  /**
+   * Writes the central directory. No entries can be added afterwards.
+   *
+   * @throws IOException if writing fails
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    long directoryOffset = written;
+    for (Entry entry : entries) {
+      writeCentralHeader(entry);
+    }
+    long directorySize = written - directoryOffset;
+
+    boolean zip64 =
+        entries.size() >= MAX_16 || directoryOffset >= MAX_32 || directorySize >= MAX_32;
+    if (zip64) {
+      long zip64EndOffset = written;
+      writeInt(ZIP64_END);
+      writeLong(44);
+      writeShort(VERSION_ZIP64);
+      writeShort(VERSION_ZIP64);
+      writeInt(0);
+      writeInt(0);
+      writeLong(entries.size());
+      writeLong(entries.size());
+      writeLong(directorySize);
+      writeLong(directoryOffset);
+      writeInt(ZIP64_LOCATOR);
+      writeInt(0);
+      writeLong(zip64EndOffset);
+      writeInt(1);
+    }
+    writeInt(END);
+    writeShort(0);
+    writeShort(0);
+    writeShort(Math.min(entries.size(), MAX_16));
+    writeShort(Math.min(entries.size(), MAX_16));
+    writeInt(Math.min(directorySize, MAX_32));
+    writeInt(Math.min(directoryOffset, MAX_32));
+    writeShort(0);
+    out.flush();
+  }
+
+  private Entry begin(String name, Instant modified, long size) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("Archive already finished");
+    }
+    Entry entry = new Entry();
+    entry.name = name.getBytes(StandardCharsets.UTF_8);
+    entry.dosTime = dosTime(modified);
+    entry.offset = written;
+    // deflate may expand incompressible data slightly, so leave some headroom below the limit
+    entry.zip64 = size >= MAX_32 - (MAX_32 >> 4);
+    entries.add(entry);
+
+    writeInt(LOCAL_HEADER);
+    writeShort(entry.zip64 ? VERSION_ZIP64 : VERSION);
+    writeShort(FLAGS);
+    writeShort(DEFLATED);
+    writeInt(entry.dosTime);
+    writeInt(0);
+    writeInt(entry.zip64 ? MAX_32 : 0);
+    writeInt(entry.zip64 ? MAX_32 : 0);
+    writeShort(entry.name.length);
+    writeShort(entry.zip64 ? 20 : 0);
+    write(entry.name, 0, entry.name.length);
+    if (entry.zip64) {
+      writeShort(1);
+      writeShort(16);
+      writeLong(0);
+      writeLong(0);
+    }
+    return entry;
+  }
+
+  private void end(Entry entry) throws IOException {
+    if (!entry.zip64 && (entry.size >= MAX_32 || entry.compressedSize >= MAX_32)) {
+      throw new ZipException("Entry exceeds the announced size: " + new String(entry.name));
+    }
+    writeInt(DATA_DESCRIPTOR);
+    writeInt(entry.crc);
+    if (entry.zip64) {
+      writeLong(entry.compressedSize);
+      writeLong(entry.size);
+    } else {
+      writeInt(entry.compressedSize);
+      writeInt(entry.size);
+    }
+  }
+
+  private void writeCentralHeader(Entry entry) throws IOException {
+    boolean offset64 = entry.offset >= MAX_32;
+    int extraLength = (entry.zip64 ? 16 : 0) + (offset64 ? 8 : 0);
+    writeInt(CENTRAL_HEADER);
+    writeShort(VERSION_ZIP64);
+    writeShort(entry.zip64 || offset64 ? VERSION_ZIP64 : VERSION);
+    writeShort(FLAGS);
+    writeShort(DEFLATED);
+    writeInt(entry.dosTime);
+    writeInt(entry.crc);
+    writeInt(entry.zip64 ? MAX_32 : entry.compressedSize);
+    writeInt(entry.zip64 ? MAX_32 : entry.size);
+    writeShort(entry.name.length);
+    writeShort(extraLength == 0 ? 0 : extraLength + 4);
+    writeShort(0);
+    writeShort(0);
+    writeShort(0);
+    writeInt(0);
+    writeInt(offset64 ? MAX_32 : entry.offset);
+    write(entry.name, 0, entry.name.length);
+    if (extraLength > 0) {
+      writeShort(1);
+      writeShort(extraLength);
+      if (entry.zip64) {
+        writeLong(entry.size);
+        writeLong(entry.compressedSize);
+      }
+      if (offset64) {
+        writeLong(entry.offset);
+      }
+    }
+  }
+
+  private void drain(Deflater deflater, byte[] buffer) throws IOException {
+    int count = deflater.deflate(buffer);
+    write(buffer, 0, count);
+  }
+
+  private static long dosTime(Instant instant) {
+    LocalDateTime time = LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    if (time.getYear() < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+    return (long) (time.getYear() - 1980) << 25
+        | (long) time.getMonthValue() << 21
+        | (long) time.getDayOfMonth() << 16
+        | (long) time.getHour() << 11
+        | (long) time.getMinute() << 5
+        | (long) time.getSecond() >> 1;
+  }
+
+  private void write(byte[] bytes, int offset, int length) throws IOException {
+    out.write(bytes, offset, length);
+    written += length;
+  }
+
+  private void writeShort(int value) throws IOException {
+    scratch[0] = (byte) value;
+    scratch[1] = (byte) (value >>> 8);
+    write(scratch, 0, 2);
+  }
+
+  private void writeInt(long value) throws IOException {
+    for (int i = 0; i < 4; i++) {
+      scratch[i] = (byte) (value >>> (8 * i));
+    }
+    write(scratch, 0, 4);
+  }
+
+  private void writeLong(long value) throws IOException {
+    for (int i = 0; i < 8; i++) {
+      scratch[i] = (byte) (value >>> (8 * i));
+    }
+    write(scratch, 0, 8);
+  }
+
+  private static final class Entry {
+    private byte[] name;
+    private long dosTime;
+    private long offset;
+    private boolean zip64;
+    private long crc;
+    private long size;
+    private long compressedSize;
+  }
+}
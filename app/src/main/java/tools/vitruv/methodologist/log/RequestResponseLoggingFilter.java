@@ -51,7 +51,7 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
           "authorization");
 
   private static final Set<String> FILE_BODYLESS_PATH_PREFIXES =
-      Set.of("/api/files", "/api/upload");
+      Set.of("/api/files", "/api/upload", "/api/v1/upload-sessions");
 
   private static final Set<String> BINARY_BODYLESS_PATH_PREFIXES = Set.of("/api/v1/vsums");
 
@@ -114,7 +114,8 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
     if (uri == null) {
       return false;
     }
-    return uri.matches("^/api/v1/vsums/\\d+/build/(artifact|check)$");
+    return uri.matches("^/api/v1/vsums/\\d+/build/(artifact|check)$")
+        || uri.matches("^/api/v1/build-jobs/\\d+/artifact$");
   }
 
   private boolean isBinaryEndpoint(HttpServletRequest request) {
@@ -148,21 +149,27 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
     MDC.put("ip", request.getRemoteHost());
     MDC.put("type", "SERVED_API");
 
-    ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(request);
-    ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+    // Bodies of file and binary endpoints are never logged. Their requests and responses are
+    // passed through unwrapped, since the caching wrappers would hold the whole body in memory
+    // and swallow streamed responses written after this filter returns.
+    boolean bodyless =
+        request.getRequestURI().contains("swagger")
+            || request.getRequestURI().contains("actuator")
+            || isMultipart(request.getContentType())
+            || isFileEndpoint(request)
+            || isBinaryEndpoint(request);
+    ContentCachingRequestWrapper requestWrapper =
+        bodyless ? null : new ContentCachingRequestWrapper(request);
+    ContentCachingResponseWrapper responseWrapper =
+        bodyless ? null : new ContentCachingResponseWrapper(response);
+    HttpServletResponse servedResponse = bodyless ? response : responseWrapper;
 
     try {
-      filterChain.doFilter(requestWrapper, responseWrapper);
+      filterChain.doFilter(bodyless ? request : requestWrapper, servedResponse);
     } finally {
       LinkedHashMap<String, Object> logEntry = new LinkedHashMap<>();
 
-      boolean skipBodyLogging =
-          request.getRequestURI().contains("swagger")
-              || request.getRequestURI().contains("actuator")
-              || isMultipart(request.getContentType())
-              || isFileEndpoint(request)
-              || isBinaryEndpoint(request)
-              || isBinaryContentType(responseWrapper.getContentType());
+      boolean skipBodyLogging = bodyless || isBinaryContentType(responseWrapper.getContentType());
 
       if (!skipBodyLogging) {
         String reqBody =
@@ -184,23 +191,25 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
       } else {
         logEntry.put("request", "");
         logEntry.put("response", "");
-        logEntry.put("response_content_type", responseWrapper.getContentType());
-        String cl = responseWrapper.getHeader("Content-Length");
+        logEntry.put("response_content_type", servedResponse.getContentType());
+        String cl = servedResponse.getHeader("Content-Length");
         if (cl != null) {
           logEntry.put("response_content_length", cl);
         }
       }
 
-      responseWrapper.copyBodyToResponse();
+      if (responseWrapper != null) {
+        responseWrapper.copyBodyToResponse();
+      }
       long durationMs = System.currentTimeMillis() - startTime;
 
-      if (responseWrapper.getStatus() == 200 || responseWrapper.getStatus() == 201) {
+      if (servedResponse.getStatus() == 200 || servedResponse.getStatus() == 201) {
         logger.info(
-            append(STATUS, responseWrapper.getStatus())
+            append(STATUS, servedResponse.getStatus())
                 .and(append("duration_in_ms", durationMs).and(append("detail", logEntry))));
       } else {
         logger.error(
-            append(STATUS, responseWrapper.getStatus())
+            append(STATUS, servedResponse.getStatus())
                 .and(append("duration_in_ms", durationMs).and(append("detail", logEntry))));
       }
 
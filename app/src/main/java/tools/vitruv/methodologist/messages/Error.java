@@ -29,4 +29,36 @@ public class Error {
   public static final String VITRUV_CLI_EXECUTION_FAILED_ERROR = "Vitruv-CLI execution failed: ";
   public static final String VITRUV_CLI_ERROR = "Vitruv-CLI Error: ";
   public static final String LSP_PROCESS_WAIT_ERROR = "Failed to wait for LSP process to exit";
+  public static final String FILE_CONTENT_READ_ERROR = "Failed to read content of file: ";
+  public static final String FILE_CONTENT_WRITE_ERROR = "Failed to store file content: ";
+  public static final String FILE_CONTENT_DELETE_ERROR = "Failed to delete file content: ";
+  public static final String BATCH_UPLOAD_TYPES_MISMATCH_ERROR =
+      "Exactly one type is required per uploaded file";
+  public static final String UPLOAD_SESSION_NOT_FOUND_ERROR = "Upload session";
+  public static final String UPLOAD_OFFSET_MISMATCH_ERROR =
+      "Chunk offset %d does not match the %d bytes received so far";
+  public static final String UPLOAD_SIZE_EXCEEDED_ERROR =
+      "Chunk exceeds the announced file size of %d bytes";
+  public static final String UPLOAD_CHUNK_TOO_LARGE_ERROR = "Chunks must not exceed %d bytes";
+  public static final String UPLOAD_FILE_TOO_LARGE_ERROR = "Files must not exceed %d bytes";
+  public static final String UPLOAD_PART_FILE_MISSING_ERROR =
+      "The bytes received so far are not available on this server; continue the upload where it"
+          + " was started";
+  public static final String UPLOAD_INCOMPLETE_ERROR =
+      "Upload is incomplete: %d of %d bytes received";
+  public static final String BUILD_JOB_NOT_FOUND_ERROR = "Build job";
+  public static final String BUILD_ARTIFACT_NOT_FOUND_ERROR = "Build artifact";
+  public static final String BUILD_ARTIFACT_TOO_LARGE_ERROR =
+      "the build artifact of %d bytes exceeds the limit of %d bytes";
+  public static final String BUILD_JOB_LIMIT_EXCEEDED_ERROR =
+      "At most %d builds per user can be queued or running";
+  public static final String BUILD_QUEUE_FULL_ERROR = "The build queue is full, try again later";
+  public static final String BUILD_JOB_NOT_SUCCEEDED_ERROR =
+      "Build job %d is %s; its artifact is only available once it succeeded";
+  public static final String CONCURRENCY_LIMIT_EXCEEDED_ERROR =
+      "Too many %s requests are running, try again later";
+  public static final String SYSTEM_OVERLOADED_ERROR =
+      "The server is overloaded and cannot start a %s request, try again later";
+  public static final String VSUM_BUILD_CHECK_REJECTED_ERROR =
+      "The setup-service rejected the VSUM without reporting a reason";
 }
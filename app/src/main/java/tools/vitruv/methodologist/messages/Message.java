@@ -26,10 +26,16 @@ public class Message {
   public static final String VSUM_REMOVED_SUCCESSFULLY = "Vsum successfully removed";
   public static final String FILE_REMOVED_SUCCESSFULLY = "File successfully removed";
   public static final String FILE_UPLOADED_SUCCESSFULLY = "File uploaded successfully";
+  public static final String FILES_UPLOADED_SUCCESSFULLY = "Files uploaded successfully";
+  public static final String UPLOAD_SESSION_CREATED_SUCCESSFULLY = "Upload session created";
+  public static final String UPLOAD_CHUNK_RECEIVED_SUCCESSFULLY = "Chunk received";
+  public static final String UPLOAD_SESSION_ABORTED_SUCCESSFULLY = "Upload session aborted";
   public static final String META_MODEL_REMOVED_SUCCESSFULLY = "Meta model successfully removed";
   public static final String META_MODEL_UPDATED_SUCCESSFULLY = "Meta model successfully updated";
   public static final String VSUM_RECOVERY_WAS_SUCCESSFULLY = "Recovery was successful";
   public static final String VSUM_BUILD_WAS_SUCCESSFULLY = "The build was successful.";
+  public static final String VSUM_BUILD_CHECK_FAILED = "The build check found errors.";
+  public static final String BUILD_JOB_SUBMITTED_SUCCESSFULLY = "Build job submitted";
   public static final String VSUM_HISTORY_REVERT_WAS_SUCCESSFULLY =
       "The vsum history was reverted.";
   public static final String VSUM_USER_DELETED_SUCCESSFULLY =
@@ -1,9 +1,11 @@
 package tools.vitruv.methodologist.user.model.repository;
 
+import jakarta.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -26,6 +28,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
    */
   Optional<User> findByIdAndRemovedAtIsNull(Long id);
 
+  /**
+   * Finds and locks a user, so operations that check and change the user's rows run one at a time.
+   *
+   * @param id the unique identifier of the user
+   * @return an {@link java.util.Optional} containing the locked user if found, otherwise empty
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT u FROM User u WHERE u.id = :id")
+  Optional<User> lockById(@Param("id") Long id);
+
   /**
    * Finds a user by email address, ignoring case sensitivity.
    *
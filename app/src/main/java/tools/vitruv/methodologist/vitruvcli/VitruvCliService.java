@@ -3,9 +3,9 @@ package tools.vitruv.methodologist.vitruvcli;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -17,8 +17,15 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import tools.vitruv.methodologist.exception.CLIExecuteException;
-
-/** Service for invoking Vitruv-CLI as an external process. */
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiters;
+import tools.vitruv.methodologist.general.process.ProcessExecutor;
+import tools.vitruv.methodologist.general.process.ProcessRequest;
+import tools.vitruv.methodologist.general.process.ProcessResult;
+
+/**
+ * Service for invoking Vitruv-CLI as an external process started through the {@link
+ * ProcessExecutor}.
+ */
 @Slf4j
 @Service
 @AllArgsConstructor
@@ -30,7 +37,11 @@ public class VitruvCliService {
       Pattern.compile(
           "(?m)^" + Pattern.quote(GENMODEL_PRECHECK_STATUS_PREFIX) + "\\s*([A-Z_]+)\\s*$");
 
+  static final String PROCESS_NAME = "vitruv-cli";
+
   VitruvCliProperties properties;
+  ProcessExecutor processExecutor;
+  ConcurrencyLimiters limiters;
 
   /**
    * Invoke the external Vitruv-CLI process to build models.
@@ -46,13 +57,12 @@ public class VitruvCliService {
    *     the CLI)
    * @return a {@link VitruvCliResult} containing the process exit code and captured stdout/stderr
    * @throws CLIExecuteException on I/O or interruption errors while executing the CLI
+   * @throws tools.vitruv.methodologist.exception.ConcurrencyLimitExceededException if too many
+   *     invocations are running or the host is overloaded
    */
   public VitruvCliResult run(Path jobDir, List<MetamodelInput> metamodels, Path reactionsDir) {
-    List<String> command =
+    List<String> args =
         List.of(
-            properties.getBinary(),
-            "-jar",
-            properties.getJar(),
             "-f",
             ".",
             "-m",
@@ -61,7 +71,7 @@ public class VitruvCliService {
             reactionsDir.getFileName().toString(),
             "-u",
             "default");
-    return execute(jobDir, command);
+    return execute(jobDir, args);
   }
 
   /**
@@ -74,20 +84,12 @@ public class VitruvCliService {
    */
   public GenModelPrecheckResult precheckGenmodels(
       Path jobDir, List<MetamodelInput> metamodels, boolean applyChanges) {
-    List<String> command =
-        new ArrayList<>(
-            List.of(
-                properties.getBinary(),
-                "-jar",
-                properties.getJar(),
-                "-m",
-                buildMetamodelArg(metamodels),
-                "-pg"));
+    List<String> args = new ArrayList<>(List.of("-m", buildMetamodelArg(metamodels), "-pg"));
     if (applyChanges) {
-      command.add("--apply");
+      args.add("--apply");
     }
 
-    VitruvCliResult result = execute(jobDir, command);
+    VitruvCliResult result = execute(jobDir, args);
     return GenModelPrecheckResult.builder()
         .exitCode(result.getExitCode())
         .stdout(result.getStdout())
@@ -106,51 +108,56 @@ public class VitruvCliService {
         .collect(Collectors.joining(";"));
   }
 
-  private VitruvCliResult execute(Path jobDir, List<String> command) {
-    log.info("Running Vitruv-CLI with command: {}", String.join(" ", command));
+  private VitruvCliResult execute(Path jobDir, List<String> args) {
+    return limiters.vitruvCli().execute(() -> executeAdmitted(jobDir, args));
+  }
 
+  private VitruvCliResult executeAdmitted(Path jobDir, List<String> args) {
     try {
       Files.createDirectories(jobDir);
+    } catch (IOException e) {
+      throw new CLIExecuteException(e.getMessage());
+    }
 
-      ProcessBuilder processBuilder = new ProcessBuilder(command);
-      processBuilder.directory(jobDir.toFile());
-      processBuilder.redirectErrorStream(false);
-
-      Process process = processBuilder.start();
-      process.getOutputStream().close();
-
-      var outFuture =
-          java.util.concurrent.CompletableFuture.supplyAsync(
-              () -> readStream(process.getInputStream()));
-      var errFuture =
-          java.util.concurrent.CompletableFuture.supplyAsync(
-              () -> readStream(process.getErrorStream()));
-
-      boolean finished = process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS);
-      if (!finished) {
-        process.destroyForcibly();
-        throw new IllegalStateException(
-            "Vitruv-CLI timed out after " + properties.getTimeoutSeconds() + " seconds");
-      }
-
-      int exitCode = process.exitValue();
-      String stdout = outFuture.join();
-      String stderr = errFuture.join();
-
-      log.info(
-          "Vitruv-CLI finished with exitCode={}, stdout={}, stderr={}",
-          exitCode,
-          truncate(stdout),
-          truncate(stderr));
-
-      return VitruvCliResult.builder().exitCode(exitCode).stdout(stdout).stderr(stderr).build();
+    List<String> command =
+        new ArrayList<>(List.of(properties.getBinary(), "-jar", properties.getJar()));
+    command.addAll(args);
+    log.info("Running Vitruv-CLI with command: {}", String.join(" ", command));
 
+    ProcessResult result;
+    try {
+      result =
+          processExecutor.run(
+              ProcessRequest.builder()
+                  .name(PROCESS_NAME)
+                  .command(command)
+                  .directory(jobDir)
+                  .timeout(Duration.ofSeconds(properties.getTimeoutSeconds()))
+                  .build());
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new CLIExecuteException(e.getMessage());
     } catch (IOException e) {
       throw new CLIExecuteException(e.getMessage());
     }
+
+    if (result.isTimedOut()) {
+      throw new IllegalStateException(
+          "Vitruv-CLI timed out after " + properties.getTimeoutSeconds() + " seconds");
+    }
+
+    log.info(
+        "Vitruv-CLI finished with exitCode={} in {}, stdout={}, stderr={}",
+        result.getExitCode(),
+        result.getWallTime(),
+        truncate(result.getStdout()),
+        truncate(result.getStderr()));
+
+    return VitruvCliResult.builder()
+        .exitCode(result.getExitCode())
+        .stdout(result.getStdout())
+        .stderr(result.getStderr())
+        .build();
   }
 
   private GenModelPrecheckStatus extractPrecheckStatus(String stdout) {
@@ -175,14 +182,6 @@ public class VitruvCliService {
     }
   }
 
-  private String readStream(java.io.InputStream in) {
-    try {
-      return new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
-    } catch (IOException e) {
-      return "FAILED_TO_READ_STREAM: " + e.getMessage();
-    }
-  }
-
   private String truncate(String s) {
     if (s == null) {
       return "";
@@ -0,0 +1,11 @@
+package tools.vitruv.methodologist.vsum;
+
+/**
+ * Severity of a problem found while checking whether a VSUM can be built. Only {@link #ERROR}
+ * prevents the build.
+ */
+public enum BuildDiagnosticSeverity {
+  ERROR,
+  WARNING,
+  INFO
+}
@@ -0,0 +1,14 @@
+package tools.vitruv.methodologist.vsum;
+
+/**
+ * Lifecycle status of a {@link tools.vitruv.methodologist.vsum.model.BuildJob}.
+ *
+ * <p>A job starts as {@link #QUEUED}, becomes {@link #RUNNING} once a build worker picks it up and
+ * ends as {@link #SUCCEEDED} or {@link #FAILED}.
+ */
+public enum BuildJobStatus {
+  QUEUED,
+  RUNNING,
+  SUCCEEDED,
+  FAILED
+}
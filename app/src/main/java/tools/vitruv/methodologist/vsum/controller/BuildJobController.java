@@ -0,0 +1,114 @@
+package tools.vitruv.methodologist.vsum.controller;
+
+import static tools.vitruv.methodologist.messages.Message.BUILD_JOB_SUBMITTED_SUCCESSFULLY;
+
+import java.util.List;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import tools.vitruv.methodologist.ResponseTemplateDto;
+import tools.vitruv.methodologist.config.KeycloakAuthentication;
+import tools.vitruv.methodologist.general.storage.CachedArtifact;
+import tools.vitruv.methodologist.vsum.controller.dto.response.BuildJobResponse;
+import tools.vitruv.methodologist.vsum.service.BuildJobService;
+
+/**
+ * REST controller for asynchronous VSUM builds. A build is submitted as a job, its state is polled
+ * until it finished, and the built JAR is downloaded once it succeeded.
+ */
+@RestController
+@RequestMapping("/api/")
+@Validated
+public class BuildJobController {
+  private final BuildJobService buildJobService;
+
+  /**
+   * Constructs a new build job controller.
+   *
+   * @param buildJobService the service running the build jobs
+   */
+  public BuildJobController(BuildJobService buildJobService) {
+    this.buildJobService = buildJobService;
+  }
+
+  /**
+   * Queues a build of the given VSUM. Returns the already queued or running job if the caller has
+   * one for this VSUM.
+   *
+   * @param authentication the authenticated Keycloak principal
+   * @param id the identifier of the VSUM to build
+   * @return the state of the queued job
+   */
+  @PostMapping("/v1/vsums/{id}/build-jobs")
+  @PreAuthorize("hasRole('user')")
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public ResponseTemplateDto<BuildJobResponse> submit(
+      KeycloakAuthentication authentication, @PathVariable Long id) {
+    String callerEmail = authentication.getParsedToken().getEmail();
+    return ResponseTemplateDto.<BuildJobResponse>builder()
+        .data(buildJobService.submit(callerEmail, id))
+        .message(BUILD_JOB_SUBMITTED_SUCCESSFULLY)
+        .build();
+  }
+
+  /**
+   * Retrieves the state of a build job, including its queue position while it is queued.
+   *
+   * @param authentication the authenticated Keycloak principal
+   * @param jobId the identifier of the build job
+   * @return the state of the job
+   */
+  @GetMapping("/v1/build-jobs/{jobId}")
+  @PreAuthorize("hasRole('user')")
+  public ResponseTemplateDto<BuildJobResponse> status(
+      KeycloakAuthentication authentication, @PathVariable Long jobId) {
+    String callerEmail = authentication.getParsedToken().getEmail();
+    return ResponseTemplateDto.<BuildJobResponse>builder()
+        .data(buildJobService.status(callerEmail, jobId))
+        .build();
+  }
+
+  /**
+   * Downloads the JAR built by a succeeded build job. The hash of the build inputs serves as entity
+   * tag, so a client already holding the JAR gets 304 Not Modified.
+   *
+   * @param authentication the authenticated Keycloak principal
+   * @param jobId the identifier of the build job
+   * @param requestHeaders the request headers
+   * @return the VSUM fat JAR build artifact
+   */
+  @GetMapping("/v1/build-jobs/{jobId}/artifact")
+  @PreAuthorize("hasRole('user')")
+  public ResponseEntity<Resource> download(
+      KeycloakAuthentication authentication,
+      @PathVariable Long jobId,
+      @RequestHeader HttpHeaders requestHeaders) {
+    String callerEmail = authentication.getParsedToken().getEmail();
+
+    CachedArtifact jar = buildJobService.artifact(callerEmail, jobId);
+    String etag = "\"" + jar.key() + "\"";
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(etag);
+    headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+    headers.setContentDisposition(ContentDisposition.attachment().filename("vsum.jar").build());
+
+    List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+    if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+    }
+    return ResponseEntity.ok().headers(headers).body(jar.content());
+  }
+}
@@ -1,5 +1,6 @@
 package tools.vitruv.methodologist.vsum.controller;
 
+import static tools.vitruv.methodologist.messages.Message.VSUM_BUILD_CHECK_FAILED;
 import static tools.vitruv.methodologist.messages.Message.VSUM_BUILD_WAS_SUCCESSFULLY;
 import static tools.vitruv.methodologist.messages.Message.VSUM_CREATED_SUCCESSFULLY;
 import static tools.vitruv.methodologist.messages.Message.VSUM_RECOVERY_WAS_SUCCESSFULLY;
@@ -7,12 +8,16 @@ import static tools.vitruv.methodologist.messages.Message.VSUM_REMOVED_SUCCESSFU
 import static tools.vitruv.methodologist.messages.Message.VSUM_UPDATED_SUCCESSFULLY;
 
 import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,16 +28,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tools.vitruv.methodologist.ResponseTemplateDto;
 import tools.vitruv.methodologist.config.KeycloakAuthentication;
+import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.storage.CachedArtifact;
 import tools.vitruv.methodologist.vsum.controller.dto.request.VsumPostRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.request.VsumPutRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.request.VsumSyncChangesPutRequest;
+import tools.vitruv.methodologist.vsum.controller.dto.response.VsumBuildCheckResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumMetaModelResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumResponse;
+import tools.vitruv.methodologist.vsum.service.VsumBundleService;
 import tools.vitruv.methodologist.vsum.service.VsumService;
 
 /**
@@ -44,14 +55,17 @@ import tools.vitruv.methodologist.vsum.service.VsumService;
 @Validated
 public class VsumController {
   private final VsumService vsumService;
+  private final VsumBundleService vsumBundleService;
 
   /**
-   * Constructs a new VSUM controller with the required service dependency.
+   * Constructs a new VSUM controller with the required service dependencies.
    *
    * @param vsumService the service component for VSUM operations
+   * @param vsumBundleService the service exporting the model files of a VSUM
    */
-  public VsumController(VsumService vsumService) {
+  public VsumController(VsumService vsumService, VsumBundleService vsumBundleService) {
     this.vsumService = vsumService;
+    this.vsumBundleService = vsumBundleService;
   }
 
   /**
@@ -236,50 +250,100 @@ public class VsumController {
   }
 
   /**
-   * Triggers the VSUM build process for the given VSUM.
+   * Checks whether the given VSUM can be built.
    *
-   * <p>This endpoint validates the caller's access to the VSUM and starts the Vitruv build
-   * pipeline. The build is executed synchronously and will fail fast if the configuration or CLI
-   * execution is invalid.
+   * <p>This endpoint validates the caller's access to the VSUM and has the setup-service validate
+   * its files and run code generation. Compilation and fat-JAR packaging are skipped, so no build
+   * artifact is produced; use {@code GET /v1/vsums/{id}/build/artifact} to build and download it.
+   * If the setup-service does not offer validation yet, the VSUM is checked with a full build.
    *
-   * <p>No build artifact is returned by this endpoint. Use {@code GET
-   * /v1/vsums/{id}/build/artifact} to download the generated build output.
+   * <p>The problems found are returned as diagnostics. A VSUM with errors is answered with 422
+   * Unprocessable Entity.
    *
    * @param authentication the authenticated Keycloak principal
-   * @param id the identifier of the VSUM to build
-   * @return a response indicating that the build completed successfully
+   * @param id the identifier of the VSUM to check
+   * @return the check result and its diagnostics
    * @throws AccessDeniedException if the caller has no access to the VSUM
-   * @throws VsumBuildingException if the build fails
+   * @throws tools.vitruv.methodologist.exception.SetupServiceException if the setup-service call
+   *     fails
    */
   @GetMapping("/v1/vsums/{id}/build/check")
   @PreAuthorize("hasRole('user')")
-  public ResponseTemplateDto<Void> buildOrThrow(
+  public ResponseEntity<ResponseTemplateDto<VsumBuildCheckResponse>> buildOrThrow(
       KeycloakAuthentication authentication, @PathVariable Long id) {
     String callerEmail = authentication.getParsedToken().getEmail();
-    vsumService.getJarfat(callerEmail, id);
-    return ResponseTemplateDto.<Void>builder().message(VSUM_BUILD_WAS_SUCCESSFULLY).build();
+    VsumBuildCheckResponse check = vsumService.checkBuild(callerEmail, id);
+    return ResponseEntity.status(check.isValid() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY)
+        .body(
+            ResponseTemplateDto.<VsumBuildCheckResponse>builder()
+                .data(check)
+                .message(check.isValid() ? VSUM_BUILD_WAS_SUCCESSFULLY : VSUM_BUILD_CHECK_FAILED)
+                .build());
   }
 
   /**
    * Builds the VSUM via the setup-service and returns the generated fat JAR as a downloadable file.
    *
+   * <p>The JAR is served from the build cache while the VSUM's files are unchanged. The hash of
+   * those files serves as entity tag, so a client already holding the current JAR gets 304 Not
+   * Modified.
+   *
    * @param authentication the authenticated Keycloak principal
    * @param id the identifier of the VSUM to build
+   * @param requestHeaders the request headers
    * @return the VSUM fat JAR build artifact
    * @throws tools.vitruv.methodologist.exception.SetupServiceException if the setup-service call
    *     fails
    */
   @GetMapping("/v1/vsums/{id}/build/artifact")
-  public ResponseEntity<byte[]> buildAndDownload(
-      KeycloakAuthentication authentication, @PathVariable Long id) {
+  public ResponseEntity<Resource> buildAndDownload(
+      KeycloakAuthentication authentication,
+      @PathVariable Long id,
+      @RequestHeader HttpHeaders requestHeaders) {
     String callerEmail = authentication.getParsedToken().getEmail();
 
-    byte[] jar = vsumService.getJarfat(callerEmail, id);
+    CachedArtifact jar = vsumService.getJarfat(callerEmail, id);
+    String etag = "\"" + jar.key() + "\"";
 
     HttpHeaders headers = new HttpHeaders();
+    headers.setETag(etag);
     headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
     headers.setContentDisposition(ContentDisposition.attachment().filename("vsum.jar").build());
 
-    return ResponseEntity.ok().headers(headers).body(jar);
+    List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+    if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+    }
+    return ResponseEntity.ok().headers(headers).body(jar.content());
+  }
+
+  /**
+   * Downloads all model files of a VSUM as one ZIP archive: the Ecore and GenModel files of its
+   * metamodels and the reaction, view and OCL files.
+   *
+   * <p>The archive is assembled while it is sent, so its size is not known in advance and the
+   * response uses chunked transfer encoding.
+   *
+   * @param authentication the authenticated Keycloak principal
+   * @param id the identifier of the VSUM to export
+   * @return the streamed ZIP archive
+   * @throws AccessDeniedException if the caller has no access to the VSUM
+   */
+  @GetMapping("/v1/vsums/{id}/bundle")
+  @PreAuthorize("hasRole('user')")
+  public ResponseEntity<StreamingResponseBody> downloadBundle(
+      KeycloakAuthentication authentication, @PathVariable Long id) {
+    String callerEmail = authentication.getParsedToken().getEmail();
+    String name = vsumBundleService.findBundleName(callerEmail, id);
+    Map<String, FileStorage> entries = vsumBundleService.findBundleEntries(callerEmail, id);
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.valueOf("application/zip"));
+    headers.setContentDisposition(
+        ContentDisposition.attachment().filename(name + ".zip", StandardCharsets.UTF_8).build());
+
+    return ResponseEntity.ok()
+        .headers(headers)
+        .body(out -> vsumBundleService.writeBundle(entries, out));
   }
 }
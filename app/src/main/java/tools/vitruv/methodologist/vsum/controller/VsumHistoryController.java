@@ -41,6 +41,9 @@ public class VsumHistoryController {
    * tools.vitruv.methodologist.vsum.controller.dto.response.VsumHistoryResponse} DTOs ordered by
    * creation time.
    *
+   * <p>Snapshots older than {@code vsum.history.archive.retention-months} (12 by default) are moved
+   * to the archive. They are still listed, after the live snapshots, with {@code archived} set.
+   *
    * @param authentication the authenticated caller's Keycloak token; used to obtain the caller
    *     email
    * @param vsumId the VSUM identifier to filter history entries by
@@ -64,7 +67,8 @@ public class VsumHistoryController {
    * <p>Requires the caller to have role `user`. The caller's email is extracted from the provided
    * {@code KeycloakAuthentication} and used to authorize the revert operation. The work is
    * delegated to {@link VsumHistoryService#revert(String, Long)} which may throw runtime exceptions
-   * (for example when the history entry or permission is not found).
+   * (for example when the history entry or permission is not found). Archived history entries can
+   * be reverted to like live ones.
    *
    * @param authentication the caller's Keycloak authentication token; used to obtain the caller
    *     email
@@ -0,0 +1,25 @@
+package tools.vitruv.methodologist.vsum.controller.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tools.vitruv.methodologist.vsum.BuildDiagnosticSeverity;
+
+/**
+ * Data Transfer Object (DTO) for a problem found by a VSUM build check. {@code file}, {@code line}
+ * and {@code column} are {@code null} when the problem is not tied to a location.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildDiagnosticResponse {
+  private BuildDiagnosticSeverity severity;
+  private String file;
+  private Integer line;
+  private Integer column;
+  private String message;
+}
@@ -0,0 +1,29 @@
+package tools.vitruv.methodologist.vsum.controller.dto.response;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import tools.vitruv.methodologist.vsum.BuildJobStatus;
+
+/**
+ * Data Transfer Object (DTO) for the state of an asynchronous VSUM build. {@code queuePosition} is
+ * the number of jobs ahead of a queued job, and {@code null} once the job has started.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildJobResponse {
+  private Long id;
+  private Long vsumId;
+  private BuildJobStatus status;
+  private Long queuePosition;
+  private String error;
+  private Instant createdAt;
+  private Instant startedAt;
+  private Instant finishedAt;
+}
@@ -0,0 +1,24 @@
+package tools.vitruv.methodologist.vsum.controller.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data Transfer Object (DTO) for the result of a VSUM build check. The VSUM can be built if {@code
+ * valid} is {@code true}, which implies {@code errorCount} is zero.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VsumBuildCheckResponse {
+  private boolean valid;
+  private int errorCount;
+  private int warningCount;
+  private List<BuildDiagnosticResponse> diagnostics;
+}
@@ -21,4 +21,7 @@ import lombok.Setter;
 public class VsumHistoryResponse {
   private Long id;
   private Instant createdAt;
+
+  /** Whether the snapshot was moved to the archive after the retention window. */
+  private boolean archived;
 }
@@ -3,9 +3,11 @@ package tools.vitruv.methodologist.vsum.mapper;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
 import tools.vitruv.methodologist.vsum.VsumRepresentation;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumHistoryResponse;
+import tools.vitruv.methodologist.vsum.model.ArchivedVsumHistory;
 import tools.vitruv.methodologist.vsum.model.MetaModelRelation;
 import tools.vitruv.methodologist.vsum.model.Vsum;
 import tools.vitruv.methodologist.vsum.model.VsumHistory;
@@ -106,4 +108,15 @@ public interface VsumHistoryMapper {
    *     {@code null}
    */
   VsumHistoryResponse toVsumHistoryResponse(VsumHistory vsumHistory);
+
+  /**
+   * Converts an {@link ArchivedVsumHistory} into a {@link VsumHistoryResponse} DTO flagged as
+   * archived.
+   *
+   * @param archivedVsumHistory the archived snapshot to map; may be {@code null}
+   * @return a populated {@link VsumHistoryResponse} or {@code null} when {@code
+   *     archivedVsumHistory} is {@code null}
+   */
+  @Mapping(target = "archived", constant = "true")
+  VsumHistoryResponse toVsumHistoryResponse(ArchivedVsumHistory archivedVsumHistory);
 }
@@ -0,0 +1,45 @@
+package tools.vitruv.methodologist.vsum.model;
+
+import com.vladmihalcea.hibernate.type.json.JsonType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+import tools.vitruv.methodologist.vsum.VsumRepresentation;
+
+/**
+ * A {@link VsumHistory} snapshot that fell out of the retention window of the live {@code
+ * vsum_history} partitions and was moved into {@code vsum_history_archive}.
+ *
+ * <p>Archived snapshots are read-only. They keep the id and creation time they had as live
+ * snapshots, so clients can list and revert to them like any other snapshot.
+ */
+@Builder
+@Getter
+@Entity
+@Immutable
+@Table(name = "vsum_history_archive")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedVsumHistory {
+  @Id private Long id;
+
+  private Instant createdAt;
+
+  private Long creatorId;
+
+  private Long vsumId;
+
+  @Type(JsonType.class)
+  @Column(columnDefinition = "jsonb")
+  private VsumRepresentation representation;
+
+  private Instant archivedAt;
+}
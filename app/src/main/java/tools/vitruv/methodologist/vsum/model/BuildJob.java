@@ -0,0 +1,66 @@
+package tools.vitruv.methodologist.vsum.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import tools.vitruv.methodologist.user.model.User;
+import tools.vitruv.methodologist.vsum.BuildJobStatus;
+
+/**
+ * Entity class representing an asynchronous build of a {@link Vsum} requested by a {@link User}.
+ *
+ * <p>Queued jobs are picked up by the build workers in the order they were created. Once the build
+ * succeeded, {@link #artifactKey} identifies the JAR in the build cache; a failed build keeps its
+ * error message.
+ */
+@Builder
+@Setter
+@Getter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildJob {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @NotNull
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "user_id")
+  private User user;
+
+  @NotNull
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "vsum_id")
+  private Vsum vsum;
+
+  @NotNull
+  @Enumerated(EnumType.STRING)
+  private BuildJobStatus status;
+
+  /** Key of the built JAR in the build cache; set once the job succeeded. */
+  private String artifactKey;
+
+  /** Why the build failed; set once the job failed. */
+  private String error;
+
+  @CreationTimestamp private Instant createdAt;
+
+  private Instant startedAt;
+
+  private Instant finishedAt;
+}
@@ -0,0 +1,42 @@
+package tools.vitruv.methodologist.vsum.model.repository;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import tools.vitruv.methodologist.vsum.model.ArchivedVsumHistory;
+
+/**
+ * Spring Data repository reading the {@link ArchivedVsumHistory} snapshots in {@code
+ * vsum_history_archive}. Rows are only written by the partition maintenance of {@code
+ * vsum_history}, so this repository offers no save methods.
+ */
+public interface ArchivedVsumHistoryRepository extends Repository<ArchivedVsumHistory, Long> {
+
+  /**
+   * Finds the archived snapshot with the given id.
+   *
+   * @param id the id the snapshot had in {@code vsum_history}
+   * @return the archived snapshot, if present
+   */
+  Optional<ArchivedVsumHistory> findById(Long id);
+
+  /**
+   * Finds the archived snapshots of the specified VSUM that belong to the given user email, newest
+   * first, as long as neither the VSUM nor its owner are removed.
+   *
+   * @param vsumId the VSUM id to filter snapshots by
+   * @param callerEmail the email address of the VSUM owner
+   * @return the archived snapshots ordered by {@code createdAt} descending; never {@code null}
+   */
+  @Query(
+      """
+          select a from ArchivedVsumHistory a, Vsum v
+          where a.vsumId = v.id
+            and v.id = ?1
+            and v.user.email = ?2
+            and v.user.removedAt is null
+            and v.removedAt is null
+          order by a.createdAt DESC""")
+  List<ArchivedVsumHistory> getArchivedVsumHistories(Long vsumId, String callerEmail);
+}
@@ -0,0 +1,185 @@
+package tools.vitruv.methodologist.vsum.model.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import tools.vitruv.methodologist.vsum.BuildJobStatus;
+import tools.vitruv.methodologist.vsum.model.BuildJob;
+
+/**
+ * Spring Data repository for {@link BuildJob} entities. Queued jobs are processed in the order of
+ * their ids.
+ */
+public interface BuildJobRepository extends CrudRepository<BuildJob, Long> {
+
+  /**
+   * Finds a build job of an active user.
+   *
+   * @param id the job identifier
+   * @param email the email of the user who submitted the job
+   * @return the job, if present
+   */
+  @SuppressWarnings("checkstyle:MethodName")
+  Optional<BuildJob> findByIdAndUser_EmailAndUser_RemovedAtIsNull(Long id, String email);
+
+  /**
+   * Finds the oldest job of the given user and VSUM in one of the given states.
+   *
+   * @param email the email of the user who submitted the job
+   * @param vsumId the VSUM identifier
+   * @param statuses the accepted states
+   * @return the job, if present
+   */
+  @SuppressWarnings("checkstyle:MethodName")
+  Optional<BuildJob> findFirstByUser_EmailAndVsum_IdAndStatusInOrderByIdAsc(
+      String email, Long vsumId, Collection<BuildJobStatus> statuses);
+
+  /**
+   * Counts the jobs of the given user in one of the given states.
+   *
+   * @param email the email of the user who submitted the jobs
+   * @param statuses the counted states
+   * @return the number of jobs
+   */
+  @SuppressWarnings("checkstyle:MethodName")
+  long countByUser_EmailAndStatusIn(String email, Collection<BuildJobStatus> statuses);
+
+  /**
+   * Counts the jobs in the given state.
+   *
+   * @param status the counted state
+   * @return the number of jobs
+   */
+  long countByStatus(BuildJobStatus status);
+
+  /**
+   * Counts the jobs in the given state that were submitted before the job with the given id.
+   *
+   * @param status the counted state
+   * @param id the job identifier
+   * @return the number of earlier jobs
+   */
+  long countByStatusAndIdLessThan(BuildJobStatus status, Long id);
+
+  /**
+   * Locks the oldest queued job. Jobs locked by other workers are skipped, so every queued job is
+   * claimed by exactly one worker.
+   *
+   * @return the locked job, if any job is queued
+   */
+  @Query(
+      value =
+          """
+          SELECT * FROM build_job
+          WHERE status = 'QUEUED'
+          ORDER BY id
+          LIMIT 1
+          FOR UPDATE SKIP LOCKED
+          """,
+      nativeQuery = true)
+  Optional<BuildJob> lockNextQueued();
+
+  /**
+   * Puts running jobs that were started before {@code startedBefore} back into the queue, e.g.
+   * because the instance running them stopped.
+   *
+   * @param startedBefore the start time before which a running job is considered abandoned
+   * @return the number of requeued jobs
+   */
+  @Modifying
+  @Query(
+      "UPDATE BuildJob j SET j.status = tools.vitruv.methodologist.vsum.BuildJobStatus.QUEUED,"
+          + " j.startedAt = NULL"
+          + " WHERE j.status = tools.vitruv.methodologist.vsum.BuildJobStatus.RUNNING"
+          + " AND j.startedAt < :startedBefore")
+  int requeueStarted(@Param("startedBefore") Instant startedBefore);
+
+  /**
+   * Records the outcome of a running job, unless the job was requeued or claimed again since it was
+   * claimed at {@code startedAt}.
+   *
+   * @param id the job identifier
+   * @param startedAt the start time set when the job was claimed
+   * @param status the final state
+   * @param artifactKey key of the built JAR; {@code null} if the build failed
+   * @param error why the build failed; {@code null} if it succeeded
+   * @param finishedAt when the job finished
+   * @return {@code 1} if the outcome was recorded, {@code 0} otherwise
+   */
+  @Modifying
+  @Query(
+      "UPDATE BuildJob j SET j.status = :status, j.artifactKey = :artifactKey, j.error = :error,"
+          + " j.finishedAt = :finishedAt"
+          + " WHERE j.id = :id"
+          + " AND j.status = tools.vitruv.methodologist.vsum.BuildJobStatus.RUNNING"
+          + " AND j.startedAt = :startedAt")
+  int finishRunning(
+      @Param("id") Long id,
+      @Param("startedAt") Instant startedAt,
+      @Param("status") BuildJobStatus status,
+      @Param("artifactKey") String artifactKey,
+      @Param("error") String error,
+      @Param("finishedAt") Instant finishedAt);
+
+  /**
+   * Deletes the jobs that finished before {@code finishedBefore}.
+   *
+   * @param finishedBefore the time before which finished jobs are deleted
+   * @return the number of deleted jobs
+   */
+  @Modifying
+  @Query("DELETE FROM BuildJob j WHERE j.finishedAt < :finishedBefore")
+  int deleteFinishedBefore(@Param("finishedBefore") Instant finishedBefore);
+
+  /**
+   * Tries to take the build lease with the given key. A lease that is held by another owner can
+   * only be taken once it expired.
+   *
+   * @param key the lease key
+   * @param owner token identifying the new holder, required to release the lease
+   * @param leaseSeconds time after which the lease expires unless it is released
+   * @return {@code 1} if the lease was taken, {@code 0} otherwise
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO build_lock (lock_key, owner, expires_at)
+          VALUES (:key, :owner, now() + :leaseSeconds * INTERVAL '1 second')
+          ON CONFLICT (lock_key) DO UPDATE
+          SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at
+          WHERE build_lock.expires_at < now()
+          """,
+      nativeQuery = true)
+  int tryLease(
+      @Param("key") String key,
+      @Param("owner") String owner,
+      @Param("leaseSeconds") long leaseSeconds);
+
+  /**
+   * Releases a build lease, unless it expired and was taken over by another owner.
+   *
+   * @param key the lease key
+   * @param owner token passed when the lease was taken
+   * @return the number of released leases
+   */
+  @Modifying
+  @Query(
+      value = "DELETE FROM build_lock WHERE lock_key = :key AND owner = :owner",
+      nativeQuery = true)
+  int releaseLease(@Param("key") String key, @Param("owner") String owner);
+
+  /**
+   * Deletes the build leases that expired without being released, e.g. because their instance
+   * stopped.
+   *
+   * @return the number of deleted leases
+   */
+  @Modifying
+  @Query(value = "DELETE FROM build_lock WHERE expires_at < now()", nativeQuery = true)
+  int deleteExpiredLeases();
+}
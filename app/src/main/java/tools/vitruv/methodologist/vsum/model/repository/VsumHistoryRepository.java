@@ -3,8 +3,10 @@ package tools.vitruv.methodologist.vsum.model.repository;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tools.vitruv.methodologist.vsum.model.Vsum;
 import tools.vitruv.methodologist.vsum.model.VsumHistory;
@@ -54,11 +56,48 @@ public interface VsumHistoryRepository extends CrudRepository<VsumHistory, Long>
   Optional<VsumHistory> findById(Long id);
 
   /**
-   * Deletes all {@link VsumHistory} entities associated with the specified {@link Vsum}.
+   * Deletes all {@link VsumHistory} entities associated with the specified {@link Vsum} in a single
+   * bulk statement.
+   *
+   * <p>Unlike a derived delete, no entities are loaded into the persistence context; the database
+   * removes the rows through the {@code (vsum_id, created_at)} index of every partition.
    *
    * @param vsum the VSUM whose history records should be deleted
+   * @return number of deleted history records
+   */
+  @Modifying
+  @Query("DELETE FROM VsumHistory h WHERE h.vsum = :vsum")
+  int deleteAllByVsum(@Param("vsum") Vsum vsum);
+
+  /**
+   * Deletes the archived history records of the specified VSUM from {@code vsum_history_archive}.
+   *
+   * @param vsumId the id of the VSUM whose archived history records should be deleted
+   * @return number of deleted archive records
+   */
+  @Modifying
+  @Query(value = "DELETE FROM vsum_history_archive WHERE vsum_id = :vsumId", nativeQuery = true)
+  int deleteArchivedByVsumId(@Param("vsumId") Long vsumId);
+
+  /**
+   * Creates the monthly {@code vsum_history} partitions for the current month and the given number
+   * of upcoming months, moving rows that landed in the default partition into them.
+   *
+   * @param monthsAhead number of months after the current one to prepare partitions for
+   * @return number of newly created partitions
+   */
+  @Query(value = "SELECT vsum_history_ensure_partitions(:monthsAhead)", nativeQuery = true)
+  int ensurePartitions(@Param("monthsAhead") int monthsAhead);
+
+  /**
+   * Detaches the monthly {@code vsum_history} partitions that ended before the retention window and
+   * moves their rows into the compressed {@code vsum_history_archive} table.
+   *
+   * @param retentionMonths number of full months kept in the live partitions
+   * @return number of archived partitions
    */
-  void deleteVsumHistoryByVsum(Vsum vsum);
+  @Query(value = "SELECT vsum_history_archive_partitions(:retentionMonths)", nativeQuery = true)
+  int archivePartitions(@Param("retentionMonths") int retentionMonths);
 
   /**
    * Finds all non-removed history records for the specified VSUM id that belong to the given user
@@ -0,0 +1,225 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.vitruv.methodologist.general.storage.ArtifactCache;
+import tools.vitruv.methodologist.general.storage.ArtifactCache.ArtifactWriter;
+import tools.vitruv.methodologist.general.storage.CachedArtifact;
+import tools.vitruv.methodologist.vsum.model.repository.BuildJobRepository;
+
+/**
+ * Runs at most one build per set of build inputs at a time.
+ *
+ * <p>Builds are keyed by the hash of their inputs. Callers asking for a key that is already being
+ * built on this instance wait for that build instead of starting their own. Across instances, the
+ * build holds a lease on the key in the {@code build_lock} table; an instance finding the lease
+ * taken polls the {@link ArtifactCache} until the other instance's artifact appears or the lease is
+ * released. Artifacts built elsewhere are only seen if the instances share the cache directory;
+ * otherwise the waiting instance builds once the lease is free.
+ *
+ * <p>Taking and releasing the lease are short transactions of their own, so a build in progress
+ * holds no database connection. A lease expires after {@code wait-timeout}, the time after which
+ * waiting instances build on their own anyway, so the lease of a stopped instance does not block
+ * the key for longer than that.
+ */
+@Service
+@Slf4j
+public class BuildCoalescingService {
+  private final BuildCoalescingService self;
+  private final BuildJobRepository buildJobRepository;
+  private final ArtifactCache artifactCache;
+  private final Duration pollInterval;
+  private final Duration waitTimeout;
+  private final Clock clock;
+  private final ConcurrentMap<String, CompletableFuture<CachedArtifact>> inFlight =
+      new ConcurrentHashMap<>();
+  private final Counter coalescedLocal;
+  private final Counter coalescedRemote;
+
+  /**
+   * Constructs a {@link BuildCoalescingService}.
+   *
+   * @param self lazy-loaded self-reference for the transactional lease handling
+   * @param buildJobRepository repository providing the build leases
+   * @param artifactCache cache holding the built artifacts
+   * @param meterRegistry the registry the coalescing metrics are published to
+   * @param pollInterval time between checks while another instance builds the same inputs
+   * @param waitTimeout time after which an instance stops waiting and builds on its own
+   */
+  @Autowired
+  public BuildCoalescingService(
+      @Lazy BuildCoalescingService self,
+      BuildJobRepository buildJobRepository,
+      ArtifactCache artifactCache,
+      MeterRegistry meterRegistry,
+      @Value("${vsum.build.coalescing.poll-interval:1s}") Duration pollInterval,
+      @Value("${vsum.build.coalescing.wait-timeout:6m}") Duration waitTimeout) {
+    this(
+        self,
+        buildJobRepository,
+        artifactCache,
+        meterRegistry,
+        pollInterval,
+        waitTimeout,
+        Clock.systemUTC());
+  }
+
+  BuildCoalescingService(
+      BuildCoalescingService self,
+      BuildJobRepository buildJobRepository,
+      ArtifactCache artifactCache,
+      MeterRegistry meterRegistry,
+      Duration pollInterval,
+      Duration waitTimeout,
+      Clock clock) {
+    this.self = self;
+    this.buildJobRepository = buildJobRepository;
+    this.artifactCache = artifactCache;
+    this.pollInterval = pollInterval;
+    this.waitTimeout = waitTimeout;
+    this.clock = clock;
+    this.coalescedLocal = coalesced(meterRegistry, "local");
+    this.coalescedRemote = coalesced(meterRegistry, "remote");
+  }
+
+  /**
+   * Returns the artifact for the given key from the cache, from a build of the same key already in
+   * progress, or by running {@code builder}.
+   *
+   * @param key hex-encoded hash of the build inputs
+   * @param builder writes the artifact if no other caller does
+   * @return the artifact
+   */
+  public CachedArtifact build(String key, ArtifactWriter builder) {
+    Optional<CachedArtifact> cached = artifactCache.get(key);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    CompletableFuture<CachedArtifact> own = new CompletableFuture<>();
+    CompletableFuture<CachedArtifact> pending = inFlight.putIfAbsent(key, own);
+    if (pending != null) {
+      coalescedLocal.increment();
+      return await(pending);
+    }
+    try {
+      CachedArtifact artifact = buildExclusively(key, builder);
+      own.complete(artifact);
+      return artifact;
+    } catch (Throwable e) {
+      // waiting callers block until the future completes, so it must complete on errors too
+      own.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, own);
+    }
+  }
+
+  /**
+   * Tries to take the lease of the given key.
+   *
+   * @param key hex-encoded hash of the build inputs
+   * @return the token needed to release the lease, or empty if another owner holds it
+   */
+  @Transactional
+  public Optional<String> tryLease(String key) {
+    String owner = UUID.randomUUID().toString();
+    return buildJobRepository.tryLease(key, owner, waitTimeout.toSeconds()) > 0
+        ? Optional.of(owner)
+        : Optional.empty();
+  }
+
+  /**
+   * Releases the lease of the given key.
+   *
+   * @param key hex-encoded hash of the build inputs
+   * @param owner the token returned by {@link #tryLease(String)}
+   */
+  @Transactional
+  public void releaseLease(String key, String owner) {
+    buildJobRepository.releaseLease(key, owner);
+  }
+
+  /**
+   * Builds the artifact while holding the lease of its key, unless another instance provides it
+   * while this one waits for the lease.
+   */
+  private CachedArtifact buildExclusively(String key, ArtifactWriter builder) {
+    Instant deadline = clock.instant().plus(waitTimeout);
+    boolean waited = false;
+    Optional<String> owner;
+    while ((owner = self.tryLease(key)).isEmpty()) {
+      if (!clock.instant().isBefore(deadline)) {
+        log.warn("Gave up waiting for the build of {} on another instance", key);
+        break;
+      }
+      waited = true;
+      if (!sleep(pollInterval)) {
+        break;
+      }
+      Optional<CachedArtifact> cached = artifactCache.get(key);
+      if (cached.isPresent()) {
+        coalescedRemote.increment();
+        return cached.get();
+      }
+    }
+    if (waited) {
+      Optional<CachedArtifact> cached = artifactCache.get(key);
+      if (cached.isPresent()) {
+        owner.ifPresent(token -> self.releaseLease(key, token));
+        coalescedRemote.increment();
+        return cached.get();
+      }
+    }
+    try {
+      return artifactCache.computeIfAbsent(key, builder);
+    } finally {
+      owner.ifPresent(token -> self.releaseLease(key, token));
+    }
+  }
+
+  private static CachedArtifact await(CompletableFuture<CachedArtifact> pending) {
+    try {
+      return pending.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static boolean sleep(Duration duration) {
+    try {
+      Thread.sleep(duration);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static Counter coalesced(MeterRegistry meterRegistry, String scope) {
+    return Counter.builder("vsum.build.coalesced")
+        .description("Build requests served by a build of the same inputs already in progress")
+        .tag("scope", scope)
+        .register(meterRegistry);
+  }
+}
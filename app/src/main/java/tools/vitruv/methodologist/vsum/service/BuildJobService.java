@@ -0,0 +1,423 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import static tools.vitruv.methodologist.messages.Error.BUILD_ARTIFACT_NOT_FOUND_ERROR;
+import static tools.vitruv.methodologist.messages.Error.BUILD_JOB_LIMIT_EXCEEDED_ERROR;
+import static tools.vitruv.methodologist.messages.Error.BUILD_JOB_NOT_FOUND_ERROR;
+import static tools.vitruv.methodologist.messages.Error.BUILD_JOB_NOT_SUCCEEDED_ERROR;
+import static tools.vitruv.methodologist.messages.Error.BUILD_QUEUE_FULL_ERROR;
+import static tools.vitruv.methodologist.messages.Error.USER_DOSE_NOT_HAVE_ACCESS;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.vitruv.methodologist.exception.BuildJobLimitExceededException;
+import tools.vitruv.methodologist.exception.BuildJobNotFinishedException;
+import tools.vitruv.methodologist.exception.BuildQueueFullException;
+import tools.vitruv.methodologist.exception.NotFoundException;
+import tools.vitruv.methodologist.general.storage.ArtifactCache;
+import tools.vitruv.methodologist.general.storage.CachedArtifact;
+import tools.vitruv.methodologist.user.model.repository.UserRepository;
+import tools.vitruv.methodologist.vsum.BuildJobStatus;
+import tools.vitruv.methodologist.vsum.controller.dto.response.BuildJobResponse;
+import tools.vitruv.methodologist.vsum.model.BuildJob;
+import tools.vitruv.methodologist.vsum.model.VsumUser;
+import tools.vitruv.methodologist.vsum.model.repository.BuildJobRepository;
+import tools.vitruv.methodologist.vsum.model.repository.VsumUserRepository;
+
+/**
+ * Runs VSUM builds asynchronously.
+ *
+ * <p>Submitting a build only stores a queued job; a fixed number of worker threads take queued jobs
+ * in submission order, build the JAR via {@link VsumService} and record the outcome. Clients poll
+ * the job state and download the artifact from the build cache once the job succeeded, so no
+ * request thread waits for the setup-service.
+ *
+ * <p>Jobs are kept in the database and claimed with {@code FOR UPDATE SKIP LOCKED}, so queued jobs
+ * survive restarts and several instances can share the queue. Jobs left running by a stopped
+ * instance are queued again once they are older than {@code vsum.build.stale-after}. Each user may
+ * have a limited number of jobs queued or running, and submissions are rejected while the queue is
+ * full. Submissions of the same user lock the user's row, so the limit holds for concurrent
+ * requests. A worker records the outcome only if its job is still running under its claim; a job
+ * requeued as stale and claimed again keeps the state set by its new worker.
+ */
+@Service
+@Slf4j
+public class BuildJobService {
+  static final Set<BuildJobStatus> ACTIVE =
+      EnumSet.of(BuildJobStatus.QUEUED, BuildJobStatus.RUNNING);
+  static final int MAX_ERROR_LENGTH = 2000;
+
+  private final BuildJobService self;
+  private final BuildJobRepository buildJobRepository;
+  private final VsumUserRepository vsumUserRepository;
+  private final UserRepository userRepository;
+  private final VsumService vsumService;
+  private final ArtifactCache artifactCache;
+  private final int maxQueued;
+  private final int maxActivePerUser;
+  private final Duration staleAfter;
+  private final Duration retryAfter;
+  private final Duration retention;
+  private final Clock clock;
+  private final Semaphore idleWorkers;
+  private final ExecutorService workers;
+  private final Timer succeeded;
+  private final Timer failed;
+
+  /**
+   * Constructs a {@link BuildJobService}.
+   *
+   * @param self lazy-loaded self-reference for transactional calls from the workers
+   * @param buildJobRepository repository of the build jobs
+   * @param vsumUserRepository repository used to check VSUM access
+   * @param userRepository repository used to lock the submitting user
+   * @param vsumService service collecting the build inputs and building the JAR
+   * @param artifactCache cache holding the built JARs
+   * @param meterRegistry the registry the build metrics are published to
+   * @param workers number of builds run at the same time
+   * @param maxQueued number of queued jobs above which submissions are rejected
+   * @param maxActivePerUser number of jobs a user may have queued or running
+   * @param staleAfter time after which a running job is considered abandoned
+   * @param retryAfter time clients are asked to wait when the queue is full
+   * @param retention time finished jobs are kept
+   */
+  @Autowired
+  public BuildJobService(
+      @Lazy BuildJobService self,
+      BuildJobRepository buildJobRepository,
+      VsumUserRepository vsumUserRepository,
+      UserRepository userRepository,
+      VsumService vsumService,
+      ArtifactCache artifactCache,
+      MeterRegistry meterRegistry,
+      @Value("${vsum.build.workers:2}") int workers,
+      @Value("${vsum.build.max-queued:100}") int maxQueued,
+      @Value("${vsum.build.max-active-per-user:3}") int maxActivePerUser,
+      @Value("${vsum.build.stale-after:15m}") Duration staleAfter,
+      @Value("${vsum.build.retry-after:30s}") Duration retryAfter,
+      @Value("${vsum.build.retention:7d}") Duration retention) {
+    this(
+        self,
+        buildJobRepository,
+        vsumUserRepository,
+        userRepository,
+        vsumService,
+        artifactCache,
+        meterRegistry,
+        workers,
+        maxQueued,
+        maxActivePerUser,
+        staleAfter,
+        retryAfter,
+        retention,
+        Clock.systemUTC());
+  }
+
+  BuildJobService(
+      BuildJobService self,
+      BuildJobRepository buildJobRepository,
+      VsumUserRepository vsumUserRepository,
+      UserRepository userRepository,
+      VsumService vsumService,
+      ArtifactCache artifactCache,
+      MeterRegistry meterRegistry,
+      int workers,
+      int maxQueued,
+      int maxActivePerUser,
+      Duration staleAfter,
+      Duration retryAfter,
+      Duration retention,
+      Clock clock) {
+    this.self = self;
+    this.buildJobRepository = buildJobRepository;
+    this.vsumUserRepository = vsumUserRepository;
+    this.userRepository = userRepository;
+    this.vsumService = vsumService;
+    this.artifactCache = artifactCache;
+    this.maxQueued = maxQueued;
+    this.maxActivePerUser = maxActivePerUser;
+    this.staleAfter = staleAfter;
+    this.retryAfter = retryAfter;
+    this.retention = retention;
+    this.clock = clock;
+    this.idleWorkers = new Semaphore(workers);
+    this.workers =
+        Executors.newFixedThreadPool(
+            workers, Thread.ofPlatform().name("build-worker-", 0).daemon(true).factory());
+    this.succeeded = jobs(meterRegistry, "succeeded");
+    this.failed = jobs(meterRegistry, "failed");
+  }
+
+  /**
+   * Queues a build of the given VSUM. If the caller already has a queued or running build of the
+   * VSUM, that job is returned instead of queuing another one.
+   *
+   * @param callerEmail email address of the requesting user
+   * @param vsumId the VSUM identifier
+   * @return the state of the queued job
+   * @throws AccessDeniedException if the user is not authorized for this VSUM
+   * @throws BuildJobLimitExceededException if the user has too many builds queued or running
+   * @throws BuildQueueFullException if the build queue is full
+   */
+  @Transactional
+  public BuildJobResponse submit(String callerEmail, Long vsumId) {
+    VsumUser vsumUser =
+        vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(
+                vsumId, callerEmail)
+            .orElseThrow(() -> new AccessDeniedException(USER_DOSE_NOT_HAVE_ACCESS));
+    userRepository.lockById(vsumUser.getUser().getId());
+
+    Optional<BuildJob> active =
+        buildJobRepository.findFirstByUser_EmailAndVsum_IdAndStatusInOrderByIdAsc(
+            callerEmail, vsumId, ACTIVE);
+    if (active.isPresent()) {
+      return toResponse(active.get());
+    }
+    if (buildJobRepository.countByUser_EmailAndStatusIn(callerEmail, ACTIVE) >= maxActivePerUser) {
+      throw new BuildJobLimitExceededException(
+          String.format(BUILD_JOB_LIMIT_EXCEEDED_ERROR, maxActivePerUser));
+    }
+    if (buildJobRepository.countByStatus(BuildJobStatus.QUEUED) >= maxQueued) {
+      throw new BuildQueueFullException(BUILD_QUEUE_FULL_ERROR, retryAfter);
+    }
+
+    BuildJob job =
+        buildJobRepository.save(
+            BuildJob.builder()
+                .user(vsumUser.getUser())
+                .vsum(vsumUser.getVsum())
+                .status(BuildJobStatus.QUEUED)
+                .build());
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              dispatch();
+            }
+          });
+    } else {
+      dispatch();
+    }
+    return toResponse(job);
+  }
+
+  /**
+   * Returns the state of a build job of the caller.
+   *
+   * @param callerEmail email address of the requesting user
+   * @param jobId the job identifier
+   * @return the job state, including its queue position while it is queued
+   * @throws NotFoundException if the caller has no job with this id
+   */
+  @Transactional(readOnly = true)
+  public BuildJobResponse status(String callerEmail, Long jobId) {
+    return toResponse(findJob(callerEmail, jobId));
+  }
+
+  /**
+   * Returns the JAR built by a succeeded build job of the caller.
+   *
+   * @param callerEmail email address of the requesting user
+   * @param jobId the job identifier
+   * @return the built JAR, keyed by the hash of its inputs
+   * @throws NotFoundException if the caller has no job with this id, or the JAR is no longer cached
+   * @throws BuildJobNotFinishedException if the job has not succeeded
+   */
+  @Transactional(readOnly = true)
+  public CachedArtifact artifact(String callerEmail, Long jobId) {
+    BuildJob job = findJob(callerEmail, jobId);
+    if (job.getStatus() != BuildJobStatus.SUCCEEDED) {
+      throw new BuildJobNotFinishedException(
+          String.format(BUILD_JOB_NOT_SUCCEEDED_ERROR, job.getId(), job.getStatus()));
+    }
+    return artifactCache
+        .get(job.getArtifactKey())
+        .orElseThrow(() -> new NotFoundException(BUILD_ARTIFACT_NOT_FOUND_ERROR));
+  }
+
+  /**
+   * Scheduled task that queues abandoned jobs again and hands queued jobs to idle workers. Jobs are
+   * also dispatched right after they are submitted; polling picks up jobs queued by other instances
+   * or before a restart.
+   */
+  @Scheduled(fixedDelayString = "${vsum.build.poll-interval:5s}")
+  public void poll() {
+    int requeued = self.requeueStale();
+    if (requeued > 0) {
+      log.warn("Queued {} abandoned build jobs again", requeued);
+    }
+    dispatch();
+  }
+
+  /**
+   * Queues running jobs again that were started longer than the stale period ago.
+   *
+   * @return the number of requeued jobs
+   */
+  @Transactional
+  public int requeueStale() {
+    return buildJobRepository.requeueStarted(clock.instant().minus(staleAfter));
+  }
+
+  /**
+   * Claims the oldest queued job and marks it as running.
+   *
+   * @return the claimed job; empty if no job is queued
+   */
+  @Transactional
+  public Optional<ClaimedJob> claimNext() {
+    return buildJobRepository
+        .lockNextQueued()
+        .map(
+            job -> {
+              job.setStatus(BuildJobStatus.RUNNING);
+              job.setStartedAt(clock.instant().truncatedTo(ChronoUnit.MICROS));
+              return new ClaimedJob(
+                  job.getId(), job.getVsum().getId(), job.getUser().getEmail(), job.getStartedAt());
+            });
+  }
+
+  /**
+   * Records the outcome of a claimed job. The outcome is discarded if the job was requeued as stale
+   * in the meantime, since another worker may be running it again.
+   *
+   * @param job the claimed job
+   * @param artifactKey key of the built JAR; {@code null} if the build failed
+   * @param error why the build failed; {@code null} if it succeeded
+   */
+  @Transactional
+  public void finish(ClaimedJob job, String artifactKey, String error) {
+    int updated =
+        buildJobRepository.finishRunning(
+            job.id(),
+            job.startedAt(),
+            error == null ? BuildJobStatus.SUCCEEDED : BuildJobStatus.FAILED,
+            artifactKey,
+            error,
+            clock.instant());
+    if (updated == 0) {
+      log.warn("Build job {} was requeued while it ran; discarding its outcome", job.id());
+    }
+  }
+
+  /**
+   * Scheduled task that deletes finished jobs older than the retention period and build leases that
+   * expired without being released.
+   */
+  @Scheduled(cron = "${vsum.build.cleanup-cron:0 15 1 * * ?}")
+  @Transactional
+  public void purgeFinished() {
+    int deleted = buildJobRepository.deleteFinishedBefore(clock.instant().minus(retention));
+    int leases = buildJobRepository.deleteExpiredLeases();
+    log.info(
+        "Build job cleanup: deleted {} finished jobs and {} expired build leases", deleted, leases);
+  }
+
+  /** Stops the workers; interrupted jobs are queued again once they are stale. */
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+
+  /**
+   * Starts a worker for every idle slot. Each worker runs queued jobs until the queue is empty. The
+   * workers claim the jobs themselves, so this is cheap enough to call on a request thread.
+   */
+  void dispatch() {
+    for (int idle = idleWorkers.drainPermits(); idle > 0; idle--) {
+      workers.execute(
+          () -> {
+            try {
+              Optional<ClaimedJob> job;
+              while ((job = self.claimNext()).isPresent()) {
+                run(job.get());
+              }
+            } catch (RuntimeException e) {
+              log.error("Build worker stopped", e);
+            } finally {
+              idleWorkers.release();
+            }
+          });
+    }
+  }
+
+  private void run(ClaimedJob job) {
+    try {
+      VsumBuildInputs inputs = vsumService.prepareJarBuild(job.email(), job.vsumId());
+      CachedArtifact artifact = vsumService.buildJar(inputs);
+      self.finish(job, artifact.key(), null);
+      succeeded.record(Duration.between(job.startedAt(), clock.instant()));
+    } catch (RuntimeException e) {
+      log.warn("Build job {} of VSUM {} failed", job.id(), job.vsumId(), e);
+      String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+      self.finish(job, null, truncate(message));
+      failed.record(Duration.between(job.startedAt(), clock.instant()));
+    }
+  }
+
+  private BuildJob findJob(String callerEmail, Long jobId) {
+    return buildJobRepository
+        .findByIdAndUser_EmailAndUser_RemovedAtIsNull(jobId, callerEmail)
+        .orElseThrow(() -> new NotFoundException(BUILD_JOB_NOT_FOUND_ERROR));
+  }
+
+  private BuildJobResponse toResponse(BuildJob job) {
+    Long queuePosition =
+        job.getStatus() == BuildJobStatus.QUEUED
+            ? buildJobRepository.countByStatusAndIdLessThan(BuildJobStatus.QUEUED, job.getId())
+            : null;
+    return BuildJobResponse.builder()
+        .id(job.getId())
+        .vsumId(job.getVsum().getId())
+        .status(job.getStatus())
+        .queuePosition(queuePosition)
+        .error(job.getError())
+        .createdAt(job.getCreatedAt())
+        .startedAt(job.getStartedAt())
+        .finishedAt(job.getFinishedAt())
+        .build();
+  }
+
+  private static String truncate(String message) {
+    return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+  }
+
+  private static Timer jobs(MeterRegistry meterRegistry, String result) {
+    return Timer.builder("vsum.build.jobs")
+        .description("Duration of asynchronous VSUM builds")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /**
+   * A job claimed by a worker.
+   *
+   * @param id the job identifier
+   * @param vsumId the VSUM to build
+   * @param email email address of the user who submitted the job
+   * @param startedAt when the job was claimed
+   */
+  public record ClaimedJob(Long id, Long vsumId, String email, Instant startedAt) {}
+}
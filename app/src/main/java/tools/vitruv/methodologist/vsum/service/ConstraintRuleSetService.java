@@ -1,9 +1,6 @@
 package tools.vitruv.methodologist.vsum.service;
 
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
 import java.util.List;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -15,6 +12,7 @@ import tools.vitruv.methodologist.exception.NotFoundException;
 import tools.vitruv.methodologist.exception.UnauthorizedException;
 import tools.vitruv.methodologist.general.FileEnumType;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.service.FileStorageService;
 import tools.vitruv.methodologist.user.model.User;
 import tools.vitruv.methodologist.user.model.repository.UserRepository;
 import tools.vitruv.methodologist.vsum.controller.dto.request.RuleSetPostRequest;
@@ -35,6 +33,7 @@ public class ConstraintRuleSetService {
   ConstraintRuleSetRepository ruleSetRepository;
   VsumRepository vsumRepository;
   UserRepository userRepository;
+  FileStorageService fileStorageService;
 
   /**
    * Returns all rule sets for the given VSUM.
@@ -101,6 +100,9 @@ public class ConstraintRuleSetService {
 
     String content = request.oclContent() != null ? request.oclContent() : "";
     FileStorage oclFile = buildFileStorage(request.name(), content, user);
+    if (ruleSet.getOclFile() != null) {
+      fileStorageService.releaseContent(ruleSet.getOclFile());
+    }
     ruleSet.setOclFile(oclFile);
 
     return toResponse(ruleSetRepository.save(ruleSet));
@@ -118,6 +120,9 @@ public class ConstraintRuleSetService {
         ruleSetRepository
             .findByIdAndVsumId(ruleSetId, vsumId)
             .orElseThrow(() -> new NotFoundException("RuleSet not found"));
+    if (ruleSet.getOclFile() != null) {
+      fileStorageService.releaseContent(ruleSet.getOclFile());
+    }
     ruleSetRepository.delete(ruleSet);
   }
 
@@ -125,8 +130,8 @@ public class ConstraintRuleSetService {
 
   private RuleSetResponse toResponse(ConstraintRuleSet rs) {
     String content = "";
-    if (rs.getOclFile() != null && rs.getOclFile().getData() != null) {
-      content = new String(rs.getOclFile().getData(), StandardCharsets.UTF_8);
+    if (rs.getOclFile() != null) {
+      content = new String(fileStorageService.readContent(rs.getOclFile()), StandardCharsets.UTF_8);
     }
     return new RuleSetResponse(
         rs.getId(),
@@ -142,30 +147,13 @@ public class ConstraintRuleSetService {
   private FileStorage buildFileStorage(String ruleSetName, String content, User user) {
     byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
     String filename = toSafeFilename(ruleSetName) + ".ocl";
-    return FileStorage.builder()
-        .filename(filename)
-        .type(FileEnumType.OCL)
-        .contentType("text/plain")
-        .sizeBytes(bytes.length)
-        .sha256(sha256(bytes))
-        .data(bytes)
-        .user(user)
-        .build();
+    return fileStorageService.newFile(user, filename, FileEnumType.OCL, "text/plain", bytes);
   }
 
   private String toSafeFilename(String name) {
     return name.replaceAll("[^A-Za-z0-9_\\-]", "_");
   }
 
-  private String sha256(byte[] bytes) {
-    try {
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      return HexFormat.of().formatHex(digest.digest(bytes));
-    } catch (NoSuchAlgorithmException e) {
-      throw new IllegalStateException("SHA-256 not available", e);
-    }
-  }
-
   private User resolveUser(String email) {
     return userRepository
         .findByEmailIgnoreCaseAndRemovedAtIsNull(email)
@@ -10,7 +10,6 @@ import static tools.vitruv.methodologist.messages.Message.META_MODEL_CREATED_SUC
 import jakarta.validation.Valid;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -31,6 +30,7 @@ import tools.vitruv.methodologist.exception.CreateMwe2FileException;
 import tools.vitruv.methodologist.exception.MetaModelUsedInVsumException;
 import tools.vitruv.methodologist.exception.NotFoundException;
 import tools.vitruv.methodologist.general.FileEnumType;
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiters;
 import tools.vitruv.methodologist.general.model.FileStorage;
 import tools.vitruv.methodologist.general.model.repository.FileStorageRepository;
 import tools.vitruv.methodologist.general.service.FileStorageService;
@@ -72,6 +72,7 @@ public class MetaModelService {
   FileStorageService fileStorageService;
   SetupServiceApiHandler setupServiceApiHandler;
   VsumMetaModelRepository vsumMetaModelRepository;
+  ConcurrencyLimiters limiters;
 
   /**
    * Constructs a new MetaModelService with all required dependencies.
@@ -85,6 +86,7 @@ public class MetaModelService {
    * @param fileStorageService service for file storage management
    * @param setupServiceApiHandler handler for GenModel process/inspect calls to the setup-service
    * @param vsumMetaModelRepository repository for VSUM-metamodel relationships
+   * @param limiters adaptive concurrency limits of metamodel builds and setup-service calls
    */
   public MetaModelService(
       @Lazy MetaModelService self,
@@ -95,7 +97,8 @@ public class MetaModelService {
       MetamodelBuildService metamodelBuildService,
       FileStorageService fileStorageService,
       SetupServiceApiHandler setupServiceApiHandler,
-      VsumMetaModelRepository vsumMetaModelRepository) {
+      VsumMetaModelRepository vsumMetaModelRepository,
+      ConcurrencyLimiters limiters) {
     this.self = self;
     this.metaModelMapper = metaModelMapper;
     this.metaModelRepository = metaModelRepository;
@@ -105,6 +108,7 @@ public class MetaModelService {
     this.fileStorageService = fileStorageService;
     this.setupServiceApiHandler = setupServiceApiHandler;
     this.vsumMetaModelRepository = vsumMetaModelRepository;
+    this.limiters = limiters;
   }
 
   /**
@@ -153,9 +157,13 @@ public class MetaModelService {
    * @return the processed GenModel file as a byte array
    * @throws tools.vitruv.methodologist.exception.SetupServiceException if the setup-service call
    *     fails
+   * @throws tools.vitruv.methodologist.exception.ConcurrencyLimitExceededException if too many
+   *     setup-service calls are running
    */
   public byte[] processGenModel(FileStorage genModelFile) {
-    return setupServiceApiHandler.processGenModelOrThrow(genModelFile);
+    return limiters
+        .setupServiceGenModel()
+        .execute(() -> setupServiceApiHandler.processGenModelOrThrow(genModelFile));
   }
 
   /**
@@ -166,9 +174,13 @@ public class MetaModelService {
    * @return the inspection result
    * @throws tools.vitruv.methodologist.exception.SetupServiceException if the setup-service call
    *     fails
+   * @throws tools.vitruv.methodologist.exception.ConcurrencyLimitExceededException if too many
+   *     setup-service calls are running
    */
   public GenModelInspectionResponse inspectGenModel(FileStorage genModelFile) {
-    return setupServiceApiHandler.inspectGenModelOrThrow(genModelFile);
+    return limiters
+        .setupServiceGenModel()
+        .execute(() -> setupServiceApiHandler.inspectGenModelOrThrow(genModelFile));
   }
 
   /**
@@ -184,6 +196,8 @@ public class MetaModelService {
    * @param req creation request
    * @return the creation result holding the created metamodel (fixes applied) or the inspection
    *     message (fixes not applied)
+   * @throws tools.vitruv.methodologist.exception.ConcurrencyLimitExceededException if too many
+   *     builds or setup-service calls are running, or the host is overloaded
    */
   @Transactional
   public MetaModelCreationResult create(String callerEmail, MetaModelPostRequest req) {
@@ -199,14 +213,15 @@ public class MetaModelService {
 
     MetaModel metaModel = savePendingMetaModel(createContext);
 
+    MetamodelBuildService.MetamodelBuildInput buildInput =
+        MetamodelBuildService.MetamodelBuildInput.builder()
+            .metaModelId(metaModel.getId())
+            .ecoreBytes(fileStorageService.readContent(metaModel.getEcoreFile()))
+            .genModelBytes(fileStorageService.readContent(metaModel.getGenModelFile()))
+            .runMwe2(true)
+            .build();
     MetamodelBuildService.BuildResult result =
-        metamodelBuildService.buildAndValidate(
-            MetamodelBuildService.MetamodelBuildInput.builder()
-                .metaModelId(metaModel.getId())
-                .ecoreBytes(metaModel.getEcoreFile().getData())
-                .genModelBytes(metaModel.getGenModelFile().getData())
-                .runMwe2(true)
-                .build());
+        limiters.metamodelBuild().execute(() -> metamodelBuildService.buildAndValidate(buildInput));
 
     if (!result.isSuccess()) {
       throw new CreateMwe2FileException(result.getReport());
@@ -440,7 +455,7 @@ public class MetaModelService {
     for (MetaModel mm : metamodels) {
       String fileName = mm.getEcoreFile().getFilename();
       File ecoreFile = new File(targetDir, fileName);
-      Files.write(ecoreFile.toPath(), mm.getEcoreFile().getData());
+      fileStorageService.copyContent(mm.getEcoreFile(), ecoreFile.toPath());
     }
   }
 
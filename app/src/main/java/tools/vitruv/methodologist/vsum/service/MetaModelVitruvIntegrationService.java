@@ -19,8 +19,10 @@ import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import tools.vitruv.methodologist.exception.CLIExecuteException;
+import tools.vitruv.methodologist.exception.FileContentException;
 import tools.vitruv.methodologist.exception.VsumBuildingException;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.service.FileStorageService;
 import tools.vitruv.methodologist.vitruvcli.GenModelPrecheckStatus;
 import tools.vitruv.methodologist.vitruvcli.VitruvCliProperties;
 import tools.vitruv.methodologist.vitruvcli.VitruvCliService;
@@ -44,27 +46,22 @@ public class MetaModelVitruvIntegrationService {
 
   private final VitruvCliService vitruvCliService;
   private final VitruvCliProperties vitruvCliProperties;
+  private final FileStorageService fileStorageService;
 
   /**
    * Creates a new service instance for Vitruv CLI integration.
    *
    * @param vitruvCliService service used to invoke the external CLI
    * @param vitruvCliProperties configuration used for working directory and execution settings
+   * @param fileStorageService service used to stream stored files into the job directory
    */
   public MetaModelVitruvIntegrationService(
-      VitruvCliService vitruvCliService, VitruvCliProperties vitruvCliProperties) {
+      VitruvCliService vitruvCliService,
+      VitruvCliProperties vitruvCliProperties,
+      FileStorageService fileStorageService) {
     this.vitruvCliService = vitruvCliService;
     this.vitruvCliProperties = vitruvCliProperties;
-  }
-
-  /**
-   * Returns the given byte array or an empty byte array if {@code data} is null.
-   *
-   * @param data the input byte array, may be {@code null}
-   * @return a non-null byte array (empty if input was {@code null})
-   */
-  private static byte[] nonNullBytes(byte[] data) {
-    return data == null ? new byte[0] : data;
+    this.fileStorageService = fileStorageService;
   }
 
   /**
@@ -136,7 +133,7 @@ public class MetaModelVitruvIntegrationService {
       }
 
       return Files.readAllBytes(jarPath);
-    } catch (IOException e) {
+    } catch (IOException | FileContentException e) {
       throw new VsumBuildingException(VITRUV_CLI_EXECUTION_FAILED_ERROR + e.getMessage());
     } finally {
       if (jobDir != null) {
@@ -198,7 +195,7 @@ public class MetaModelVitruvIntegrationService {
           .status(result.getStatus())
           .updatedGenModelBytes(updatedGenModelBytes)
           .build();
-    } catch (UncheckedIOException | IOException e) {
+    } catch (UncheckedIOException | IOException | FileContentException e) {
       log.error("GenModel precheck failed due to I/O error", e);
       String reason =
           "I/O error during GenModel precheck ("
@@ -312,8 +309,8 @@ public class MetaModelVitruvIntegrationService {
       Path ecorePath = jobDir.resolve(ecoreName);
       Path genPath = jobDir.resolve(genName);
 
-      Files.write(ecorePath, nonNullBytes(ecore.getData()));
-      Files.write(genPath, nonNullBytes(gen.getData()));
+      fileStorageService.copyContent(ecore, ecorePath);
+      fileStorageService.copyContent(gen, genPath);
 
       inputs.add(
           VitruvCliService.MetamodelInput.builder()
@@ -330,7 +327,7 @@ public class MetaModelVitruvIntegrationService {
    *
    * <p>Each entry from {@code reactionFiles} is written to {@code reactionsDir} using a
    * filesystem-safe name (the implementation falls back to {@code "reactions-<i>.reactions"} when a
-   * filename is missing). Null file data is treated as an empty byte array.
+   * filename is missing). Files without content are written as empty files.
    *
    * <p>IO errors encountered while writing are propagated as an unchecked {@link RuntimeException}.
    *
@@ -347,7 +344,7 @@ public class MetaModelVitruvIntegrationService {
       FileStorage rf = reactionFiles.get(i);
       String name = safeName(rf.getFilename(), "reactions-" + i + ".reactions");
       Path p = reactionsDir.resolve(name);
-      Files.write(p, nonNullBytes(rf.getData()));
+      fileStorageService.copyContent(rf, p);
     }
   }
 
@@ -0,0 +1,18 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import java.util.List;
+import tools.vitruv.methodologist.general.model.FileStorage;
+
+/**
+ * The files sent to the setup-service for a VSUM build.
+ *
+ * @param metamodelFiles the deduplicated metamodel (.ecore) files
+ * @param genmodelFiles the deduplicated genmodel (.genmodel) files
+ * @param reactionFiles the reaction (.reactions) files
+ * @param key hex-encoded hash of the names and contents of all files, identifying the build
+ */
+public record VsumBuildInputs(
+    List<FileStorage> metamodelFiles,
+    List<FileStorage> genmodelFiles,
+    List<FileStorage> reactionFiles,
+    String key) {}
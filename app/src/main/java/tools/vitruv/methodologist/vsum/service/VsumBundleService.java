@@ -0,0 +1,146 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import static tools.vitruv.methodologist.messages.Error.USER_DOSE_NOT_HAVE_ACCESS;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.service.FileStorageService;
+import tools.vitruv.methodologist.general.storage.ZipStreamWriter;
+import tools.vitruv.methodologist.vsum.model.ConstraintRuleSet;
+import tools.vitruv.methodologist.vsum.model.MetaModel;
+import tools.vitruv.methodologist.vsum.model.MetaModelRelation;
+import tools.vitruv.methodologist.vsum.model.Vsum;
+import tools.vitruv.methodologist.vsum.model.VsumMetaModel;
+import tools.vitruv.methodologist.vsum.model.VsumView;
+import tools.vitruv.methodologist.vsum.model.repository.ConstraintRuleSetRepository;
+import tools.vitruv.methodologist.vsum.model.repository.MetaModelRelationRepository;
+import tools.vitruv.methodologist.vsum.model.repository.VsumMetaModelRepository;
+import tools.vitruv.methodologist.vsum.model.repository.VsumUserRepository;
+import tools.vitruv.methodologist.vsum.model.repository.VsumViewRepository;
+
+/**
+ * Service exporting all model files of a VSUM as one ZIP archive.
+ *
+ * <p>The archive contains the Ecore and GenModel files of the VSUM's metamodels, the reaction files
+ * of its relations, the NeoJoin files of its views and the OCL files of its constraint rule sets,
+ * each in a folder named after the owning element:
+ *
+ * <pre>
+ * metamodels/{metaModelId}/{filename}
+ * reactions/{relationId}/{filename}
+ * views/{viewId}/{filename}
+ * constraints/{ruleSetId}/{filename}
+ * </pre>
+ *
+ * <p>The archive is streamed: file contents go from the store through {@link ZipStreamWriter} to
+ * the response one chunk at a time, so memory use does not depend on the size of the VSUM.
+ */
+@Service
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class VsumBundleService {
+  VsumUserRepository vsumUserRepository;
+  VsumMetaModelRepository vsumMetaModelRepository;
+  MetaModelRelationRepository metaModelRelationRepository;
+  VsumViewRepository vsumViewRepository;
+  ConstraintRuleSetRepository constraintRuleSetRepository;
+  FileStorageService fileStorageService;
+
+  /**
+   * Checks that the caller may export the given VSUM and returns its name, so access errors are
+   * reported before the archive starts streaming.
+   *
+   * @param callerEmail the authenticated user's email
+   * @param vsumId the VSUM to export
+   * @return the name of the VSUM
+   * @throws AccessDeniedException if the caller is not a member of the VSUM
+   */
+  @Transactional(readOnly = true)
+  public String findBundleName(String callerEmail, Long vsumId) {
+    return findVsum(callerEmail, vsumId).getName();
+  }
+
+  /**
+   * Collects the files of the given VSUM to export, keyed by their path inside the archive.
+   *
+   * <p>The files are collected in a short transaction of their own, before the archive starts
+   * streaming, so no database connection is held while the response is sent.
+   *
+   * @param callerEmail the authenticated user's email
+   * @param vsumId the VSUM to export
+   * @return the files in archive order, keyed by entry path
+   * @throws AccessDeniedException if the caller is not a member of the VSUM
+   */
+  @Transactional(readOnly = true)
+  public Map<String, FileStorage> findBundleEntries(String callerEmail, Long vsumId) {
+    Vsum vsum = findVsum(callerEmail, vsumId);
+    Map<String, FileStorage> files = new LinkedHashMap<>();
+    for (VsumMetaModel vsumMetaModel : vsumMetaModelRepository.findAllByVsum(vsum)) {
+      if (vsumMetaModel.getRemovedAt() == null) {
+        MetaModel metaModel = vsumMetaModel.getMetaModel();
+        put(files, "metamodels/" + metaModel.getId(), metaModel.getEcoreFile());
+        put(files, "metamodels/" + metaModel.getId(), metaModel.getGenModelFile());
+      }
+    }
+    for (MetaModelRelation relation : metaModelRelationRepository.findAllByVsum(vsum)) {
+      put(files, "reactions/" + relation.getId(), relation.getReactionFileStorage());
+    }
+    for (VsumView view : vsumViewRepository.findAllByVsum(vsum)) {
+      put(files, "views/" + view.getId(), view.getFileStorage());
+    }
+    for (ConstraintRuleSet ruleSet : constraintRuleSetRepository.findByVsumId(vsum.getId())) {
+      put(files, "constraints/" + ruleSet.getId(), ruleSet.getOclFile());
+    }
+    return files;
+  }
+
+  /**
+   * Writes the given files as a ZIP archive to {@code out}.
+   *
+   * <p>This method runs outside any transaction. Each file is read by {@link
+   * FileStorageService#writeZipEntry(ZipStreamWriter, String, FileStorage)} in a transaction of its
+   * own, so a slow client holds a database connection for at most one file at a time.
+   *
+   * @param entries the files to write, keyed by entry path, as returned by {@link
+   *     #findBundleEntries(String, Long)}
+   * @param out the stream receiving the archive; not closed
+   * @throws IOException if writing the archive fails
+   */
+  public void writeBundle(Map<String, FileStorage> entries, OutputStream out) throws IOException {
+    try (ZipStreamWriter zip = new ZipStreamWriter(out)) {
+      for (Map.Entry<String, FileStorage> file : entries.entrySet()) {
+        fileStorageService.writeZipEntry(zip, file.getKey(), file.getValue());
+      }
+    }
+  }
+
+  private Vsum findVsum(String callerEmail, Long vsumId) {
+    return vsumUserRepository
+        .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(
+            vsumId, callerEmail)
+        .orElseThrow(() -> new AccessDeniedException(USER_DOSE_NOT_HAVE_ACCESS))
+        .getVsum();
+  }
+
+  private static void put(Map<String, FileStorage> files, String folder, FileStorage file) {
+    if (file != null && file.getStorageKey() != null) {
+      files.putIfAbsent(folder + "/" + entryName(file), file);
+    }
+  }
+
+  private static String entryName(FileStorage file) {
+    String filename = file.getFilename() == null ? "" : file.getFilename();
+    String name =
+        filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+    return name.isBlank() || name.equals("..") || name.equals(".") ? "file-" + file.getId() : name;
+  }
+}
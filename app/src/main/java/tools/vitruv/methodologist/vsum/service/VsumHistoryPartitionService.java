@@ -0,0 +1,57 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.vitruv.methodologist.vsum.model.VsumHistory;
+import tools.vitruv.methodologist.vsum.model.repository.VsumHistoryRepository;
+
+/**
+ * Maintains the monthly range partitions of the {@code vsum_history} table.
+ *
+ * <p>{@link VsumHistory} rows are partitioned by month of {@code created_at}. This service makes
+ * sure partitions for upcoming months exist before rows arrive and moves partitions that fell out
+ * of the retention window into the compressed {@code vsum_history_archive} table, keeping the live
+ * table and its indexes small.
+ */
+@Service
+@Slf4j
+public class VsumHistoryPartitionService {
+  private final VsumHistoryRepository vsumHistoryRepository;
+  private final int monthsAhead;
+  private final int retentionMonths;
+
+  /**
+   * Constructs a {@link VsumHistoryPartitionService}.
+   *
+   * @param vsumHistoryRepository repository exposing the partition maintenance functions
+   * @param monthsAhead number of months after the current one to keep partitions prepared for
+   * @param retentionMonths number of full months kept in live partitions before archiving
+   */
+  public VsumHistoryPartitionService(
+      VsumHistoryRepository vsumHistoryRepository,
+      @Value("${vsum.history.partition.months-ahead:3}") int monthsAhead,
+      @Value("${vsum.history.archive.retention-months:12}") int retentionMonths) {
+    this.vsumHistoryRepository = vsumHistoryRepository;
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+  }
+
+  /**
+   * Scheduled task that prepares upcoming monthly partitions and archives expired ones.
+   *
+   * <p>Runs daily at 00:30 by default, after the nightly VSUM purge.
+   */
+  @Transactional
+  @Scheduled(cron = "${vsum.history.partition.cron:0 30 0 * * ?}")
+  public void maintainPartitions() {
+    int created = vsumHistoryRepository.ensurePartitions(monthsAhead);
+    int archived = vsumHistoryRepository.archivePartitions(retentionMonths);
+    log.info(
+        "vsum_history partition maintenance: created {} partitions, archived {} partitions",
+        created,
+        archived);
+  }
+}
@@ -5,6 +5,8 @@ import static tools.vitruv.methodologist.messages.Error.VSUM_HISTORY_ID_NOT_FOUN
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
@@ -20,8 +22,11 @@ import tools.vitruv.methodologist.vsum.controller.dto.request.ViewRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.request.VsumSyncChangesPutRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumHistoryResponse;
 import tools.vitruv.methodologist.vsum.mapper.VsumHistoryMapper;
+import tools.vitruv.methodologist.vsum.model.ArchivedVsumHistory;
 import tools.vitruv.methodologist.vsum.model.Vsum;
 import tools.vitruv.methodologist.vsum.model.VsumHistory;
+import tools.vitruv.methodologist.vsum.model.VsumUser;
+import tools.vitruv.methodologist.vsum.model.repository.ArchivedVsumHistoryRepository;
 import tools.vitruv.methodologist.vsum.model.repository.VsumHistoryRepository;
 import tools.vitruv.methodologist.vsum.model.repository.VsumUserRepository;
 
@@ -29,12 +34,16 @@ import tools.vitruv.methodologist.vsum.model.repository.VsumUserRepository;
  * Application service that creates and persists VSUM history snapshots.
  *
  * <p>Builds a {@link VsumHistory} from a domain {@link Vsum} via {@link VsumHistoryMapper} and
- * stores it using {@link VsumHistoryRepository}.
+ * stores it using {@link VsumHistoryRepository}. Snapshots older than the retention window are
+ * moved to the archive by {@link VsumHistoryPartitionService}; listing and reverting read them from
+ * there through {@link ArchivedVsumHistoryRepository}, so archiving changes where a snapshot is
+ * stored but not whether clients can use it.
  */
 @Service
 @Slf4j
 public class VsumHistoryService {
   private final VsumHistoryRepository vsumHistoryRepository;
+  private final ArchivedVsumHistoryRepository archivedVsumHistoryRepository;
   private final VsumHistoryMapper vsumHistoryMapper;
   private final Long historyLimit;
   private final UserRepository userRepository;
@@ -45,17 +54,20 @@ public class VsumHistoryService {
    * Constructs a {@link VsumHistoryService} with required dependencies.
    *
    * @param vsumHistoryRepository repository for persisting history records
+   * @param archivedVsumHistoryRepository repository reading the archived history records
    * @param vsumHistoryMapper mapper for converting VSUM entities to representations
    * @param historyLimit maximum number of history snapshots to retain per VSUM
    */
   public VsumHistoryService(
       VsumHistoryRepository vsumHistoryRepository,
+      ArchivedVsumHistoryRepository archivedVsumHistoryRepository,
       VsumHistoryMapper vsumHistoryMapper,
       @Value("${vsum.history.limit}") Long historyLimit,
       UserRepository userRepository,
       VsumUserRepository vsumUserRepository,
       @Lazy VsumService vsumService) {
     this.vsumHistoryRepository = vsumHistoryRepository;
+    this.archivedVsumHistoryRepository = archivedVsumHistoryRepository;
     this.vsumHistoryMapper = vsumHistoryMapper;
     this.historyLimit = historyLimit;
     this.userRepository = userRepository;
@@ -94,18 +106,29 @@ public class VsumHistoryService {
   }
 
   /**
-   * Deletes all {@link VsumHistory} records associated with the specified {@link Vsum}.
+   * Deletes all {@link VsumHistory} records associated with the specified {@link Vsum}, including
+   * snapshots that were already moved to the archive table.
+   *
+   * <p>Both deletes run as single bulk statements, so purging a VSUM does not load its history into
+   * the persistence context.
    *
    * @param vsum the VSUM whose history records should be deleted
    */
   public void delete(Vsum vsum) {
-    vsumHistoryRepository.deleteVsumHistoryByVsum(vsum);
+    int deleted = vsumHistoryRepository.deleteAllByVsum(vsum);
+    int archived = vsumHistoryRepository.deleteArchivedByVsumId(vsum.getId());
+    log.debug(
+        "Deleted {} history records and {} archived records of vsum {}",
+        deleted,
+        archived,
+        vsum.getId());
   }
 
   /**
    * Retrieves VSUM history snapshots for the specified VSUM id and caller email, filters out
    * records for removed users or removed VSUMs, orders results by {@code createdAt} ascending, and
-   * maps each entity to a {@link VsumHistoryResponse} DTO.
+   * maps each entity to a {@link VsumHistoryResponse} DTO. Archived snapshots follow the live ones
+   * and are flagged as archived.
    *
    * @param callerEmail the email address of the VSUM owner used to filter history records; must not
    *     be {@code null}
@@ -115,7 +138,12 @@ public class VsumHistoryService {
    */
   public List<VsumHistoryResponse> findAllByVsumId(String callerEmail, Long vsumId) {
     List<VsumHistory> vsumHistories = vsumHistoryRepository.getVsumHistories(vsumId, callerEmail);
-    return vsumHistories.stream().map(vsumHistoryMapper::toVsumHistoryResponse).toList();
+    List<ArchivedVsumHistory> archived =
+        archivedVsumHistoryRepository.getArchivedVsumHistories(vsumId, callerEmail);
+    return Stream.concat(
+            vsumHistories.stream().map(vsumHistoryMapper::toVsumHistoryResponse),
+            archived.stream().map(vsumHistoryMapper::toVsumHistoryResponse))
+        .toList();
   }
 
   /**
@@ -125,7 +153,8 @@ public class VsumHistoryService {
    *
    * <ol>
    *   <li>Verifies the caller exists and is active.
-   *   <li>Loads the {@link VsumHistory} identified by {@code id}.
+   *   <li>Loads the {@link VsumHistory} identified by {@code id}, or its {@link
+   *       ArchivedVsumHistory} if the snapshot was archived.
    *   <li>Verifies that the caller has access to the VSUM referenced by the history entry.
    *   <li>Creates a new history snapshot for the current VSUM state (audit before revert).
    *   <li>Applies the recorded sync changes to the VSUM using {@link VsumService#applySyncChanges}.
@@ -143,22 +172,28 @@ public class VsumHistoryService {
             .findByEmailIgnoreCaseAndRemovedAtIsNull(callerEmail)
             .orElseThrow(() -> new AccessDeniedException(USER_DOSE_NOT_HAVE_ACCESS));
 
-    VsumHistory history =
-        vsumHistoryRepository
-            .findById(id)
-            .orElseThrow(() -> new NotFoundException(VSUM_HISTORY_ID_NOT_FOUND_ERROR));
-
-    Vsum vsum = history.getVsum();
+    Optional<VsumHistory> history = vsumHistoryRepository.findById(id);
+    Optional<ArchivedVsumHistory> archived =
+        history.isPresent() ? Optional.empty() : archivedVsumHistoryRepository.findById(id);
+    if (history.isEmpty() && archived.isEmpty()) {
+      throw new NotFoundException(VSUM_HISTORY_ID_NOT_FOUND_ERROR);
+    }
+    Long vsumId = history.map(h -> h.getVsum().getId()).orElseGet(() -> archived.get().getVsumId());
 
-    vsumUserRepository
-        .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(
-            vsum.getId(), callerEmail)
-        .orElseThrow(() -> new AccessDeniedException(USER_DOSE_NOT_HAVE_ACCESS));
+    VsumUser vsumUser =
+        vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(
+                vsumId, callerEmail)
+            .orElseThrow(() -> new AccessDeniedException(USER_DOSE_NOT_HAVE_ACCESS));
+    Vsum vsum = history.map(VsumHistory::getVsum).orElseGet(vsumUser::getVsum);
 
     create(vsum, user);
 
     VsumSyncChangesPutRequest vsumSyncChangesPutRequest =
-        toSyncRequest(history.getRepresentation());
+        toSyncRequest(
+            history
+                .map(VsumHistory::getRepresentation)
+                .orElseGet(() -> archived.get().getRepresentation()));
     vsumService.applySyncChanges(vsum, user, vsumSyncChangesPutRequest, false);
   }
 
@@ -1,46 +1,64 @@
 package tools.vitruv.methodologist.vsum.service;
 
+import static tools.vitruv.methodologist.messages.Error.FILE_HASHING_EXCEPTION;
 import static tools.vitruv.methodologist.messages.Error.METAMODEL_IDS_NOT_FOUND_IN_THIS_VSUM_NOT_FOUND_ERROR;
 import static tools.vitruv.methodologist.messages.Error.REACTION_FILE_IDS_ID_NOT_FOUND_ERROR;
 import static tools.vitruv.methodologist.messages.Error.USER_DOSE_NOT_HAVE_ACCESS;
+import static tools.vitruv.methodologist.messages.Error.VSUM_BUILD_CHECK_REJECTED_ERROR;
 import static tools.vitruv.methodologist.messages.Error.VSUM_ID_NOT_FOUND_ERROR;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tools.vitruv.methodologist.apihandler.SetupServiceApiHandler;
+import tools.vitruv.methodologist.apihandler.dto.response.VsumValidationResponse;
+import tools.vitruv.methodologist.exception.FileHashingException;
 import tools.vitruv.methodologist.exception.NotFoundException;
 import tools.vitruv.methodologist.exception.UnauthorizedException;
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiters;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.storage.CachedArtifact;
 import tools.vitruv.methodologist.user.model.User;
 import tools.vitruv.methodologist.user.model.repository.UserRepository;
+import tools.vitruv.methodologist.vsum.BuildDiagnosticSeverity;
 import tools.vitruv.methodologist.vsum.VsumRole;
 import tools.vitruv.methodologist.vsum.controller.dto.request.MetaModelRelationRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.request.ViewRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.request.VsumPostRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.request.VsumPutRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.request.VsumSyncChangesPutRequest;
+import tools.vitruv.methodologist.vsum.controller.dto.response.BuildDiagnosticResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.MetaModelRelationResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.MetaModelResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.ViewsResponse;
+import tools.vitruv.methodologist.vsum.controller.dto.response.VsumBuildCheckResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumMetaModelResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumResponse;
 import tools.vitruv.methodologist.vsum.mapper.MetaModelMapper;
@@ -72,9 +90,9 @@ import tools.vitruv.methodologist.vsum.model.repository.VsumViewRepository;
  */
 @Service
 @Slf4j
-@AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class VsumService {
+  VsumService self;
   VsumMapper vsumMapper;
   VsumRepository vsumRepository;
   MetaModelMapper metaModelMapper;
@@ -93,6 +111,78 @@ public class VsumService {
   private final VsumViewMetaModelRepository vsumViewMetaModelRepository;
   private final VsumViewMapper vsumViewMapper;
   private final SetupServiceApiHandler setupServiceApiHandler;
+  private final BuildCoalescingService buildCoalescingService;
+  private final ConcurrencyLimiters limiters;
+
+  /**
+   * Constructs a new VsumService with all required dependencies.
+   *
+   * @param self lazy-loaded self-reference for transactional method calls
+   * @param vsumMapper mapper for converting between VSUM entities and DTOs
+   * @param vsumRepository repository for VSUM persistence
+   * @param metaModelMapper mapper for converting between metamodel entities and DTOs
+   * @param vsumMetaModelService service managing the metamodels of a VSUM
+   * @param userRepository repository for user data access
+   * @param vsumUserRepository repository for VSUM memberships
+   * @param vsumUserService service managing VSUM memberships
+   * @param metaModelRelationService service managing metamodel relations
+   * @param metaModelRelationMapper mapper for converting between relation entities and DTOs
+   * @param vsumMetaModelRepository repository for VSUM-metamodel relationships
+   * @param metaModelRelationRepository repository for metamodel relations
+   * @param vsumHistoryService service recording VSUM history snapshots
+   * @param vsumViewMetaModelService service managing the metamodels of VSUM views
+   * @param vsumViewService service managing VSUM views
+   * @param vsumViewRepository repository for VSUM views
+   * @param vsumViewMetaModelRepository repository for VSUM view-metamodel relationships
+   * @param vsumViewMapper mapper for converting between view entities and DTOs
+   * @param setupServiceApiHandler handler for build and validation calls to the setup-service
+   * @param buildCoalescingService service sharing concurrent builds of identical inputs
+   * @param limiters adaptive concurrency limits of setup-service calls
+   */
+  public VsumService(
+      @Lazy VsumService self,
+      VsumMapper vsumMapper,
+      VsumRepository vsumRepository,
+      MetaModelMapper metaModelMapper,
+      VsumMetaModelService vsumMetaModelService,
+      UserRepository userRepository,
+      VsumUserRepository vsumUserRepository,
+      VsumUserService vsumUserService,
+      MetaModelRelationService metaModelRelationService,
+      MetaModelRelationMapper metaModelRelationMapper,
+      VsumMetaModelRepository vsumMetaModelRepository,
+      MetaModelRelationRepository metaModelRelationRepository,
+      VsumHistoryService vsumHistoryService,
+      VsumViewMetaModelService vsumViewMetaModelService,
+      VsumViewService vsumViewService,
+      VsumViewRepository vsumViewRepository,
+      VsumViewMetaModelRepository vsumViewMetaModelRepository,
+      VsumViewMapper vsumViewMapper,
+      SetupServiceApiHandler setupServiceApiHandler,
+      BuildCoalescingService buildCoalescingService,
+      ConcurrencyLimiters limiters) {
+    this.self = self;
+    this.vsumMapper = vsumMapper;
+    this.vsumRepository = vsumRepository;
+    this.metaModelMapper = metaModelMapper;
+    this.vsumMetaModelService = vsumMetaModelService;
+    this.userRepository = userRepository;
+    this.vsumUserRepository = vsumUserRepository;
+    this.vsumUserService = vsumUserService;
+    this.metaModelRelationService = metaModelRelationService;
+    this.metaModelRelationMapper = metaModelRelationMapper;
+    this.vsumMetaModelRepository = vsumMetaModelRepository;
+    this.metaModelRelationRepository = metaModelRelationRepository;
+    this.vsumHistoryService = vsumHistoryService;
+    this.vsumViewMetaModelService = vsumViewMetaModelService;
+    this.vsumViewService = vsumViewService;
+    this.vsumViewRepository = vsumViewRepository;
+    this.vsumViewMetaModelRepository = vsumViewMetaModelRepository;
+    this.vsumViewMapper = vsumViewMapper;
+    this.setupServiceApiHandler = setupServiceApiHandler;
+    this.buildCoalescingService = buildCoalescingService;
+    this.limiters = limiters;
+  }
 
   /**
    * Creates a new VSUM with the specified details.
@@ -367,18 +457,43 @@ public class VsumService {
    *
    * <p>The metamodel, genmodel and reaction files referenced by the VSUM are collected and
    * deduplicated from the resolved {@link VsumUser}, then sent to the setup-service which performs
-   * the build and returns the JAR.
+   * the build and returns the JAR. The JAR is cached under a hash of the names and SHA-256s of
+   * these files, so the VSUM is only built again once one of its inputs changed.
    *
    * @param callerEmail email address of the requesting user
    * @param id the VSUM identifier
-   * @return the generated fat JAR bytes
+   * @return the generated fat JAR, keyed by the hash of its inputs
    * @throws AccessDeniedException if the user is not authorized for this VSUM
    * @throws tools.vitruv.methodologist.exception.NotFoundException if required files (meta-models
    *     or reactions) are missing
    * @throws tools.vitruv.methodologist.exception.SetupServiceException if the setup-service call
    *     fails or returns an empty artifact
+   * @throws tools.vitruv.methodologist.exception.ConcurrencyLimitExceededException if the JAR is
+   *     not cached and too many setup-service calls are running
+   */
+  public CachedArtifact getJarfat(String callerEmail, Long id) {
+    return fetchJar(self.prepareJarBuild(callerEmail, id));
+  }
+
+  private CachedArtifact fetchJar(VsumBuildInputs inputs) {
+    return buildCoalescingService.build(
+        inputs.key(),
+        target -> limiters.setupServiceBuild().execute(() -> downloadJar(inputs, target)));
+  }
+
+  /**
+   * Collects the files a JAR build of the given VSUM needs, without building it. The files are
+   * loaded completely, so the returned inputs can be built outside of the transaction.
+   *
+   * @param callerEmail email address of the requesting user
+   * @param id the VSUM identifier
+   * @return the build inputs and their cache key
+   * @throws AccessDeniedException if the user is not authorized for this VSUM
+   * @throws tools.vitruv.methodologist.exception.NotFoundException if required files (meta-models
+   *     or reactions) are missing
    */
-  public byte[] getJarfat(String callerEmail, Long id) {
+  @Transactional(readOnly = true)
+  public VsumBuildInputs prepareJarBuild(String callerEmail, Long id) {
     VsumUser vsumUser =
         vsumUserRepository
             .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(
@@ -423,8 +538,167 @@ public class VsumService {
       throw new NotFoundException(REACTION_FILE_IDS_ID_NOT_FOUND_ERROR);
     }
 
-    return setupServiceApiHandler.buildVsumJarOrThrow(
-        new ArrayList<>(ecores.values()), new ArrayList<>(genmodels.values()), reactions);
+    List<FileStorage> metamodelFiles = new ArrayList<>(ecores.values());
+    List<FileStorage> genmodelFiles = new ArrayList<>(genmodels.values());
+    String key = buildKey(metamodelFiles, genmodelFiles, reactions);
+    return new VsumBuildInputs(metamodelFiles, genmodelFiles, reactions, key);
+  }
+
+  /**
+   * Returns the JAR built from the given inputs, from the build cache if it holds one for the same
+   * inputs and otherwise by building it via the setup-service. Concurrent calls with the same
+   * inputs share one build, also across instances.
+   *
+   * @param inputs the inputs collected by {@link #prepareJarBuild(String, Long)}
+   * @return the generated fat JAR, keyed by the hash of its inputs
+   * @throws tools.vitruv.methodologist.exception.SetupServiceException if the setup-service call
+   *     fails or returns an empty artifact
+   */
+  public CachedArtifact buildJar(VsumBuildInputs inputs) {
+    return buildCoalescingService.build(inputs.key(), target -> downloadJar(inputs, target));
+  }
+
+  private long downloadJar(VsumBuildInputs inputs, Path target) {
+    return setupServiceApiHandler.downloadVsumJarOrThrow(
+        inputs.metamodelFiles(), inputs.genmodelFiles(), inputs.reactionFiles(), target);
+  }
+
+  /**
+   * Checks whether the given VSUM can be built, without building it. The setup-service validates
+   * the VSUM's files and runs code generation, but neither compiles nor packages the fat JAR, so
+   * the check takes a fraction of the time of {@link #getJarfat(String, Long)}.
+   *
+   * <p>Problems in the files are reported as diagnostics rather than exceptions. A rejection
+   * without diagnostics is reported as a single error carrying the setup-service message.
+   *
+   * <p>Setup-service versions without the validation endpoint are checked by building the fat JAR
+   * as {@link #getJarfat(String, Long)} does. The check then carries no diagnostics and a failing
+   * build raises the setup-service exception.
+   *
+   * @param callerEmail email address of the requesting user
+   * @param id the VSUM identifier
+   * @return whether the VSUM can be built, with the problems found
+   * @throws AccessDeniedException if the user is not authorized for this VSUM
+   * @throws tools.vitruv.methodologist.exception.NotFoundException if required files (meta-models
+   *     or reactions) are missing
+   * @throws tools.vitruv.methodologist.exception.SetupServiceException if the setup-service call
+   *     fails
+   * @throws tools.vitruv.methodologist.exception.ConcurrencyLimitExceededException if too many
+   *     setup-service calls are running
+   */
+  public VsumBuildCheckResponse checkBuild(String callerEmail, Long id) {
+    VsumBuildInputs inputs = self.prepareJarBuild(callerEmail, id);
+    Optional<VsumValidationResponse> result =
+        limiters
+            .setupServiceValidate()
+            .execute(
+                () ->
+                    setupServiceApiHandler.validateVsumOrThrow(
+                        inputs.metamodelFiles(), inputs.genmodelFiles(), inputs.reactionFiles()));
+    if (result.isEmpty()) {
+      log.info("Setup-service cannot validate VSUM {}, checking it with a full build", id);
+      fetchJar(inputs);
+      return VsumBuildCheckResponse.builder().valid(true).diagnostics(List.of()).build();
+    }
+    VsumValidationResponse validation = result.get();
+    boolean rejected =
+        Objects.equals(validation.getStatus(), HttpStatus.UNPROCESSABLE_ENTITY.value());
+
+    List<BuildDiagnosticResponse> diagnostics = new ArrayList<>();
+    if (validation.getDiagnostics() != null) {
+      for (VsumValidationResponse.Diagnostic diagnostic : validation.getDiagnostics()) {
+        diagnostics.add(toBuildDiagnostic(diagnostic));
+      }
+    }
+    int errorCount = countDiagnostics(diagnostics, BuildDiagnosticSeverity.ERROR);
+    if (rejected && errorCount == 0) {
+      diagnostics.add(
+          BuildDiagnosticResponse.builder()
+              .severity(BuildDiagnosticSeverity.ERROR)
+              .message(
+                  validation.getMessage() == null
+                      ? VSUM_BUILD_CHECK_REJECTED_ERROR
+                      : validation.getMessage())
+              .build());
+      errorCount = 1;
+    }
+
+    return VsumBuildCheckResponse.builder()
+        .valid(errorCount == 0)
+        .errorCount(errorCount)
+        .warningCount(countDiagnostics(diagnostics, BuildDiagnosticSeverity.WARNING))
+        .diagnostics(diagnostics)
+        .build();
+  }
+
+  private static BuildDiagnosticResponse toBuildDiagnostic(
+      VsumValidationResponse.Diagnostic diagnostic) {
+    return BuildDiagnosticResponse.builder()
+        .severity(toSeverity(diagnostic.getSeverity()))
+        .file(diagnostic.getFile())
+        .line(diagnostic.getLine())
+        .column(diagnostic.getColumn())
+        .message(diagnostic.getMessage())
+        .build();
+  }
+
+  /**
+   * Maps a severity reported by the setup-service. Unknown or missing severities count as errors,
+   * so a check never passes on a problem it could not classify.
+   */
+  private static BuildDiagnosticSeverity toSeverity(String severity) {
+    if (severity == null) {
+      return BuildDiagnosticSeverity.ERROR;
+    }
+    try {
+      return BuildDiagnosticSeverity.valueOf(severity.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return BuildDiagnosticSeverity.ERROR;
+    }
+  }
+
+  private static int countDiagnostics(
+      List<BuildDiagnosticResponse> diagnostics, BuildDiagnosticSeverity severity) {
+    return (int) diagnostics.stream().filter(d -> d.getSeverity() == severity).count();
+  }
+
+  /**
+   * Computes the cache key of a JAR build: the SHA-256 over the sorted part names, file names and
+   * content hashes of all inputs. The order in which the files were collected does not matter.
+   *
+   * @param metamodelFiles the metamodel files sent to the setup-service
+   * @param genmodelFiles the genmodel files sent to the setup-service
+   * @param reactionFiles the reaction files sent to the setup-service
+   * @return the hex-encoded key
+   */
+  private static String buildKey(
+      List<FileStorage> metamodelFiles,
+      List<FileStorage> genmodelFiles,
+      List<FileStorage> reactionFiles) {
+    List<String> inputs = new ArrayList<>();
+    addInputs(inputs, SetupServiceApiHandler.METAMODEL_FILES_PART, metamodelFiles);
+    addInputs(inputs, SetupServiceApiHandler.GENMODEL_FILES_PART, genmodelFiles);
+    addInputs(inputs, SetupServiceApiHandler.REACTION_FILES_PART, reactionFiles);
+    Collections.sort(inputs);
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new FileHashingException(FILE_HASHING_EXCEPTION, e);
+    }
+    digest.update(SetupServiceApiHandler.JAR_URL.getBytes(StandardCharsets.UTF_8));
+    for (String input : inputs) {
+      digest.update((byte) '\n');
+      digest.update(input.getBytes(StandardCharsets.UTF_8));
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static void addInputs(List<String> inputs, String part, List<FileStorage> files) {
+    for (FileStorage file : files) {
+      inputs.add(part + "/" + file.getFilename() + "/" + file.getSha256());
+    }
   }
 
   /**
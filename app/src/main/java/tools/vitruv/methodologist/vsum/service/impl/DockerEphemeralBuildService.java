@@ -3,29 +3,36 @@ package tools.vitruv.methodologist.vsum.service.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import tools.vitruv.methodologist.general.process.ProcessExecutor;
+import tools.vitruv.methodologist.general.process.ProcessRequest;
+import tools.vitruv.methodologist.general.process.ProcessResult;
 import tools.vitruv.methodologist.vsum.service.MetamodelBuildService;
 
 /**
  * Executes the metamodel builder JAR in an isolated ephemeral job. Creates a temp directory, writes
- * model files, runs the process, and parses result.json into a structured build result.
+ * model files, runs the process, and parses result.json into a structured build result. Used when
+ * {@code builder.mode=process}; by default builds run in-process.
  */
 @Service
+@ConditionalOnProperty(name = "builder.mode", havingValue = "process")
 @RequiredArgsConstructor
 @Slf4j
 public class DockerEphemeralBuildService implements MetamodelBuildService {
 
   private static final ObjectMapper OM = new ObjectMapper();
 
+  private final ProcessExecutor processExecutor;
+
   /** Base Docker image to use for the process (defaults to Eclipse Temurin JRE). */
   @Value("${builder.baseImage:eclipse-temurin:21-jre}")
   protected String image;
@@ -39,9 +46,9 @@ public class DockerEphemeralBuildService implements MetamodelBuildService {
   protected int timeoutSeconds;
 
   /**
-   * Runs the builder JAR on the given metamodel input, writes files to a temp job dir, waits for
-   * the process, parses the JSON output, and maps it into a BuildResult. Cleans up all temporary
-   * files after completion.
+   * Runs the builder JAR on the given metamodel input, writes files to a temp job dir, runs the
+   * process through the {@link ProcessExecutor}, parses the JSON output, and maps it into a
+   * BuildResult. Cleans up all temporary files after completion.
    */
   @Override
   public BuildResult buildAndValidate(MetamodelBuildInput input) {
@@ -54,8 +61,16 @@ public class DockerEphemeralBuildService implements MetamodelBuildService {
       Path gen = inDir.resolve("model.genmodel");
       writeInputFiles(ecore, gen, input);
       List<String> cmd = buildCommand(ecore, gen, outDir);
-      Process process = startProcess(cmd);
-      return evaluateProcessResult(process, outDir);
+      ProcessResult result =
+          processExecutor.run(
+              ProcessRequest.builder()
+                  .name("metamodel-builder")
+                  .command(cmd)
+                  .redirectErrorStream(true)
+                  .timeout(Duration.ofSeconds(timeoutSeconds))
+                  .build(),
+              request -> startProcess(request.getCommand()));
+      return evaluateProcessResult(result, outDir);
     } catch (Exception e) {
       return buildCrashResult(e);
     } finally {
@@ -93,22 +108,19 @@ public class DockerEphemeralBuildService implements MetamodelBuildService {
         outDir.toAbsolutePath().toString());
   }
 
-  private BuildResult evaluateProcessResult(Process process, Path outDir)
-      throws IOException, InterruptedException {
-    boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
-    if (!finished) {
-      return handleTimeout(process);
+  private BuildResult evaluateProcessResult(ProcessResult result, Path outDir) throws IOException {
+    if (result.isTimedOut()) {
+      return buildTimeoutResult();
     }
-    String console = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    String console = result.getStdout();
     Path resultJson = outDir.resolve("result.json");
     if (Files.exists(resultJson)) {
       return buildResultFromJson(resultJson, console);
     }
-    return buildResultFromExitCode(process.exitValue(), console);
+    return buildResultFromExitCode(result.getExitCode(), console);
   }
 
-  private BuildResult handleTimeout(Process process) {
-    process.destroyForcibly();
+  private BuildResult buildTimeoutResult() {
     return BuildResult.builder()
         .success(false)
         .errors(1)
@@ -193,8 +205,8 @@ public class DockerEphemeralBuildService implements MetamodelBuildService {
 
   /**
    * Starts an external process using the given command list. Configures the process to merge
-   * standard error into standard output. Returns the running Process handle for further
-   * interaction.
+   * standard error into standard output. Returns the running Process handle, which the {@link
+   * ProcessExecutor} then waits for and drains.
    */
   protected Process startProcess(List<String> cmd) throws IOException {
     return new ProcessBuilder(cmd).redirectErrorStream(true).start();
@@ -0,0 +1,305 @@
+package tools.vitruv.methodologist.vsum.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import tools.vitruv.methodologist.vsum.service.MetamodelBuildService;
+
+/**
+ * Runs the metamodel builder inside the application instead of starting a JVM per build.
+ *
+ * <p>The builder JAR is loaded once into its own class loader whose parent is the platform class
+ * loader, so its EMF and FreeMarker versions never clash with the application's classes. The entry
+ * class is instantiated once and reused; it is called through {@link BiFunction} with the Ecore and
+ * GenModel contents and returns the builder's result.json fields as a map, so no builder class
+ * crosses the class loader boundary.
+ *
+ * <p>Builds run on a bounded pool of {@code builder.maxConcurrentBuilds} threads. A build exceeding
+ * {@code builder.timeoutSeconds} is reported as failed and its thread is interrupted. Unlike a
+ * separate process the thread cannot be killed, so a build still running {@code
+ * builder.stuckGraceSeconds} after the interrupt is considered stuck: the pool and the class loader
+ * are retired and replaced by fresh ones, and builds queued on the retired pool move to the new
+ * one. The stuck thread keeps running until the builder returns; the retired class loader is closed
+ * once all threads of its pool have ended.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "builder.mode", havingValue = "in-process", matchIfMissing = true)
+public class InProcessMetamodelBuildService implements MetamodelBuildService {
+  static final String CLASS_LOADER_NAME = "metamodel-builder";
+
+  private final Path jarPath;
+  private final String entryClass;
+  private final int timeoutSeconds;
+  private final int stuckGraceSeconds;
+  private final int maxConcurrentBuilds;
+  private final AtomicInteger threads = new AtomicInteger();
+  private final List<Retired> retired = new ArrayList<>();
+  private ThreadPoolExecutor executor;
+  private URLClassLoader classLoader;
+  private BiFunction<byte[], byte[], Map<String, Object>> builder;
+
+  /**
+   * Constructs an {@link InProcessMetamodelBuildService}.
+   *
+   * @param jarPath path to the builder JAR including its dependencies
+   * @param entryClass the builder class implementing {@link BiFunction}
+   * @param timeoutSeconds maximum time a single build may take
+   * @param maxConcurrentBuilds number of builds running at the same time
+   * @param stuckGraceSeconds time a timed-out build has to react to its interrupt before its pool
+   *     and class loader are replaced
+   */
+  @Autowired
+  public InProcessMetamodelBuildService(
+      @Value("${builder.jarPath}") String jarPath,
+      @Value("${builder.entryClass:tools.vitruv.methodologist.builder.MetamodelBuilder}")
+          String entryClass,
+      @Value("${builder.timeoutSeconds:300}") int timeoutSeconds,
+      @Value("${builder.maxConcurrentBuilds:2}") int maxConcurrentBuilds,
+      @Value("${builder.stuckGraceSeconds:10}") int stuckGraceSeconds) {
+    this.jarPath = Path.of(jarPath);
+    this.entryClass = entryClass;
+    this.timeoutSeconds = timeoutSeconds;
+    this.stuckGraceSeconds = stuckGraceSeconds;
+    this.maxConcurrentBuilds = Math.max(1, maxConcurrentBuilds);
+    this.executor = newExecutor();
+  }
+
+  /**
+   * Runs the builder on the given metamodel input and maps its result into a BuildResult. Failures
+   * to load the builder and exceptions thrown by it are reported as a failed build.
+   */
+  @Override
+  public BuildResult buildAndValidate(MetamodelBuildInput input) {
+    AtomicBoolean started = new AtomicBoolean();
+    CountDownLatch finished = new CountDownLatch(1);
+    Future<Map<String, Object>> future;
+    try {
+      future =
+          submit(
+              () -> {
+                started.set(true);
+                try {
+                  return run(input);
+                } finally {
+                  finished.countDown();
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      return buildCrashResult(e);
+    }
+
+    try {
+      return buildResultFromMap(future.get(timeoutSeconds, TimeUnit.SECONDS));
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      log.warn("Metamodel build of {} timed out after {}s", input.getMetaModelId(), timeoutSeconds);
+      awaitInterrupted(input, started, finished);
+      return failure("Timeout after " + timeoutSeconds + "s");
+    } catch (ExecutionException e) {
+      return buildCrashResult(e.getCause());
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      return buildCrashResult(e);
+    }
+  }
+
+  /** Stops running builds and closes the builder class loaders. */
+  @PreDestroy
+  public synchronized void shutdown() {
+    executor.shutdownNow();
+    close(classLoader);
+    classLoader = null;
+    builder = null;
+    for (Retired pool : retired) {
+      pool.executor().shutdownNow();
+      close(pool.classLoader());
+    }
+    retired.clear();
+  }
+
+  private synchronized Future<Map<String, Object>> submit(Callable<Map<String, Object>> task) {
+    return executor.submit(task);
+  }
+
+  private Map<String, Object> run(MetamodelBuildInput input) throws Exception {
+    BiFunction<byte[], byte[], Map<String, Object>> loaded = builder();
+    Thread thread = Thread.currentThread();
+    ClassLoader previous = thread.getContextClassLoader();
+    thread.setContextClassLoader(loaded.getClass().getClassLoader());
+    try {
+      return loaded.apply(input.getEcoreBytes(), input.getGenModelBytes());
+    } finally {
+      thread.setContextClassLoader(previous);
+    }
+  }
+
+  /**
+   * Waits for a cancelled build to react to its interrupt and replaces the pool and the class
+   * loader if it does not. A build cancelled before it started never occupied a thread.
+   */
+  private void awaitInterrupted(
+      MetamodelBuildInput input, AtomicBoolean started, CountDownLatch finished) {
+    try {
+      if (!started.get() || finished.await(stuckGraceSeconds, TimeUnit.SECONDS)) {
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    log.error(
+        "Metamodel build of {} ignores its interrupt; replacing the builder pool and class loader",
+        input.getMetaModelId());
+    replaceExecutor();
+  }
+
+  /**
+   * Retires the current pool and class loader. Running builds may finish on the retired pool;
+   * queued builds move to a fresh one, which loads a fresh builder for them.
+   */
+  private synchronized void replaceExecutor() {
+    ThreadPoolExecutor stuck = executor;
+    List<Runnable> queued = new ArrayList<>();
+    stuck.getQueue().drainTo(queued);
+    stuck.shutdown();
+    retired.add(new Retired(stuck, classLoader));
+    classLoader = null;
+    builder = null;
+    executor = newExecutor();
+    queued.forEach(executor::execute);
+
+    retired.removeIf(
+        pool -> {
+          if (!pool.executor().isTerminated()) {
+            return false;
+          }
+          close(pool.classLoader());
+          return true;
+        });
+    if (!retired.isEmpty()) {
+      log.warn("{} retired metamodel builder pools still have running threads", retired.size());
+    }
+  }
+
+  private ThreadPoolExecutor newExecutor() {
+    return new ThreadPoolExecutor(
+        maxConcurrentBuilds,
+        maxConcurrentBuilds,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, "metamodel-builder-" + threads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  private static void close(URLClassLoader loader) {
+    if (loader == null) {
+      return;
+    }
+    try {
+      loader.close();
+    } catch (IOException e) {
+      log.warn("Failed to close the metamodel builder class loader", e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private synchronized BiFunction<byte[], byte[], Map<String, Object>> builder()
+      throws IOException, ReflectiveOperationException {
+    if (builder != null) {
+      return builder;
+    }
+    if (!Files.isReadable(jarPath)) {
+      throw new FileNotFoundException("Builder JAR not found: " + jarPath);
+    }
+    URLClassLoader loader =
+        new URLClassLoader(
+            CLASS_LOADER_NAME,
+            new URL[] {jarPath.toUri().toURL()},
+            ClassLoader.getPlatformClassLoader());
+    Thread thread = Thread.currentThread();
+    ClassLoader previous = thread.getContextClassLoader();
+    thread.setContextClassLoader(loader);
+    try {
+      builder =
+          (BiFunction<byte[], byte[], Map<String, Object>>)
+              loader.loadClass(entryClass).getDeclaredConstructor().newInstance();
+      classLoader = loader;
+      log.info("Loaded metamodel builder {} from {}", entryClass, jarPath);
+      return builder;
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+      loader.close();
+      throw e;
+    } finally {
+      thread.setContextClassLoader(previous);
+    }
+  }
+
+  private BuildResult buildResultFromMap(Map<String, Object> result) {
+    boolean ok = Boolean.TRUE.equals(result.get("success"));
+    return BuildResult.builder()
+        .success(ok)
+        .errors(intValue(result.get("errors")))
+        .warnings(intValue(result.get("warnings")))
+        .report(String.valueOf(result.getOrDefault("report", "")))
+        .discoveredNsUris(extractNsUris(result.get("nsUris")))
+        .build();
+  }
+
+  private static int intValue(Object value) {
+    return value instanceof Number number ? number.intValue() : 0;
+  }
+
+  private static String extractNsUris(Object value) {
+    if (!(value instanceof List<?> nsList) || nsList.isEmpty()) {
+      return null;
+    }
+    return String.join(", ", nsList.stream().map(String::valueOf).toList());
+  }
+
+  private BuildResult buildCrashResult(Throwable e) {
+    return failure("Crash: " + e.getMessage());
+  }
+
+  /** A pool replaced because of a stuck build, and the class loader its builds used. */
+  private record Retired(ThreadPoolExecutor executor, URLClassLoader classLoader) {}
+
+  private BuildResult failure(String report) {
+    return BuildResult.builder()
+        .success(false)
+        .errors(1)
+        .warnings(0)
+        .report(report)
+        .discoveredNsUris(null)
+        .build();
+  }
+}
@@ -0,0 +1,159 @@
+-- Rebuilds vsum_history as a table range-partitioned by month of created_at and adds an archive
+-- table that receives detached partitions once they fall out of the retention window.
+
+ALTER TABLE vsum_history RENAME TO vsum_history_legacy;
+ALTER TABLE vsum_history_legacy RENAME CONSTRAINT pk_vsumhistory TO pk_vsumhistory_legacy;
+
+CREATE TABLE vsum_history
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at     TIMESTAMP WITHOUT TIME ZONE DEFAULT (now() AT TIME ZONE 'utc') NOT NULL,
+    creator_id     BIGINT                                  NOT NULL,
+    vsum_id        BIGINT                                  NOT NULL,
+    representation JSONB,
+    CONSTRAINT pk_vsumhistory PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER TABLE vsum_history
+    ADD CONSTRAINT FK_VSUMHISTORY_ON_CREATOR FOREIGN KEY (creator_id) REFERENCES usr (id);
+
+ALTER TABLE vsum_history
+    ADD CONSTRAINT FK_VSUMHISTORY_ON_VSUM FOREIGN KEY (vsum_id) REFERENCES vsum (id);
+
+CREATE INDEX idx_vsum_history_vsum_created_at ON vsum_history (vsum_id, created_at DESC);
+
+CREATE TABLE vsum_history_default PARTITION OF vsum_history DEFAULT;
+
+-- Creates the monthly partition starting at month_start unless it already exists. Rows that were
+-- routed to the default partition for that month are moved into the new partition.
+CREATE OR REPLACE FUNCTION vsum_history_create_partition(month_start DATE) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    lower_bound    DATE := date_trunc('month', month_start)::DATE;
+    upper_bound    DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := format('vsum_history_p%s', to_char(lower_bound, 'YYYY_MM'));
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    IF EXISTS (SELECT 1
+               FROM vsum_history_default
+               WHERE created_at >= lower_bound
+                 AND created_at < upper_bound) THEN
+        EXECUTE format('CREATE TABLE %I (LIKE vsum_history INCLUDING DEFAULTS)', partition_name);
+        EXECUTE format(
+                'WITH moved AS (DELETE FROM vsum_history_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                    || 'INSERT INTO %I SELECT * FROM moved',
+                lower_bound, upper_bound, partition_name);
+        EXECUTE format('ALTER TABLE vsum_history ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, lower_bound, upper_bound);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF vsum_history FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, lower_bound, upper_bound);
+    END IF;
+    RETURN TRUE;
+END;
+$$;
+
+-- Makes sure partitions exist for the current month and the given number of months ahead.
+CREATE OR REPLACE FUNCTION vsum_history_ensure_partitions(months_ahead INTEGER) RETURNS INTEGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    current_month DATE    := date_trunc('month', now() AT TIME ZONE 'utc')::DATE;
+    created       INTEGER := 0;
+    i             INTEGER;
+BEGIN
+    FOR i IN 0..greatest(months_ahead, 0)
+        LOOP
+            IF vsum_history_create_partition((current_month + make_interval(months => i))::DATE) THEN
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END;
+$$;
+
+CREATE TABLE vsum_history_archive
+(
+    id             BIGINT                                                     NOT NULL,
+    created_at     TIMESTAMP WITHOUT TIME ZONE                                NOT NULL,
+    creator_id     BIGINT                                                     NOT NULL,
+    vsum_id        BIGINT                                                     NOT NULL,
+    representation JSONB,
+    archived_at    TIMESTAMP WITHOUT TIME ZONE DEFAULT (now() AT TIME ZONE 'utc') NOT NULL,
+    CONSTRAINT pk_vsum_history_archive PRIMARY KEY (id, created_at)
+) WITH (toast_tuple_target = 128);
+
+CREATE INDEX idx_vsum_history_archive_vsum ON vsum_history_archive (vsum_id);
+
+-- Prefer lz4 for archived snapshots; servers built without it keep the default pglz compression.
+DO
+$$
+    BEGIN
+        ALTER TABLE vsum_history_archive
+            ALTER COLUMN representation SET COMPRESSION lz4;
+    EXCEPTION
+        WHEN feature_not_supported THEN
+            RAISE NOTICE 'lz4 is not available, vsum_history_archive keeps the default compression';
+    END;
+$$;
+
+-- Detaches every monthly partition that ended before the retention window, copies its rows into
+-- the compressed archive table and drops it. Returns the number of archived partitions.
+CREATE OR REPLACE FUNCTION vsum_history_archive_partitions(retention_months INTEGER) RETURNS INTEGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    cutoff   DATE    := (date_trunc('month', now() AT TIME ZONE 'utc')
+        - make_interval(months => greatest(retention_months, 0)))::DATE;
+    part     RECORD;
+    archived INTEGER := 0;
+BEGIN
+    FOR part IN
+        SELECT c.relname AS name
+        FROM pg_inherits i
+                 JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'vsum_history'::REGCLASS
+          AND c.relname ~ '^vsum_history_p[0-9]{4}_[0-9]{2}$'
+          AND to_date(substring(c.relname FROM 15), 'YYYY_MM') < cutoff
+        ORDER BY c.relname
+        LOOP
+            EXECUTE format('ALTER TABLE vsum_history DETACH PARTITION %I', part.name);
+            EXECUTE format(
+                    'INSERT INTO vsum_history_archive (id, created_at, creator_id, vsum_id, representation) '
+                        || 'SELECT id, created_at, creator_id, vsum_id, representation FROM %I',
+                    part.name);
+            EXECUTE format('DROP TABLE %I', part.name);
+            archived := archived + 1;
+        END LOOP;
+    RETURN archived;
+END;
+$$;
+
+DO
+$$
+    DECLARE
+        month_start DATE;
+    BEGIN
+        FOR month_start IN
+            SELECT DISTINCT date_trunc('month', created_at)::DATE
+            FROM vsum_history_legacy
+            WHERE created_at IS NOT NULL
+            LOOP
+                PERFORM vsum_history_create_partition(month_start);
+            END LOOP;
+        PERFORM vsum_history_ensure_partitions(3);
+    END;
+$$;
+
+INSERT INTO vsum_history (id, created_at, creator_id, vsum_id, representation)
+SELECT id, coalesce(created_at, now() AT TIME ZONE 'utc'), creator_id, vsum_id, representation::JSONB
+FROM vsum_history_legacy;
+
+SELECT setval(pg_get_serial_sequence('vsum_history', 'id'), coalesce(max(id), 0) + 1, FALSE)
+FROM vsum_history;
+
+DROP TABLE vsum_history_legacy;
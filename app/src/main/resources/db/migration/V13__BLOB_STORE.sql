@@ -0,0 +1,39 @@
+-- Moves file content out of file_storage. Content is addressed by a storage key (its SHA-256) and
+-- kept by the configured blob store; blob_content backs the database store. Existing large objects
+-- are handed over to blob_content without copying them, keeping one large object per distinct
+-- content and unlinking the duplicates.
+
+CREATE TABLE blob_content
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY                   NOT NULL,
+    storage_key VARCHAR(255)                                               NOT NULL,
+    data        OID                                                        NOT NULL,
+    size_bytes  BIGINT                                                     NOT NULL,
+    created_at  TIMESTAMP WITHOUT TIME ZONE DEFAULT (now() AT TIME ZONE 'utc'),
+    CONSTRAINT pk_blob_content PRIMARY KEY (id),
+    CONSTRAINT uc_blob_content_storage_key UNIQUE (storage_key)
+);
+
+ALTER TABLE file_storage
+    ADD COLUMN storage_key VARCHAR(255);
+
+INSERT INTO blob_content (storage_key, data, size_bytes)
+SELECT DISTINCT ON (sha256) sha256, data, size_bytes
+FROM file_storage
+ORDER BY sha256, id;
+
+UPDATE file_storage
+SET storage_key = sha256;
+
+SELECT lo_unlink(duplicate.data)
+FROM (SELECT DISTINCT fs.data
+      FROM file_storage fs
+      WHERE NOT EXISTS (SELECT 1 FROM blob_content b WHERE b.data = fs.data)) duplicate;
+
+ALTER TABLE file_storage
+    ALTER COLUMN storage_key SET NOT NULL;
+
+ALTER TABLE file_storage
+    DROP COLUMN data;
+
+CREATE INDEX idx_file_storage_storage_key ON file_storage (storage_key);
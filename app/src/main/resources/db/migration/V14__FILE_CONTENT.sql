@@ -0,0 +1,33 @@
+-- Registry of unique file contents across all users. Each content is identified by its SHA-256 and
+-- size and is referenced by file_storage rows through storage_key; ref_count counts those references
+-- and marked_at records when garbage collection found the content unreferenced.
+
+CREATE TABLE file_content
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    storage_key VARCHAR(255)                            NOT NULL,
+    sha256      VARCHAR(255)                            NOT NULL,
+    size_bytes  BIGINT                                  NOT NULL,
+    ref_count   BIGINT                                  NOT NULL DEFAULT 0,
+    marked_at   TIMESTAMP WITHOUT TIME ZONE,
+    created_at  TIMESTAMP WITHOUT TIME ZONE DEFAULT (now() AT TIME ZONE 'utc'),
+    CONSTRAINT pk_file_content PRIMARY KEY (id),
+    CONSTRAINT uc_file_content_storage_key UNIQUE (storage_key),
+    CONSTRAINT uc_file_content_sha256_size UNIQUE (sha256, size_bytes)
+);
+
+INSERT INTO file_content (storage_key, sha256, size_bytes, ref_count)
+SELECT storage_key, min(sha256), min(size_bytes), count(*)
+FROM file_storage
+GROUP BY storage_key;
+
+-- content left behind by files deleted before reference counting existed
+INSERT INTO file_content (storage_key, sha256, size_bytes, ref_count, marked_at)
+SELECT b.storage_key, b.storage_key, b.size_bytes, 0, (now() AT TIME ZONE 'utc')
+FROM blob_content b
+WHERE NOT EXISTS (SELECT 1 FROM file_content c WHERE c.storage_key = b.storage_key);
+
+ALTER TABLE file_storage
+    ADD CONSTRAINT FK_FILE_STORAGE_ON_FILE_CONTENT FOREIGN KEY (storage_key) REFERENCES file_content (storage_key);
+
+CREATE INDEX idx_file_content_marked_at ON file_content (marked_at) WHERE marked_at IS NOT NULL;
@@ -0,0 +1,25 @@
+-- Records how file content is encoded in the blob store. size_bytes and sha256 keep describing the
+-- logical content; stored_size_bytes is the size of the encoded object. Existing content is stored
+-- unencoded.
+
+ALTER TABLE file_content
+    ADD COLUMN codec             VARCHAR(255) NOT NULL DEFAULT 'NONE',
+    ADD COLUMN stored_size_bytes BIGINT;
+
+UPDATE file_content
+SET stored_size_bytes = size_bytes;
+
+ALTER TABLE file_content
+    ALTER COLUMN stored_size_bytes SET NOT NULL,
+    DROP CONSTRAINT uc_file_content_sha256_size,
+    ADD CONSTRAINT uc_file_content_sha256_size_codec UNIQUE (sha256, size_bytes, codec);
+
+ALTER TABLE file_storage
+    ADD COLUMN codec             VARCHAR(255) NOT NULL DEFAULT 'NONE',
+    ADD COLUMN stored_size_bytes BIGINT;
+
+UPDATE file_storage
+SET stored_size_bytes = size_bytes;
+
+ALTER TABLE file_storage
+    ALTER COLUMN stored_size_bytes SET NOT NULL;
@@ -0,0 +1,27 @@
+-- Ties the lifetime of the large objects holding database-stored content to their blob_content
+-- rows: deleting a row, or replacing its data, unlinks the large object, whichever code path or
+-- cascade removes the row. Large objects orphaned before this migration are reclaimed by the
+-- scheduled reconciliation in LargeObjectReconciliationService.
+
+CREATE INDEX idx_blob_content_data ON blob_content (data);
+
+CREATE FUNCTION blob_content_unlink_data() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD.data = NEW.data THEN
+        RETURN NULL;
+    END IF;
+    IF EXISTS (SELECT 1 FROM pg_largeobject_metadata m WHERE m.oid = OLD.data)
+        AND NOT EXISTS (SELECT 1 FROM blob_content b WHERE b.data = OLD.data) THEN
+        PERFORM lo_unlink(OLD.data);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_blob_content_unlink_data
+    AFTER DELETE OR UPDATE OF data
+    ON blob_content
+    FOR EACH ROW
+EXECUTE FUNCTION blob_content_unlink_data();
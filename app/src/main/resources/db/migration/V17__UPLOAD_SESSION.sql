@@ -0,0 +1,23 @@
+-- Resumable uploads: a session tracks a file uploaded in chunks until it is completed, aborted or
+-- expires. The chunks themselves are assembled in a file on the server, not in the database.
+
+CREATE TABLE upload_session
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    upload_id      VARCHAR(36)                             NOT NULL,
+    user_id        BIGINT                                  NOT NULL,
+    filename       VARCHAR(255)                            NOT NULL,
+    content_type   VARCHAR(255)                            NOT NULL,
+    type           VARCHAR(255)                            NOT NULL,
+    total_size     BIGINT                                  NOT NULL,
+    received_bytes BIGINT                                  NOT NULL DEFAULT 0,
+    created_at     TIMESTAMP WITHOUT TIME ZONE,
+    expires_at     TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    CONSTRAINT pk_upload_session PRIMARY KEY (id),
+    CONSTRAINT uc_upload_session_upload_id UNIQUE (upload_id)
+);
+
+ALTER TABLE upload_session
+    ADD CONSTRAINT FK_UPLOAD_SESSION_ON_USER FOREIGN KEY (user_id) REFERENCES usr (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_upload_session_expires_at ON upload_session (expires_at);
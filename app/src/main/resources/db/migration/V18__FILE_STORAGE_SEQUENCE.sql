@@ -0,0 +1,11 @@
+-- File ids come from a sequence that hands out blocks of 50 ids, so files stored together (batch
+-- uploads, cloned metamodels) can be inserted in JDBC batches. Identity columns cannot be batched,
+-- because every insert has to return its generated id.
+-- Hibernate uses the sequence value as the upper end of a block, hence the offset of 50.
+
+ALTER TABLE file_storage
+    ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE file_storage_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('file_storage_seq', (SELECT COALESCE(MAX(id), 0) FROM file_storage) + 50, false);
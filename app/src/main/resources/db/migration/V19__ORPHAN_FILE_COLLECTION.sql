@@ -0,0 +1,15 @@
+-- Supports the collection of file_storage rows nothing refers to. Every referencing foreign key gets
+-- an index so the anti-joins are index lookups, and the history snapshots get a GIN index so files
+-- a snapshot still points at are found by containment instead of scanning every representation.
+
+CREATE INDEX idx_file_storage_created_at ON file_storage (created_at, id);
+
+CREATE INDEX idx_meta_model_ecore_file_id ON meta_model (ecore_file_id);
+CREATE INDEX idx_meta_model_gen_model_file_id ON meta_model (gen_model_file_id);
+CREATE INDEX idx_meta_model_relation_reaction_file_id ON meta_model_relation (reaction_file_id);
+CREATE INDEX idx_vsum_view_file_storage_id ON vsum_view (file_storage_id);
+CREATE INDEX idx_constraint_rule_set_file_storage_id ON constraint_rule_set (file_storage_id);
+
+CREATE INDEX idx_vsum_history_representation ON vsum_history USING GIN (representation jsonb_path_ops);
+CREATE INDEX idx_vsum_history_archive_representation
+    ON vsum_history_archive USING GIN (representation jsonb_path_ops);
@@ -0,0 +1,26 @@
+-- Asynchronous VSUM builds: a job is queued by a request and picked up by a build worker. The job
+-- row is the queue entry, so queued jobs survive restarts and are shared by all instances.
+
+CREATE TABLE build_job
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    user_id      BIGINT                                  NOT NULL,
+    vsum_id      BIGINT                                  NOT NULL,
+    status       VARCHAR(255)                            NOT NULL,
+    artifact_key VARCHAR(128),
+    error        VARCHAR(2000),
+    created_at   TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    started_at   TIMESTAMP WITHOUT TIME ZONE,
+    finished_at  TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_build_job PRIMARY KEY (id)
+);
+
+ALTER TABLE build_job
+    ADD CONSTRAINT FK_BUILD_JOB_ON_USER FOREIGN KEY (user_id) REFERENCES usr (id) ON DELETE CASCADE;
+
+ALTER TABLE build_job
+    ADD CONSTRAINT FK_BUILD_JOB_ON_VSUM FOREIGN KEY (vsum_id) REFERENCES vsum (id) ON DELETE CASCADE;
+
+CREATE INDEX idx_build_job_queued ON build_job (id) WHERE status = 'QUEUED';
+CREATE INDEX idx_build_job_user_status ON build_job (user_id, status);
+CREATE INDEX idx_build_job_finished_at ON build_job (finished_at) WHERE finished_at IS NOT NULL;
@@ -0,0 +1,11 @@
+-- Leases of builds in progress, so instances coalesce builds of the same inputs without holding a
+-- database connection for the duration of the build. A lease is taken by inserting its row and
+-- released by deleting it; a lease past expires_at, e.g. of a stopped instance, can be taken over.
+
+CREATE TABLE build_lock
+(
+    lock_key   VARCHAR(128)             NOT NULL,
+    owner      VARCHAR(36)              NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_build_lock PRIMARY KEY (lock_key)
+);
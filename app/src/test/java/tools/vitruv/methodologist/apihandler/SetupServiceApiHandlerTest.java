@@ -2,8 +2,19 @@ package tools.vitruv.methodologist.apihandler;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -11,17 +22,27 @@ import okio.Buffer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
 import tools.vitruv.methodologist.apihandler.dto.response.GenModelInspectionResponse;
+import tools.vitruv.methodologist.apihandler.dto.response.VsumValidationResponse;
 import tools.vitruv.methodologist.exception.SetupServiceException;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.service.FileStorageService;
+import tools.vitruv.methodologist.general.storage.InMemoryBlobStore;
+import tools.vitruv.methodologist.general.storage.SpooledContent;
 
 class SetupServiceApiHandlerTest {
 
-  private static final int PAYLOAD_SIZE = 10_000_000;
+  private static final int ARTIFACT_SIZE = 12_000_000;
   private static final int TIMEOUT_SECONDS = 8;
 
+  @TempDir Path tempDir;
+
   private MockWebServer mockWebServer;
+  private final InMemoryBlobStore blobStore = new InMemoryBlobStore();
+  private FileStorageService fileStorageService;
   private SetupServiceApiHandler setupServiceApiHandler;
 
   private List<FileStorage> metamodelFiles;
@@ -33,19 +54,41 @@ class SetupServiceApiHandlerTest {
     mockWebServer = new MockWebServer();
     mockWebServer.start();
 
-    setupServiceApiHandler =
-        new SetupServiceApiHandler(
-            mockWebServer.url("/").toString(), PAYLOAD_SIZE, TIMEOUT_SECONDS);
+    fileStorageService = mock(FileStorageService.class);
+    when(fileStorageService.spoolContent(any(FileStorage.class), anyLong()))
+        .thenAnswer(
+            invocation ->
+                SpooledContent.spool(
+                    new ByteArrayInputStream(
+                        blobStore.content(invocation.<FileStorage>getArgument(0).getStorageKey())),
+                    invocation.<Long>getArgument(1),
+                    tempDir));
+
+    setupServiceApiHandler = setupServiceApiHandler(DataSize.ofBytes(0));
 
     metamodelFiles = List.of(fileStorage("model.ecore", "ecore".getBytes()));
     genmodelFiles = List.of(fileStorage("model.genmodel", "genmodel".getBytes()));
     reactionFiles = List.of(fileStorage("templateReactions.reactions", "reactions".getBytes()));
   }
 
-  private static FileStorage fileStorage(String filename, byte[] data) {
+  private SetupServiceApiHandler setupServiceApiHandler(DataSize multipartMemoryBudget) {
+    return setupServiceApiHandler(multipartMemoryBudget, Duration.ZERO);
+  }
+
+  private SetupServiceApiHandler setupServiceApiHandler(
+      DataSize multipartMemoryBudget, Duration validateRetryAfter) {
+    return new SetupServiceApiHandler(
+        mockWebServer.url("/").toString(),
+        TIMEOUT_SECONDS,
+        fileStorageService,
+        multipartMemoryBudget,
+        validateRetryAfter);
+  }
+
+  private FileStorage fileStorage(String filename, byte[] data) {
     FileStorage fileStorage = new FileStorage();
     fileStorage.setFilename(filename);
-    fileStorage.setData(data);
+    fileStorage.setStorageKey(blobStore.store(data));
     return fileStorage;
   }
 
@@ -55,83 +98,96 @@ class SetupServiceApiHandlerTest {
   }
 
   @Test
-  void buildVsumZipOrThrow_returnsArtifactBytes_andSendsMultipartRequest() throws Exception {
-    byte[] expected = {1, 2, 3, 4, 5};
+  void downloadVsumJarOrThrow_streamsLargeArtifactIntoFile() throws Exception {
+    byte[] expected = new byte[ARTIFACT_SIZE];
+    new Random(42).nextBytes(expected);
     mockWebServer.enqueue(
         new MockResponse()
             .setResponseCode(200)
-            .setHeader(HttpHeaders.CONTENT_TYPE, "application/zip")
+            .setHeader(HttpHeaders.CONTENT_TYPE, "application/java-archive")
             .setBody(new Buffer().write(expected)));
+    Path target = Files.createFile(tempDir.resolve("vsum.jar"));
 
-    byte[] result =
-        setupServiceApiHandler.buildVsumZipOrThrow(metamodelFiles, genmodelFiles, reactionFiles);
-
-    assertThat(result).containsExactly(expected);
-
-    RecordedRequest recordedRequest = mockWebServer.takeRequest();
-    assertThat(recordedRequest.getMethod()).isEqualTo("POST");
-    assertThat(recordedRequest.getPath()).isEqualTo(SetupServiceApiHandler.BUILD_URL);
-    assertThat(recordedRequest.getHeader(HttpHeaders.CONTENT_TYPE))
-        .startsWith("multipart/form-data");
+    long size =
+        setupServiceApiHandler.downloadVsumJarOrThrow(
+            metamodelFiles, genmodelFiles, reactionFiles, target);
 
-    String body = recordedRequest.getBody().readUtf8();
-    assertThat(body).contains(SetupServiceApiHandler.METAMODEL_FILES_PART);
-    assertThat(body).contains(SetupServiceApiHandler.GENMODEL_FILES_PART);
-    assertThat(body).contains(SetupServiceApiHandler.REACTION_FILES_PART);
-    assertThat(body).contains("model.ecore");
+    assertThat(size).isEqualTo(expected.length);
+    assertThat(Files.readAllBytes(target)).isEqualTo(expected);
+    assertThat(mockWebServer.takeRequest().getPath()).isEqualTo(SetupServiceApiHandler.JAR_URL);
   }
 
   @Test
-  void buildVsumJarOrThrow_returnsArtifactBytes_andCallsJarEndpoint() throws Exception {
-    byte[] expected = {10, 20, 30};
+  void downloadVsumJarOrThrow_sendsSpooledPartsAndDeletesThemAfterwards() throws Exception {
     mockWebServer.enqueue(
-        new MockResponse()
-            .setResponseCode(200)
-            .setHeader(HttpHeaders.CONTENT_TYPE, "application/java-archive")
-            .setBody(new Buffer().write(expected)));
+        new MockResponse().setResponseCode(200).setBody(new Buffer().write(new byte[] {1})));
+    Path target = Files.createFile(tempDir.resolve("vsum.jar"));
 
-    byte[] result =
-        setupServiceApiHandler.buildVsumJarOrThrow(metamodelFiles, genmodelFiles, reactionFiles);
+    setupServiceApiHandler.downloadVsumJarOrThrow(
+        metamodelFiles, genmodelFiles, reactionFiles, target);
 
-    assertThat(result).containsExactly(expected);
+    String body = mockWebServer.takeRequest().getBody().readUtf8();
+    assertThat(body).contains("ecore", "genmodel", "reactions", "templateReactions.reactions");
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertThat(files.map(Path::getFileName).map(Path::toString)).containsExactly("vsum.jar");
+    }
+  }
 
-    RecordedRequest recordedRequest = mockWebServer.takeRequest();
-    assertThat(recordedRequest.getMethod()).isEqualTo("POST");
-    assertThat(recordedRequest.getPath()).isEqualTo(SetupServiceApiHandler.JAR_URL);
+  @Test
+  void downloadVsumJarOrThrow_keepsPartsInMemoryOnlyWithinTheBudget() throws Exception {
+    mockWebServer.enqueue(
+        new MockResponse().setResponseCode(200).setBody(new Buffer().write(new byte[] {1})));
+    Path target = Files.createFile(tempDir.resolve("vsum.jar"));
+    FileStorage first = fileStorage("a.ecore", new byte[5]);
+    FileStorage second = fileStorage("b.ecore", new byte[8]);
+    FileStorage third = fileStorage("c.ecore", new byte[4]);
+
+    setupServiceApiHandler(DataSize.ofBytes(10))
+        .downloadVsumJarOrThrow(
+            List.of(first, second, third), genmodelFiles, reactionFiles, target);
+
+    verify(fileStorageService).spoolContent(first, 10);
+    verify(fileStorageService).spoolContent(second, 5);
+    verify(fileStorageService).spoolContent(third, 5);
+    verify(fileStorageService).spoolContent(genmodelFiles.get(0), 1);
   }
 
   @Test
-  void buildVsumZipOrThrow_throwsSetupServiceException_onErrorStatus() {
+  void downloadVsumJarOrThrow_throwsSetupServiceException_onErrorStatus() {
     mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("boom"));
+    Path target = tempDir.resolve("vsum.jar");
 
     assertThatThrownBy(
             () ->
-                setupServiceApiHandler.buildVsumZipOrThrow(
-                    metamodelFiles, genmodelFiles, reactionFiles))
+                setupServiceApiHandler.downloadVsumJarOrThrow(
+                    metamodelFiles, genmodelFiles, reactionFiles, target))
         .isInstanceOf(SetupServiceException.class)
         .hasMessageContaining("boom");
   }
 
   @Test
-  void buildVsumZipOrThrow_throwsSetupServiceException_onEmptyArtifact() {
+  void downloadVsumJarOrThrow_throwsSetupServiceException_onEmptyArtifact() {
     mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+    Path target = tempDir.resolve("vsum.jar");
 
     assertThatThrownBy(
             () ->
-                setupServiceApiHandler.buildVsumZipOrThrow(
-                    metamodelFiles, genmodelFiles, reactionFiles))
+                setupServiceApiHandler.downloadVsumJarOrThrow(
+                    metamodelFiles, genmodelFiles, reactionFiles, target))
         .isInstanceOf(SetupServiceException.class)
         .hasMessageContaining("empty artifact");
   }
 
   @Test
-  void buildVsumZipOrThrow_throwsSetupServiceException_whenServiceUnreachable() throws Exception {
+  void downloadVsumJarOrThrow_throwsSetupServiceException_whenServiceUnreachable()
+      throws Exception {
     mockWebServer.shutdown();
+    Path target = tempDir.resolve("vsum.jar");
 
     assertThatThrownBy(
             () ->
-                setupServiceApiHandler.buildVsumZipOrThrow(
-                    metamodelFiles, genmodelFiles, reactionFiles))
+                setupServiceApiHandler.downloadVsumJarOrThrow(
+                    metamodelFiles, genmodelFiles, reactionFiles, target))
         .isInstanceOf(SetupServiceException.class);
   }
 
@@ -158,6 +214,23 @@ class SetupServiceApiHandlerTest {
     assertThat(body).contains("model.genmodel");
   }
 
+  @Test
+  void processGenModelOrThrow_returnsGenModelLargerThanTheDefaultCodecLimit() {
+    byte[] expected = new byte[1_000_000];
+    new Random(7).nextBytes(expected);
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setHeader(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+            .setBody(new Buffer().write(expected)));
+
+    byte[] result =
+        setupServiceApiHandler.processGenModelOrThrow(
+            fileStorage("model.genmodel", "genmodel".getBytes()));
+
+    assertThat(result).isEqualTo(expected);
+  }
+
   @Test
   void processGenModelOrThrow_throwsSetupServiceException_onErrorStatus() {
     mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("boom"));
@@ -170,6 +243,100 @@ class SetupServiceApiHandlerTest {
         .hasMessageContaining("boom");
   }
 
+  @Test
+  void validateVsumOrThrow_returnsDiagnostics_andCallsValidateEndpoint() throws Exception {
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setResponseCode(200)
+            .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+            .setBody(
+                "{\"diagnostics\":[{\"severity\":\"WARNING\",\"file\":\"model.ecore\","
+                    + "\"line\":3,\"column\":7,\"message\":\"Unused classifier\"}]}"));
+
+    VsumValidationResponse result =
+        setupServiceApiHandler
+            .validateVsumOrThrow(metamodelFiles, genmodelFiles, reactionFiles)
+            .orElseThrow();
+
+    assertThat(result.getStatus()).isEqualTo(200);
+    assertThat(result.getDiagnostics())
+        .singleElement()
+        .satisfies(
+            d -> {
+              assertThat(d.getSeverity()).isEqualTo("WARNING");
+              assertThat(d.getFile()).isEqualTo("model.ecore");
+              assertThat(d.getLine()).isEqualTo(3);
+              assertThat(d.getColumn()).isEqualTo(7);
+            });
+
+    RecordedRequest recordedRequest = mockWebServer.takeRequest();
+    assertThat(recordedRequest.getPath()).isEqualTo(SetupServiceApiHandler.VALIDATE_URL);
+    String body = recordedRequest.getBody().readUtf8();
+    assertThat(body).contains(SetupServiceApiHandler.METAMODEL_FILES_PART);
+    assertThat(body).contains(SetupServiceApiHandler.REACTION_FILES_PART);
+  }
+
+  @Test
+  void validateVsumOrThrow_returnsResult_onUnprocessableEntity() {
+    mockWebServer.enqueue(
+        new MockResponse()
+            .setResponseCode(422)
+            .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+            .setBody(
+                "{\"errorCode\":\"GENERATION_FAILED\",\"message\":\"Reactions do not"
+                    + " compile\",\"diagnostics\":[{\"severity\":\"ERROR\","
+                    + "\"file\":\"templateReactions.reactions\",\"line\":12,"
+                    + "\"message\":\"Unknown metaclass\"}]}"));
+
+    VsumValidationResponse result =
+        setupServiceApiHandler
+            .validateVsumOrThrow(metamodelFiles, genmodelFiles, reactionFiles)
+            .orElseThrow();
+
+    assertThat(result.getStatus()).isEqualTo(422);
+    assertThat(result.getErrorCode()).isEqualTo("GENERATION_FAILED");
+    assertThat(result.getDiagnostics()).hasSize(1);
+  }
+
+  @Test
+  void validateVsumOrThrow_returnsEmpty_whenEndpointIsMissing() {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(404).setBody("Not Found"));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(501));
+
+    assertThat(
+            setupServiceApiHandler.validateVsumOrThrow(
+                metamodelFiles, genmodelFiles, reactionFiles))
+        .isEmpty();
+    assertThat(
+            setupServiceApiHandler.validateVsumOrThrow(
+                metamodelFiles, genmodelFiles, reactionFiles))
+        .isEmpty();
+  }
+
+  @Test
+  void validateVsumOrThrow_remembersAMissingEndpoint() {
+    SetupServiceApiHandler handler =
+        setupServiceApiHandler(DataSize.ofBytes(0), Duration.ofMinutes(10));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+    assertThat(handler.validateVsumOrThrow(metamodelFiles, genmodelFiles, reactionFiles)).isEmpty();
+    assertThat(handler.validateVsumOrThrow(metamodelFiles, genmodelFiles, reactionFiles)).isEmpty();
+
+    assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  void validateVsumOrThrow_throwsSetupServiceException_onServerError() {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("boom"));
+
+    assertThatThrownBy(
+            () ->
+                setupServiceApiHandler.validateVsumOrThrow(
+                    metamodelFiles, genmodelFiles, reactionFiles))
+        .isInstanceOf(SetupServiceException.class)
+        .hasMessageContaining("boom");
+  }
+
   @Test
   void inspectGenModelOrThrow_returnsMessage_onSuccess() throws Exception {
     mockWebServer.enqueue(
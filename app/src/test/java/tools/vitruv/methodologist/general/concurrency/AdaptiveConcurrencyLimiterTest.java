@@ -0,0 +1,200 @@
+package tools.vitruv.methodologist.general.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.vitruv.methodologist.exception.ConcurrencyLimitExceededException;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final AtomicBoolean overloaded = new AtomicBoolean();
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  private AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+    return new AdaptiveConcurrencyLimiter(
+        "test",
+        initialLimit,
+        minLimit,
+        maxLimit,
+        0.5,
+        2.0,
+        Duration.ofSeconds(30),
+        overloaded::get,
+        meterRegistry,
+        now::get);
+  }
+
+  /** Runs a request taking {@code seconds} of the fake clock. */
+  private static String run(AdaptiveConcurrencyLimiter limiter, AtomicLong now, long seconds) {
+    return limiter.execute(
+        () -> {
+          now.addAndGet(Duration.ofSeconds(seconds).toNanos());
+          return "done";
+        });
+  }
+
+  @Test
+  void execute_rejectsRequestsBeyondTheLimit_withRetryAfter() {
+    AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1);
+    run(limiter, now, 10);
+
+    limiter.execute(
+        () -> {
+          assertThatThrownBy(() -> run(limiter, now, 1))
+              .isInstanceOfSatisfying(
+                  ConcurrencyLimitExceededException.class,
+                  ex -> {
+                    assertThat(ex.isOverloaded()).isFalse();
+                    assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(10));
+                    assertThat(ex.getMessage()).contains("test");
+                  });
+          return null;
+        });
+
+    assertThat(limiter.getInFlight()).isZero();
+    assertThat(
+            meterRegistry
+                .get("build.limiter.rejected")
+                .tag("workload", "test")
+                .tag("reason", "limit")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void execute_admitsTheMinimumLimit_butRejectsMore_whileTheHostIsOverloaded() {
+    AdaptiveConcurrencyLimiter limiter = limiter(3, 1, 4);
+    overloaded.set(true);
+
+    limiter.execute(
+        () -> {
+          assertThatThrownBy(() -> run(limiter, now, 1))
+              .isInstanceOfSatisfying(
+                  ConcurrencyLimitExceededException.class,
+                  ex -> {
+                    assertThat(ex.isOverloaded()).isTrue();
+                    assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(1));
+                  });
+          return null;
+        });
+
+    assertThat(
+            meterRegistry
+                .get("build.limiter.rejected")
+                .tag("workload", "test")
+                .tag("reason", "overload")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void execute_increasesTheLimitAdditively_whileItIsUsedAndLatencyIsStable() {
+    AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 8);
+
+    for (int i = 0; i < 3; i++) {
+      limiter.execute(() -> run(limiter, now, 5));
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(3);
+    assertThat(meterRegistry.get("build.limiter.limit").tag("workload", "test").gauge().value())
+        .isEqualTo(3);
+  }
+
+  @Test
+  void execute_doesNotIncreaseTheLimit_whileLessThanHalfOfItIsUsed() {
+    AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 8);
+
+    for (int i = 0; i < 10; i++) {
+      run(limiter, now, 5);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  void execute_decreasesTheLimitMultiplicatively_whenARequestIsSlow() {
+    AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 8);
+    run(limiter, now, 5);
+
+    run(limiter, now, 11);
+
+    assertThat(limiter.getLimit()).isEqualTo(2);
+  }
+
+  @Test
+  void execute_decreasesTheLimit_whenTheHostIsOverloaded_butNotBelowTheMinimum() {
+    AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 8);
+    overloaded.set(true);
+
+    for (int i = 0; i < 5; i++) {
+      run(limiter, now, 5);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(1);
+  }
+
+  @Test
+  void execute_decreasesTheLimit_whenTheRequestFails() {
+    AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 8);
+    run(limiter, now, 1);
+
+    assertThatThrownBy(
+            () ->
+                limiter.execute(
+                    () -> {
+                      now.addAndGet(Duration.ofMinutes(10).toNanos());
+                      throw new IllegalStateException("boom");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+
+    assertThat(limiter.getInFlight()).isZero();
+    assertThat(limiter.getLimit()).isEqualTo(2);
+  }
+
+  @Test
+  void execute_doesNotCountTheLatencyOfFailedRequests() {
+    AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 8);
+    run(limiter, now, 5);
+    assertThatThrownBy(
+            () ->
+                limiter.execute(
+                    () -> {
+                      now.addAndGet(Duration.ofMinutes(10).toNanos());
+                      throw new IllegalStateException("timed out");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+
+    run(limiter, now, 11);
+
+    assertThat(limiter.getLimit()).isEqualTo(1);
+  }
+
+  @Test
+  void execute_capsTheSuggestedRetryDelay() {
+    AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 1);
+    run(limiter, now, 600);
+
+    limiter.execute(
+        () -> {
+          assertThatThrownBy(() -> run(limiter, now, 1))
+              .isInstanceOfSatisfying(
+                  ConcurrencyLimitExceededException.class,
+                  ex -> assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(30)));
+          return null;
+        });
+  }
+}
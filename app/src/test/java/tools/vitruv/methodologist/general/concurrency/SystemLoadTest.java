@@ -0,0 +1,84 @@
+package tools.vitruv.methodologist.general.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.OptionalDouble;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SystemLoadTest {
+
+  @TempDir Path cgroupRoot;
+
+  @Test
+  void effectiveCpus_usesTheCgroupV2Quota_roundedUp() throws IOException {
+    Files.writeString(cgroupRoot.resolve("cpu.max"), "150000 100000\n");
+
+    assertThat(SystemLoad.effectiveCpus(cgroupRoot, 8)).isEqualTo(2);
+  }
+
+  @Test
+  void effectiveCpus_usesTheProcessorCount_whenTheCgroupV2QuotaIsUnlimited() throws IOException {
+    Files.writeString(cgroupRoot.resolve("cpu.max"), "max 100000\n");
+
+    assertThat(SystemLoad.effectiveCpus(cgroupRoot, 8)).isEqualTo(8);
+  }
+
+  @Test
+  void effectiveCpus_usesTheCgroupV1Quota() throws IOException {
+    Path cpu = Files.createDirectory(cgroupRoot.resolve("cpu,cpuacct"));
+    Files.writeString(cpu.resolve("cpu.cfs_quota_us"), "300000\n");
+    Files.writeString(cpu.resolve("cpu.cfs_period_us"), "100000\n");
+
+    assertThat(SystemLoad.effectiveCpus(cgroupRoot, 8)).isEqualTo(3);
+  }
+
+  @Test
+  void effectiveCpus_ignoresAnUnlimitedCgroupV1Quota() throws IOException {
+    Path cpu = Files.createDirectory(cgroupRoot.resolve("cpu"));
+    Files.writeString(cpu.resolve("cpu.cfs_quota_us"), "-1\n");
+    Files.writeString(cpu.resolve("cpu.cfs_period_us"), "100000\n");
+
+    assertThat(SystemLoad.effectiveCpus(cgroupRoot, 4)).isEqualTo(4);
+  }
+
+  @Test
+  void effectiveCpus_neverExceedsTheProcessorCount_andIsAtLeastOne() throws IOException {
+    Files.writeString(cgroupRoot.resolve("cpu.max"), "1600000 100000\n");
+
+    assertThat(SystemLoad.effectiveCpus(cgroupRoot, 4)).isEqualTo(4);
+    assertThat(SystemLoad.effectiveCpus(cgroupRoot.resolve("missing"), 0)).isEqualTo(1);
+  }
+
+  @Test
+  void availableMemoryShare_readsMemAvailable() throws IOException {
+    Path meminfo = cgroupRoot.resolve("meminfo");
+    Files.writeString(
+        meminfo,
+        """
+        MemTotal:       16000000 kB
+        MemFree:         1000000 kB
+        MemAvailable:    4000000 kB
+        """);
+
+    assertThat(SystemLoad.availableMemoryShare(meminfo)).hasValue(0.25);
+  }
+
+  @Test
+  void availableMemoryShare_isEmpty_whenMemAvailableIsMissing() throws IOException {
+    Path meminfo = cgroupRoot.resolve("meminfo");
+    Files.writeString(meminfo, "MemTotal:       16000000 kB\n");
+
+    assertThat(SystemLoad.availableMemoryShare(meminfo)).isEqualTo(OptionalDouble.empty());
+    assertThat(SystemLoad.availableMemoryShare(cgroupRoot.resolve("missing"))).isEmpty();
+  }
+
+  @Test
+  void isOverloaded_reportsTheHostAsOverloaded_whenNoMemoryMayBeFree() {
+    assertThat(new SystemLoad(1.0, 1.1, 1).isOverloaded()).isTrue();
+    assertThat(new SystemLoad(1.1, 0.0, 1).isOverloaded()).isFalse();
+  }
+}
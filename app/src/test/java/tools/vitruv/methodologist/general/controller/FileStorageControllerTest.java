@@ -0,0 +1,201 @@
+package tools.vitruv.methodologist.general.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.vitruv.methodologist.general.FileEnumType;
+import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.service.FileStorageService;
+
+@ExtendWith(MockitoExtension.class)
+class FileStorageControllerTest {
+
+  private static final byte[] CONTENT =
+      "<?xml version=\"1.0\"?><ecore:EPackage name=\"model\"/>".repeat(40).getBytes();
+  private static final String SHA = "abc123";
+
+  @Mock FileStorageService fileStorageService;
+
+  private FileStorageController controller;
+  private FileStorage file;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    controller = new FileStorageController(fileStorageService, DataSize.ofBytes(64));
+
+    file =
+        FileStorage.builder()
+            .id(1L)
+            .filename("model.ecore")
+            .contentType("application/xml")
+            .type(FileEnumType.ECORE)
+            .sizeBytes(CONTENT.length)
+            .sha256(SHA)
+            .build();
+    when(fileStorageService.getFile(1L)).thenReturn(file);
+    lenient()
+        .doAnswer(
+            inv -> {
+              long offset = inv.getArgument(1);
+              long length = inv.getArgument(2);
+              OutputStream out = inv.getArgument(3);
+              out.write(CONTENT, (int) offset, (int) length);
+              return null;
+            })
+        .when(fileStorageService)
+        .streamContent(eq(file), anyLong(), anyLong(), any(OutputStream.class));
+  }
+
+  @Test
+  void download_withoutRange_streamsFullContent() throws IOException {
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, new HttpHeaders());
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getContentLength()).isEqualTo(CONTENT.length);
+    assertThat(response.getHeaders().getETag()).isEqualTo("\"" + SHA + "\"");
+    assertThat(response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+        .isEqualTo("attachment; filename=\"model.ecore\"");
+    assertThat(body(response)).isEqualTo(CONTENT);
+    verify(fileStorageService).streamContent(eq(file), eq(0L), eq((long) CONTENT.length), any());
+  }
+
+  @Test
+  void download_withSingleRange_returnsPartialContent() throws IOException {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RANGE, "bytes=10-19");
+
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, headers);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE))
+        .isEqualTo("bytes 10-19/" + CONTENT.length);
+    assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(body(response)).isEqualTo(Arrays.copyOfRange(CONTENT, 10, 20));
+  }
+
+  @Test
+  void download_withSuffixRange_returnsTail() throws IOException {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RANGE, "bytes=-5");
+
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, headers);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+    assertThat(body(response))
+        .isEqualTo(Arrays.copyOfRange(CONTENT, CONTENT.length - 5, CONTENT.length));
+  }
+
+  @Test
+  void download_withRangeBeyondContent_returnsRangeNotSatisfiable() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RANGE, "bytes=" + CONTENT.length + "-");
+
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, headers);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE))
+        .isEqualTo("bytes */" + CONTENT.length);
+    assertThat(response.getBody()).isNull();
+  }
+
+  @Test
+  void download_withStaleIfRange_ignoresRange() throws IOException {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RANGE, "bytes=10-19");
+    headers.set(HttpHeaders.IF_RANGE, "\"outdated\"");
+
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, headers);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(body(response)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  void download_withMatchingIfNoneMatch_returnsNotModified() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setIfNoneMatch("\"" + SHA + "\"");
+
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, headers);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(response.getBody()).isNull();
+    verify(fileStorageService).getFile(1L);
+    verifyNoMoreInteractions(fileStorageService);
+  }
+
+  @Test
+  void download_xmlFileAcceptingGzip_isCompressed() throws IOException {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, headers);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(response.getHeaders().getETag()).isEqualTo("W/\"" + SHA + "\"");
+    assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+    assertThat(response.getHeaders().getContentLength()).isEqualTo(-1);
+
+    byte[] compressed = body(response);
+    assertThat(compressed.length).isLessThan(CONTENT.length);
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      assertThat(in.readAllBytes()).isEqualTo(CONTENT);
+    }
+  }
+
+  @Test
+  void download_gzipWithZeroQuality_isNotCompressed() throws IOException {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, headers);
+
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(body(response)).isEqualTo(CONTENT);
+  }
+
+  @Test
+  void download_nonXmlFileType_isNotCompressed() throws IOException {
+    file.setType(FileEnumType.OCL);
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+    ResponseEntity<StreamingResponseBody> response = controller.download(1L, headers);
+
+    assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(response.getHeaders().getVary()).isEmpty();
+    assertThat(new String(body(response), StandardCharsets.UTF_8))
+        .isEqualTo(new String(CONTENT, StandardCharsets.UTF_8));
+  }
+
+  private static byte[] body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    response.getBody().writeTo(out);
+    return out.toByteArray();
+  }
+}
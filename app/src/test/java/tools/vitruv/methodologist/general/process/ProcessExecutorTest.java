@@ -0,0 +1,188 @@
+package tools.vitruv.methodologist.general.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.springframework.util.unit.DataSize;
+
+@DisabledOnOs(OS.WINDOWS)
+class ProcessExecutorTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ProcessExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    executor =
+        new ProcessExecutor(2, 1, Duration.ofSeconds(5), DataSize.ofKilobytes(64), meterRegistry);
+  }
+
+  private static ProcessRequest shell(String script, Duration timeout) {
+    return ProcessRequest.builder()
+        .name("test")
+        .command(List.of("sh", "-c", script))
+        .timeout(timeout)
+        .build();
+  }
+
+  @Test
+  void run_capturesStdoutAndStderrSeparately() throws Exception {
+    ProcessResult result =
+        executor.run(shell("echo out; echo err >&2; exit 3", Duration.ofSeconds(10)));
+
+    assertThat(result.getExitCode()).isEqualTo(3);
+    assertThat(result.getStdout()).isEqualTo("out\n");
+    assertThat(result.getStderr()).isEqualTo("err\n");
+    assertThat(result.isTimedOut()).isFalse();
+    assertThat(result.isSuccess()).isFalse();
+  }
+
+  @Test
+  void run_drainsBothStreamsWhileRunning_andKeepsTheEndOfLargeOutput() throws Exception {
+    ProcessResult result =
+        executor.run(
+            shell(
+                "head -c 1048576 /dev/zero >&2; head -c 1048576 /dev/zero; echo tail",
+                Duration.ofSeconds(30)));
+
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(result.getStdout()).startsWith("...(truncated ").endsWith("tail\n");
+    assertThat(result.getStderr()).startsWith("...(truncated ");
+  }
+
+  @Test
+  void run_redirectsStderrIntoStdout_whenRequested() throws Exception {
+    ProcessResult result =
+        executor.run(
+            ProcessRequest.builder()
+                .name("test")
+                .command(List.of("sh", "-c", "echo out; echo err >&2"))
+                .redirectErrorStream(true)
+                .build());
+
+    assertThat(result.getStdout()).contains("out", "err");
+    assertThat(result.getStderr()).isEmpty();
+  }
+
+  @Test
+  void run_killsTheProcess_whenItTimesOut() throws Exception {
+    ProcessResult result = executor.run(shell("echo started; sleep 30", Duration.ofMillis(300)));
+
+    assertThat(result.isTimedOut()).isTrue();
+    assertThat(result.getExitCode()).isEqualTo(-1);
+    assertThat(result.getStdout()).isEqualTo("started\n");
+    assertThat(result.getWallTime()).isLessThan(Duration.ofSeconds(10));
+    assertThat(meterRegistry.get("process.wall.time").tag("outcome", "timeout").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void run_failsWithIoException_whenNoSlotBecomesFree() throws Exception {
+    meterRegistry = new SimpleMeterRegistry();
+    executor =
+        new ProcessExecutor(1, 1, Duration.ofMillis(200), DataSize.ofKilobytes(64), meterRegistry);
+    CompletableFuture<ProcessResult> blocker =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return executor.run(shell("sleep 2", Duration.ofSeconds(10)));
+              } catch (Exception e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    awaitRunning(1);
+
+    assertThatThrownBy(() -> executor.run(shell("true", Duration.ofSeconds(10))))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("No slot");
+    assertThat(blocker.get(10, TimeUnit.SECONDS).isSuccess()).isTrue();
+  }
+
+  @Test
+  void run_killsTheProcess_whenTheCallerIsInterrupted() throws Exception {
+    AtomicReference<Process> started = new AtomicReference<>();
+    AtomicReference<Throwable> thrown = new AtomicReference<>();
+    CountDownLatch finished = new CountDownLatch(1);
+    Thread caller =
+        Thread.ofPlatform()
+            .start(
+                () -> {
+                  try {
+                    executor.run(
+                        shell("sleep 30", null),
+                        request -> {
+                          Process process = new ProcessBuilder(request.getCommand()).start();
+                          started.set(process);
+                          return process;
+                        });
+                  } catch (Exception e) {
+                    thrown.set(e);
+                  } finally {
+                    finished.countDown();
+                  }
+                });
+    awaitRunning(1);
+
+    caller.interrupt();
+
+    assertThat(finished.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(thrown.get()).isInstanceOf(InterruptedException.class);
+    assertThat(started.get().waitFor(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(meterRegistry.get("process.wall.time").tag("outcome", "cancelled").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void run_recordsWallTimeAndRunningGauge() throws Exception {
+    executor.run(shell("true", Duration.ofSeconds(10)));
+
+    assertThat(
+            meterRegistry
+                .get("process.wall.time")
+                .tag("name", "test")
+                .tag("outcome", "success")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("process.running").gauge().value()).isZero();
+    assertThat(meterRegistry.get("process.queued").gauge().value()).isZero();
+  }
+
+  @Test
+  void start_failsFast_whenTheInteractiveLimitIsReached() throws Exception {
+    Process process = executor.start(shell("sleep 30", null));
+    try {
+      assertThatThrownBy(() -> executor.start(shell("sleep 30", null)))
+          .isInstanceOf(IOException.class)
+          .hasMessageContaining("Too many test processes");
+    } finally {
+      executor.destroy(process);
+    }
+
+    assertThat(process.isAlive()).isFalse();
+    awaitRunning(0);
+    Process next = executor.start(shell("true", null));
+    assertThat(next.waitFor(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private void awaitRunning(int expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (meterRegistry.get("process.running").gauge().value() != expected) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package tools.vitruv.methodologist.general.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.vitruv.methodologist.general.model.repository.FileContentRepository;
+import tools.vitruv.methodologist.general.storage.BlobStore;
+
+class BlobStoreReconciliationServiceTest {
+
+  private BlobStore blobStore;
+  private FileContentRepository fileContentRepository;
+  private BlobStoreReconciliationService service;
+
+  @BeforeEach
+  void setUp() {
+    blobStore = mock(BlobStore.class);
+    fileContentRepository = mock(FileContentRepository.class);
+    service =
+        new BlobStoreReconciliationService(
+            null, blobStore, fileContentRepository, 2, Duration.ofHours(1));
+    ReflectionTestUtils.setField(service, "self", service);
+  }
+
+  @Test
+  void reconcile_registersOnlyUnknownKeys_inBatches() throws IOException {
+    when(blobStore.keys(any())).thenReturn(Stream.of("a", "b", "c"));
+    when(fileContentRepository.findStorageKeysIn(List.of("a", "b"))).thenReturn(List.of("a"));
+    when(fileContentRepository.findStorageKeysIn(List.of("c"))).thenReturn(List.of());
+
+    service.reconcile();
+
+    verify(fileContentRepository, never()).registerUnknown("a");
+    verify(fileContentRepository).registerUnknown("b");
+    verify(fileContentRepository).registerUnknown("c");
+  }
+
+  @Test
+  void reconcile_listsOnlyContentOlderThanTheGracePeriod() throws IOException {
+    ArgumentCaptor<Instant> writtenBefore = ArgumentCaptor.forClass(Instant.class);
+    when(blobStore.keys(writtenBefore.capture())).thenReturn(Stream.empty());
+
+    service.reconcile();
+
+    assertThat(writtenBefore.getValue()).isBefore(Instant.now().minus(Duration.ofMinutes(59)));
+    verify(fileContentRepository, never()).findStorageKeysIn(any());
+  }
+
+  @Test
+  void reconcile_listingFails_registersNothing() throws IOException {
+    when(blobStore.keys(any())).thenThrow(new IOException("down"));
+
+    service.reconcile();
+
+    verify(fileContentRepository, never()).registerUnknown(any());
+  }
+}
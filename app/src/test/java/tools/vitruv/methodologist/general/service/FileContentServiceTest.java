@@ -0,0 +1,122 @@
+package tools.vitruv.methodologist.general.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.vitruv.methodologist.exception.FileContentException;
+import tools.vitruv.methodologist.general.model.FileContent;
+import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.model.repository.FileContentRepository;
+import tools.vitruv.methodologist.general.storage.BlobStore;
+import tools.vitruv.methodologist.general.storage.ContentCodec;
+
+class FileContentServiceTest {
+
+  private FileContentRepository fileContentRepository;
+  private BlobStore blobStore;
+  private FileContentService service;
+
+  @BeforeEach
+  void setUp() {
+    fileContentRepository = mock(FileContentRepository.class);
+    blobStore = mock(BlobStore.class);
+    service =
+        new FileContentService(null, fileContentRepository, blobStore, 2, Duration.ofHours(1));
+    ReflectionTestUtils.setField(service, "self", service);
+  }
+
+  @Test
+  void acquire_upsertsReference() {
+    FileStorage file =
+        FileStorage.builder()
+            .storageKey("abcd-deflate")
+            .sha256("abcd")
+            .sizeBytes(40)
+            .codec(ContentCodec.DEFLATE)
+            .storedSizeBytes(12)
+            .build();
+
+    service.acquire(file);
+
+    verify(fileContentRepository).acquire("abcd-deflate", "abcd", 40, "DEFLATE", 12);
+  }
+
+  @Test
+  void release_nullKey_isIgnored() {
+    service.release(null);
+
+    verifyNoInteractions(fileContentRepository);
+  }
+
+  @Test
+  void release_decrementsReference() {
+    service.release("abcd");
+
+    verify(fileContentRepository).release("abcd");
+  }
+
+  @Test
+  void collectGarbage_marksAllPages_thenSweepsUntilBatchIsNotFull() throws IOException {
+    when(fileContentRepository.findIdsAfter(0, PageRequest.of(0, 2))).thenReturn(List.of(1L, 2L));
+    when(fileContentRepository.findIdsAfter(2, PageRequest.of(0, 2))).thenReturn(List.of(5L));
+    when(fileContentRepository.findIdsAfter(5, PageRequest.of(0, 2))).thenReturn(List.of());
+    when(fileContentRepository.lockSweepable(3600, 2))
+        .thenReturn(List.of(content(1L, "aaaa"), content(2L, "bbbb")))
+        .thenReturn(List.of(content(5L, "cccc")));
+
+    service.collectGarbage();
+
+    verify(fileContentRepository).markUnreferenced(List.of(1L, 2L));
+    verify(fileContentRepository).markUnreferenced(List.of(5L));
+    InOrder order = inOrder(blobStore, fileContentRepository);
+    order.verify(blobStore).delete("aaaa");
+    order.verify(blobStore).delete("bbbb");
+    order
+        .verify(fileContentRepository)
+        .deleteAll(List.of(content(1L, "aaaa"), content(2L, "bbbb")));
+    order.verify(blobStore).delete("cccc");
+    order.verify(fileContentRepository).deleteAll(List.of(content(5L, "cccc")));
+  }
+
+  @Test
+  void sweepBatch_storeFailure_keepsRegistryRows() throws IOException {
+    when(fileContentRepository.lockSweepable(anyLong(), anyInt()))
+        .thenReturn(List.of(content(1L, "aaaa")));
+    doThrow(new IOException("permission denied")).when(blobStore).delete("aaaa");
+
+    assertThatThrownBy(() -> service.sweepBatch()).isInstanceOf(FileContentException.class);
+
+    verify(fileContentRepository, never()).deleteAll(any());
+  }
+
+  @Test
+  void sweepBatch_usesGracePeriodInSeconds() {
+    when(fileContentRepository.lockSweepable(eq(3600L), eq(2))).thenReturn(List.of());
+
+    service.sweepBatch();
+
+    verify(fileContentRepository).lockSweepable(3600L, 2);
+  }
+
+  private static FileContent content(Long id, String key) {
+    return FileContent.builder().id(id).storageKey(key).sha256(key).sizeBytes(4).build();
+  }
+}
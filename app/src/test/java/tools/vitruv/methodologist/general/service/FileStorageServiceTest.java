@@ -1,32 +1,74 @@
 package tools.vitruv.methodologist.general.service;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import jakarta.persistence.Lob;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.util.unit.DataSize;
+import tools.vitruv.methodologist.exception.FileAlreadyExistsException;
+import tools.vitruv.methodologist.exception.FileContentException;
 import tools.vitruv.methodologist.exception.NotFoundException;
 import tools.vitruv.methodologist.general.FileEnumType;
 import tools.vitruv.methodologist.general.controller.responsedto.FileStorageResponse;
 import tools.vitruv.methodologist.general.mapper.FileStorageMapper;
 import tools.vitruv.methodologist.general.model.FileStorage;
 import tools.vitruv.methodologist.general.model.repository.FileStorageRepository;
+import tools.vitruv.methodologist.general.storage.CompressionPolicy;
+import tools.vitruv.methodologist.general.storage.ContentCodec;
+import tools.vitruv.methodologist.general.storage.ContentSpooler;
+import tools.vitruv.methodologist.general.storage.InMemoryBlobStore;
+import tools.vitruv.methodologist.general.storage.SpooledContent;
+import tools.vitruv.methodologist.general.storage.ZipStreamWriter;
 import tools.vitruv.methodologist.user.model.User;
 import tools.vitruv.methodologist.user.model.repository.UserRepository;
 
@@ -39,6 +81,19 @@ class FileStorageServiceTest {
 
   @Mock private FileStorageMapper fileStorageMapper;
 
+  @Mock private FileContentService fileContentService;
+
+  @Spy
+  private ContentSpooler contentSpooler =
+      new ContentSpooler(
+          DataSize.ofKilobytes(64), Path.of(System.getProperty("java.io.tmpdir")), 2);
+
+  @Spy private InMemoryBlobStore blobStore = new InMemoryBlobStore();
+
+  @Spy private CompressionPolicy compressionPolicy = new CompressionPolicy(true, 6);
+
+  @Mock private PlatformTransactionManager transactionManager;
+
   @InjectMocks private FileStorageService fileStorageService;
 
   private User testUser;
@@ -59,7 +114,7 @@ class FileStorageServiceTest {
     testFileStorage.setFilename("test.txt");
     testFileStorage.setContentType("text/plain");
     testFileStorage.setUser(testUser);
-    testFileStorage.setData(fileContent);
+    testFileStorage.setStorageKey(blobStore.store(fileContent));
     testFileStorage.setSizeBytes(fileContent.length);
     testFileStorage.setType(FileEnumType.GEN_MODEL);
   }
@@ -108,6 +163,125 @@ class FileStorageServiceTest {
         () -> fileStorageService.storeFile("test@example.com", emptyFile, FileEnumType.GEN_MODEL));
   }
 
+  @Test
+  void storeUpload_duplicateContent_throwsFileAlreadyExistsException() {
+    SpooledContent content = SpooledContent.of("Hello, World!".getBytes());
+    when(fileStorageRepository.existsByUserAndSha256AndSizeBytes(
+            testUser, content.sha256(), content.size()))
+        .thenReturn(true);
+
+    assertThrows(
+        FileAlreadyExistsException.class,
+        () ->
+            fileStorageService.storeUpload(
+                testUser, content, "test.txt", null, FileEnumType.GEN_MODEL));
+    verify(fileStorageRepository, never()).save(any());
+    verifyNoInteractions(fileContentService);
+  }
+
+  @Test
+  void storeUpload_newContent_storesFileWithGivenMetadata() {
+    SpooledContent content = SpooledContent.of("Hello, World!".getBytes());
+
+    fileStorageService.storeUpload(testUser, content, "test.txt", null, FileEnumType.GEN_MODEL);
+
+    verify(fileStorageRepository)
+        .save(
+            argThat(
+                file ->
+                    file.getFilename().equals("test.txt")
+                        && file.getContentType().equals("application/octet-stream")
+                        && file.getSha256().equals(content.sha256())
+                        && file.getUser() == testUser));
+  }
+
+  @Test
+  void storeFiles_newFiles_checksDuplicatesOnceAndSavesAllInOneBatch() throws Exception {
+    MockMultipartFile ecore =
+        new MockMultipartFile("files", "model.ecore", "application/xml", "ecore".getBytes());
+    MockMultipartFile genModel =
+        new MockMultipartFile("files", "model.genmodel", null, "genmodel".getBytes());
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+    when(fileStorageRepository.findByUserAndSha256In(eq(testUser), anyList()))
+        .thenReturn(List.of());
+
+    List<FileStorageResponse> responses =
+        fileStorageService.storeFiles(
+            "test@example.com",
+            List.of(ecore, genModel),
+            List.of(FileEnumType.ECORE, FileEnumType.GEN_MODEL));
+
+    assertEquals(2, responses.size());
+    verify(fileStorageRepository)
+        .findByUserAndSha256In(
+            testUser,
+            List.of(
+                SpooledContent.of("ecore".getBytes()).sha256(),
+                SpooledContent.of("genmodel".getBytes()).sha256()));
+    verify(fileStorageRepository)
+        .saveAll(
+            argThat(
+                (List<FileStorage> files) ->
+                    files.size() == 2
+                        && files.get(0).getFilename().equals("model.ecore")
+                        && files.get(0).getType() == FileEnumType.ECORE
+                        && files.get(1).getType() == FileEnumType.GEN_MODEL
+                        && files.get(1).getContentType().equals("application/octet-stream")));
+    verify(fileStorageRepository, never()).save(any());
+  }
+
+  @Test
+  void storeFiles_contentAlreadyStored_throwsFileAlreadyExistsException() {
+    MockMultipartFile ecore =
+        new MockMultipartFile("files", "model.ecore", "application/xml", "ecore".getBytes());
+    FileStorage existing = new FileStorage();
+    existing.setSha256(SpooledContent.of("ecore".getBytes()).sha256());
+    existing.setSizeBytes("ecore".length());
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+    when(fileStorageRepository.findByUserAndSha256In(eq(testUser), anyList()))
+        .thenReturn(List.of(existing));
+
+    assertThrows(
+        FileAlreadyExistsException.class,
+        () ->
+            fileStorageService.storeFiles(
+                "test@example.com", List.of(ecore), List.of(FileEnumType.ECORE)));
+    verify(fileStorageRepository, never()).saveAll(any());
+    verifyNoInteractions(fileContentService);
+  }
+
+  @Test
+  void storeFiles_sameContentTwice_throwsFileAlreadyExistsException() {
+    MockMultipartFile first =
+        new MockMultipartFile("files", "a.reactions", "text/plain", "reaction".getBytes());
+    MockMultipartFile second =
+        new MockMultipartFile("files", "b.reactions", "text/plain", "reaction".getBytes());
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+
+    assertThrows(
+        FileAlreadyExistsException.class,
+        () ->
+            fileStorageService.storeFiles(
+                "test@example.com",
+                List.of(first, second),
+                List.of(FileEnumType.REACTION, FileEnumType.REACTION)));
+    verify(fileStorageRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void storeFiles_typesDoNotMatchFiles_throwsIllegalArgumentException() {
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> fileStorageService.storeFiles("test@example.com", List.of(testFile), List.of()));
+    verifyNoInteractions(contentSpooler);
+  }
+
   @Test
   void getFile_existingFile_returnsFile() {
     when(fileStorageRepository.findById(1L)).thenReturn(Optional.of(testFileStorage));
@@ -129,7 +303,7 @@ class FileStorageServiceTest {
   void clone_success() {
     FileStorage clonedStorage = new FileStorage();
     clonedStorage.setId(2L);
-    clonedStorage.setData(testFileStorage.getData());
+    clonedStorage.setStorageKey(testFileStorage.getStorageKey());
     clonedStorage.setFilename(testFileStorage.getFilename());
     clonedStorage.setContentType(testFileStorage.getContentType());
     clonedStorage.setType(testFileStorage.getType());
@@ -144,6 +318,7 @@ class FileStorageServiceTest {
     assertEquals(testFileStorage.getFilename(), result.getFilename());
     assertEquals(testFileStorage.getContentType(), result.getContentType());
     verify(fileStorageRepository).save(clonedStorage);
+    verify(fileContentService).acquire(clonedStorage);
   }
 
   @Test
@@ -157,8 +332,13 @@ class FileStorageServiceTest {
     FileStorage file1 = new FileStorage();
     FileStorage file2 = new FileStorage();
 
+    file1.setStorageKey("aaaa");
+    file2.setStorageKey("bbbb");
+
     fileStorageService.deleteFiles(Arrays.asList(file1, file2));
 
+    verify(fileContentService).release("aaaa");
+    verify(fileContentService).release("bbbb");
     verify(fileStorageRepository).deleteAll(Arrays.asList(file1, file2));
   }
 
@@ -196,7 +376,7 @@ class FileStorageServiceTest {
                         && "new.txt".equals(fs.getFilename())
                         && "text/plain".equals(fs.getContentType())
                         && fs.getType() == FileEnumType.REACTION
-                        && Arrays.equals(fs.getData(), "new-content".getBytes())));
+                        && Arrays.equals(contentOf(fs), "new-content".getBytes())));
   }
 
   @Test
@@ -276,6 +456,7 @@ class FileStorageServiceTest {
     fileStorageService.remove(email, id);
 
     verify(fileStorageRepository).findByIdAndUser_EmailAndUser_RemovedAtIsNull(id, email);
+    verify(fileContentService).release(testFileStorage.getStorageKey());
     verify(fileStorageRepository).delete(testFileStorage);
   }
 
@@ -291,7 +472,7 @@ class FileStorageServiceTest {
   }
 
   @Test
-  void overwriteStoredContent_updatesDerivedMetadataAndSaves() {
+  void overwriteStoredContent_updatesDerivedMetadataAndSaves() throws IOException {
     byte[] newData = "updated-genmodel".getBytes();
     when(fileStorageRepository.save(any(FileStorage.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -300,13 +481,362 @@ class FileStorageServiceTest {
     assertNotNull(result);
     assertEquals(newData.length, result.getSizeBytes());
     assertEquals(testFileStorage, result);
+    String newKey = result.getCodec().storageKey(InMemoryBlobStore.keyOf(newData));
+    assertEquals(newKey, result.getStorageKey());
+    InOrder order = inOrder(fileContentService, blobStore);
+    order.verify(fileContentService).acquire(testFileStorage);
+    order.verify(blobStore).put(eq(newKey), any(), eq(result.getStoredSizeBytes()));
+    order.verify(fileContentService).release(InMemoryBlobStore.keyOf("Hello, World!".getBytes()));
     verify(fileStorageRepository)
         .save(
             argThat(
                 file ->
                     file == testFileStorage
-                        && Arrays.equals(file.getData(), newData)
+                        && Arrays.equals(contentOf(file), newData)
                         && file.getSha256() != null
                         && !file.getSha256().isBlank()));
   }
+
+  @Test
+  void storeFile_hashesStreamedContent() throws Exception {
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+    when(fileStorageRepository.existsByUserAndSha256AndSizeBytes(any(), any(), anyLong()))
+        .thenReturn(false);
+
+    fileStorageService.storeFile("test@example.com", testFile, FileEnumType.GEN_MODEL);
+
+    verify(fileStorageRepository)
+        .save(
+            argThat(
+                file ->
+                    file.getSizeBytes() == 13
+                        && "dffd6021bb2bd5b0af676290809ec3a53191dd81c7f70a4b28688a362182986f"
+                            .equals(file.getSha256())
+                        && Arrays.equals(contentOf(file), "Hello, World!".getBytes())));
+  }
+
+  @Test
+  void readContent_readsDetachedFileFromBlobStore() {
+    FileStorage detached = new FileStorage();
+    detached.setId(1L);
+    detached.setStorageKey(testFileStorage.getStorageKey());
+
+    byte[] result = fileStorageService.readContent(detached);
+
+    assertArrayEquals("Hello, World!".getBytes(), result);
+    verifyNoInteractions(fileStorageRepository);
+  }
+
+  @Test
+  void readContent_withoutContent_returnsEmptyArray() {
+    FileStorage transientFile = new FileStorage();
+
+    assertArrayEquals(new byte[0], fileStorageService.readContent(transientFile));
+  }
+
+  @Test
+  void copyContent_writesContentToTarget(@TempDir Path tempDir) throws IOException {
+    Path target = tempDir.resolve("test.txt");
+
+    fileStorageService.copyContent(testFileStorage, target);
+
+    assertArrayEquals("Hello, World!".getBytes(), Files.readAllBytes(target));
+  }
+
+  @Test
+  void spoolContent_copiesContentForReadingOutsideTheTransaction() throws IOException {
+    try (SpooledContent content = fileStorageService.spoolContent(testFileStorage);
+        InputStream in = content.asResource().getInputStream()) {
+      assertEquals(13, content.size());
+      assertArrayEquals("Hello, World!".getBytes(), in.readAllBytes());
+    }
+  }
+
+  @Test
+  void newFile_setsDerivedMetadataWithoutSaving() {
+    byte[] data = "context Foo inv: true".getBytes();
+
+    FileStorage result =
+        fileStorageService.newFile(testUser, "rules.ocl", FileEnumType.OCL, "text/plain", data);
+
+    assertEquals(data.length, result.getSizeBytes());
+    assertEquals(testUser, result.getUser());
+    assertNotNull(result.getSha256());
+    assertArrayEquals(data, contentOf(result));
+    verifyNoInteractions(fileStorageRepository);
+  }
+
+  @Test
+  void streamContent_writesRequestedRange() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    fileStorageService.streamContent(testFileStorage, 7, 5, out);
+
+    assertArrayEquals("World".getBytes(), out.toByteArray());
+    verifyNoInteractions(transactionManager, fileStorageRepository);
+  }
+
+  @Test
+  void streamContent_storeReadWithinTransaction_streamsInReadOnlyTransaction() throws IOException {
+    doReturn(true).when(blobStore).readsWithinTransaction();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    fileStorageService.streamContent(testFileStorage, 0, 5, out);
+
+    assertArrayEquals("Hello".getBytes(), out.toByteArray());
+    verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    verify(transactionManager).commit(any());
+  }
+
+  @Test
+  void storeFile_putsContentIntoBlobStoreUnderItsHash() throws Exception {
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+    byte[] data = "fresh content".getBytes();
+    MockMultipartFile upload = new MockMultipartFile("file", "fresh.txt", "text/plain", data);
+
+    fileStorageService.storeFile("test@example.com", upload, FileEnumType.ECORE);
+
+    String sha256 = InMemoryBlobStore.keyOf(data);
+    verify(fileStorageRepository)
+        .save(
+            argThat(
+                file ->
+                    file.getCodec().storageKey(sha256).equals(file.getStorageKey())
+                        && sha256.equals(file.getSha256())
+                        && Arrays.equals(contentOf(file), data)));
+  }
+
+  @Test
+  void writeZipEntry_deflatedContent_isCopiedWithoutRecompression() throws Exception {
+    byte[] data = ecoreModel(50);
+    byte[] deflated = ContentCodec.DEFLATE.encode(new ByteArrayInputStream(data), 6).readAllBytes();
+    String key = ContentCodec.DEFLATE.storageKey(InMemoryBlobStore.keyOf(data));
+    blobStore.put(key, new ByteArrayInputStream(deflated), deflated.length);
+    FileStorage file =
+        FileStorage.builder()
+            .id(7L)
+            .filename("model.reactions")
+            .storageKey(key)
+            .codec(ContentCodec.DEFLATE)
+            .sizeBytes(data.length)
+            .storedSizeBytes(deflated.length)
+            .build();
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+    try (ZipStreamWriter zip = new ZipStreamWriter(archive)) {
+      fileStorageService.writeZipEntry(zip, "reactions/1/model.reactions", file);
+    }
+
+    assertNotEquals(
+        -1, Collections.indexOfSubList(asList(archive.toByteArray()), asList(deflated)));
+    Map<String, byte[]> entries = unzip(archive.toByteArray());
+    assertEquals(Set.of("reactions/1/model.reactions"), entries.keySet());
+    assertArrayEquals(data, entries.get("reactions/1/model.reactions"));
+  }
+
+  @Test
+  void writeZipEntry_dictionaryContent_isDecodedAndDeflated() throws Exception {
+    byte[] data = ecoreModel(50);
+    MockMultipartFile upload =
+        new MockMultipartFile("file", "model.ecore", "application/xml", data);
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+    fileStorageService.storeFile("test@example.com", upload, FileEnumType.ECORE);
+    ArgumentCaptor<FileStorage> saved = ArgumentCaptor.forClass(FileStorage.class);
+    verify(fileStorageRepository).save(saved.capture());
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+    try (ZipStreamWriter zip = new ZipStreamWriter(archive)) {
+      fileStorageService.writeZipEntry(zip, "metamodels/1/model.ecore", saved.getValue());
+    }
+
+    Map<String, byte[]> entries = unzip(archive.toByteArray());
+    assertEquals(Set.of("metamodels/1/model.ecore"), entries.keySet());
+    assertArrayEquals(data, entries.get("metamodels/1/model.ecore"));
+  }
+
+  @Test
+  void storeFile_compressibleModel_storesDeflatedContent() throws Exception {
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+    byte[] data = ecoreModel(50);
+    MockMultipartFile upload =
+        new MockMultipartFile("file", "model.ecore", "application/xml", data);
+
+    fileStorageService.storeFile("test@example.com", upload, FileEnumType.ECORE);
+
+    String sha256 = InMemoryBlobStore.keyOf(data);
+    String key = sha256 + "-deflate-emf1";
+    verify(fileStorageRepository)
+        .save(
+            argThat(
+                file ->
+                    file.getCodec() == ContentCodec.DEFLATE_EMF
+                        && key.equals(file.getStorageKey())
+                        && sha256.equals(file.getSha256())
+                        && file.getSizeBytes() == data.length
+                        && file.getStoredSizeBytes() == blobStore.content(key).length
+                        && file.getStoredSizeBytes() < data.length / 4));
+    verify(fileContentService).acquire(argThat(file -> key.equals(file.getStorageKey())));
+  }
+
+  @Test
+  void storeFile_incompressibleContent_storesRawContent() throws Exception {
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+    byte[] data = new byte[4096];
+    new Random(42).nextBytes(data);
+    MockMultipartFile upload = new MockMultipartFile("file", "noise.ocl", "text/plain", data);
+
+    fileStorageService.storeFile("test@example.com", upload, FileEnumType.OCL);
+
+    String key = InMemoryBlobStore.keyOf(data);
+    verify(fileStorageRepository)
+        .save(
+            argThat(
+                file ->
+                    file.getCodec() == ContentCodec.NONE
+                        && key.equals(file.getStorageKey())
+                        && file.getStoredSizeBytes() == data.length));
+    assertArrayEquals(data, blobStore.content(key));
+  }
+
+  @Test
+  void storeFile_compressionDisabled_storesRawContent() throws Exception {
+    ReflectionTestUtils.setField(
+        fileStorageService, "compressionPolicy", new CompressionPolicy(false, 6));
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(anyString()))
+        .thenReturn(Optional.of(testUser));
+    byte[] data = ecoreModel(50);
+    MockMultipartFile upload =
+        new MockMultipartFile("file", "model.ecore", "application/xml", data);
+
+    fileStorageService.storeFile("test@example.com", upload, FileEnumType.ECORE);
+
+    String key = InMemoryBlobStore.keyOf(data);
+    verify(fileStorageRepository)
+        .save(
+            argThat(
+                file -> file.getCodec() == ContentCodec.NONE && key.equals(file.getStorageKey())));
+    assertArrayEquals(data, blobStore.content(key));
+  }
+
+  @Test
+  void streamContent_compressedContent_writesRequestedLogicalRange() throws IOException {
+    byte[] data = ecoreModel(50);
+    FileStorage model =
+        fileStorageService.newFile(
+            testUser, "model.ecore", FileEnumType.ECORE, "application/xml", data);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    fileStorageService.streamContent(model, 1000, 200, out);
+
+    assertEquals(ContentCodec.DEFLATE_EMF, model.getCodec());
+    assertArrayEquals(Arrays.copyOfRange(data, 1000, 1200), out.toByteArray());
+    assertArrayEquals(data, fileStorageService.readContent(model));
+  }
+
+  @Test
+  void overwriteStoredContent_sameContent_keepsReference() {
+    when(fileStorageRepository.save(any(FileStorage.class))).thenAnswer(inv -> inv.getArgument(0));
+
+    fileStorageService.overwriteStoredContent(testFileStorage, "Hello, World!".getBytes());
+
+    verifyNoInteractions(fileContentService);
+  }
+
+  @Test
+  void readContent_missingBlob_throwsFileContentException() {
+    FileStorage orphan = new FileStorage();
+    orphan.setId(5L);
+    orphan.setStorageKey(InMemoryBlobStore.keyOf("gone".getBytes()));
+
+    assertThrows(FileContentException.class, () -> fileStorageService.readContent(orphan));
+  }
+
+  @Test
+  void streamContent_missingBlob_throwsFileContentException() {
+    FileStorage orphan = new FileStorage();
+    orphan.setId(5L);
+    orphan.setStorageKey(InMemoryBlobStore.keyOf("gone".getBytes()));
+
+    assertThrows(
+        FileContentException.class,
+        () -> fileStorageService.streamContent(orphan, 0, 1, new ByteArrayOutputStream()));
+  }
+
+  @Test
+  void fileStorage_mapsMetadataOnly() {
+    List<Field> payloadFields =
+        Arrays.stream(FileStorage.class.getDeclaredFields())
+            .filter(
+                field ->
+                    field.isAnnotationPresent(Lob.class)
+                        || Blob.class.isAssignableFrom(field.getType())
+                        || field.getType() == byte[].class)
+            .toList();
+
+    assertEquals(List.of(), payloadFields);
+  }
+
+  @Test
+  void getFile_readsNoContent() throws IOException {
+    when(fileStorageRepository.findById(1L)).thenReturn(Optional.of(testFileStorage));
+
+    fileStorageService.getFile(1L);
+
+    verify(blobStore, never()).get(anyString());
+    verify(blobStore, never()).get(anyString(), anyLong(), anyLong());
+  }
+
+  private static Map<String, byte[]> unzip(byte[] archive) throws IOException {
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive))) {
+      for (ZipEntry entry; (entry = in.getNextEntry()) != null; ) {
+        entries.put(entry.getName(), in.readAllBytes());
+      }
+    }
+    return entries;
+  }
+
+  private static List<Byte> asList(byte[] bytes) {
+    List<Byte> list = new ArrayList<>(bytes.length);
+    for (byte b : bytes) {
+      list.add(b);
+    }
+    return list;
+  }
+
+  private byte[] contentOf(FileStorage fileStorage) {
+    try (InputStream in =
+        fileStorage.getCodec().decode(blobStore.get(fileStorage.getStorageKey()))) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static byte[] ecoreModel(int classes) {
+    StringBuilder model =
+        new StringBuilder(
+            """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <ecore:EPackage xmi:version="2.0" xmlns:xmi="http://www.omg.org/XMI"
+                xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+                xmlns:ecore="http://www.eclipse.org/emf/2002/Ecore" name="library"
+                nsURI="http://example.org/library" nsPrefix="library">
+            """);
+    for (int i = 0; i < classes; i++) {
+      model
+          .append("  <eClassifiers xsi:type=\"ecore:EClass\" name=\"Class")
+          .append(i)
+          .append("\">\n")
+          .append("    <eStructuralFeatures xsi:type=\"ecore:EAttribute\" name=\"name\"")
+          .append(" eType=\"ecore:EDataType http://www.eclipse.org/emf/2002/Ecore#//EString\"/>\n")
+          .append("  </eClassifiers>\n");
+    }
+    return model.append("</ecore:EPackage>\n").toString().getBytes(StandardCharsets.UTF_8);
+  }
 }
@@ -0,0 +1,78 @@
+package tools.vitruv.methodologist.general.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.vitruv.methodologist.general.model.repository.BlobContentRepository;
+import tools.vitruv.methodologist.general.storage.LargeObjectMetrics;
+
+class LargeObjectReconciliationServiceTest {
+
+  private BlobContentRepository blobContentRepository;
+  private SimpleMeterRegistry meterRegistry;
+  private LargeObjectReconciliationService service;
+
+  @BeforeEach
+  void setUp() {
+    blobContentRepository = mock(BlobContentRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    service =
+        new LargeObjectReconciliationService(
+            null, blobContentRepository, new LargeObjectMetrics(meterRegistry), 2);
+    ReflectionTestUtils.setField(service, "self", service);
+  }
+
+  @Test
+  void reconcile_unlinksBatchesUntilOneIsNotFull() {
+    when(blobContentRepository.tryAdvisoryLock(LargeObjectReconciliationService.LOCK_KEY))
+        .thenReturn(true);
+    when(blobContentRepository.unlinkOrphanedLargeObjects(2))
+        .thenReturn(List.of(10L, 20L))
+        .thenReturn(List.of(5L));
+
+    service.reconcile();
+
+    verify(blobContentRepository, times(2)).unlinkOrphanedLargeObjects(2);
+    assertThat(counter("storage.large_objects.reclaimed")).isEqualTo(3);
+    assertThat(counter("storage.large_objects.reclaimed.bytes")).isEqualTo(35);
+  }
+
+  @Test
+  void reconcile_nothingOrphaned_recordsNothing() {
+    when(blobContentRepository.tryAdvisoryLock(LargeObjectReconciliationService.LOCK_KEY))
+        .thenReturn(true);
+    when(blobContentRepository.unlinkOrphanedLargeObjects(2)).thenReturn(List.of());
+
+    service.reconcile();
+
+    assertThat(meterRegistry.find("storage.large_objects.reclaimed").counter()).isNull();
+  }
+
+  @Test
+  void reconcileBatch_lockHeldElsewhere_skips() {
+    when(blobContentRepository.tryAdvisoryLock(LargeObjectReconciliationService.LOCK_KEY))
+        .thenReturn(false);
+
+    assertThat(service.reconcileBatch()).isEmpty();
+
+    verify(blobContentRepository, never()).unlinkOrphanedLargeObjects(anyInt());
+  }
+
+  private double counter(String name) {
+    return meterRegistry
+        .get(name)
+        .tag("source", LargeObjectMetrics.SOURCE_RECONCILIATION)
+        .counter()
+        .count();
+  }
+}
@@ -0,0 +1,113 @@
+package tools.vitruv.methodologist.general.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.model.repository.FileStorageRepository;
+
+class OrphanFileCollectionServiceTest {
+  private static final Instant NOW = Instant.parse("2026-01-01T00:45:00Z");
+
+  private FileStorageRepository fileStorageRepository;
+  private FileContentService fileContentService;
+  private Clock clock;
+  private SimpleMeterRegistry meterRegistry;
+  private OrphanFileCollectionService service;
+
+  @BeforeEach
+  void setUp() {
+    fileStorageRepository = mock(FileStorageRepository.class);
+    fileContentService = mock(FileContentService.class);
+    clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(NOW);
+    meterRegistry = new SimpleMeterRegistry();
+    service =
+        new OrphanFileCollectionService(
+            null,
+            fileStorageRepository,
+            fileContentService,
+            meterRegistry,
+            2,
+            Duration.ofHours(24),
+            Duration.ofMinutes(5),
+            clock);
+    ReflectionTestUtils.setField(service, "self", service);
+    when(fileStorageRepository.tryAdvisoryLock(OrphanFileCollectionService.LOCK_KEY))
+        .thenReturn(true);
+  }
+
+  @Test
+  void collect_deletesBatchesUntilOneIsNotFull() {
+    FileStorage first = file(1L, "a", 10);
+    FileStorage second = file(2L, "b", 20);
+    FileStorage third = file(3L, "c", 5);
+    when(fileStorageRepository.lockOrphans(86400, 2))
+        .thenReturn(List.of(first, second))
+        .thenReturn(List.of(third));
+
+    service.collect();
+
+    verify(fileStorageRepository, times(2)).lockOrphans(86400, 2);
+    verify(fileContentService).release("a");
+    verify(fileContentService).release("b");
+    verify(fileContentService).release("c");
+    verify(fileStorageRepository).deleteAll(List.of(first, second));
+    verify(fileStorageRepository).deleteAll(List.of(third));
+    assertThat(meterRegistry.get("storage.orphan_files.deleted").counter().count()).isEqualTo(3);
+    assertThat(meterRegistry.get("storage.orphan_files.deleted.bytes").counter().count())
+        .isEqualTo(35);
+    assertThat(meterRegistry.get("storage.orphan_files.collection").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  void collect_timeBudgetExhausted_stopsStartingBatches() {
+    when(clock.instant()).thenReturn(NOW, NOW.plus(Duration.ofMinutes(6)));
+    when(fileStorageRepository.lockOrphans(anyLong(), anyInt()))
+        .thenReturn(List.of(file(1L, "a", 1), file(2L, "b", 1)));
+
+    service.collect();
+
+    verify(fileStorageRepository, times(1)).lockOrphans(anyLong(), anyInt());
+  }
+
+  @Test
+  void deleteBatch_nothingOrphaned_deletesNothing() {
+    when(fileStorageRepository.lockOrphans(anyLong(), anyInt())).thenReturn(List.of());
+
+    assertThat(service.deleteBatch()).isZero();
+
+    verify(fileStorageRepository, never()).deleteAll(any());
+    verify(fileContentService, never()).release(anyString());
+  }
+
+  @Test
+  void deleteBatch_lockHeldElsewhere_skips() {
+    when(fileStorageRepository.tryAdvisoryLock(OrphanFileCollectionService.LOCK_KEY))
+        .thenReturn(false);
+
+    assertThat(service.deleteBatch()).isZero();
+
+    verify(fileStorageRepository, never()).lockOrphans(anyLong(), anyInt());
+  }
+
+  private static FileStorage file(Long id, String storageKey, long sizeBytes) {
+    return FileStorage.builder().id(id).storageKey(storageKey).sizeBytes(sizeBytes).build();
+  }
+}
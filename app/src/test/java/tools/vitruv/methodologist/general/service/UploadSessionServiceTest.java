@@ -0,0 +1,325 @@
+package tools.vitruv.methodologist.general.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import tools.vitruv.methodologist.exception.FileAlreadyExistsException;
+import tools.vitruv.methodologist.exception.NotFoundException;
+import tools.vitruv.methodologist.exception.UploadSessionConflictException;
+import tools.vitruv.methodologist.general.FileEnumType;
+import tools.vitruv.methodologist.general.controller.requestdto.UploadSessionPostRequest;
+import tools.vitruv.methodologist.general.controller.responsedto.FileStorageResponse;
+import tools.vitruv.methodologist.general.controller.responsedto.UploadSessionResponse;
+import tools.vitruv.methodologist.general.model.UploadSession;
+import tools.vitruv.methodologist.general.model.repository.UploadSessionRepository;
+import tools.vitruv.methodologist.general.storage.SpooledContent;
+import tools.vitruv.methodologist.user.model.User;
+import tools.vitruv.methodologist.user.model.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class UploadSessionServiceTest {
+  private static final String EMAIL = "test@example.com";
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+  private static final int CHUNK_SIZE = 1024;
+
+  @Mock private UploadSessionRepository uploadSessionRepository;
+  @Mock private UserRepository userRepository;
+  @Mock private FileStorageService fileStorageService;
+
+  @TempDir Path directory;
+
+  private UploadSessionService service;
+  private User user;
+  private UploadSession session;
+  private byte[] content;
+  private byte[] received;
+  private String receivedSha256;
+
+  @BeforeEach
+  void setUp() {
+    service = newService();
+    user = new User();
+    user.setId(1L);
+    user.setEmail(EMAIL);
+    content = new byte[2 * CHUNK_SIZE + 100];
+    new Random(7).nextBytes(content);
+
+    lenient()
+        .when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(EMAIL))
+        .thenReturn(Optional.of(user));
+    lenient()
+        .when(uploadSessionRepository.save(any(UploadSession.class)))
+        .thenAnswer(
+            inv -> {
+              session = inv.getArgument(0);
+              return session;
+            });
+    lenient()
+        .when(uploadSessionRepository.lockByUploadIdAndUserEmail(anyString(), eq(EMAIL)))
+        .thenAnswer(inv -> Optional.ofNullable(session));
+    lenient()
+        .when(
+            uploadSessionRepository.findByUploadIdAndUser_EmailAndUser_RemovedAtIsNull(
+                anyString(), eq(EMAIL)))
+        .thenAnswer(inv -> Optional.ofNullable(session));
+    lenient()
+        .when(fileStorageService.storeUpload(eq(user), any(), eq("model.ecore"), any(), any()))
+        .thenAnswer(
+            inv -> {
+              SpooledContent spooled = inv.getArgument(1);
+              try (InputStream in = spooled.openStream()) {
+                received = in.readAllBytes();
+              }
+              receivedSha256 = spooled.sha256();
+              return FileStorageResponse.builder().id(42L).build();
+            });
+  }
+
+  @Test
+  void create_opensSessionWithEmptyPartFile() {
+    UploadSessionResponse response = service.create(EMAIL, request(content.length));
+
+    assertThat(response.getReceivedBytes()).isZero();
+    assertThat(response.getChunkSize()).isEqualTo(CHUNK_SIZE);
+    assertThat(response.getExpiresAt()).isEqualTo(NOW.plus(Duration.ofHours(1)));
+    assertThat(partFile(response.getUploadId())).exists().isEmptyFile();
+    assertThat(session.getUser()).isSameAs(user);
+  }
+
+  @Test
+  void create_fileLargerThanLimit_throwsConflict() {
+    assertThatThrownBy(() -> service.create(EMAIL, request(1024L * 1024 + 1)))
+        .isInstanceOf(UploadSessionConflictException.class);
+    verify(uploadSessionRepository, never()).save(any());
+  }
+
+  @Test
+  void create_unknownUser_throwsNotFound() {
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull("other@example.com"))
+        .thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> service.create("other@example.com", request(content.length)))
+        .isInstanceOf(NotFoundException.class);
+  }
+
+  @Test
+  void writeChunksAndComplete_storesAssembledContentWithItsHash() throws Exception {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+
+    long offset = 0;
+    while (offset < content.length) {
+      offset = writeChunk(uploadId, offset, CHUNK_SIZE).getReceivedBytes();
+    }
+    FileStorageResponse response = service.complete(EMAIL, uploadId);
+
+    assertThat(response.getId()).isEqualTo(42L);
+    assertThat(received).isEqualTo(content);
+    assertThat(receivedSha256).isEqualTo(sha256(content));
+    assertThat(partFile(uploadId)).doesNotExist();
+    verify(uploadSessionRepository).delete(session);
+  }
+
+  @Test
+  void writeChunk_offsetBeyondReceivedBytes_throwsConflict() {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+
+    assertThatThrownBy(() -> writeChunk(uploadId, 10, CHUNK_SIZE))
+        .isInstanceOf(UploadSessionConflictException.class)
+        .hasMessageContaining("0 bytes received");
+  }
+
+  @Test
+  void writeChunk_chunkLargerThanLimit_isDiscarded() {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+    writeChunk(uploadId, 0, CHUNK_SIZE);
+
+    assertThatThrownBy(() -> writeChunk(uploadId, CHUNK_SIZE, CHUNK_SIZE + 1))
+        .isInstanceOf(UploadSessionConflictException.class);
+    assertThat(session.getReceivedBytes()).isEqualTo(CHUNK_SIZE);
+    assertThat(partFile(uploadId)).hasSize(CHUNK_SIZE);
+  }
+
+  @Test
+  void writeChunk_beyondAnnouncedSize_isDiscarded() {
+    String uploadId = service.create(EMAIL, request(100)).getUploadId();
+
+    assertThatThrownBy(() -> writeChunk(uploadId, 0, 101))
+        .isInstanceOf(UploadSessionConflictException.class)
+        .hasMessageContaining("100 bytes");
+    assertThat(session.getReceivedBytes()).isZero();
+    assertThat(partFile(uploadId)).isEmptyFile();
+  }
+
+  @Test
+  void writeChunk_retriedChunk_replacesContentFromItsOffset() throws Exception {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+    writeChunk(uploadId, 0, CHUNK_SIZE);
+    service.writeChunk(EMAIL, uploadId, CHUNK_SIZE, new ByteArrayInputStream(new byte[CHUNK_SIZE]));
+
+    writeChunk(uploadId, CHUNK_SIZE, CHUNK_SIZE);
+    writeChunk(uploadId, 2 * CHUNK_SIZE, CHUNK_SIZE);
+    service.complete(EMAIL, uploadId);
+
+    assertThat(received).isEqualTo(content);
+    assertThat(receivedSha256).isEqualTo(sha256(content));
+  }
+
+  @Test
+  void writeChunk_deletesItsChunkFile() {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+    writeChunk(uploadId, 0, CHUNK_SIZE);
+    assertThatThrownBy(() -> writeChunk(uploadId, CHUNK_SIZE, CHUNK_SIZE + 1))
+        .isInstanceOf(UploadSessionConflictException.class);
+
+    assertThat(directory).isDirectoryNotContaining("glob:**.chunk");
+  }
+
+  @Test
+  void writeChunk_partFileOnAnotherInstance_throwsConflict() throws Exception {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+    Files.delete(partFile(uploadId));
+
+    assertThatThrownBy(() -> writeChunk(uploadId, 0, CHUNK_SIZE))
+        .isInstanceOf(UploadSessionConflictException.class)
+        .hasMessageContaining("where it was started");
+    assertThat(session.getReceivedBytes()).isZero();
+  }
+
+  @Test
+  void complete_afterRestart_rehashesPartFile() throws Exception {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+    writeChunk(uploadId, 0, CHUNK_SIZE);
+    service = newService();
+
+    writeChunk(uploadId, CHUNK_SIZE, CHUNK_SIZE);
+    writeChunk(uploadId, 2 * CHUNK_SIZE, CHUNK_SIZE);
+    service = newService();
+    service.complete(EMAIL, uploadId);
+
+    assertThat(receivedSha256).isEqualTo(sha256(content));
+  }
+
+  @Test
+  void complete_incompleteUpload_throwsConflict() {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+    writeChunk(uploadId, 0, CHUNK_SIZE);
+
+    assertThatThrownBy(() -> service.complete(EMAIL, uploadId))
+        .isInstanceOf(UploadSessionConflictException.class);
+    assertThat(partFile(uploadId)).exists();
+    verify(fileStorageService, never()).storeUpload(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void complete_duplicateContent_endsSession() {
+    String uploadId = service.create(EMAIL, request(100)).getUploadId();
+    writeChunk(uploadId, 0, 100);
+    when(fileStorageService.storeUpload(any(), any(), any(), any(), any()))
+        .thenThrow(new FileAlreadyExistsException());
+
+    assertThatThrownBy(() -> service.complete(EMAIL, uploadId))
+        .isInstanceOf(FileAlreadyExistsException.class);
+    assertThat(partFile(uploadId)).doesNotExist();
+    verify(uploadSessionRepository).delete(session);
+  }
+
+  @Test
+  void abort_deletesSessionAndPartFile() {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+    writeChunk(uploadId, 0, CHUNK_SIZE);
+
+    service.abort(EMAIL, uploadId);
+
+    assertThat(partFile(uploadId)).doesNotExist();
+    verify(uploadSessionRepository).delete(session);
+  }
+
+  @Test
+  void status_unknownSession_throwsNotFound() {
+    when(uploadSessionRepository.findByUploadIdAndUser_EmailAndUser_RemovedAtIsNull(
+            "missing", EMAIL))
+        .thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> service.status(EMAIL, "missing"))
+        .isInstanceOf(NotFoundException.class);
+  }
+
+  @Test
+  void purgeExpired_deletesExpiredSessionsAndPartFiles() {
+    String uploadId = service.create(EMAIL, request(content.length)).getUploadId();
+    when(uploadSessionRepository.findByExpiresAtBefore(NOW)).thenReturn(List.of(session));
+
+    service.purgeExpired();
+
+    assertThat(partFile(uploadId)).doesNotExist();
+    verify(uploadSessionRepository).delete(session);
+  }
+
+  private UploadSessionService newService() {
+    UploadSessionService newService =
+        new UploadSessionService(
+            null,
+            uploadSessionRepository,
+            userRepository,
+            fileStorageService,
+            directory,
+            DataSize.ofMegabytes(1),
+            DataSize.ofBytes(CHUNK_SIZE),
+            Duration.ofHours(1),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+    ReflectionTestUtils.setField(newService, "self", newService);
+    return newService;
+  }
+
+  private UploadSessionResponse writeChunk(String uploadId, long offset, int length) {
+    byte[] chunk =
+        Arrays.copyOfRange(content, (int) offset, (int) Math.min(offset + length, content.length));
+    return service.writeChunk(EMAIL, uploadId, offset, new ByteArrayInputStream(chunk));
+  }
+
+  private Path partFile(String uploadId) {
+    return directory.resolve(uploadId + ".part");
+  }
+
+  private static UploadSessionPostRequest request(long size) {
+    return UploadSessionPostRequest.builder()
+        .filename("model.ecore")
+        .contentType("application/xml")
+        .type(FileEnumType.ECORE)
+        .size(size)
+        .build();
+  }
+
+  private static String sha256(byte[] data) throws Exception {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+  }
+}
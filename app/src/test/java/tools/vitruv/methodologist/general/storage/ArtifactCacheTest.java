@@ -0,0 +1,162 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.unit.DataSize;
+import tools.vitruv.methodologist.exception.BuildArtifactCreationException;
+
+class ArtifactCacheTest {
+  private static final String KEY_A = "a".repeat(64);
+  private static final String KEY_B = "b".repeat(64);
+  private static final String KEY_C = "c".repeat(64);
+
+  @TempDir Path directory;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void computeIfAbsent_hit_doesNotBuildAgain() throws IOException {
+    ArtifactCache cache = cache(100, 100);
+    AtomicInteger builds = new AtomicInteger();
+
+    cache.computeIfAbsent(KEY_A, file -> Files.write(file, artifact(builds, 10)));
+    CachedArtifact hit =
+        cache.computeIfAbsent(KEY_A, file -> Files.write(file, artifact(builds, 10)));
+
+    assertThat(builds).hasValue(1);
+    assertThat(hit.key()).isEqualTo(KEY_A);
+    assertThat(hit.content()).isInstanceOf(FileSystemResource.class);
+    assertThat(hit.content().contentLength()).isEqualTo(10);
+    assertThat(gets("hit")).isEqualTo(1);
+    assertThat(gets("miss")).isEqualTo(1);
+  }
+
+  @Test
+  void put_overBudget_evictsLeastRecentlyUsed() throws IOException {
+    ArtifactCache cache = cache(25, 25);
+    cache.put(KEY_A, new byte[10]);
+    cache.put(KEY_B, new byte[10]);
+    cache.get(KEY_A);
+
+    cache.put(KEY_C, new byte[10]);
+
+    assertThat(cache.get(KEY_B)).isEmpty();
+    assertThat(cache.get(KEY_A)).isPresent();
+    assertThat(cache.get(KEY_C)).isPresent();
+    assertThat(cache.totalBytes()).isEqualTo(20);
+    assertThat(Files.exists(directory.resolve(KEY_B + ".bin"))).isFalse();
+  }
+
+  @Test
+  void put_evictingArtifactBeingRead_deletesItOnceTheStreamIsClosed() throws IOException {
+    ArtifactCache cache = cache(15, 15);
+    CachedArtifact artifact = cache.put(KEY_A, new byte[10]);
+    Path file = directory.resolve(KEY_A + ".bin");
+
+    try (InputStream in = artifact.content().getInputStream()) {
+      cache.put(KEY_B, new byte[10]);
+
+      assertThat(cache.totalBytes()).isEqualTo(10);
+      assertThat(Files.exists(file)).isTrue();
+      assertThat(in.readAllBytes()).hasSize(10);
+    }
+
+    assertThat(Files.exists(file)).isFalse();
+    assertThat(cache.get(KEY_A)).isEmpty();
+  }
+
+  @Test
+  void put_evictingArtifactAfterItWasRead_deletesItImmediately() throws IOException {
+    ArtifactCache cache = cache(15, 15);
+    CachedArtifact artifact = cache.put(KEY_A, new byte[10]);
+    artifact.content().getInputStream().close();
+
+    cache.put(KEY_B, new byte[10]);
+
+    assertThat(Files.exists(directory.resolve(KEY_A + ".bin"))).isFalse();
+  }
+
+  @Test
+  void put_largerThanEntryLimit_isRejectedAndDeleted() throws IOException {
+    ArtifactCache cache = cache(100, 5);
+
+    assertThatThrownBy(() -> cache.put(KEY_A, new byte[10]))
+        .isInstanceOf(BuildArtifactCreationException.class)
+        .hasMessageContaining("10 bytes exceeds the limit of 5 bytes");
+
+    assertThat(cache.get(KEY_A)).isEmpty();
+    assertThat(cache.totalBytes()).isZero();
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  @Test
+  void constructor_loadsArtifactsLeftByPreviousInstance() throws IOException {
+    cache(100, 100).put(KEY_A, new byte[10]);
+    Files.write(directory.resolve("leftover.tmp"), new byte[3]);
+
+    ArtifactCache reloaded = cache(100, 100);
+
+    assertThat(reloaded.get(KEY_A)).isPresent();
+    assertThat(reloaded.totalBytes()).isEqualTo(10);
+    assertThat(Files.exists(directory.resolve("leftover.tmp"))).isFalse();
+  }
+
+  @Test
+  void get_fileRemovedExternally_isMiss() throws IOException {
+    ArtifactCache cache = cache(100, 100);
+    cache.put(KEY_A, new byte[10]);
+    Files.delete(directory.resolve(KEY_A + ".bin"));
+
+    assertThat(cache.get(KEY_A)).isEmpty();
+    assertThat(cache.totalBytes()).isZero();
+  }
+
+  @Test
+  void get_artifactWrittenByOtherInstance_isServed() throws IOException {
+    ArtifactCache cache = cache(100, 100);
+    cache(100, 100).put(KEY_A, new byte[10]);
+
+    assertThat(cache.get(KEY_A)).isPresent();
+    assertThat(cache.totalBytes()).isEqualTo(10);
+  }
+
+  @Test
+  void get_invalidKey_throws() throws IOException {
+    ArtifactCache cache = cache(100, 100);
+
+    assertThatThrownBy(() -> cache.get("../etc/passwd"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private ArtifactCache cache(long maxBytes, long maxEntryBytes) throws IOException {
+    return new ArtifactCache(
+        directory, DataSize.ofBytes(maxBytes), DataSize.ofBytes(maxEntryBytes), meterRegistry);
+  }
+
+  private double gets(String result) {
+    return meterRegistry
+        .get("cache.gets")
+        .tag("cache", ArtifactCache.CACHE_NAME)
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private static byte[] artifact(AtomicInteger builds, int size) {
+    builds.incrementAndGet();
+    return new byte[size];
+  }
+}
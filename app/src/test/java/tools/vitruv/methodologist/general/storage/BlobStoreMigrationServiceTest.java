@@ -0,0 +1,97 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import tools.vitruv.methodologist.exception.FileContentException;
+import tools.vitruv.methodologist.general.model.BlobContent;
+import tools.vitruv.methodologist.general.model.repository.BlobContentRepository;
+
+class BlobStoreMigrationServiceTest {
+
+  private static final byte[] DATA = "Hello, World!".getBytes();
+  private static final String KEY = InMemoryBlobStore.keyOf(DATA);
+
+  private BlobContentRepository blobContentRepository;
+  private DatabaseBlobStore databaseBlobStore;
+  private InMemoryBlobStore targetStore;
+  private BlobStoreMigrationService service;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    blobContentRepository = mock(BlobContentRepository.class);
+    databaseBlobStore = mock(DatabaseBlobStore.class);
+    targetStore = spy(new InMemoryBlobStore());
+    service = new BlobStoreMigrationService(blobContentRepository, databaseBlobStore, targetStore);
+
+    when(blobContentRepository.findByStorageKey(KEY))
+        .thenReturn(
+            Optional.of(BlobContent.builder().storageKey(KEY).sizeBytes(DATA.length).build()));
+    when(databaseBlobStore.get(KEY)).thenReturn(new ByteArrayInputStream(DATA));
+  }
+
+  @Test
+  void migrateBatch_copiesContentThenDeletesItFromDatabase() throws IOException {
+    when(blobContentRepository.findStorageKeys(PageRequest.of(0, 10))).thenReturn(List.of(KEY));
+
+    int moved = service.migrateBatch(10);
+
+    assertThat(moved).isEqualTo(1);
+    assertThat(targetStore.content(KEY)).isEqualTo(DATA);
+    verify(databaseBlobStore).delete(KEY);
+  }
+
+  @Test
+  void migrateBatch_returnsZero_whenDatabaseIsEmpty() {
+    when(blobContentRepository.findStorageKeys(any())).thenReturn(List.of());
+
+    assertThat(service.migrateBatch(10)).isZero();
+  }
+
+  @Test
+  void migrateBatch_copyFails_keepsContentInDatabase() throws IOException {
+    when(blobContentRepository.findStorageKeys(any())).thenReturn(List.of(KEY));
+    doThrow(new IOException("disk full")).when(targetStore).put(eq(KEY), any(), anyLong());
+
+    assertThatThrownBy(() -> service.migrateBatch(10)).isInstanceOf(FileContentException.class);
+
+    verify(databaseBlobStore, never()).delete(any());
+  }
+
+  @Test
+  void migrateBatch_databaseBackend_isRejected() {
+    BlobStoreMigrationService sameStore =
+        new BlobStoreMigrationService(blobContentRepository, databaseBlobStore, databaseBlobStore);
+
+    assertThat(sameStore.isMigrationTargetConfigured()).isFalse();
+    assertThatThrownBy(() -> sameStore.migrateBatch(10)).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void isMigrationTargetConfigured_cachedDatabaseBackend_isFalse() {
+    CachingBlobStore cachedDatabase =
+        new CachingBlobStore(databaseBlobStore, 64, 32, false, new SimpleMeterRegistry());
+
+    BlobStoreMigrationService sameStore =
+        new BlobStoreMigrationService(blobContentRepository, databaseBlobStore, cachedDatabase);
+
+    assertThat(sameStore.isMigrationTargetConfigured()).isFalse();
+  }
+}
@@ -0,0 +1,140 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingBlobStoreTest {
+
+  private static final byte[] DATA = "Hello, World!".getBytes();
+
+  private InMemoryBlobStore delegate;
+  private SimpleMeterRegistry meterRegistry;
+  private CachingBlobStore store;
+  private String key;
+
+  @BeforeEach
+  void setUp() {
+    delegate = spy(new InMemoryBlobStore());
+    meterRegistry = new SimpleMeterRegistry();
+    store = new CachingBlobStore(delegate, 64, 32, false, meterRegistry);
+    key = delegate.store(DATA);
+  }
+
+  @Test
+  void get_secondRead_isServedFromCache() throws IOException {
+    assertThat(readAll(store.get(key))).isEqualTo(DATA);
+    assertThat(readAll(store.get(key))).isEqualTo(DATA);
+
+    verify(delegate, times(1)).get(key);
+    assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("cache.weighted.size").gauge().value()).isEqualTo(DATA.length);
+  }
+
+  @Test
+  void get_contentAboveEntryLimit_isStreamedWithoutCaching() throws IOException {
+    byte[] large = new byte[40];
+    String largeKey = delegate.store(large);
+
+    assertThat(readAll(store.get(largeKey))).isEqualTo(large);
+    assertThat(readAll(store.get(largeKey))).isEqualTo(large);
+
+    verify(delegate, times(2)).get(largeKey);
+  }
+
+  @Test
+  void get_contentNotReadToItsEnd_isNotCached() throws IOException {
+    try (InputStream in = store.get(key)) {
+      assertThat(in.readNBytes(5)).isEqualTo("Hello".getBytes());
+    }
+
+    assertThat(readAll(store.get(key))).isEqualTo(DATA);
+
+    verify(delegate, times(2)).get(key);
+  }
+
+  @Test
+  void get_rangeOfCachedContent_readsNoDelegate() throws IOException {
+    readAll(store.get(key));
+
+    assertThat(readAll(store.get(key, 7, 5))).isEqualTo("World".getBytes());
+
+    verify(delegate, never()).get(anyString(), anyLong(), anyLong());
+  }
+
+  @Test
+  void get_rangeOfUncachedContent_readsDelegate() throws IOException {
+    assertThat(readAll(store.get(key, 7, 5))).isEqualTo("World".getBytes());
+
+    verify(delegate).get(key, 7, 5);
+  }
+
+  @Test
+  void get_readersCannotAffectEachOther() throws IOException {
+    InputStream first = store.get(key);
+    first.skipNBytes(7);
+
+    assertThat(readAll(store.get(key))).isEqualTo(DATA);
+    assertThat(readAll(first)).isEqualTo("World!".getBytes());
+  }
+
+  @Test
+  void get_offHeap_servesCachedContent() throws IOException {
+    CachingBlobStore offHeapStore =
+        new CachingBlobStore(delegate, 64, 32, true, new SimpleMeterRegistry());
+
+    readAll(offHeapStore.get(key));
+
+    assertThat(readAll(offHeapStore.get(key))).isEqualTo(DATA);
+    verify(delegate, times(1)).get(key);
+  }
+
+  @Test
+  void get_budgetExceeded_evictsContent() throws IOException {
+    for (int i = 0; i < 10; i++) {
+      readAll(store.get(delegate.store(("content number " + i).getBytes())));
+    }
+
+    assertThat(meterRegistry.get("cache.weighted.size").gauge().value()).isLessThanOrEqualTo(64);
+  }
+
+  @Test
+  void put_alwaysWritesDelegate() throws IOException {
+    readAll(store.get(key));
+
+    store.put(key, new ByteArrayInputStream(DATA), DATA.length);
+
+    verify(delegate).put(any(), any(), anyLong());
+  }
+
+  @Test
+  void delete_invalidatesCachedContent() throws IOException {
+    readAll(store.get(key));
+
+    store.delete(key);
+
+    assertThat(store.exists(key)).isFalse();
+    verify(delegate).delete(key);
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    try (in) {
+      return in.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class ContentCodecTest {
+
+  private static final byte[] MODEL =
+      """
+      <?xml version="1.0" encoding="UTF-8"?>
+      <ecore:EPackage xmi:version="2.0" xmlns:xmi="http://www.omg.org/XMI"
+          xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+          xmlns:ecore="http://www.eclipse.org/emf/2002/Ecore" name="persons"
+          nsURI="http://example.org/persons" nsPrefix="persons">
+        <eClassifiers xsi:type="ecore:EClass" name="Person">
+          <eStructuralFeatures xsi:type="ecore:EAttribute" name="name"
+              eType="ecore:EDataType http://www.eclipse.org/emf/2002/Ecore#//EString"/>
+          <eStructuralFeatures xsi:type="ecore:EReference" name="friends" upperBound="-1"
+              eType="#//Person"/>
+        </eClassifiers>
+      </ecore:EPackage>
+      """
+          .getBytes(StandardCharsets.UTF_8);
+
+  @ParameterizedTest
+  @EnumSource(ContentCodec.class)
+  void encodeDecode_roundTripsContent(ContentCodec codec) throws IOException {
+    byte[] encoded = encode(codec, MODEL);
+
+    assertThat(readAll(codec.decode(new ByteArrayInputStream(encoded)))).isEqualTo(MODEL);
+  }
+
+  @Test
+  void encode_emfDictionary_beatsPlainDeflateOnSmallModels() throws IOException {
+    int plain = encode(ContentCodec.DEFLATE, MODEL).length;
+    int withDictionary = encode(ContentCodec.DEFLATE_EMF, MODEL).length;
+
+    assertThat(plain).isLessThan(MODEL.length);
+    assertThat(withDictionary).isLessThan(plain);
+  }
+
+  @Test
+  void decode_withoutDictionary_failsForDictionaryContent() throws IOException {
+    byte[] encoded = encode(ContentCodec.DEFLATE_EMF, MODEL);
+
+    assertThatThrownBy(
+            () -> readAll(ContentCodec.DEFLATE.decode(new ByteArrayInputStream(encoded))))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void storageKey_appendsCodecSuffix() {
+    assertThat(ContentCodec.NONE.storageKey("abcd")).isEqualTo("abcd");
+    assertThat(ContentCodec.DEFLATE.storageKey("abcd")).isEqualTo("abcd-deflate");
+    assertThat(ContentCodec.DEFLATE_EMF.storageKey("abcd")).isEqualTo("abcd-deflate-emf1");
+  }
+
+  @ParameterizedTest
+  @EnumSource(ContentCodec.class)
+  void open_range_returnsLogicalBytes(ContentCodec codec) throws IOException {
+    InMemoryBlobStore store = new InMemoryBlobStore();
+    byte[] encoded = encode(codec, MODEL);
+    String key = "model";
+    store.put(key, new ByteArrayInputStream(encoded), encoded.length);
+
+    byte[] range = readAll(codec.open(store, key, 100, 50));
+
+    assertThat(range).isEqualTo(Arrays.copyOfRange(MODEL, 100, 150));
+  }
+
+  @Test
+  void open_rangeBeyondContent_throws() throws IOException {
+    InMemoryBlobStore store = new InMemoryBlobStore();
+    byte[] encoded = encode(ContentCodec.DEFLATE, MODEL);
+    store.put("model", new ByteArrayInputStream(encoded), encoded.length);
+
+    assertThatThrownBy(() -> ContentCodec.DEFLATE.open(store, "model", MODEL.length + 1, 1))
+        .isInstanceOf(EOFException.class);
+  }
+
+  private static byte[] encode(ContentCodec codec, byte[] data) throws IOException {
+    return readAll(codec.encode(new ByteArrayInputStream(data), 6));
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    try (in) {
+      return in.readAllBytes();
+    }
+  }
+}
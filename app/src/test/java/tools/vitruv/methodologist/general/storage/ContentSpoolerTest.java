@@ -0,0 +1,87 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.util.unit.DataSize;
+
+class ContentSpoolerTest {
+
+  @TempDir Path tempDir;
+
+  private ContentSpooler spooler;
+
+  @BeforeEach
+  void setUp() {
+    spooler = new ContentSpooler(DataSize.ofBytes(1024), tempDir, 3);
+  }
+
+  @AfterEach
+  void tearDown() {
+    spooler.shutdown();
+  }
+
+  @Test
+  void spoolAll_returnsContentsInSourceOrder() throws IOException {
+    List<byte[]> data = new ArrayList<>();
+    List<InputStreamSource> sources = new ArrayList<>();
+    Random random = new Random(3);
+    for (int i = 0; i < 8; i++) {
+      byte[] bytes = new byte[500 * (i + 1)];
+      random.nextBytes(bytes);
+      data.add(bytes);
+      sources.add(new ByteArrayResource(bytes));
+    }
+
+    List<SpooledContent> contents = spooler.spoolAll(sources);
+
+    assertThat(contents).hasSize(8);
+    for (int i = 0; i < 8; i++) {
+      try (SpooledContent content = contents.get(i);
+          InputStream in = content.openStream()) {
+        assertThat(content.sha256()).isEqualTo(SpooledContent.of(data.get(i)).sha256());
+        assertThat(in.readAllBytes()).isEqualTo(data.get(i));
+      }
+    }
+    assertThat(tempDir).isEmptyDirectory();
+  }
+
+  @Test
+  void spoolAll_failingSource_closesSpooledContentsAndThrows() {
+    byte[] large = new byte[4096];
+    InputStreamSource failing =
+        () -> {
+          throw new IOException("broken part");
+        };
+
+    assertThatThrownBy(
+            () ->
+                spooler.spoolAll(
+                    List.of(new ByteArrayResource(large), failing, new ByteArrayResource(large))))
+        .isInstanceOf(IOException.class)
+        .hasMessage("broken part");
+    assertThat(tempDir).isEmptyDirectory();
+  }
+
+  @Test
+  void spool_readsStreamWithoutClosingIt() throws IOException {
+    byte[] data = "model".getBytes();
+
+    try (SpooledContent content = spooler.spool(new ByteArrayInputStream(data))) {
+      assertThat(content.size()).isEqualTo(data.length);
+    }
+  }
+}
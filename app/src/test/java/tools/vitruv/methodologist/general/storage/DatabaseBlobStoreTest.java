@@ -0,0 +1,119 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.util.Optional;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.vitruv.methodologist.general.model.BlobContent;
+import tools.vitruv.methodologist.general.model.repository.BlobContentRepository;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseBlobStoreTest {
+
+  private static final byte[] DATA = "Hello, World!".getBytes();
+  private static final String KEY = InMemoryBlobStore.keyOf(DATA);
+
+  @Mock private BlobContentRepository blobContentRepository;
+  @Mock private EntityManager entityManager;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Spy private LargeObjectMetrics largeObjectMetrics = new LargeObjectMetrics(meterRegistry);
+
+  @InjectMocks private DatabaseBlobStore store;
+
+  @Test
+  void put_newContent_persistsAndFlushes() throws Exception {
+    when(blobContentRepository.existsByStorageKey(KEY)).thenReturn(false);
+
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+    ArgumentCaptor<BlobContent> captor = ArgumentCaptor.forClass(BlobContent.class);
+    InOrder order = inOrder(entityManager);
+    order.verify(entityManager).persist(captor.capture());
+    order.verify(entityManager).flush();
+    assertThat(captor.getValue().getStorageKey()).isEqualTo(KEY);
+    assertThat(captor.getValue().getSizeBytes()).isEqualTo(DATA.length);
+    assertThat(captor.getValue().getData().getBinaryStream().readAllBytes()).isEqualTo(DATA);
+  }
+
+  @Test
+  void put_existingContent_isNoOp() throws Exception {
+    when(blobContentRepository.existsByStorageKey(KEY)).thenReturn(true);
+
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+    verify(entityManager, never()).persist(any());
+  }
+
+  @Test
+  void get_range_readsFromLargeObject() throws Exception {
+    when(blobContentRepository.findByStorageKey(KEY))
+        .thenReturn(Optional.of(content(BlobProxy.generateProxy(DATA))));
+
+    try (InputStream in = store.get(KEY, 7, 5)) {
+      assertThat(in.readAllBytes()).isEqualTo("World".getBytes());
+    }
+  }
+
+  @Test
+  void get_missingKey_throwsFileNotFoundException() {
+    when(blobContentRepository.findByStorageKey(KEY)).thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> store.get(KEY)).isInstanceOf(FileNotFoundException.class);
+  }
+
+  @Test
+  void delete_deletesRowAndRecordsReclaimedBytes() {
+    when(blobContentRepository.findSizeBytesByStorageKey(KEY))
+        .thenReturn(Optional.of((long) DATA.length));
+
+    store.delete(KEY);
+
+    verify(blobContentRepository).deleteByStorageKey(KEY);
+    assertThat(reclaimed("storage.large_objects.reclaimed")).isEqualTo(1);
+    assertThat(reclaimed("storage.large_objects.reclaimed.bytes")).isEqualTo(DATA.length);
+  }
+
+  @Test
+  void delete_missingKey_isNoOp() {
+    when(blobContentRepository.findSizeBytesByStorageKey(KEY)).thenReturn(Optional.empty());
+
+    store.delete(KEY);
+
+    verify(blobContentRepository, never()).deleteByStorageKey(any());
+    assertThat(meterRegistry.find("storage.large_objects.reclaimed").counter()).isNull();
+  }
+
+  private double reclaimed(String name) {
+    return meterRegistry
+        .get(name)
+        .tag("source", LargeObjectMetrics.SOURCE_DELETE)
+        .counter()
+        .count();
+  }
+
+  private static BlobContent content(Blob data) {
+    return BlobContent.builder().storageKey(KEY).data(data).sizeBytes(DATA.length).build();
+  }
+}
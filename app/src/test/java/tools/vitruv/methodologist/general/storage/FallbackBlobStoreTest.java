@@ -0,0 +1,89 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FallbackBlobStoreTest {
+
+  private static final byte[] DATA = "Hello, World!".getBytes();
+
+  private InMemoryBlobStore primary;
+  private DatabaseBlobStore database;
+  private FallbackBlobStore store;
+
+  @BeforeEach
+  void setUp() {
+    primary = new InMemoryBlobStore();
+    database = mock(DatabaseBlobStore.class);
+    store = new FallbackBlobStore(primary, database);
+  }
+
+  @Test
+  void get_contentInPrimary_doesNotQueryTheDatabase() throws IOException {
+    String key = primary.store(DATA);
+
+    assertThat(readAll(store.get(key))).isEqualTo(DATA);
+
+    verify(database, never()).exists(key);
+  }
+
+  @Test
+  void get_contentOnlyInDatabase_isReadFromTheDatabase() throws IOException {
+    when(database.exists("k")).thenReturn(true);
+    when(database.get("k")).thenReturn(new ByteArrayInputStream(DATA));
+    when(database.get("k", 7, 5)).thenReturn(new ByteArrayInputStream("World".getBytes()));
+
+    assertThat(readAll(store.get("k"))).isEqualTo(DATA);
+    assertThat(readAll(store.get("k", 7, 5))).isEqualTo("World".getBytes());
+    assertThat(store.exists("k")).isTrue();
+  }
+
+  @Test
+  void get_missingContent_stopsQueryingTheDatabase_onceItIsEmpty() throws IOException {
+    when(database.isEmpty()).thenReturn(true);
+
+    assertThatThrownBy(() -> store.get("k")).isInstanceOf(FileNotFoundException.class);
+    assertThatThrownBy(() -> store.get("k")).isInstanceOf(FileNotFoundException.class);
+    assertThat(store.exists("k")).isFalse();
+
+    verify(database, times(1)).exists("k");
+  }
+
+  @Test
+  void put_writesToPrimaryOnly() throws IOException {
+    store.put("k", new ByteArrayInputStream(DATA), DATA.length);
+
+    assertThat(primary.content("k")).isEqualTo(DATA);
+    verify(database, never()).put(any(), any(), anyLong());
+  }
+
+  @Test
+  void delete_removesContentFromBothStores() throws IOException {
+    String key = primary.store(DATA);
+
+    store.delete(key);
+
+    assertThat(primary.content(key)).isNull();
+    verify(database).delete(key);
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    try (in) {
+      return in.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileSystemBlobStoreTest {
+
+  private static final byte[] DATA = "Hello, World!".getBytes();
+  private static final String KEY = InMemoryBlobStore.keyOf(DATA);
+
+  @TempDir Path root;
+
+  private FileSystemBlobStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new FileSystemBlobStore(root);
+  }
+
+  @Test
+  void put_storesContentInShardedDirectory() throws IOException {
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+    Path expected = root.resolve(KEY.substring(0, 2)).resolve(KEY.substring(2, 4)).resolve(KEY);
+    assertThat(expected).exists().hasBinaryContent(DATA);
+    assertThat(store.exists(KEY)).isTrue();
+  }
+
+  @Test
+  void put_existingKey_keepsStoredContent() throws IOException {
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+    store.put(KEY, new ByteArrayInputStream("other".getBytes()), 5);
+
+    assertThat(readAll(store.get(KEY))).isEqualTo(DATA);
+  }
+
+  @Test
+  void put_sizeMismatch_throwsAndLeavesNoFiles() throws IOException {
+    assertThatThrownBy(() -> store.put(KEY, new ByteArrayInputStream(DATA), DATA.length + 1))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("size mismatch");
+
+    assertThat(store.exists(KEY)).isFalse();
+    try (Stream<Path> files = Files.walk(root)) {
+      assertThat(files.filter(Files::isRegularFile)).isEmpty();
+    }
+  }
+
+  @Test
+  void get_range_returnsRequestedBytes() throws IOException {
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+    assertThat(readAll(store.get(KEY, 7, 5))).isEqualTo("World".getBytes());
+  }
+
+  @Test
+  void get_missingKey_throwsFileNotFoundException() {
+    assertThatThrownBy(() -> store.get(KEY)).isInstanceOf(FileNotFoundException.class);
+    assertThatThrownBy(() -> store.get(KEY, 0, 1)).isInstanceOf(FileNotFoundException.class);
+  }
+
+  @Test
+  void delete_removesContent_andIgnoresMissingKey() throws IOException {
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+    store.delete(KEY);
+    store.delete(KEY);
+
+    assertThat(store.exists(KEY)).isFalse();
+  }
+
+  @Test
+  void keys_listsContentWrittenBeforeTheGivenTime() throws IOException {
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+    Files.writeString(root.resolve("stray.tmp"), "tmp");
+
+    try (Stream<String> keys = store.keys(Instant.now().plusSeconds(60))) {
+      assertThat(keys).containsExactly(KEY);
+    }
+    try (Stream<String> keys = store.keys(Instant.now().minusSeconds(60))) {
+      assertThat(keys).isEmpty();
+    }
+  }
+
+  @Test
+  void invalidKey_isRejected() {
+    assertThatThrownBy(() -> store.get("../../etc/passwd"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> store.exists("ab")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    try (in) {
+      return in.readAllBytes();
+    }
+  }
+}
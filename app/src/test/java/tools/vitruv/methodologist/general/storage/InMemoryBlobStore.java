@@ -0,0 +1,106 @@
+package tools.vitruv.methodologist.general.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/** {@link BlobStore} keeping content on the heap, for tests. */
+public class InMemoryBlobStore implements BlobStore {
+  private final Map<String, byte[]> contents = new ConcurrentHashMap<>();
+
+  /**
+   * Stores {@code data} under its SHA-256 and returns the key.
+   *
+   * @param data the content to store
+   * @return the content key
+   */
+  public String store(byte[] data) {
+    String key = keyOf(data);
+    contents.putIfAbsent(key, data.clone());
+    return key;
+  }
+
+  /**
+   * Returns the content stored under {@code key}, or {@code null} if there is none.
+   *
+   * @param key the content key
+   * @return the stored bytes
+   */
+  public byte[] content(String key) {
+    return key == null ? null : contents.get(key);
+  }
+
+  /**
+   * Returns the number of stored contents.
+   *
+   * @return the number of keys in the store
+   */
+  public int size() {
+    return contents.size();
+  }
+
+  /**
+   * Computes the key {@link #store(byte[])} uses for {@code data}.
+   *
+   * @param data the content
+   * @return the hex-encoded SHA-256 of {@code data}
+   */
+  public static String keyOf(byte[] data) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void put(String key, InputStream content, long size) throws IOException {
+    byte[] data = content.readAllBytes();
+    if (data.length != size) {
+      throw new IOException("Content size mismatch for " + key);
+    }
+    contents.putIfAbsent(key, data);
+  }
+
+  @Override
+  public InputStream get(String key) throws IOException {
+    return new ByteArrayInputStream(require(key));
+  }
+
+  @Override
+  public InputStream get(String key, long offset, long length) throws IOException {
+    return new ByteArrayInputStream(require(key), (int) offset, (int) length);
+  }
+
+  @Override
+  public boolean exists(String key) {
+    return contents.containsKey(key);
+  }
+
+  @Override
+  public void delete(String key) {
+    contents.remove(key);
+  }
+
+  /** Lists all keys; content kept on the heap has no write time. */
+  @Override
+  public Stream<String> keys(Instant writtenBefore) {
+    return contents.keySet().stream();
+  }
+
+  private byte[] require(String key) throws FileNotFoundException {
+    byte[] data = contents.get(key);
+    if (data == null) {
+      throw new FileNotFoundException(key);
+    }
+    return data;
+  }
+}
@@ -0,0 +1,119 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.S3Client;
+
+class S3BlobStoreTest {
+
+  private static final byte[] DATA = "Hello, World!".getBytes();
+  private static final String KEY = InMemoryBlobStore.keyOf(DATA);
+
+  private MockWebServer server;
+  private S3Client s3Client;
+  private S3BlobStore store;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new MockWebServer();
+    server.start();
+
+    StorageProperties.S3 s3 = new StorageProperties.S3();
+    s3.setEndpoint(URI.create(server.url("/").toString()));
+    s3.setBucket("files");
+    s3.setAccessKey("access");
+    s3.setSecretKey("secret");
+    s3Client = BlobStoreConfig.buildS3Client(s3);
+    store = new S3BlobStore(s3Client, "files", "blobs/");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    s3Client.close();
+    server.shutdown();
+  }
+
+  @Test
+  void put_uploadsContent_whenObjectIsMissing() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(404));
+    server.enqueue(new MockResponse().setResponseCode(200));
+
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+    RecordedRequest head = server.takeRequest();
+    assertThat(head.getMethod()).isEqualTo("HEAD");
+    assertThat(head.getPath()).isEqualTo("/files/blobs/" + KEY);
+    RecordedRequest put = server.takeRequest();
+    assertThat(put.getMethod()).isEqualTo("PUT");
+    assertThat(put.getPath()).isEqualTo("/files/blobs/" + KEY);
+    assertThat(put.getBody().readUtf8()).contains("Hello, World!");
+  }
+
+  @Test
+  void put_skipsUpload_whenObjectExists() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(200).setHeader("Content-Length", "13"));
+
+    store.put(KEY, new ByteArrayInputStream(DATA), DATA.length);
+
+    assertThat(server.takeRequest().getMethod()).isEqualTo("HEAD");
+    assertThat(server.getRequestCount()).isEqualTo(1);
+  }
+
+  @Test
+  void get_range_sendsRangeHeader() throws Exception {
+    server.enqueue(
+        new MockResponse().setResponseCode(206).setBody(new Buffer().writeUtf8("World")));
+
+    try (InputStream in = store.get(KEY, 7, 5)) {
+      assertThat(in.readAllBytes()).isEqualTo("World".getBytes());
+    }
+
+    RecordedRequest get = server.takeRequest();
+    assertThat(get.getMethod()).isEqualTo("GET");
+    assertThat(get.getHeader("Range")).isEqualTo("bytes=7-11");
+  }
+
+  @Test
+  void get_missingObject_throwsFileNotFoundException() {
+    server.enqueue(
+        new MockResponse()
+            .setResponseCode(404)
+            .setHeader("Content-Type", "application/xml")
+            .setBody("<Error><Code>NoSuchKey</Code><Message>missing</Message></Error>"));
+
+    assertThatThrownBy(() -> store.get(KEY)).isInstanceOf(FileNotFoundException.class);
+  }
+
+  @Test
+  void delete_sendsDeleteRequest() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(204));
+
+    store.delete(KEY);
+
+    RecordedRequest delete = server.takeRequest();
+    assertThat(delete.getMethod()).isEqualTo("DELETE");
+    assertThat(delete.getPath()).isEqualTo("/files/blobs/" + KEY);
+  }
+
+  @Test
+  void serverError_isReportedAsIoException() {
+    for (int i = 0; i < 4; i++) {
+      server.enqueue(new MockResponse().setResponseCode(500));
+    }
+
+    assertThatThrownBy(() -> store.exists(KEY)).isInstanceOf(IOException.class);
+  }
+}
@@ -0,0 +1,98 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpooledContentTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void spool_keepsSmallContentOnHeap() throws Exception {
+    byte[] data = "Hello, World!".getBytes();
+
+    try (SpooledContent content =
+        SpooledContent.spool(new ByteArrayInputStream(data), 64, tempDir)) {
+      assertThat(content.isSpilledToDisk()).isFalse();
+      assertThat(content.size()).isEqualTo(data.length);
+      assertThat(content.sha256())
+          .isEqualTo("dffd6021bb2bd5b0af676290809ec3a53191dd81c7f70a4b28688a362182986f");
+      assertThat(readAll(content)).isEqualTo(data);
+    }
+    assertThat(tempDir).isEmptyDirectory();
+  }
+
+  @Test
+  void spool_spillsLargeContentToDisk_andDeletesSpillFileOnClose() throws Exception {
+    byte[] data = new byte[100_000];
+    new Random(42).nextBytes(data);
+
+    SpooledContent content =
+        SpooledContent.spool(new ByteArrayInputStream(data), 10_000, tempDir.resolve("spool"));
+
+    assertThat(content.isSpilledToDisk()).isTrue();
+    assertThat(content.size()).isEqualTo(data.length);
+    assertThat(content.sha256()).isEqualTo(sha256(data));
+    assertThat(readAll(content)).isEqualTo(data);
+    assertThat(readAll(content)).isEqualTo(data);
+    try (var files = Files.list(tempDir.resolve("spool"))) {
+      assertThat(files).hasSize(1);
+    }
+
+    content.close();
+
+    try (var files = Files.list(tempDir.resolve("spool"))) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  @Test
+  void spool_failingSource_removesPartialSpillFile() {
+    InputStream failing =
+        new InputStream() {
+          private int remaining = 50_000;
+
+          @Override
+          public int read() throws IOException {
+            if (remaining-- <= 0) {
+              throw new IOException("connection reset");
+            }
+            return 1;
+          }
+        };
+
+    assertThatThrownBy(() -> SpooledContent.spool(failing, 1_000, tempDir))
+        .isInstanceOf(IOException.class);
+    assertThat(tempDir).isEmptyDirectory();
+  }
+
+  @Test
+  void of_nullData_isEmpty() throws Exception {
+    try (SpooledContent content = SpooledContent.of(null)) {
+      assertThat(content.size()).isZero();
+      assertThat(content.sha256()).isEqualTo(sha256(new byte[0]));
+      assertThat(readAll(content)).isEmpty();
+    }
+  }
+
+  private static byte[] readAll(SpooledContent content) throws IOException {
+    try (InputStream in = content.openStream()) {
+      return in.readAllBytes();
+    }
+  }
+
+  private static String sha256(byte[] data) throws Exception {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+  }
+}
@@ -0,0 +1,153 @@
+package tools.vitruv.methodologist.general.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ZipStreamWriterTest {
+  private static final Instant MODIFIED = Instant.parse("2026-03-04T05:06:08Z");
+  private static final byte[] MODEL =
+      "<ecore:EPackage name=\"persons\"><eClassifiers name=\"Person\"/></ecore:EPackage>\n"
+          .repeat(200)
+          .getBytes(StandardCharsets.UTF_8);
+
+  @TempDir Path tempDir;
+
+  @Test
+  void putDeflated_copiesCompressedDataUnchanged() throws IOException {
+    byte[] deflated = deflate(MODEL);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (ZipStreamWriter zip = new ZipStreamWriter(out)) {
+      zip.putDeflated("reactions/1/model.reactions", MODIFIED, MODEL.length, stream(deflated));
+    }
+
+    byte[] archive = out.toByteArray();
+    assertThat(indexOf(archive, deflated)).isPositive();
+    assertThat(readWithZipFile(archive))
+        .containsExactly(Map.entry("reactions/1/model.reactions", MODEL));
+  }
+
+  @Test
+  void putCompressed_deflatesContent() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (ZipStreamWriter zip = new ZipStreamWriter(out)) {
+      zip.putCompressed("metamodels/1/persons.ecore", MODIFIED, MODEL.length, stream(MODEL), 6);
+    }
+
+    assertThat(out.size()).isLessThan(MODEL.length / 4);
+    assertThat(readWithZipFile(out.toByteArray()))
+        .containsExactly(Map.entry("metamodels/1/persons.ecore", MODEL));
+  }
+
+  @Test
+  void archive_withSeveralEntries_isReadableAsStream() throws IOException {
+    byte[] random = new byte[50_000];
+    new Random(1).nextBytes(random);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (ZipStreamWriter zip = new ZipStreamWriter(out)) {
+      zip.putCompressed("a/äöü.ecore", MODIFIED, MODEL.length, stream(MODEL), 6);
+      zip.putDeflated("b/random.bin", MODIFIED, random.length, stream(deflate(random)));
+      zip.putCompressed("c/empty.ocl", MODIFIED, 0, stream(new byte[0]), 6);
+    }
+
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (ZipInputStream in = new ZipInputStream(stream(out.toByteArray()))) {
+      ZipEntry entry;
+      while ((entry = in.getNextEntry()) != null) {
+        assertThat(entry.getLastModifiedTime().toInstant()).isEqualTo(MODIFIED);
+        entries.put(entry.getName(), in.readAllBytes());
+      }
+    }
+    assertThat(entries).containsOnlyKeys("a/äöü.ecore", "b/random.bin", "c/empty.ocl");
+    assertThat(entries.get("a/äöü.ecore")).isEqualTo(MODEL);
+    assertThat(entries.get("b/random.bin")).isEqualTo(random);
+    assertThat(entries.get("c/empty.ocl")).isEmpty();
+  }
+
+  @Test
+  void putDeflated_sizeMismatch_throws() {
+    byte[] deflated = deflate(MODEL);
+
+    assertThatThrownBy(
+            () -> {
+              try (ZipStreamWriter zip = new ZipStreamWriter(new ByteArrayOutputStream())) {
+                zip.putDeflated("model", MODIFIED, MODEL.length + 1, stream(deflated));
+              }
+            })
+        .isInstanceOf(ZipException.class);
+  }
+
+  @Test
+  void putDeflated_invalidData_throws() {
+    byte[] garbage = new byte[100];
+    Arrays.fill(garbage, (byte) 0xFF);
+
+    assertThatThrownBy(
+            () -> {
+              try (ZipStreamWriter zip = new ZipStreamWriter(new ByteArrayOutputStream())) {
+                zip.putDeflated("model", MODIFIED, 100, stream(garbage));
+              }
+            })
+        .isInstanceOf(ZipException.class);
+  }
+
+  private Map<String, byte[]> readWithZipFile(byte[] archive) throws IOException {
+    Path file = Files.write(tempDir.resolve("bundle.zip"), archive);
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (ZipFile zip = new ZipFile(file.toFile())) {
+      for (ZipEntry entry : Collections.list(zip.entries())) {
+        try (InputStream in = zip.getInputStream(entry)) {
+          entries.put(entry.getName(), in.readAllBytes());
+        }
+      }
+    }
+    return entries;
+  }
+
+  private static byte[] deflate(byte[] data) {
+    try (InputStream in = ContentCodec.DEFLATE.encode(stream(data), 6)) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static InputStream stream(byte[] data) {
+    return new ByteArrayInputStream(data);
+  }
+
+  private static int indexOf(byte[] haystack, byte[] needle) {
+    outer:
+    for (int i = 0; i <= haystack.length - needle.length; i++) {
+      for (int j = 0; j < needle.length; j++) {
+        if (haystack[i + j] != needle[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
+}
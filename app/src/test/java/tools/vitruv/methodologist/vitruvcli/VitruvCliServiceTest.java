@@ -4,26 +4,30 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedConstruction;
+import org.mockito.ArgumentCaptor;
 import tools.vitruv.methodologist.exception.CLIExecuteException;
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiterProperties;
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiters;
+import tools.vitruv.methodologist.general.concurrency.SystemLoad;
+import tools.vitruv.methodologist.general.process.ProcessExecutor;
+import tools.vitruv.methodologist.general.process.ProcessRequest;
+import tools.vitruv.methodologist.general.process.ProcessResult;
 
 class VitruvCliServiceTest {
 
   private VitruvCliProperties properties;
+  private ProcessExecutor processExecutor;
   private VitruvCliService service;
 
   @BeforeEach
@@ -34,358 +38,192 @@ class VitruvCliServiceTest {
     properties.setWorkingDir("build/vitruv-cli-test-workdir");
     properties.setTimeoutSeconds(5);
 
-    service = new VitruvCliService(properties);
+    processExecutor = mock(ProcessExecutor.class);
+
+    service =
+        new VitruvCliService(
+            properties,
+            processExecutor,
+            new ConcurrencyLimiters(
+                new ConcurrencyLimiterProperties(),
+                mock(SystemLoad.class),
+                new SimpleMeterRegistry()));
   }
 
-  @Test
-  void run_returnsSuccessResult_whenProcessExitsZero_andNoStderr() {
-    Path folder = Path.of("/tmp/project");
-    Path reactionsDir = Path.of("/tmp/reactions");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
-
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              List<String> cmd = context.arguments().stream().map(Object::toString).toList();
-              assertThat(cmd.toString()).contains("-rs").contains("reactions");
-
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
-
-              Process process = mock(Process.class);
-              when(pbMock.start()).thenReturn(process);
-              when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
-
-              when(process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS))
-                  .thenReturn(true);
-              when(process.exitValue()).thenReturn(0);
-              when(process.getInputStream())
-                  .thenReturn(
-                      new ByteArrayInputStream("OK STDOUT".getBytes(StandardCharsets.UTF_8)));
-              when(process.getErrorStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
-            })) {
-
-      VitruvCliService.VitruvCliResult result = service.run(folder, List.of(mm), reactionsDir);
-
-      assertThat(result.getExitCode()).isZero();
-      assertThat(result.getStdout()).contains("OK STDOUT");
-      assertThat(result.getStderr()).isEmpty();
-      assertThat(result.isSuccess()).isTrue();
-      assertThat(mocked.constructed()).hasSize(1);
-    }
+  private static VitruvCliService.MetamodelInput metamodel() {
+    return VitruvCliService.MetamodelInput.builder()
+        .ecorePath(Path.of("/tmp/model.ecore"))
+        .genmodelPath(Path.of("/tmp/model.genmodel"))
+        .build();
+  }
+
+  private static ProcessResult exited(int exitCode, String stdout, String stderr) {
+    return ProcessResult.builder()
+        .exitCode(exitCode)
+        .stdout(stdout)
+        .stderr(stderr)
+        .wallTime(Duration.ofMillis(10))
+        .build();
+  }
+
+  private ProcessRequest capturedRequest() throws Exception {
+    ArgumentCaptor<ProcessRequest> captor = ArgumentCaptor.forClass(ProcessRequest.class);
+    verify(processExecutor).run(captor.capture());
+    return captor.getValue();
   }
 
   @Test
-  void run_returnsFailureResult_whenExitCodeNonZero() {
+  void run_returnsSuccessResult_whenProcessExitsZero_andNoStderr() throws Exception {
     Path folder = Path.of("/tmp/project");
     Path reactionsDir = Path.of("/tmp/reactions");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
-
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
-
-              Process process = mock(Process.class);
-              when(pbMock.start()).thenReturn(process);
-              when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
-
-              when(process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS))
-                  .thenReturn(true);
-              when(process.exitValue()).thenReturn(1);
-              when(process.getInputStream())
-                  .thenReturn(
-                      new ByteArrayInputStream("some stdout".getBytes(StandardCharsets.UTF_8)));
-              when(process.getErrorStream())
-                  .thenReturn(
-                      new ByteArrayInputStream("Parsing failed".getBytes(StandardCharsets.UTF_8)));
-            })) {
-
-      VitruvCliService.VitruvCliResult result = service.run(folder, List.of(mm), reactionsDir);
-
-      assertThat(result.getExitCode()).isEqualTo(1);
-      assertThat(result.getStdout()).contains("some stdout");
-      assertThat(result.getStderr()).contains("Parsing failed");
-      assertThat(result.isSuccess()).isFalse();
-      assertThat(mocked.constructed()).hasSize(1);
-    }
+    when(processExecutor.run(any(ProcessRequest.class))).thenReturn(exited(0, "OK STDOUT", ""));
+
+    VitruvCliService.VitruvCliResult result =
+        service.run(folder, List.of(metamodel()), reactionsDir);
+
+    assertThat(result.getExitCode()).isZero();
+    assertThat(result.getStdout()).contains("OK STDOUT");
+    assertThat(result.getStderr()).isEmpty();
+    assertThat(result.isSuccess()).isTrue();
+
+    ProcessRequest request = capturedRequest();
+    assertThat(request.getName()).isEqualTo(VitruvCliService.PROCESS_NAME);
+    assertThat(request.getCommand())
+        .containsSequence("java", "-jar", "/opt/vitruv/vitruv-cli.jar")
+        .containsSequence("-rs", "reactions");
+    assertThat(request.getDirectory()).isEqualTo(folder);
+    assertThat(request.getTimeout()).isEqualTo(Duration.ofSeconds(5));
   }
 
   @Test
-  void run_throwsIllegalState_whenProcessTimesOut() {
+  void run_returnsFailureResult_whenExitCodeNonZero() throws Exception {
     Path folder = Path.of("/tmp/project");
     Path reactionsDir = Path.of("/tmp/reactions");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
-
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
-
-              Process process = mock(Process.class);
-              when(pbMock.start()).thenReturn(process);
-              when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+    when(processExecutor.run(any(ProcessRequest.class)))
+        .thenReturn(exited(1, "some stdout", "Parsing failed"));
 
-              when(process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS))
-                  .thenReturn(false);
-            })) {
+    VitruvCliService.VitruvCliResult result =
+        service.run(folder, List.of(metamodel()), reactionsDir);
 
-      ThrowingCallable callable = () -> service.run(folder, List.of(mm), reactionsDir);
-
-      assertThatThrownBy(callable)
-          .isInstanceOf(IllegalStateException.class)
-          .hasMessageContaining("timed out");
-      assertThat(mocked.constructed()).hasSize(1);
-    }
+    assertThat(result.getExitCode()).isEqualTo(1);
+    assertThat(result.getStdout()).contains("some stdout");
+    assertThat(result.getStderr()).contains("Parsing failed");
+    assertThat(result.isSuccess()).isFalse();
   }
 
   @Test
-  void run_wrapsIOException_inCLIExecuteException() {
+  void run_throwsIllegalState_whenProcessTimesOut() throws Exception {
     Path folder = Path.of("/tmp/project");
     Path reactionsDir = Path.of("/tmp/reactions");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
-
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
-
-              when(pbMock.start()).thenThrow(new IOException("cannot start process"));
-            })) {
-
-      ThrowingCallable callable = () -> service.run(folder, List.of(mm), reactionsDir);
-
-      assertThatThrownBy(callable)
-          .isInstanceOf(CLIExecuteException.class)
-          .hasMessageContaining("cannot start process");
-      assertThat(mocked.constructed()).hasSize(1);
-    }
+    when(processExecutor.run(any(ProcessRequest.class)))
+        .thenReturn(
+            ProcessResult.builder()
+                .exitCode(-1)
+                .stdout("")
+                .stderr("")
+                .timedOut(true)
+                .wallTime(Duration.ofSeconds(5))
+                .build());
+
+    ThrowingCallable callable = () -> service.run(folder, List.of(metamodel()), reactionsDir);
+
+    assertThatThrownBy(callable)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("timed out");
   }
 
   @Test
-  void run_wrapsInterruptedException_inCLIExecuteException_andInterruptsThread() {
+  void run_wrapsIOException_inCLIExecuteException() throws Exception {
     Path folder = Path.of("/tmp/project");
     Path reactionsDir = Path.of("/tmp/reactions");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
+    when(processExecutor.run(any(ProcessRequest.class)))
+        .thenThrow(new IOException("cannot start process"));
 
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
+    ThrowingCallable callable = () -> service.run(folder, List.of(metamodel()), reactionsDir);
 
-              Process process = mock(Process.class);
-              when(pbMock.start()).thenReturn(process);
-              when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+    assertThatThrownBy(callable)
+        .isInstanceOf(CLIExecuteException.class)
+        .hasMessageContaining("cannot start process");
+  }
 
-              when(process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS))
-                  .thenThrow(new InterruptedException("interrupted"));
-            })) {
+  @Test
+  void run_wrapsInterruptedException_inCLIExecuteException_andInterruptsThread() throws Exception {
+    Path folder = Path.of("/tmp/project");
+    Path reactionsDir = Path.of("/tmp/reactions");
+    when(processExecutor.run(any(ProcessRequest.class)))
+        .thenThrow(new InterruptedException("interrupted"));
 
-      ThrowingCallable callable = () -> service.run(folder, List.of(mm), reactionsDir);
+    try {
+      ThrowingCallable callable = () -> service.run(folder, List.of(metamodel()), reactionsDir);
 
       assertThatThrownBy(callable)
           .isInstanceOf(CLIExecuteException.class)
           .hasMessageContaining("interrupted");
-      assertThat(mocked.constructed()).hasSize(1);
+      assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    } finally {
+      Thread.interrupted();
     }
   }
 
   @Test
-  void precheckGenmodels_returnsCleanStatus_whenMarkerIsPresent() {
+  void precheckGenmodels_returnsCleanStatus_whenMarkerIsPresent() throws Exception {
     Path folder = Path.of("/tmp/project");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
-
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              String cmd = context.arguments().get(0).toString();
-              assertThat(cmd).contains("-pg", "-m");
-              assertThat(cmd).doesNotContain("--apply");
-
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
-
-              Process process = mock(Process.class);
-              when(pbMock.start()).thenReturn(process);
-              when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
-
-              when(process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS))
-                  .thenReturn(true);
-              when(process.exitValue()).thenReturn(0);
-              when(process.getInputStream())
-                  .thenReturn(
-                      new ByteArrayInputStream(
-                          "GENMODEL_PRECHECK_STATUS: CLEAN\nall good"
-                              .getBytes(StandardCharsets.UTF_8)));
-              when(process.getErrorStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
-            })) {
-
-      VitruvCliService.GenModelPrecheckResult result =
-          service.precheckGenmodels(folder, List.of(mm), false);
-
-      assertThat(result.getExitCode()).isZero();
-      assertThat(result.getStatus()).isEqualTo(GenModelPrecheckStatus.CLEAN);
-      assertThat(result.isSuccess()).isTrue();
-      assertThat(mocked.constructed()).hasSize(1);
-    }
+    when(processExecutor.run(any(ProcessRequest.class)))
+        .thenReturn(exited(0, "GENMODEL_PRECHECK_STATUS: CLEAN\nall good", ""));
+
+    VitruvCliService.GenModelPrecheckResult result =
+        service.precheckGenmodels(folder, List.of(metamodel()), false);
+
+    assertThat(result.getExitCode()).isZero();
+    assertThat(result.getStatus()).isEqualTo(GenModelPrecheckStatus.CLEAN);
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(capturedRequest().getCommand()).contains("-pg", "-m").doesNotContain("--apply");
   }
 
   @Test
-  void precheckGenmodels_includesApplyFlag_andParsesFixesAppliedStatus() {
+  void precheckGenmodels_includesApplyFlag_andParsesFixesAppliedStatus() throws Exception {
     Path folder = Path.of("/tmp/project");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
-
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              String cmd = context.arguments().get(0).toString();
-              assertThat(cmd).contains("-pg", "--apply", "-m");
-
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
-
-              Process process = mock(Process.class);
-              when(pbMock.start()).thenReturn(process);
-              when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
-
-              when(process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS))
-                  .thenReturn(true);
-              when(process.exitValue()).thenReturn(0);
-              when(process.getInputStream())
-                  .thenReturn(
-                      new ByteArrayInputStream(
-                          "GENMODEL_PRECHECK_STATUS: FIXES_APPLIED"
-                              .getBytes(StandardCharsets.UTF_8)));
-              when(process.getErrorStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
-            })) {
-
-      VitruvCliService.GenModelPrecheckResult result =
-          service.precheckGenmodels(folder, List.of(mm), true);
-
-      assertThat(result.getStatus()).isEqualTo(GenModelPrecheckStatus.FIXES_APPLIED);
-      assertThat(result.isSuccess()).isTrue();
-      assertThat(mocked.constructed()).hasSize(1);
-    }
+    when(processExecutor.run(any(ProcessRequest.class)))
+        .thenReturn(exited(0, "GENMODEL_PRECHECK_STATUS: FIXES_APPLIED", ""));
+
+    VitruvCliService.GenModelPrecheckResult result =
+        service.precheckGenmodels(folder, List.of(metamodel()), true);
+
+    assertThat(result.getStatus()).isEqualTo(GenModelPrecheckStatus.FIXES_APPLIED);
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(capturedRequest().getCommand()).contains("-pg", "--apply", "-m");
   }
 
   @Test
-  void precheckGenmodels_returnsUnknownStatus_whenMarkerIsMissing() {
+  void precheckGenmodels_returnsUnknownStatus_whenMarkerIsMissing() throws Exception {
     Path folder = Path.of("/tmp/project");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
-
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
-
-              Process process = mock(Process.class);
-              when(pbMock.start()).thenReturn(process);
-              when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
-
-              when(process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS))
-                  .thenReturn(true);
-              when(process.exitValue()).thenReturn(0);
-              when(process.getInputStream())
-                  .thenReturn(
-                      new ByteArrayInputStream("plain output".getBytes(StandardCharsets.UTF_8)));
-              when(process.getErrorStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
-            })) {
-
-      VitruvCliService.GenModelPrecheckResult result =
-          service.precheckGenmodels(folder, List.of(mm), false);
-
-      assertThat(result.getStatus()).isEqualTo(GenModelPrecheckStatus.UNKNOWN);
-      assertThat(result.isSuccess()).isFalse();
-      assertThat(mocked.constructed()).hasSize(1);
-    }
+    when(processExecutor.run(any(ProcessRequest.class))).thenReturn(exited(0, "plain output", ""));
+
+    VitruvCliService.GenModelPrecheckResult result =
+        service.precheckGenmodels(folder, List.of(metamodel()), false);
+
+    assertThat(result.getStatus()).isEqualTo(GenModelPrecheckStatus.UNKNOWN);
+    assertThat(result.isSuccess()).isFalse();
   }
 
   @Test
-  void precheckGenmodels_usesLastStatusMarker_whenMultipleMarkersArePrinted() {
+  void precheckGenmodels_usesLastStatusMarker_whenMultipleMarkersArePrinted() throws Exception {
     Path folder = Path.of("/tmp/project");
-    VitruvCliService.MetamodelInput mm =
-        VitruvCliService.MetamodelInput.builder()
-            .ecorePath(Path.of("/tmp/model.ecore"))
-            .genmodelPath(Path.of("/tmp/model.genmodel"))
-            .build();
-
-    try (MockedConstruction<ProcessBuilder> mocked =
-        mockConstruction(
-            ProcessBuilder.class,
-            (pbMock, context) -> {
-              when(pbMock.directory(any(File.class))).thenReturn(pbMock);
-              when(pbMock.redirectErrorStream(false)).thenReturn(pbMock);
-
-              Process process = mock(Process.class);
-              when(pbMock.start()).thenReturn(process);
-              when(process.getOutputStream()).thenReturn(new ByteArrayOutputStream());
-
-              when(process.waitFor(properties.getTimeoutSeconds(), TimeUnit.SECONDS))
-                  .thenReturn(true);
-              when(process.exitValue()).thenReturn(0);
-              when(process.getInputStream())
-                  .thenReturn(
-                      new ByteArrayInputStream(
-                          """
-                          GENMODEL_PRECHECK_STATUS: ISSUES_FOUND
-                          details
-                          GENMODEL_PRECHECK_STATUS: FIXES_APPLIED\
-                          """
-                              .getBytes(StandardCharsets.UTF_8)));
-              when(process.getErrorStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
-            })) {
-
-      VitruvCliService.GenModelPrecheckResult result =
-          service.precheckGenmodels(folder, List.of(mm), true);
-
-      assertThat(result.getStatus()).isEqualTo(GenModelPrecheckStatus.FIXES_APPLIED);
-      assertThat(result.isSuccess()).isTrue();
-      assertThat(mocked.constructed()).hasSize(1);
-    }
+    when(processExecutor.run(any(ProcessRequest.class)))
+        .thenReturn(
+            exited(
+                0,
+                """
+                GENMODEL_PRECHECK_STATUS: ISSUES_FOUND
+                details
+                GENMODEL_PRECHECK_STATUS: FIXES_APPLIED\
+                """,
+                ""));
+
+    VitruvCliService.GenModelPrecheckResult result =
+        service.precheckGenmodels(folder, List.of(metamodel()), true);
+
+    assertThat(result.getStatus()).isEqualTo(GenModelPrecheckStatus.FIXES_APPLIED);
+    assertThat(result.isSuccess()).isTrue();
   }
 }
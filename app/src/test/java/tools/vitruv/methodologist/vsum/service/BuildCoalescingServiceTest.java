@@ -0,0 +1,211 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import tools.vitruv.methodologist.exception.SetupServiceException;
+import tools.vitruv.methodologist.general.storage.ArtifactCache;
+import tools.vitruv.methodologist.general.storage.CachedArtifact;
+import tools.vitruv.methodologist.vsum.model.repository.BuildJobRepository;
+
+class BuildCoalescingServiceTest {
+  private static final String KEY = "ab".repeat(32);
+  private static final byte[] BYTES = {1};
+
+  @TempDir Path directory;
+
+  private BuildJobRepository buildJobRepository;
+  private SimpleMeterRegistry meterRegistry;
+  private ArtifactCache artifactCache;
+  private BuildCoalescingService service;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    buildJobRepository = mock(BuildJobRepository.class);
+    when(buildJobRepository.tryLease(anyString(), anyString(), anyLong())).thenReturn(1);
+    meterRegistry = new SimpleMeterRegistry();
+    artifactCache = newCache();
+    service =
+        new BuildCoalescingService(
+            null,
+            buildJobRepository,
+            artifactCache,
+            meterRegistry,
+            Duration.ofMillis(10),
+            Duration.ofMillis(200),
+            Clock.systemUTC());
+    ReflectionTestUtils.setField(service, "self", service);
+  }
+
+  @Test
+  void build_concurrentCallers_shareOneBuild() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger builds = new AtomicInteger();
+
+    CompletableFuture<CachedArtifact> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                service.build(
+                    KEY,
+                    file -> {
+                      builds.incrementAndGet();
+                      started.countDown();
+                      await(release);
+                      Files.write(file, new byte[] {1, 2, 3});
+                    }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<CachedArtifact> second =
+        CompletableFuture.supplyAsync(
+            () ->
+                service.build(
+                    KEY,
+                    file -> {
+                      builds.incrementAndGet();
+                      Files.write(file, new byte[] {9});
+                    }));
+    while (coalesced("local") == 0 && !second.isDone()) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    assertThat(first.get(5, TimeUnit.SECONDS).content().contentLength()).isEqualTo(3);
+    assertThat(second.get(5, TimeUnit.SECONDS).content().contentLength()).isEqualTo(3);
+    assertThat(builds).hasValue(1);
+    assertThat(coalesced("local")).isEqualTo(1);
+  }
+
+  @Test
+  void build_lockHeldByOtherInstance_servesItsArtifact() throws IOException {
+    ArtifactCache otherInstance = newCache();
+    when(buildJobRepository.tryLease(anyString(), anyString(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              otherInstance.put(KEY, new byte[] {4, 5});
+              return 0;
+            });
+
+    CachedArtifact artifact =
+        service.build(
+            KEY,
+            file -> {
+              throw new AssertionError("must not build");
+            });
+
+    assertThat(artifact.content().contentLength()).isEqualTo(2);
+    assertThat(coalesced("remote")).isEqualTo(1);
+  }
+
+  @Test
+  void build_lockNeverReleased_buildsAfterTimeout() throws IOException {
+    when(buildJobRepository.tryLease(anyString(), anyString(), anyLong())).thenReturn(0);
+
+    CachedArtifact artifact = service.build(KEY, file -> Files.write(file, new byte[] {7}));
+
+    assertThat(artifact.content().contentLength()).isEqualTo(1);
+    assertThat(coalesced("remote")).isZero();
+  }
+
+  @Test
+  void build_releasesItsLease_alsoWhenTheBuildFails() {
+    ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+
+    service.build(KEY, file -> Files.write(file, BYTES));
+    assertThatThrownBy(
+            () ->
+                service.build(
+                    "cd".repeat(32),
+                    file -> {
+                      throw new SetupServiceException("down");
+                    }))
+        .isInstanceOf(SetupServiceException.class);
+
+    verify(buildJobRepository).tryLease(eq(KEY), owner.capture(), eq(200L / 1000));
+    verify(buildJobRepository).releaseLease(KEY, owner.getValue());
+    verify(buildJobRepository).releaseLease(eq("cd".repeat(32)), anyString());
+  }
+
+  @Test
+  void build_failure_isNotRemembered() throws IOException {
+    assertThatThrownBy(
+            () ->
+                service.build(
+                    KEY,
+                    file -> {
+                      throw new SetupServiceException("down");
+                    }))
+        .isInstanceOf(SetupServiceException.class);
+
+    CachedArtifact artifact = service.build(KEY, file -> Files.write(file, new byte[] {1}));
+
+    assertThat(artifact.content().contentLength()).isEqualTo(1);
+  }
+
+  @Test
+  void build_error_isPassedToCoalescedCallers() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<CachedArtifact> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                service.build(
+                    KEY,
+                    file -> {
+                      started.countDown();
+                      await(release);
+                      throw new OutOfMemoryError("build");
+                    }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<CachedArtifact> second =
+        CompletableFuture.supplyAsync(() -> service.build(KEY, file -> Files.write(file, BYTES)));
+    while (coalesced("local") == 0 && !second.isDone()) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(OutOfMemoryError.class);
+    assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(OutOfMemoryError.class);
+  }
+
+  private ArtifactCache newCache() throws IOException {
+    return new ArtifactCache(
+        directory, DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+  }
+
+  private double coalesced(String scope) {
+    return meterRegistry.get("vsum.build.coalesced").tag("scope", scope).counter().count();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
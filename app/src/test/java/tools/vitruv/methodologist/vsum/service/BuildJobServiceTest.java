@@ -0,0 +1,288 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.vitruv.methodologist.exception.BuildJobLimitExceededException;
+import tools.vitruv.methodologist.exception.BuildJobNotFinishedException;
+import tools.vitruv.methodologist.exception.BuildQueueFullException;
+import tools.vitruv.methodologist.exception.NotFoundException;
+import tools.vitruv.methodologist.exception.SetupServiceException;
+import tools.vitruv.methodologist.general.storage.ArtifactCache;
+import tools.vitruv.methodologist.general.storage.CachedArtifact;
+import tools.vitruv.methodologist.user.model.User;
+import tools.vitruv.methodologist.user.model.repository.UserRepository;
+import tools.vitruv.methodologist.vsum.BuildJobStatus;
+import tools.vitruv.methodologist.vsum.controller.dto.response.BuildJobResponse;
+import tools.vitruv.methodologist.vsum.model.BuildJob;
+import tools.vitruv.methodologist.vsum.model.Vsum;
+import tools.vitruv.methodologist.vsum.model.VsumUser;
+import tools.vitruv.methodologist.vsum.model.repository.BuildJobRepository;
+import tools.vitruv.methodologist.vsum.model.repository.VsumUserRepository;
+
+class BuildJobServiceTest {
+  private static final String EMAIL = "user@example.com";
+  private static final Long VSUM_ID = 7L;
+  private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+  private static final String KEY = "a".repeat(64);
+
+  private BuildJobRepository buildJobRepository;
+  private VsumUserRepository vsumUserRepository;
+  private UserRepository userRepository;
+  private VsumService vsumService;
+  private ArtifactCache artifactCache;
+  private SimpleMeterRegistry meterRegistry;
+  private BuildJobService service;
+  private User user;
+  private Vsum vsum;
+
+  @BeforeEach
+  void setUp() {
+    buildJobRepository = mock(BuildJobRepository.class);
+    vsumUserRepository = mock(VsumUserRepository.class);
+    userRepository = mock(UserRepository.class);
+    vsumService = mock(VsumService.class);
+    artifactCache = mock(ArtifactCache.class);
+    meterRegistry = new SimpleMeterRegistry();
+    service =
+        new BuildJobService(
+            null,
+            buildJobRepository,
+            vsumUserRepository,
+            userRepository,
+            vsumService,
+            artifactCache,
+            meterRegistry,
+            1,
+            2,
+            2,
+            Duration.ofMinutes(15),
+            Duration.ofSeconds(30),
+            Duration.ofDays(7),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+    ReflectionTestUtils.setField(service, "self", service);
+
+    user = User.builder().id(1L).email(EMAIL).build();
+    vsum = Vsum.builder().id(VSUM_ID).build();
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(
+                VSUM_ID, EMAIL))
+        .thenReturn(Optional.of(VsumUser.builder().user(user).vsum(vsum).build()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void submit_queuesJobWithItsQueuePosition() {
+    when(buildJobRepository.save(any(BuildJob.class)))
+        .thenAnswer(
+            invocation -> {
+              BuildJob job = invocation.getArgument(0);
+              job.setId(10L);
+              return job;
+            });
+    when(buildJobRepository.countByStatusAndIdLessThan(BuildJobStatus.QUEUED, 10L)).thenReturn(1L);
+
+    BuildJobResponse response = service.submit(EMAIL, VSUM_ID);
+
+    assertThat(response.getId()).isEqualTo(10L);
+    assertThat(response.getVsumId()).isEqualTo(VSUM_ID);
+    assertThat(response.getStatus()).isEqualTo(BuildJobStatus.QUEUED);
+    assertThat(response.getQueuePosition()).isEqualTo(1L);
+    verify(buildJobRepository, timeout(5000)).lockNextQueued();
+  }
+
+  @Test
+  void submit_activeJobForSameVsum_returnsIt() {
+    BuildJob running = job(3L, BuildJobStatus.RUNNING);
+    when(buildJobRepository.findFirstByUser_EmailAndVsum_IdAndStatusInOrderByIdAsc(
+            EMAIL, VSUM_ID, BuildJobService.ACTIVE))
+        .thenReturn(Optional.of(running));
+
+    BuildJobResponse response = service.submit(EMAIL, VSUM_ID);
+
+    assertThat(response.getId()).isEqualTo(3L);
+    assertThat(response.getQueuePosition()).isNull();
+    verify(buildJobRepository, never()).save(any());
+  }
+
+  @Test
+  void submit_userLimitReached_throws() {
+    when(buildJobRepository.countByUser_EmailAndStatusIn(EMAIL, BuildJobService.ACTIVE))
+        .thenReturn(2L);
+
+    assertThatThrownBy(() -> service.submit(EMAIL, VSUM_ID))
+        .isInstanceOf(BuildJobLimitExceededException.class);
+    verify(buildJobRepository, never()).save(any());
+  }
+
+  @Test
+  void submit_locksTheUserBeforeCountingItsJobs() {
+    when(buildJobRepository.countByUser_EmailAndStatusIn(EMAIL, BuildJobService.ACTIVE))
+        .thenReturn(2L);
+
+    assertThatThrownBy(() -> service.submit(EMAIL, VSUM_ID))
+        .isInstanceOf(BuildJobLimitExceededException.class);
+
+    InOrder inOrder = inOrder(userRepository, buildJobRepository);
+    inOrder.verify(userRepository).lockById(user.getId());
+    inOrder.verify(buildJobRepository).countByUser_EmailAndStatusIn(EMAIL, BuildJobService.ACTIVE);
+  }
+
+  @Test
+  void submit_queueFull_throwsWithRetryAfter() {
+    when(buildJobRepository.countByStatus(BuildJobStatus.QUEUED)).thenReturn(2L);
+
+    assertThatThrownBy(() -> service.submit(EMAIL, VSUM_ID))
+        .isInstanceOfSatisfying(
+            BuildQueueFullException.class,
+            e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(30)));
+    verify(buildJobRepository, never()).save(any());
+  }
+
+  @Test
+  void submit_withoutAccess_throws() {
+    assertThatThrownBy(() -> service.submit("other@example.com", VSUM_ID))
+        .isInstanceOf(AccessDeniedException.class);
+  }
+
+  @Test
+  void poll_runsQueuedJobAndRecordsArtifact() {
+    BuildJob queued = job(5L, BuildJobStatus.QUEUED);
+    when(buildJobRepository.lockNextQueued())
+        .thenReturn(Optional.of(queued))
+        .thenReturn(Optional.empty());
+    VsumBuildInputs inputs = new VsumBuildInputs(List.of(), List.of(), List.of(), KEY);
+    when(vsumService.prepareJarBuild(EMAIL, VSUM_ID)).thenReturn(inputs);
+    when(vsumService.buildJar(inputs))
+        .thenReturn(new CachedArtifact(KEY, new ByteArrayResource(new byte[1])));
+
+    service.poll();
+
+    verify(buildJobRepository).requeueStarted(NOW.minus(Duration.ofMinutes(15)));
+    verify(vsumService, timeout(5000)).buildJar(inputs);
+    verify(buildJobRepository, timeout(5000).times(2)).lockNextQueued();
+    verify(buildJobRepository).finishRunning(5L, NOW, BuildJobStatus.SUCCEEDED, KEY, null, NOW);
+    assertThat(queued.getStatus()).isEqualTo(BuildJobStatus.RUNNING);
+    assertThat(queued.getStartedAt()).isEqualTo(NOW);
+  }
+
+  @Test
+  void poll_failedBuild_recordsTruncatedError() {
+    BuildJob queued = job(5L, BuildJobStatus.QUEUED);
+    when(buildJobRepository.lockNextQueued())
+        .thenReturn(Optional.of(queued))
+        .thenReturn(Optional.empty());
+    when(vsumService.prepareJarBuild(EMAIL, VSUM_ID))
+        .thenThrow(new SetupServiceException("x".repeat(3000)));
+
+    service.poll();
+
+    verify(buildJobRepository, timeout(5000).times(2)).lockNextQueued();
+    ArgumentCaptor<String> error = ArgumentCaptor.forClass(String.class);
+    verify(buildJobRepository)
+        .finishRunning(
+            eq(5L), eq(NOW), eq(BuildJobStatus.FAILED), isNull(), error.capture(), eq(NOW));
+    assertThat(error.getValue()).hasSize(BuildJobService.MAX_ERROR_LENGTH);
+    assertThat(meterRegistry.get("vsum.build.jobs").tag("result", "failed").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void claimNext_truncatesTheStartTimeToTheStoredPrecision() {
+    Instant precise = NOW.plusNanos(1_234_567);
+    BuildJobService preciseService =
+        new BuildJobService(
+            null,
+            buildJobRepository,
+            vsumUserRepository,
+            userRepository,
+            vsumService,
+            artifactCache,
+            meterRegistry,
+            1,
+            2,
+            2,
+            Duration.ofMinutes(15),
+            Duration.ofSeconds(30),
+            Duration.ofDays(7),
+            Clock.fixed(precise, ZoneOffset.UTC));
+    when(buildJobRepository.lockNextQueued())
+        .thenReturn(Optional.of(job(5L, BuildJobStatus.QUEUED)));
+
+    Optional<BuildJobService.ClaimedJob> claimed = preciseService.claimNext();
+
+    assertThat(claimed)
+        .get()
+        .extracting(BuildJobService.ClaimedJob::startedAt)
+        .isEqualTo(NOW.plusNanos(1_234_000));
+    preciseService.shutdown();
+  }
+
+  @Test
+  void artifact_jobNotSucceeded_throws() {
+    when(buildJobRepository.findByIdAndUser_EmailAndUser_RemovedAtIsNull(5L, EMAIL))
+        .thenReturn(Optional.of(job(5L, BuildJobStatus.RUNNING)));
+
+    assertThatThrownBy(() -> service.artifact(EMAIL, 5L))
+        .isInstanceOf(BuildJobNotFinishedException.class);
+  }
+
+  @Test
+  void artifact_succeededJob_isServedFromCache() {
+    BuildJob succeeded = job(5L, BuildJobStatus.SUCCEEDED);
+    succeeded.setArtifactKey(KEY);
+    when(buildJobRepository.findByIdAndUser_EmailAndUser_RemovedAtIsNull(5L, EMAIL))
+        .thenReturn(Optional.of(succeeded));
+    CachedArtifact cached = new CachedArtifact(KEY, new ByteArrayResource(new byte[1]));
+    when(artifactCache.get(KEY)).thenReturn(Optional.of(cached));
+
+    assertThat(service.artifact(EMAIL, 5L)).isSameAs(cached);
+  }
+
+  @Test
+  void artifact_evictedFromCache_throwsNotFound() {
+    BuildJob succeeded = job(5L, BuildJobStatus.SUCCEEDED);
+    succeeded.setArtifactKey(KEY);
+    when(buildJobRepository.findByIdAndUser_EmailAndUser_RemovedAtIsNull(5L, EMAIL))
+        .thenReturn(Optional.of(succeeded));
+
+    assertThatThrownBy(() -> service.artifact(EMAIL, 5L)).isInstanceOf(NotFoundException.class);
+  }
+
+  @Test
+  void status_otherUsersJob_throwsNotFound() {
+    assertThatThrownBy(() -> service.status(EMAIL, 5L)).isInstanceOf(NotFoundException.class);
+  }
+
+  private BuildJob job(Long id, BuildJobStatus status) {
+    return BuildJob.builder().id(id).user(user).vsum(vsum).status(status).build();
+  }
+}
@@ -3,6 +3,7 @@ package tools.vitruv.methodologist.vsum.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -16,10 +17,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 import tools.vitruv.methodologist.exception.NotFoundException;
 import tools.vitruv.methodologist.exception.UnauthorizedException;
+import tools.vitruv.methodologist.general.mapper.FileStorageMapper;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.model.repository.FileStorageRepository;
+import tools.vitruv.methodologist.general.service.FileContentService;
+import tools.vitruv.methodologist.general.service.FileStorageService;
+import tools.vitruv.methodologist.general.storage.CompressionPolicy;
+import tools.vitruv.methodologist.general.storage.ContentSpooler;
+import tools.vitruv.methodologist.general.storage.InMemoryBlobStore;
 import tools.vitruv.methodologist.user.model.User;
 import tools.vitruv.methodologist.user.model.repository.UserRepository;
 import tools.vitruv.methodologist.vsum.controller.dto.request.RuleSetPostRequest;
@@ -38,6 +48,21 @@ class ConstraintRuleSetServiceTest {
   @Mock VsumRepository vsumRepository;
   @Mock UserRepository userRepository;
 
+  InMemoryBlobStore blobStore = new InMemoryBlobStore();
+  FileContentService fileContentService = mock(FileContentService.class);
+
+  @Spy
+  FileStorageService fileStorageService =
+      new FileStorageService(
+          mock(FileStorageRepository.class),
+          mock(UserRepository.class),
+          mock(FileStorageMapper.class),
+          mock(ContentSpooler.class),
+          blobStore,
+          fileContentService,
+          new CompressionPolicy(true, 6),
+          mock(PlatformTransactionManager.class));
+
   private User user;
   private Vsum vsum;
   private ConstraintRuleSet ruleSet;
@@ -50,7 +75,7 @@ class ConstraintRuleSetServiceTest {
     FileStorage oclFile =
         FileStorage.builder()
             .filename("my_rules.ocl")
-            .data("context Foo inv: true".getBytes(StandardCharsets.UTF_8))
+            .storageKey(blobStore.store("context Foo inv: true".getBytes(StandardCharsets.UTF_8)))
             .build();
 
     ruleSet =
@@ -102,7 +127,7 @@ class ConstraintRuleSetServiceTest {
 
   @Test
   void findAll_handlesNullOclFileData() {
-    FileStorage emptyFile = FileStorage.builder().filename("x.ocl").data(null).build();
+    FileStorage emptyFile = FileStorage.builder().filename("x.ocl").storageKey(null).build();
     ConstraintRuleSet rs =
         ConstraintRuleSet.builder()
             .id(201L)
@@ -202,7 +227,10 @@ class ConstraintRuleSetServiceTest {
 
     service.create("test@example.com", 10L, new RuleSetPostRequest("Set", null, null, null));
 
-    assertThat(new String(captor.getValue().getOclFile().getData(), StandardCharsets.UTF_8))
+    assertThat(
+            new String(
+                fileStorageService.readContent(captor.getValue().getOclFile()),
+                StandardCharsets.UTF_8))
         .isEmpty();
   }
 
@@ -297,6 +325,7 @@ class ConstraintRuleSetServiceTest {
     assertThat(response.color()).isEqualTo("#00ff00");
     assertThat(response.description()).isEqualTo("new desc");
     assertThat(response.oclContent()).isEqualTo("context Y inv: 2=2");
+    verify(fileContentService).release(InMemoryBlobStore.keyOf("context Foo inv: true".getBytes()));
   }
 
   @Test
@@ -346,7 +375,10 @@ class ConstraintRuleSetServiceTest {
 
     service.update("test@example.com", 10L, 100L, new RuleSetPutRequest("X", null, null, null));
 
-    assertThat(new String(captor.getValue().getOclFile().getData(), StandardCharsets.UTF_8))
+    assertThat(
+            new String(
+                fileStorageService.readContent(captor.getValue().getOclFile()),
+                StandardCharsets.UTF_8))
         .isEmpty();
   }
 
@@ -359,6 +391,7 @@ class ConstraintRuleSetServiceTest {
     service.delete(10L, 100L);
 
     verify(ruleSetRepository).delete(ruleSet);
+    verify(fileContentService).release(ruleSet.getOclFile().getStorageKey());
   }
 
   @Test
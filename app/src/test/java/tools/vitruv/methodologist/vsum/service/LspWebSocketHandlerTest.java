@@ -1,14 +1,18 @@
 package tools.vitruv.methodologist.vsum.service;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -25,10 +29,13 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 import tools.vitruv.methodologist.config.LspWebSocketHandler;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.process.ProcessExecutor;
+import tools.vitruv.methodologist.general.service.FileStorageService;
 import tools.vitruv.methodologist.vsum.model.MetaModel;
 
 /**
@@ -45,6 +52,7 @@ import tools.vitruv.methodologist.vsum.model.MetaModel;
 class LspWebSocketHandlerTest {
 
   private MetaModelService metaModelService;
+  private FileStorageService fileStorageService;
   private LspWebSocketHandler handler;
   private WebSocketSession session;
 
@@ -60,11 +68,17 @@ class LspWebSocketHandlerTest {
   @BeforeEach
   void setUp() throws Exception {
     metaModelService = mock(MetaModelService.class);
+    fileStorageService = mock(FileStorageService.class);
 
     // Nutze die injizierte Property
     Resource resource = new FileSystemResource(testJarPath);
 
-    handler = new LspWebSocketHandler(metaModelService);
+    handler =
+        new LspWebSocketHandler(
+            metaModelService,
+            fileStorageService,
+            new ProcessExecutor(
+                2, 2, Duration.ofSeconds(5), DataSize.ofMegabytes(1), new SimpleMeterRegistry()));
     ReflectionTestUtils.setField(handler, "jarResource", resource);
     setField(handler, "metaModelService", metaModelService);
 
@@ -211,7 +225,9 @@ class LspWebSocketHandlerTest {
   private MetaModel createMetaModel(Long id, String filename, byte[] content) {
     FileStorage ecoreFile = mock(FileStorage.class);
     when(ecoreFile.getFilename()).thenReturn(filename);
-    when(ecoreFile.getData()).thenReturn(content);
+    doAnswer(invocation -> Files.write(invocation.<Path>getArgument(1), content))
+        .when(fileStorageService)
+        .copyContent(eq(ecoreFile), any(Path.class));
 
     MetaModel mm = new MetaModel();
     mm.setId(id);
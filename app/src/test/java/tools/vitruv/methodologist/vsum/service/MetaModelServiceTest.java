@@ -3,12 +3,14 @@ package tools.vitruv.methodologist.vsum.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static tools.vitruv.methodologist.messages.Error.ECORE_FILE_ID_NOT_FOUND_ERROR;
 import static tools.vitruv.methodologist.messages.Error.GEN_MODEL_FILE_ID_NOT_FOUND_ERROR;
@@ -17,6 +19,7 @@ import static tools.vitruv.methodologist.messages.Error.USER_DOSE_NOT_HAVE_ACCES
 import static tools.vitruv.methodologist.messages.Error.USER_EMAIL_NOT_FOUND_ERROR;
 import static tools.vitruv.methodologist.messages.Message.META_MODEL_CREATED_SUCCESSFULLY;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -38,9 +41,13 @@ import tools.vitruv.methodologist.exception.CreateMwe2FileException;
 import tools.vitruv.methodologist.exception.MetaModelUsedInVsumException;
 import tools.vitruv.methodologist.exception.NotFoundException;
 import tools.vitruv.methodologist.general.FileEnumType;
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiterProperties;
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiters;
+import tools.vitruv.methodologist.general.concurrency.SystemLoad;
 import tools.vitruv.methodologist.general.model.FileStorage;
 import tools.vitruv.methodologist.general.model.repository.FileStorageRepository;
 import tools.vitruv.methodologist.general.service.FileStorageService;
+import tools.vitruv.methodologist.general.storage.InMemoryBlobStore;
 import tools.vitruv.methodologist.user.model.User;
 import tools.vitruv.methodologist.user.model.repository.UserRepository;
 import tools.vitruv.methodologist.vsum.controller.dto.request.MetaModelFilterRequest;
@@ -48,6 +55,7 @@ import tools.vitruv.methodologist.vsum.controller.dto.request.MetaModelPostReque
 import tools.vitruv.methodologist.vsum.controller.dto.request.MetaModelPutRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.response.MetaModelResponse;
 import tools.vitruv.methodologist.vsum.mapper.MetaModelMapper;
+import tools.vitruv.methodologist.vsum.mapper.MetaModelMapperImpl;
 import tools.vitruv.methodologist.vsum.model.MetaModel;
 import tools.vitruv.methodologist.vsum.model.Vsum;
 import tools.vitruv.methodologist.vsum.model.VsumMetaModel;
@@ -63,6 +71,7 @@ class MetaModelServiceTest {
   private UserRepository userRepository;
   private MetamodelBuildService metamodelBuildService;
   private FileStorageService fileStorageService;
+  private final InMemoryBlobStore blobStore = new InMemoryBlobStore();
   private SetupServiceApiHandler setupServiceApiHandler;
   private VsumMetaModelRepository vsumMetaModelRepository;
 
@@ -76,11 +85,11 @@ class MetaModelServiceTest {
     return metaModelPostRequest;
   }
 
-  private static FileStorage fs(long id, FileEnumType type, byte[] data) {
+  private FileStorage fs(long id, FileEnumType type, byte[] data) {
     final FileStorage fileStorage = new FileStorage();
     fileStorage.setId(id);
     fileStorage.setType(type);
-    fileStorage.setData(data);
+    fileStorage.setStorageKey(blobStore.store(data));
     return fileStorage;
   }
 
@@ -96,6 +105,11 @@ class MetaModelServiceTest {
   @BeforeEach
   void setup() {
     fileStorageService = mock(FileStorageService.class);
+    when(fileStorageService.readContent(any(FileStorage.class)))
+        .thenAnswer(inv -> contentOf(inv.getArgument(0)));
+    doAnswer(inv -> Files.write(inv.<Path>getArgument(1), contentOf(inv.getArgument(0))))
+        .when(fileStorageService)
+        .copyContent(any(FileStorage.class), any(Path.class));
     metaModelMapper = mock(MetaModelMapper.class);
     metaModelRepository = mock(MetaModelRepository.class);
     fileStorageRepository = mock(FileStorageRepository.class);
@@ -114,7 +128,11 @@ class MetaModelServiceTest {
             metamodelBuildService,
             fileStorageService,
             setupServiceApiHandler,
-            vsumMetaModelRepository);
+            vsumMetaModelRepository,
+            new ConcurrencyLimiters(
+                new ConcurrencyLimiterProperties(),
+                mock(SystemLoad.class),
+                new SimpleMeterRegistry()));
   }
 
   @Test
@@ -191,7 +209,7 @@ class MetaModelServiceTest {
     when(fileStorageService.overwriteStoredContent(gen, fixedGen))
         .thenAnswer(
             inv -> {
-              gen.setData(fixedGen);
+              gen.setStorageKey(blobStore.store(fixedGen));
               return gen;
             });
 
@@ -425,11 +443,11 @@ class MetaModelServiceTest {
   void clone_copiesFiles_setsSource_andSaves() {
     FileStorage sourceEcore = new FileStorage();
     sourceEcore.setId(10L);
-    sourceEcore.setData("x".getBytes());
+    sourceEcore.setStorageKey(blobStore.store("x".getBytes()));
 
     FileStorage sourceGen = new FileStorage();
     sourceGen.setId(11L);
-    sourceGen.setData("y".getBytes());
+    sourceGen.setStorageKey(blobStore.store("y".getBytes()));
 
     MetaModel source = new MetaModel();
     source.setId(1L);
@@ -608,6 +626,29 @@ class MetaModelServiceTest {
     verify(metaModelMapper, times(1)).toMetaModelResponse(mm2);
   }
 
+  @Test
+  void findAll_mapsFileIdsWithoutReadingFileContent() {
+    ReflectionTestUtils.setField(metaModelService, "metaModelMapper", new MetaModelMapperImpl());
+    MetaModel mm =
+        metaModel(
+            1L,
+            fs(10L, FileEnumType.ECORE, "E".getBytes()),
+            fs(20L, FileEnumType.GEN_MODEL, "G".getBytes()));
+    when(metaModelRepository.findAll(any(), any(Pageable.class))).thenReturn(List.of(mm));
+
+    List<MetaModelResponse> result =
+        metaModelService.findAll("u@ex.com", new MetaModelFilterRequest(), PageRequest.of(0, 10));
+
+    assertThat(result)
+        .singleElement()
+        .satisfies(
+            response -> {
+              assertThat(response.getEcoreFileId()).isEqualTo(10L);
+              assertThat(response.getGenModelFileId()).isEqualTo(20L);
+            });
+    verifyNoInteractions(fileStorageService);
+  }
+
   @Test
   void findAll_returnsEmptyList_whenRepositoryReturnsNoResults() {
     when(metaModelRepository.findAll(any(), any(Pageable.class))).thenReturn(List.of());
@@ -919,7 +960,7 @@ class MetaModelServiceTest {
     FileStorage file = mock(FileStorage.class);
     when(file.getId()).thenReturn(id);
     when(file.getFilename()).thenReturn(filename);
-    when(file.getData()).thenReturn(data);
+    when(file.getStorageKey()).thenReturn(blobStore.store(data));
     return file;
   }
 
@@ -962,4 +1003,9 @@ class MetaModelServiceTest {
     assertThat(Files.readAllBytes(file1.toPath())).isEqualTo("ecore content 1".getBytes());
     assertThat(Files.readAllBytes(file2.toPath())).isEqualTo("ecore content 2".getBytes());
   }
+
+  private byte[] contentOf(FileStorage file) {
+    byte[] content = blobStore.content(file.getStorageKey());
+    return content == null ? new byte[0] : content;
+  }
 }
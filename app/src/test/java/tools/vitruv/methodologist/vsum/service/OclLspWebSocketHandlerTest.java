@@ -1,14 +1,18 @@
 package tools.vitruv.methodologist.vsum.service;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -21,10 +25,13 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 import tools.vitruv.methodologist.config.OclLspWebSocketHandler;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.process.ProcessExecutor;
+import tools.vitruv.methodologist.general.service.FileStorageService;
 import tools.vitruv.methodologist.vsum.model.MetaModel;
 
 /**
@@ -40,6 +47,7 @@ import tools.vitruv.methodologist.vsum.model.MetaModel;
 class OclLspWebSocketHandlerTest {
 
   private MetaModelService metaModelService;
+  private FileStorageService fileStorageService;
   private OclLspWebSocketHandler handler;
   private WebSocketSession session;
 
@@ -49,8 +57,14 @@ class OclLspWebSocketHandlerTest {
   @BeforeEach
   void setUp() throws Exception {
     metaModelService = mock(MetaModelService.class);
-
-    handler = new OclLspWebSocketHandler(metaModelService);
+    fileStorageService = mock(FileStorageService.class);
+
+    handler =
+        new OclLspWebSocketHandler(
+            metaModelService,
+            fileStorageService,
+            new ProcessExecutor(
+                2, 2, Duration.ofSeconds(5), DataSize.ofMegabytes(1), new SimpleMeterRegistry()));
     ReflectionTestUtils.setField(handler, "jarResource", new FileSystemResource(testJarPath));
 
     session = mock(WebSocketSession.class);
@@ -153,7 +167,9 @@ class OclLspWebSocketHandlerTest {
   private MetaModel createMetaModel(Long id, String filename, byte[] content) {
     FileStorage ecoreFile = mock(FileStorage.class);
     when(ecoreFile.getFilename()).thenReturn(filename);
-    when(ecoreFile.getData()).thenReturn(content);
+    doAnswer(invocation -> Files.write(invocation.<Path>getArgument(1), content))
+        .when(fileStorageService)
+        .copyContent(eq(ecoreFile), any(Path.class));
 
     MetaModel mm = new MetaModel();
     mm.setId(id);
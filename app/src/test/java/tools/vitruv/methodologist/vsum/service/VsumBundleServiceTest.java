@@ -0,0 +1,168 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.service.FileStorageService;
+import tools.vitruv.methodologist.general.storage.ZipStreamWriter;
+import tools.vitruv.methodologist.vsum.model.ConstraintRuleSet;
+import tools.vitruv.methodologist.vsum.model.MetaModel;
+import tools.vitruv.methodologist.vsum.model.MetaModelRelation;
+import tools.vitruv.methodologist.vsum.model.Vsum;
+import tools.vitruv.methodologist.vsum.model.VsumMetaModel;
+import tools.vitruv.methodologist.vsum.model.VsumUser;
+import tools.vitruv.methodologist.vsum.model.VsumView;
+import tools.vitruv.methodologist.vsum.model.repository.ConstraintRuleSetRepository;
+import tools.vitruv.methodologist.vsum.model.repository.MetaModelRelationRepository;
+import tools.vitruv.methodologist.vsum.model.repository.VsumMetaModelRepository;
+import tools.vitruv.methodologist.vsum.model.repository.VsumUserRepository;
+import tools.vitruv.methodologist.vsum.model.repository.VsumViewRepository;
+
+@ExtendWith(MockitoExtension.class)
+class VsumBundleServiceTest {
+  private static final String EMAIL = "owner@example.com";
+
+  @Mock private VsumUserRepository vsumUserRepository;
+  @Mock private VsumMetaModelRepository vsumMetaModelRepository;
+  @Mock private MetaModelRelationRepository metaModelRelationRepository;
+  @Mock private VsumViewRepository vsumViewRepository;
+  @Mock private ConstraintRuleSetRepository constraintRuleSetRepository;
+  @Mock private FileStorageService fileStorageService;
+
+  @InjectMocks private VsumBundleService service;
+
+  private Vsum vsum;
+
+  @BeforeEach
+  void setUp() {
+    vsum = Vsum.builder().id(5L).name("persons").build();
+  }
+
+  @Test
+  void findBundleName_member_returnsVsumName() {
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(5L, EMAIL))
+        .thenReturn(Optional.of(VsumUser.builder().vsum(vsum).build()));
+
+    assertThat(service.findBundleName(EMAIL, 5L)).isEqualTo("persons");
+  }
+
+  @Test
+  void findBundleName_noMember_throwsAccessDenied() {
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(5L, EMAIL))
+        .thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> service.findBundleName(EMAIL, 5L))
+        .isInstanceOf(AccessDeniedException.class);
+  }
+
+  @Test
+  void writeBundle_writesAllModelFilesIntoFolders() throws IOException {
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(5L, EMAIL))
+        .thenReturn(Optional.of(VsumUser.builder().vsum(vsum).build()));
+    MetaModel persons =
+        MetaModel.builder()
+            .id(1L)
+            .ecoreFile(file(10L, "persons.ecore"))
+            .genModelFile(file(11L, "persons.genmodel"))
+            .build();
+    MetaModel removed =
+        MetaModel.builder()
+            .id(2L)
+            .ecoreFile(file(20L, "removed.ecore"))
+            .genModelFile(file(21L, "removed.genmodel"))
+            .build();
+    when(vsumMetaModelRepository.findAllByVsum(vsum))
+        .thenReturn(
+            List.of(
+                VsumMetaModel.builder().metaModel(persons).build(),
+                VsumMetaModel.builder().metaModel(removed).removedAt(Instant.now()).build()));
+    when(metaModelRelationRepository.findAllByVsum(vsum))
+        .thenReturn(
+            List.of(
+                MetaModelRelation.builder()
+                    .id(3L)
+                    .reactionFileStorage(file(30L, "../persons.reactions"))
+                    .build()));
+    when(vsumViewRepository.findAllByVsum(vsum))
+        .thenReturn(List.of(VsumView.builder().id(4L).fileStorage(file(40L, "view.nj")).build()));
+    when(constraintRuleSetRepository.findByVsumId(5L))
+        .thenReturn(
+            List.of(
+                ConstraintRuleSet.builder().id(6L).oclFile(file(60L, "rules.ocl")).build(),
+                ConstraintRuleSet.builder().id(7L).build()));
+    doAnswer(
+            inv -> {
+              ZipStreamWriter zip = inv.getArgument(0);
+              FileStorage file = inv.getArgument(2);
+              byte[] content = file.getFilename().getBytes(StandardCharsets.UTF_8);
+              zip.putCompressed(
+                  inv.getArgument(1),
+                  Instant.now(),
+                  content.length,
+                  new ByteArrayInputStream(content),
+                  6);
+              return null;
+            })
+        .when(fileStorageService)
+        .writeZipEntry(any(), anyString(), any());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    service.writeBundle(service.findBundleEntries(EMAIL, 5L), out);
+
+    List<String> names = new ArrayList<>();
+    try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      ZipEntry entry;
+      while ((entry = in.getNextEntry()) != null) {
+        names.add(entry.getName());
+      }
+    }
+    assertThat(names)
+        .containsExactly(
+            "metamodels/1/persons.ecore",
+            "metamodels/1/persons.genmodel",
+            "reactions/3/persons.reactions",
+            "views/4/view.nj",
+            "constraints/6/rules.ocl");
+  }
+
+  @Test
+  void findBundleEntries_noMember_throwsAccessDenied() {
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(5L, EMAIL))
+        .thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> service.findBundleEntries(EMAIL, 5L))
+        .isInstanceOf(AccessDeniedException.class);
+    verifyNoInteractions(fileStorageService);
+  }
+
+  private static FileStorage file(Long id, String filename) {
+    return FileStorage.builder().id(id).filename(filename).storageKey("key-" + id).build();
+  }
+}
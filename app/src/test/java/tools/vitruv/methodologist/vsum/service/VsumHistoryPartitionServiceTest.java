@@ -0,0 +1,53 @@
+package tools.vitruv.methodologist.vsum.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import tools.vitruv.methodologist.vsum.model.repository.VsumHistoryRepository;
+
+@ExtendWith(MockitoExtension.class)
+class VsumHistoryPartitionServiceTest {
+
+  @Mock VsumHistoryRepository vsumHistoryRepository;
+
+  private VsumHistoryPartitionService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new VsumHistoryPartitionService(vsumHistoryRepository, 3, 12);
+  }
+
+  @Test
+  void maintainPartitions_preparesUpcomingPartitionsBeforeArchiving() {
+    when(vsumHistoryRepository.ensurePartitions(3)).thenReturn(1);
+    when(vsumHistoryRepository.archivePartitions(12)).thenReturn(2);
+
+    service.maintainPartitions();
+
+    InOrder order = inOrder(vsumHistoryRepository);
+    order.verify(vsumHistoryRepository).ensurePartitions(3);
+    order.verify(vsumHistoryRepository).archivePartitions(12);
+  }
+
+  @Test
+  void maintainPartitions_doesNotArchive_whenPreparingPartitionsFails() {
+    when(vsumHistoryRepository.ensurePartitions(3))
+        .thenThrow(new DataAccessResourceFailureException("db down"));
+
+    assertThatThrownBy(() -> service.maintainPartitions())
+        .isInstanceOf(DataAccessResourceFailureException.class);
+
+    verify(vsumHistoryRepository, never()).archivePartitions(anyInt());
+  }
+}
@@ -29,9 +29,11 @@ import tools.vitruv.methodologist.vsum.VsumRepresentation;
 import tools.vitruv.methodologist.vsum.controller.dto.request.VsumSyncChangesPutRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumHistoryResponse;
 import tools.vitruv.methodologist.vsum.mapper.VsumHistoryMapper;
+import tools.vitruv.methodologist.vsum.model.ArchivedVsumHistory;
 import tools.vitruv.methodologist.vsum.model.Vsum;
 import tools.vitruv.methodologist.vsum.model.VsumHistory;
 import tools.vitruv.methodologist.vsum.model.VsumUser;
+import tools.vitruv.methodologist.vsum.model.repository.ArchivedVsumHistoryRepository;
 import tools.vitruv.methodologist.vsum.model.repository.VsumHistoryRepository;
 import tools.vitruv.methodologist.vsum.model.repository.VsumUserRepository;
 
@@ -39,6 +41,7 @@ import tools.vitruv.methodologist.vsum.model.repository.VsumUserRepository;
 class VsumHistoryServiceTest {
 
   @Mock VsumHistoryRepository vsumHistoryRepository;
+  @Mock ArchivedVsumHistoryRepository archivedVsumHistoryRepository;
   @Mock VsumHistoryMapper vsumHistoryMapper;
   @Mock UserRepository userRepository;
   @Mock VsumUserRepository vsumUserRepository;
@@ -51,6 +54,7 @@ class VsumHistoryServiceTest {
     service =
         new VsumHistoryService(
             vsumHistoryRepository,
+            archivedVsumHistoryRepository,
             vsumHistoryMapper,
             5L,
             userRepository,
@@ -141,7 +145,14 @@ class VsumHistoryServiceTest {
   @Test
   void create_withZeroLimit_deletesNewestWhenAnyExists_thenSaves() {
     service =
-        new VsumHistoryService(vsumHistoryRepository, vsumHistoryMapper, 0L, null, null, null);
+        new VsumHistoryService(
+            vsumHistoryRepository,
+            archivedVsumHistoryRepository,
+            vsumHistoryMapper,
+            0L,
+            null,
+            null,
+            null);
 
     Vsum vsum = new Vsum();
     vsum.setId(4L);
@@ -200,6 +211,28 @@ class VsumHistoryServiceTest {
     verify(vsumHistoryMapper, never()).toVsumHistoryResponse(any(VsumHistory.class));
   }
 
+  @Test
+  void findAllByVsumId_appendsArchivedSnapshots_afterLiveOnes() {
+    String callerEmail = "user@example.com";
+    Long vsumId = 43L;
+    VsumHistory live = VsumHistory.builder().id(5L).build();
+    ArchivedVsumHistory archived = ArchivedVsumHistory.builder().id(1L).vsumId(vsumId).build();
+
+    when(vsumHistoryRepository.getVsumHistories(vsumId, callerEmail)).thenReturn(List.of(live));
+    when(archivedVsumHistoryRepository.getArchivedVsumHistories(vsumId, callerEmail))
+        .thenReturn(List.of(archived));
+
+    VsumHistoryResponse liveResponse = VsumHistoryResponse.builder().id(5L).build();
+    VsumHistoryResponse archivedResponse =
+        VsumHistoryResponse.builder().id(1L).archived(true).build();
+    when(vsumHistoryMapper.toVsumHistoryResponse(live)).thenReturn(liveResponse);
+    when(vsumHistoryMapper.toVsumHistoryResponse(archived)).thenReturn(archivedResponse);
+
+    List<VsumHistoryResponse> result = service.findAllByVsumId(callerEmail, vsumId);
+
+    assertThat(result).containsExactly(liveResponse, archivedResponse);
+  }
+
   @Test
   void revert_throwsAccessDenied_whenCallerNotFoundOrInactive() {
     String callerEmail = "missing@ex.com";
@@ -321,6 +354,44 @@ class VsumHistoryServiceTest {
             });
   }
 
+  @Test
+  void revert_appliesArchivedSnapshot_whenHistoryEntryWasArchived() {
+    String callerEmail = "u@ex.com";
+
+    User user = new User();
+    user.setEmail(callerEmail);
+    when(userRepository.findByEmailIgnoreCaseAndRemovedAtIsNull(callerEmail))
+        .thenReturn(Optional.of(user));
+
+    Vsum vsum = new Vsum();
+    vsum.setId(102L);
+    VsumUser vsumUser = new VsumUser();
+    vsumUser.setVsum(vsum);
+
+    Long historyId = 14L;
+    VsumRepresentation rep = VsumRepresentation.builder().metaModels(Set.of(4L)).build();
+    when(vsumHistoryRepository.findById(historyId)).thenReturn(Optional.empty());
+    when(archivedVsumHistoryRepository.findById(historyId))
+        .thenReturn(
+            Optional.of(
+                ArchivedVsumHistory.builder()
+                    .id(historyId)
+                    .vsumId(vsum.getId())
+                    .representation(rep)
+                    .build()));
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(
+                vsum.getId(), callerEmail))
+        .thenReturn(Optional.of(vsumUser));
+
+    service.revert(callerEmail, historyId);
+
+    ArgumentCaptor<VsumSyncChangesPutRequest> reqCap =
+        ArgumentCaptor.forClass(VsumSyncChangesPutRequest.class);
+    verify(vsumService).applySyncChanges(eq(vsum), eq(user), reqCap.capture(), eq(false));
+    assertThat(reqCap.getValue().getMetaModelIds()).containsExactly(4L);
+  }
+
   @Test
   void revert_mapsNullCollectionsToEmptyLists() {
     String callerEmail = "u@ex.com";
@@ -490,4 +561,19 @@ class VsumHistoryServiceTest {
 
     assertThat(reqCap.getValue().getViewRequests()).isNotNull().isEmpty();
   }
+
+  @Test
+  void delete_removesLiveAndArchivedHistoryInBulk() {
+    Vsum vsum = new Vsum();
+    vsum.setId(42L);
+
+    when(vsumHistoryRepository.deleteAllByVsum(vsum)).thenReturn(3);
+    when(vsumHistoryRepository.deleteArchivedByVsumId(42L)).thenReturn(1);
+
+    service.delete(vsum);
+
+    verify(vsumHistoryRepository).deleteAllByVsum(vsum);
+    verify(vsumHistoryRepository).deleteArchivedByVsumId(42L);
+    verify(vsumHistoryRepository, never()).delete(any(VsumHistory.class));
+  }
 }
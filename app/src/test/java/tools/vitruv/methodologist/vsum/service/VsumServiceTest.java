@@ -9,6 +9,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -17,7 +18,13 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static tools.vitruv.methodologist.messages.Error.VSUM_ID_NOT_FOUND_ERROR;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
@@ -28,19 +35,31 @@ import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import tools.vitruv.methodologist.apihandler.SetupServiceApiHandler;
+import tools.vitruv.methodologist.apihandler.dto.response.VsumValidationResponse;
 import tools.vitruv.methodologist.exception.NotFoundException;
 import tools.vitruv.methodologist.exception.UnauthorizedException;
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiterProperties;
+import tools.vitruv.methodologist.general.concurrency.ConcurrencyLimiters;
+import tools.vitruv.methodologist.general.concurrency.SystemLoad;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.storage.ArtifactCache;
+import tools.vitruv.methodologist.general.storage.CachedArtifact;
+import tools.vitruv.methodologist.general.storage.InMemoryBlobStore;
 import tools.vitruv.methodologist.user.model.User;
 import tools.vitruv.methodologist.user.model.repository.UserRepository;
+import tools.vitruv.methodologist.vsum.BuildDiagnosticSeverity;
 import tools.vitruv.methodologist.vsum.VsumRole;
 import tools.vitruv.methodologist.vsum.controller.dto.request.MetaModelRelationRequest;
 import tools.vitruv.methodologist.vsum.controller.dto.request.ViewRequest;
@@ -49,6 +68,7 @@ import tools.vitruv.methodologist.vsum.controller.dto.request.VsumSyncChangesPut
 import tools.vitruv.methodologist.vsum.controller.dto.response.MetaModelRelationResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.MetaModelResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.ViewsResponse;
+import tools.vitruv.methodologist.vsum.controller.dto.response.VsumBuildCheckResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumMetaModelResponse;
 import tools.vitruv.methodologist.vsum.controller.dto.response.VsumResponse;
 import tools.vitruv.methodologist.vsum.mapper.MetaModelMapper;
@@ -62,6 +82,7 @@ import tools.vitruv.methodologist.vsum.model.VsumMetaModel;
 import tools.vitruv.methodologist.vsum.model.VsumUser;
 import tools.vitruv.methodologist.vsum.model.VsumView;
 import tools.vitruv.methodologist.vsum.model.VsumViewMetaModel;
+import tools.vitruv.methodologist.vsum.model.repository.BuildJobRepository;
 import tools.vitruv.methodologist.vsum.model.repository.MetaModelRelationRepository;
 import tools.vitruv.methodologist.vsum.model.repository.VsumMetaModelRepository;
 import tools.vitruv.methodologist.vsum.model.repository.VsumRepository;
@@ -91,6 +112,8 @@ class VsumServiceTest {
   @Mock private VsumViewMetaModelRepository vsumViewMetaModelRepository;
   @Mock private VsumViewMapper vsumViewMapper;
   @Mock private SetupServiceApiHandler setupServiceApiHandler;
+  @TempDir Path artifactDirectory;
+  private ArtifactCache artifactCache;
 
   private VsumService service;
 
@@ -129,11 +152,18 @@ class VsumServiceTest {
     return vsumUser;
   }
 
+  private static Answer<Long> writesJar(byte[] jar) {
+    return invocation -> {
+      Files.write(invocation.<Path>getArgument(3), jar);
+      return (long) jar.length;
+    };
+  }
+
   private FileStorage fs(Long id, String filename, byte[] data) {
     FileStorage f = new FileStorage();
     f.setId(id);
     f.setFilename(filename);
-    f.setData(data);
+    f.setStorageKey(InMemoryBlobStore.keyOf(data));
     return f;
   }
 
@@ -153,9 +183,28 @@ class VsumServiceTest {
   }
 
   @BeforeEach
-  void setUp() {
+  void setUp() throws IOException {
+    artifactCache =
+        new ArtifactCache(
+            artifactDirectory,
+            DataSize.ofMegabytes(1),
+            DataSize.ofMegabytes(1),
+            new SimpleMeterRegistry());
+    BuildJobRepository buildJobRepository = mock(BuildJobRepository.class);
+    lenient().when(buildJobRepository.tryLease(anyString(), anyString(), anyLong())).thenReturn(1);
+    BuildCoalescingService buildCoalescingService =
+        new BuildCoalescingService(
+            null,
+            buildJobRepository,
+            artifactCache,
+            new SimpleMeterRegistry(),
+            Duration.ofMillis(10),
+            Duration.ofSeconds(1),
+            Clock.systemUTC());
+    ReflectionTestUtils.setField(buildCoalescingService, "self", buildCoalescingService);
     service =
         new VsumService(
+            null,
             vsumMapper,
             vsumRepository,
             metaModelMapper,
@@ -173,7 +222,13 @@ class VsumServiceTest {
             vsumViewRepository,
             vsumViewMetaModelRepository,
             vsumViewMapper,
-            setupServiceApiHandler);
+            setupServiceApiHandler,
+            buildCoalescingService,
+            new ConcurrencyLimiters(
+                new ConcurrencyLimiterProperties(),
+                mock(SystemLoad.class),
+                new SimpleMeterRegistry()));
+    ReflectionTestUtils.setField(service, "self", service);
 
     lenient().when(vsumViewRepository.findAllByVsum(any(Vsum.class))).thenReturn(List.of());
     lenient()
@@ -1011,11 +1066,12 @@ class VsumServiceTest {
     assertThatThrownBy(() -> service.getJarfat("x@y.com", 1L))
         .isInstanceOf(org.springframework.security.access.AccessDeniedException.class);
 
-    verify(setupServiceApiHandler, never()).buildVsumJarOrThrow(anyList(), anyList(), anyList());
+    verify(setupServiceApiHandler, never())
+        .downloadVsumJarOrThrow(anyList(), anyList(), anyList(), any(Path.class));
   }
 
   @Test
-  void getJarfat_shouldReturnJar_fromSetupService_whenAuthorized() {
+  void getJarfat_shouldReturnJar_fromSetupService_whenAuthorized() throws IOException {
     String email = "x@y.com";
     Long id = 1L;
 
@@ -1032,17 +1088,190 @@ class VsumServiceTest {
     vsum.setMetaModelRelations(Set.of(rel(mm(e1, g1), null, r1)));
 
     byte[] jarBytes = "FAKEJAR".getBytes(StandardCharsets.UTF_8);
-    when(setupServiceApiHandler.buildVsumJarOrThrow(anyList(), anyList(), anyList()))
-        .thenReturn(jarBytes);
+    when(setupServiceApiHandler.downloadVsumJarOrThrow(
+            anyList(), anyList(), anyList(), any(Path.class)))
+        .thenAnswer(writesJar(jarBytes));
+
+    CachedArtifact jar = service.getJarfat(email, id);
+
+    assertThat(jar.content().getContentAsByteArray()).isEqualTo(jarBytes);
+    verify(setupServiceApiHandler)
+        .downloadVsumJarOrThrow(anyList(), anyList(), anyList(), any(Path.class));
+  }
+
+  @Test
+  void getJarfat_shouldServeCachedJar_whenInputsUnchanged() throws IOException {
+    String email = "x@y.com";
+    Long id = 1L;
+    Vsum vsum = new Vsum();
+    VsumUser vu = new VsumUser();
+    vu.setVsum(vsum);
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(id, email))
+        .thenReturn(Optional.of(vu));
+    FileStorage e1 = fs(1L, "a.ecore", new byte[] {1});
+    FileStorage g1 = fs(2L, "a.genmodel", new byte[] {2});
+    FileStorage r1 = fs(3L, "x.reactions", new byte[] {3});
+    e1.setSha256("e1");
+    g1.setSha256("g1");
+    r1.setSha256("r1");
+    vsum.setMetaModelRelations(Set.of(rel(mm(e1, g1), null, r1)));
+    byte[] jarBytes = "FAKEJAR".getBytes(StandardCharsets.UTF_8);
+    when(setupServiceApiHandler.downloadVsumJarOrThrow(
+            anyList(), anyList(), anyList(), any(Path.class)))
+        .thenAnswer(writesJar(jarBytes));
 
-    byte[] jar = service.getJarfat(email, id);
+    CachedArtifact first = service.getJarfat(email, id);
+    CachedArtifact second = service.getJarfat(email, id);
 
-    assertThat(jar).isEqualTo(jarBytes);
-    verify(setupServiceApiHandler).buildVsumJarOrThrow(anyList(), anyList(), anyList());
+    assertThat(second.key()).isEqualTo(first.key());
+    assertThat(second.content().getContentAsByteArray()).isEqualTo(jarBytes);
+    verify(setupServiceApiHandler, times(1))
+        .downloadVsumJarOrThrow(anyList(), anyList(), anyList(), any(Path.class));
+  }
+
+  @Test
+  void getJarfat_shouldRebuild_whenFileContentChanged() {
+    String email = "x@y.com";
+    Long id = 1L;
+    Vsum vsum = new Vsum();
+    VsumUser vu = new VsumUser();
+    vu.setVsum(vsum);
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(id, email))
+        .thenReturn(Optional.of(vu));
+    FileStorage e1 = fs(1L, "a.ecore", new byte[] {1});
+    FileStorage g1 = fs(2L, "a.genmodel", new byte[] {2});
+    FileStorage r1 = fs(3L, "x.reactions", new byte[] {3});
+    e1.setSha256("e1");
+    g1.setSha256("g1");
+    r1.setSha256("r1");
+    vsum.setMetaModelRelations(Set.of(rel(mm(e1, g1), null, r1)));
+    when(setupServiceApiHandler.downloadVsumJarOrThrow(
+            anyList(), anyList(), anyList(), any(Path.class)))
+        .thenAnswer(writesJar("JAR1".getBytes(StandardCharsets.UTF_8)))
+        .thenAnswer(writesJar("JAR2".getBytes(StandardCharsets.UTF_8)));
+
+    CachedArtifact first = service.getJarfat(email, id);
+    r1.setSha256("r2");
+    CachedArtifact second = service.getJarfat(email, id);
+
+    assertThat(second.key()).isNotEqualTo(first.key());
+    verify(setupServiceApiHandler, times(2))
+        .downloadVsumJarOrThrow(anyList(), anyList(), anyList(), any(Path.class));
+  }
+
+  @Test
+  void checkBuild_shouldReportDiagnostics_withoutBuildingJar() {
+    String email = "x@y.com";
+    Long id = 1L;
+    Vsum vsum = new Vsum();
+    VsumUser vu = new VsumUser();
+    vu.setVsum(vsum);
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(id, email))
+        .thenReturn(Optional.of(vu));
+    FileStorage e1 = fs(1L, "a.ecore", new byte[] {1});
+    FileStorage g1 = fs(2L, "a.genmodel", new byte[] {2});
+    FileStorage r1 = fs(3L, "x.reactions", new byte[] {3});
+    vsum.setMetaModelRelations(Set.of(rel(mm(e1, g1), null, r1)));
+    when(setupServiceApiHandler.validateVsumOrThrow(anyList(), anyList(), anyList()))
+        .thenReturn(
+            Optional.of(
+                VsumValidationResponse.builder()
+                    .status(200)
+                    .diagnostics(
+                        List.of(
+                            VsumValidationResponse.Diagnostic.builder()
+                                .severity("warning")
+                                .file("x.reactions")
+                                .line(4)
+                                .message("Unused import")
+                                .build()))
+                    .build()));
+
+    VsumBuildCheckResponse check = service.checkBuild(email, id);
+
+    assertThat(check.isValid()).isTrue();
+    assertThat(check.getErrorCount()).isZero();
+    assertThat(check.getWarningCount()).isEqualTo(1);
+    assertThat(check.getDiagnostics())
+        .singleElement()
+        .satisfies(
+            d -> {
+              assertThat(d.getSeverity()).isEqualTo(BuildDiagnosticSeverity.WARNING);
+              assertThat(d.getFile()).isEqualTo("x.reactions");
+              assertThat(d.getLine()).isEqualTo(4);
+            });
+    verify(setupServiceApiHandler, never())
+        .downloadVsumJarOrThrow(anyList(), anyList(), anyList(), any(Path.class));
+  }
+
+  @Test
+  void checkBuild_shouldBuildJar_whenSetupServiceCannotValidate() {
+    String email = "x@y.com";
+    Long id = 1L;
+    Vsum vsum = new Vsum();
+    VsumUser vu = new VsumUser();
+    vu.setVsum(vsum);
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(id, email))
+        .thenReturn(Optional.of(vu));
+    FileStorage e1 = fs(1L, "a.ecore", new byte[] {1});
+    FileStorage g1 = fs(2L, "a.genmodel", new byte[] {2});
+    FileStorage r1 = fs(3L, "x.reactions", new byte[] {3});
+    vsum.setMetaModelRelations(Set.of(rel(mm(e1, g1), null, r1)));
+    when(setupServiceApiHandler.validateVsumOrThrow(anyList(), anyList(), anyList()))
+        .thenReturn(Optional.empty());
+    when(setupServiceApiHandler.downloadVsumJarOrThrow(
+            anyList(), anyList(), anyList(), any(Path.class)))
+        .thenAnswer(writesJar("FAKEJAR".getBytes(StandardCharsets.UTF_8)));
+
+    VsumBuildCheckResponse check = service.checkBuild(email, id);
+
+    assertThat(check.isValid()).isTrue();
+    assertThat(check.getDiagnostics()).isEmpty();
+    verify(setupServiceApiHandler)
+        .downloadVsumJarOrThrow(anyList(), anyList(), anyList(), any(Path.class));
+  }
+
+  @Test
+  void checkBuild_shouldReportError_whenRejectedWithoutDiagnostics() {
+    String email = "x@y.com";
+    Long id = 1L;
+    Vsum vsum = new Vsum();
+    VsumUser vu = new VsumUser();
+    vu.setVsum(vsum);
+    when(vsumUserRepository
+            .findByVsum_IdAndUser_EmailAndUser_RemovedAtIsNullAndVsum_RemovedAtIsNull(id, email))
+        .thenReturn(Optional.of(vu));
+    FileStorage e1 = fs(1L, "a.ecore", new byte[] {1});
+    FileStorage g1 = fs(2L, "a.genmodel", new byte[] {2});
+    FileStorage r1 = fs(3L, "x.reactions", new byte[] {3});
+    vsum.setMetaModelRelations(Set.of(rel(mm(e1, g1), null, r1)));
+    when(setupServiceApiHandler.validateVsumOrThrow(anyList(), anyList(), anyList()))
+        .thenReturn(
+            Optional.of(
+                VsumValidationResponse.builder()
+                    .status(422)
+                    .message("Code generation failed")
+                    .build()));
+
+    VsumBuildCheckResponse check = service.checkBuild(email, id);
+
+    assertThat(check.isValid()).isFalse();
+    assertThat(check.getErrorCount()).isEqualTo(1);
+    assertThat(check.getDiagnostics())
+        .singleElement()
+        .satisfies(
+            d -> {
+              assertThat(d.getSeverity()).isEqualTo(BuildDiagnosticSeverity.ERROR);
+              assertThat(d.getMessage()).isEqualTo("Code generation failed");
+            });
   }
 
   @Test
-  void getJarfat_shouldDeduplicateMetamodels_beforeCallingSetupService() {
+  void getJarfat_shouldDeduplicateMetamodels_beforeCallingSetupService() throws IOException {
     String email = "x@y.com";
     Long id = 1L;
 
@@ -1062,17 +1291,19 @@ class VsumServiceTest {
         Set.of(rel(m1, m2, r1), rel(m1, null, fs(13L, "b.reactions", new byte[] {4}))));
 
     byte[] jar = "JAR".getBytes(StandardCharsets.UTF_8);
-    when(setupServiceApiHandler.buildVsumJarOrThrow(anyList(), anyList(), anyList()))
-        .thenReturn(jar);
+    when(setupServiceApiHandler.downloadVsumJarOrThrow(
+            anyList(), anyList(), anyList(), any(Path.class)))
+        .thenAnswer(writesJar(jar));
 
-    byte[] out = service.getJarfat(email, id);
-    assertThat(out).isEqualTo(jar);
+    CachedArtifact out = service.getJarfat(email, id);
+    assertThat(out.content().getContentAsByteArray()).isEqualTo(jar);
 
     ArgumentCaptor<List<FileStorage>> ecoresCap = ArgumentCaptor.forClass(List.class);
     ArgumentCaptor<List<FileStorage>> gensCap = ArgumentCaptor.forClass(List.class);
     ArgumentCaptor<List<FileStorage>> reactionsCap = ArgumentCaptor.forClass(List.class);
     verify(setupServiceApiHandler)
-        .buildVsumJarOrThrow(ecoresCap.capture(), gensCap.capture(), reactionsCap.capture());
+        .downloadVsumJarOrThrow(
+            ecoresCap.capture(), gensCap.capture(), reactionsCap.capture(), any(Path.class));
 
     assertThat(ecoresCap.getValue()).hasSize(1);
     assertThat(gensCap.getValue()).hasSize(1);
@@ -1093,7 +1324,8 @@ class VsumServiceTest {
         .thenReturn(Optional.of(vu));
 
     assertThatThrownBy(() -> service.getJarfat(email, id)).isInstanceOf(NotFoundException.class);
-    verify(setupServiceApiHandler, never()).buildVsumJarOrThrow(anyList(), anyList(), anyList());
+    verify(setupServiceApiHandler, never())
+        .downloadVsumJarOrThrow(anyList(), anyList(), anyList(), any(Path.class));
   }
 
   @Test
@@ -1112,6 +1344,7 @@ class VsumServiceTest {
         .thenReturn(Optional.of(vu));
 
     assertThatThrownBy(() -> service.getJarfat(email, id)).isInstanceOf(NotFoundException.class);
-    verify(setupServiceApiHandler, never()).buildVsumJarOrThrow(anyList(), anyList(), anyList());
+    verify(setupServiceApiHandler, never())
+        .downloadVsumJarOrThrow(anyList(), anyList(), anyList(), any(Path.class));
   }
 }
@@ -2,6 +2,7 @@ package tools.vitruv.methodologist.vsum.service.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -9,11 +10,14 @@ import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import tools.vitruv.methodologist.general.process.ProcessExecutor;
 import tools.vitruv.methodologist.vsum.service.MetamodelBuildService;
 import tools.vitruv.methodologist.vsum.service.MetamodelBuildService.BuildResult;
 import tools.vitruv.methodologist.vsum.service.MetamodelBuildService.MetamodelBuildInput;
@@ -139,6 +143,12 @@ class DockerEphemeralBuildServiceTest {
     FakeProcess fake;
     IOException throwOnStart;
 
+    TestableService() {
+      super(
+          new ProcessExecutor(
+              2, 2, Duration.ofSeconds(5), DataSize.ofMegabytes(1), new SimpleMeterRegistry()));
+    }
+
     @Override
     protected Process startProcess(List<String> cmd) throws IOException {
       if (throwOnStart != null) {
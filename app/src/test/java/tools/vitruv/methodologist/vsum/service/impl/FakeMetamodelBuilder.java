@@ -0,0 +1,48 @@
+package tools.vitruv.methodologist.vsum.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/** Builder stand-in loaded by {@link InProcessMetamodelBuildServiceTest}; uses JDK types only. */
+public class FakeMetamodelBuilder implements BiFunction<byte[], byte[], Map<String, Object>> {
+  static final AtomicInteger INSTANCES = new AtomicInteger();
+
+  private final int instance = INSTANCES.incrementAndGet();
+
+  @Override
+  public Map<String, Object> apply(byte[] ecore, byte[] genModel) {
+    String input = new String(ecore, StandardCharsets.UTF_8);
+    if (input.equals("slow")) {
+      try {
+        Thread.sleep(10_000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (input.equals("stuck")) {
+      long until = System.nanoTime() + 3_000_000_000L;
+      while (System.nanoTime() < until) {
+        Thread.onSpinWait();
+      }
+    }
+    if (input.equals("crash")) {
+      throw new IllegalStateException("boom");
+    }
+    String loader = getClass().getClassLoader().getName();
+    String context = Thread.currentThread().getContextClassLoader().getName();
+    return Map.of(
+        "success",
+        true,
+        "errors",
+        0,
+        "warnings",
+        1,
+        "report",
+        loader + "|" + context + "|" + instance + "|" + System.identityHashCode(getClass()),
+        "nsUris",
+        List.of("http://a", "http://b"));
+  }
+}
@@ -0,0 +1,125 @@
+package tools.vitruv.methodologist.vsum.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.vitruv.methodologist.vsum.service.MetamodelBuildService.BuildResult;
+import tools.vitruv.methodologist.vsum.service.MetamodelBuildService.MetamodelBuildInput;
+
+class InProcessMetamodelBuildServiceTest {
+
+  private InProcessMetamodelBuildService service;
+
+  @AfterEach
+  void tearDown() {
+    if (service != null) {
+      service.shutdown();
+    }
+  }
+
+  @Test
+  void buildAndValidate_runsBuilderInIsolatedClassLoader() throws Exception {
+    service = newService(testClasses(), 5);
+
+    BuildResult result = service.buildAndValidate(input("model"));
+
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(result.getErrors()).isZero();
+    assertThat(result.getWarnings()).isEqualTo(1);
+    assertThat(result.getReport())
+        .startsWith(
+            InProcessMetamodelBuildService.CLASS_LOADER_NAME
+                + "|"
+                + InProcessMetamodelBuildService.CLASS_LOADER_NAME
+                + "|");
+    assertThat(result.getDiscoveredNsUris()).isEqualTo("http://a, http://b");
+  }
+
+  @Test
+  void buildAndValidate_reusesBuilderAcrossCalls() throws Exception {
+    service = newService(testClasses(), 5);
+
+    String first = service.buildAndValidate(input("model")).getReport();
+    String second = service.buildAndValidate(input("model")).getReport();
+
+    assertThat(second).isEqualTo(first);
+  }
+
+  @Test
+  void buildAndValidate_builderThrows_returnsCrashResult() throws Exception {
+    service = newService(testClasses(), 5);
+
+    BuildResult result = service.buildAndValidate(input("crash"));
+
+    assertThat(result.isSuccess()).isFalse();
+    assertThat(result.getErrors()).isEqualTo(1);
+    assertThat(result.getReport()).isEqualTo("Crash: boom");
+  }
+
+  @Test
+  void buildAndValidate_slowBuilder_returnsTimeout() throws Exception {
+    service = newService(testClasses(), 1);
+
+    BuildResult result = service.buildAndValidate(input("slow"));
+
+    assertThat(result.isSuccess()).isFalse();
+    assertThat(result.getReport()).isEqualTo("Timeout after 1s");
+    assertThat(service.buildAndValidate(input("model")).isSuccess()).isTrue();
+  }
+
+  @Test
+  void buildAndValidate_builderIgnoringInterrupt_replacesPoolAndClassLoader() throws Exception {
+    service = newService(testClasses(), 1, 1);
+    String before = service.buildAndValidate(input("model")).getReport();
+
+    BuildResult stuck = service.buildAndValidate(input("stuck"));
+    BuildResult after = service.buildAndValidate(input("model"));
+
+    assertThat(stuck.getReport()).isEqualTo("Timeout after 1s");
+    assertThat(after.isSuccess()).isTrue();
+    assertThat(after.getReport()).isNotEqualTo(before);
+  }
+
+  @Test
+  void buildAndValidate_missingJar_returnsCrashResult(@TempDir Path dir) {
+    service = newService(dir.resolve("missing.jar"), 5);
+
+    BuildResult result = service.buildAndValidate(input("model"));
+
+    assertThat(result.isSuccess()).isFalse();
+    assertThat(result.getReport()).startsWith("Crash: Builder JAR not found");
+    assertThat(result.getDiscoveredNsUris()).isNull();
+  }
+
+  private static InProcessMetamodelBuildService newService(Path jar, int timeoutSeconds) {
+    return newService(jar, timeoutSeconds, 2);
+  }
+
+  private static InProcessMetamodelBuildService newService(
+      Path jar, int timeoutSeconds, int maxConcurrentBuilds) {
+    return new InProcessMetamodelBuildService(
+        jar.toString(),
+        FakeMetamodelBuilder.class.getName(),
+        timeoutSeconds,
+        maxConcurrentBuilds,
+        1);
+  }
+
+  private static Path testClasses() throws Exception {
+    return Path.of(
+        FakeMetamodelBuilder.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+  }
+
+  private static MetamodelBuildInput input(String ecore) {
+    return MetamodelBuildInput.builder()
+        .metaModelId(1L)
+        .ecoreBytes(ecore.getBytes(StandardCharsets.UTF_8))
+        .genModelBytes(new byte[0])
+        .runMwe2(false)
+        .build();
+  }
+}
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -24,8 +25,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import tools.vitruv.methodologist.exception.FileContentException;
 import tools.vitruv.methodologist.exception.VsumBuildingException;
 import tools.vitruv.methodologist.general.model.FileStorage;
+import tools.vitruv.methodologist.general.service.FileStorageService;
 import tools.vitruv.methodologist.vitruvcli.VitruvCliProperties;
 import tools.vitruv.methodologist.vitruvcli.VitruvCliService;
 import tools.vitruv.methodologist.vsum.service.MetaModelVitruvIntegrationService;
@@ -36,13 +39,13 @@ class MetaModelVitruvIntegrationServiceTest {
 
   @Mock VitruvCliService vitruvCliService;
   @Mock VitruvCliProperties vitruvCliProperties;
+  @Mock FileStorageService fileStorageService;
 
   @InjectMocks MetaModelVitruvIntegrationService service;
 
   private FileStorage fs(String name) {
     FileStorage f = new FileStorage();
     f.setFilename(name);
-    f.setData(("content-" + name).getBytes());
     return f;
   }
 
@@ -97,6 +100,8 @@ class MetaModelVitruvIntegrationServiceTest {
       assertThat(out).isEqualTo(jarBytes);
     }
 
+    verify(fileStorageService, times(6)).copyContent(any(FileStorage.class), any(Path.class));
+
     verify(vitruvCliService, times(1)).run(any(Path.class), anyList(), any(Path.class));
   }
 
@@ -224,9 +229,11 @@ class MetaModelVitruvIntegrationServiceTest {
       filesMock
           .when(() -> Files.createDirectories(any(Path.class)))
           .thenAnswer(inv -> inv.getArgument(0));
-      filesMock
-          .when(() -> Files.write(any(Path.class), any(byte[].class)))
-          .thenThrow(new IOException("disk full"));
+      doThrow(
+              new FileContentException(
+                  "Failed to read content of file", new IOException("disk full")))
+          .when(fileStorageService)
+          .copyContent(any(FileStorage.class), any(Path.class));
 
       assertThatThrownBy(() -> service.runVitruvAndGetFatJarBytes(ecores, gens, reactions))
           .isInstanceOf(VsumBuildingException.class)
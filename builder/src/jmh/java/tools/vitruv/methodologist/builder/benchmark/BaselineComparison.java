@@ -0,0 +1,143 @@
+package tools.vitruv.methodologist.builder.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files in JSON format. Results are matched by benchmark name, mode and
+ * parameters. A result is a regression if its score is worse than the baseline by more than the
+ * threshold and the difference exceeds the combined error margins of both measurements, so noise
+ * within the confidence intervals is not reported. A baseline benchmark without a current result
+ * fails the comparison too, so a benchmark that was renamed, removed or failed to run cannot hide a
+ * regression.
+ */
+public final class BaselineComparison {
+  private static final ObjectMapper OM = new ObjectMapper();
+
+  private BaselineComparison() {}
+
+  /**
+   * Outcome of comparing one benchmark.
+   *
+   * @param key benchmark name, mode and parameters
+   * @param baseline the baseline score
+   * @param current the current score
+   * @param unit the unit of both scores
+   * @param change relative change, positive if the benchmark got slower
+   * @param regression whether the change counts as a regression
+   * @param missing whether the benchmark has no current result; its current score is NaN
+   */
+  public record Entry(
+      String key,
+      double baseline,
+      double current,
+      String unit,
+      double change,
+      boolean regression,
+      boolean missing) {
+
+    /** Returns whether this benchmark fails the comparison. */
+    public boolean failed() {
+      return regression || missing;
+    }
+
+    @Override
+    public String toString() {
+      if (missing) {
+        return String.format("MISSING    %-90s %12.3f -> %12s %-8s", key, baseline, "-", unit);
+      }
+      return String.format(
+          "%s %-90s %12.3f -> %12.3f %-8s %+7.1f%%",
+          regression ? "REGRESSION" : "ok        ", key, baseline, current, unit, change * 100);
+    }
+  }
+
+  /**
+   * Compares the current results against the baseline. Baseline benchmarks without a current result
+   * are reported as missing; benchmarks without a baseline are skipped.
+   *
+   * @param baseline the baseline result file
+   * @param current the current result file
+   * @param threshold relative slowdown above which a result counts as a regression, e.g. 0.1
+   * @return the comparison of every baseline benchmark, in baseline order
+   */
+  public static List<Entry> compare(Path baseline, Path current, double threshold)
+      throws IOException {
+    Map<String, JsonNode> before = read(baseline);
+    Map<String, JsonNode> after = read(current);
+    List<Entry> entries = new ArrayList<>();
+    for (Map.Entry<String, JsonNode> result : before.entrySet()) {
+      JsonNode now = after.get(result.getKey());
+      entries.add(
+          now == null
+              ? missing(result.getKey(), result.getValue())
+              : compare(result.getKey(), result.getValue(), now, threshold));
+    }
+    return entries;
+  }
+
+  private static Entry missing(String key, JsonNode old) {
+    JsonNode oldMetric = old.path("primaryMetric");
+    return new Entry(
+        key,
+        oldMetric.path("score").asDouble(),
+        Double.NaN,
+        oldMetric.path("scoreUnit").asText(),
+        0,
+        false,
+        true);
+  }
+
+  private static Entry compare(String key, JsonNode old, JsonNode now, double threshold) {
+    JsonNode oldMetric = old.path("primaryMetric");
+    JsonNode newMetric = now.path("primaryMetric");
+    double oldScore = oldMetric.path("score").asDouble();
+    double newScore = newMetric.path("score").asDouble();
+    double margin = error(oldMetric) + error(newMetric);
+    boolean higherIsBetter = isThroughput(now.path("mode").asText());
+
+    double worse = higherIsBetter ? oldScore - newScore : newScore - oldScore;
+    double change = oldScore == 0 ? 0 : worse / oldScore;
+    boolean regression = change > threshold && worse > margin;
+    return new Entry(
+        key, oldScore, newScore, newMetric.path("scoreUnit").asText(), change, regression, false);
+  }
+
+  private static double error(JsonNode metric) {
+    double error = metric.path("scoreError").asDouble(0);
+    return Double.isNaN(error) ? 0 : error;
+  }
+
+  private static boolean isThroughput(String mode) {
+    return "thrpt".equals(mode);
+  }
+
+  private static Map<String, JsonNode> read(Path file) throws IOException {
+    Map<String, JsonNode> results = new LinkedHashMap<>();
+    for (JsonNode result : OM.readTree(file.toFile())) {
+      results.put(key(result), result);
+    }
+    return results;
+  }
+
+  private static String key(JsonNode result) {
+    Map<String, String> params = new TreeMap<>();
+    Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> param = fields.next();
+      params.put(param.getKey(), param.getValue().asText());
+    }
+    String benchmark = result.path("benchmark").asText();
+    String name =
+        benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+    return name + " " + result.path("mode").asText() + (params.isEmpty() ? "" : " " + params);
+  }
+}
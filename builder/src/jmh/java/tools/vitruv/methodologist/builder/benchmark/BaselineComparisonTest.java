@@ -0,0 +1,83 @@
+package tools.vitruv.methodologist.builder.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BaselineComparisonTest {
+
+  @TempDir Path dir;
+
+  @Test
+  void compare_slowdownBeyondThresholdAndMargins_isRegression() throws IOException {
+    Path baseline = write("baseline.json", result("load", 100, 2));
+    Path current = write("current.json", result("load", 130, 2));
+
+    List<BaselineComparison.Entry> entries = BaselineComparison.compare(baseline, current, 0.1);
+
+    assertThat(entries)
+        .singleElement()
+        .satisfies(
+            entry -> {
+              assertThat(entry.regression()).isTrue();
+              assertThat(entry.failed()).isTrue();
+              assertThat(entry.change()).isCloseTo(0.3, within(1e-9));
+            });
+  }
+
+  @Test
+  void compare_slowdownWithinErrorMargins_isNoise() throws IOException {
+    Path baseline = write("baseline.json", result("load", 100, 10));
+    Path current = write("current.json", result("load", 115, 10));
+
+    List<BaselineComparison.Entry> entries = BaselineComparison.compare(baseline, current, 0.1);
+
+    assertThat(entries)
+        .singleElement()
+        .satisfies(
+            entry -> {
+              assertThat(entry.regression()).isFalse();
+              assertThat(entry.failed()).isFalse();
+            });
+  }
+
+  @Test
+  void compare_benchmarkWithoutCurrentResult_fails() throws IOException {
+    Path baseline =
+        write("baseline.json", result("load", 100, 2) + "," + result("validate", 50, 1));
+    Path current = write("current.json", result("load", 100, 2));
+
+    List<BaselineComparison.Entry> entries = BaselineComparison.compare(baseline, current, 0.1);
+
+    assertThat(entries).hasSize(2);
+    assertThat(entries.get(0).failed()).isFalse();
+    assertThat(entries.get(1).key()).startsWith("BuilderBenchmark.validate");
+    assertThat(entries.get(1).missing()).isTrue();
+    assertThat(entries.get(1).failed()).isTrue();
+    assertThat(entries.get(1).toString()).startsWith("MISSING");
+  }
+
+  private Path write(String name, String results) throws IOException {
+    return Files.writeString(dir.resolve(name), "[" + results + "]");
+  }
+
+  private static String result(String method, double score, double error) {
+    return String.format(
+        Locale.ROOT,
+        """
+        {"benchmark": "tools.vitruv.methodologist.builder.benchmark.BuilderBenchmark.%s",
+         "mode": "avgt", "params": {"pairs": "8"},
+         "primaryMetric": {"score": %s, "scoreError": %s, "scoreUnit": "ms/op"}}
+        """,
+        method,
+        score,
+        error);
+  }
+}
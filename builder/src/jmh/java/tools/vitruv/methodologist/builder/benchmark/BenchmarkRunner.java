@@ -0,0 +1,88 @@
+package tools.vitruv.methodologist.builder.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the builder benchmarks and writes the results as JMH JSON. Supported arguments:
+ *
+ * <ul>
+ *   <li>{@code --out <file>}: result file, defaults to {@code target/jmh-result.json}
+ *   <li>{@code --include <regex>}: only run matching benchmarks, defaults to all
+ *   <li>{@code --param <name=v1,v2>}: override a benchmark parameter, may be repeated
+ *   <li>{@code --baseline <file>}: also copy the results to this file as the new baseline
+ *   <li>{@code --compare <file>}: compare the results against this baseline and exit with code 1 if
+ *       a benchmark regressed or has no result
+ *   <li>{@code --threshold <fraction>}: relative slowdown counted as a regression, defaults to 0.1
+ * </ul>
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {}
+
+  /** Runs the benchmarks with the given arguments. */
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    List<String> params = new ArrayList<>();
+    for (int i = 0; i < args.length - 1; i += 2) {
+      if ("--param".equals(args[i])) {
+        params.add(args[i + 1]);
+      } else {
+        options.put(args[i], args[i + 1]);
+      }
+    }
+
+    Path out = Paths.get(options.getOrDefault("--out", "target/jmh-result.json"));
+    Files.createDirectories(out.toAbsolutePath().getParent());
+    ChainedOptionsBuilder jmh =
+        new OptionsBuilder()
+            .include(options.getOrDefault("--include", BuilderBenchmark.class.getSimpleName()))
+            .shouldFailOnError(true)
+            .resultFormat(ResultFormatType.JSON)
+            .result(out.toString());
+    for (String param : params) {
+      String[] nameValues = param.split("=", 2);
+      if (nameValues.length != 2) {
+        throw new IllegalArgumentException("Bad param: " + param);
+      }
+      jmh.param(nameValues[0], nameValues[1].split(","));
+    }
+    new Runner(jmh.build()).run();
+
+    String baseline = options.get("--baseline");
+    if (baseline != null) {
+      Path target = Paths.get(baseline);
+      if (target.toAbsolutePath().getParent() != null) {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+      }
+      Files.copy(out, target, StandardCopyOption.REPLACE_EXISTING);
+      System.out.println("Baseline written to " + target);
+    }
+
+    String compare = options.get("--compare");
+    if (compare != null) {
+      double threshold = Double.parseDouble(options.getOrDefault("--threshold", "0.1"));
+      List<BaselineComparison.Entry> entries =
+          BaselineComparison.compare(Paths.get(compare), out, threshold);
+      entries.forEach(System.out::println);
+      long failures = entries.stream().filter(BaselineComparison.Entry::failed).count();
+      System.out.println(
+          failures
+              + " of "
+              + entries.size()
+              + " benchmarks regressed or are missing against "
+              + compare);
+      System.exit(failures == 0 ? 0 : 1);
+    }
+  }
+}
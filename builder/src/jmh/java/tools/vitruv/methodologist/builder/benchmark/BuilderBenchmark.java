@@ -0,0 +1,135 @@
+package tools.vitruv.methodologist.builder.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.vitruv.methodologist.builder.GenerateFromTemplate;
+import tools.vitruv.methodologist.builder.SimpleValidators;
+import tools.vitruv.methodologist.builder.configuration.MetamodelCache;
+import tools.vitruv.methodologist.builder.configuration.VitruvConfiguration;
+
+/**
+ * Benchmarks of the builder steps on synthetic metamodels, see {@link SyntheticMetamodel}. Each
+ * trial writes {@code pairs} Ecore and GenModel pairs of the configured size into a temporary
+ * directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuilderBenchmark {
+
+  /** Number of classes per package. */
+  @Param({"10", "200"})
+  public int classifiers;
+
+  /** Number of structural features per class. */
+  @Param({"10"})
+  public int features;
+
+  /** Number of nested subpackages below the root package. */
+  @Param({"0", "3"})
+  public int nesting;
+
+  /** Number of Ecore and GenModel pairs loaded together. */
+  @Param({"1", "8"})
+  public int pairs;
+
+  private Path dir;
+  private String locations;
+  private Resource ecore;
+  private Resource genModel;
+  private VitruvConfiguration loaded;
+  private final GenerateFromTemplate generator = new GenerateFromTemplate();
+
+  /** Writes the synthetic pairs and loads the first one for the validator benchmarks. */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("builder-benchmark-");
+    SyntheticMetamodel metamodel = new SyntheticMetamodel(classifiers, features, nesting);
+    List<String> written = new ArrayList<>();
+    for (int i = 0; i < pairs; i++) {
+      written.add(metamodel.write(dir, "model" + i));
+    }
+    locations = String.join(";", written);
+
+    // Loading a configuration first also registers the EMF resource factories.
+    loaded = new VitruvConfiguration();
+    loaded.setLocalPath(dir.resolve("out"));
+    loaded.setMetaModelLocations(locations);
+
+    ResourceSet rs = new ResourceSetImpl();
+    ecore = rs.getResource(URI.createFileURI(dir.resolve("model0.ecore").toString()), true);
+    genModel = rs.getResource(URI.createFileURI(dir.resolve("model0.genmodel").toString()), true);
+  }
+
+  /** Deletes the synthetic pairs and the generated workflow. */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(dir)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  /** Parses and validates all pairs without the cache. */
+  @Benchmark
+  public VitruvConfiguration setMetaModelLocations() {
+    VitruvConfiguration cfg = new VitruvConfiguration(new MetamodelCache(pairs));
+    cfg.setMetaModelLocations(locations);
+    return cfg;
+  }
+
+  /** Loads all pairs when every pair is already in the cache. */
+  @Benchmark
+  public VitruvConfiguration setMetaModelLocationsCached() {
+    VitruvConfiguration cfg = new VitruvConfiguration();
+    cfg.setMetaModelLocations(locations);
+    return cfg;
+  }
+
+  /** Validates one parsed Ecore resource. */
+  @Benchmark
+  public Resource assertValidEcore() {
+    SimpleValidators.assertValidEcore(ecore, "Ecore");
+    return ecore;
+  }
+
+  /** Validates one parsed GenModel resource. */
+  @Benchmark
+  public Resource assertValidGenModel() {
+    SimpleValidators.assertValidGenModel(genModel, "GenModel");
+    return genModel;
+  }
+
+  /** Renders and writes the workflow of all pairs. */
+  @Benchmark
+  public Path generateMwe2() throws IOException {
+    return generator.generateMwe2(loaded.getMetaModelLocations(), loaded);
+  }
+}
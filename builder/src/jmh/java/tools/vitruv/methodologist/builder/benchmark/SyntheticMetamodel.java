@@ -0,0 +1,153 @@
+package tools.vitruv.methodologist.builder.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generator for synthetic Ecore and GenModel pairs of a given size. The root package contains a
+ * chain of {@code nesting} subpackages, and every package holds {@code classifiers} classes with
+ * {@code features} structural features each. Features alternate between string attributes and
+ * references to the next class of the same package, so the result passes {@code SimpleValidators}
+ * and resolves without external files.
+ *
+ * @param classifiers number of classes per package
+ * @param features number of structural features per class
+ * @param nesting number of nested subpackages below the root package
+ */
+public record SyntheticMetamodel(int classifiers, int features, int nesting) {
+  private static final String ESTRING =
+      "ecore:EDataType http://www.eclipse.org/emf/2002/Ecore#//EString";
+
+  /**
+   * Writes {@code <name>.ecore} and {@code <name>.genmodel} into {@code dir}.
+   *
+   * @return the pair in the {@code "ecore,genmodel"} format of {@code setMetaModelLocations}
+   */
+  public String write(Path dir, String name) throws IOException {
+    Path ecore = dir.resolve(name + ".ecore");
+    Path genModel = dir.resolve(name + ".genmodel");
+    Files.writeString(ecore, ecore(name), StandardCharsets.UTF_8);
+    Files.writeString(genModel, genModel(name), StandardCharsets.UTF_8);
+    return ecore.toAbsolutePath() + "," + genModel.toAbsolutePath();
+  }
+
+  /** Returns the Ecore document of the metamodel {@code name}. */
+  public String ecore(String name) {
+    StringBuilder xml = new StringBuilder();
+    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+        .append("<ecore:EPackage xmi:version=\"2.0\" xmlns:xmi=\"http://www.omg.org/XMI\"\n")
+        .append("    xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n")
+        .append("    xmlns:ecore=\"http://www.eclipse.org/emf/2002/Ecore\" name=\"")
+        .append(name)
+        .append("\"\n    nsURI=\"http://vitruv.tools/benchmark/")
+        .append(name)
+        .append("\" nsPrefix=\"")
+        .append(name)
+        .append("\">\n");
+    appendPackage(xml, name, "", 0);
+    return xml.append("</ecore:EPackage>\n").toString();
+  }
+
+  /** Returns the GenModel document of the metamodel {@code name}. */
+  public String genModel(String name) {
+    StringBuilder xml = new StringBuilder();
+    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+        .append("<genmodel:GenModel xmi:version=\"2.0\" xmlns:xmi=\"http://www.omg.org/XMI\"\n")
+        .append("    xmlns:ecore=\"http://www.eclipse.org/emf/2002/Ecore\"\n")
+        .append("    xmlns:genmodel=\"http://www.eclipse.org/emf/2002/GenModel\"\n")
+        .append("    modelDirectory=\"/tools.vitruv.benchmark/src-gen\"")
+        .append(" modelPluginID=\"tools.vitruv.benchmark.")
+        .append(name)
+        .append("\" modelName=\"")
+        .append(name)
+        .append("\"\n    importerID=\"org.eclipse.emf.importer.ecore\">\n")
+        .append("  <foreignModel>")
+        .append(name)
+        .append(".ecore</foreignModel>\n")
+        .append("  <genPackages prefix=\"")
+        .append(name)
+        .append("\" basePackage=\"tools.vitruv.benchmark\" ecorePackage=\"")
+        .append(name)
+        .append(".ecore#/\">\n");
+    appendGenPackage(xml, name + ".ecore#/", "", 0, "    ");
+    return xml.append("  </genPackages>\n</genmodel:GenModel>\n").toString();
+  }
+
+  private void appendPackage(StringBuilder xml, String name, String path, int depth) {
+    String indent = "  ".repeat(depth + 1);
+    for (int c = 0; c < classifiers; c++) {
+      xml.append(indent)
+          .append("<eClassifiers xsi:type=\"ecore:EClass\" name=\"")
+          .append(className(c))
+          .append("\">\n");
+      for (int f = 0; f < features; f++) {
+        xml.append(indent).append("  <eStructuralFeatures xsi:type=\"ecore:");
+        if (f % 2 == 0) {
+          xml.append("EAttribute\" name=\"attribute").append(f).append("\" eType=\"");
+          xml.append(ESTRING);
+        } else {
+          xml.append("EReference\" name=\"reference").append(f).append("\" eType=\"#/");
+          xml.append(path).append('/').append(className((c + 1) % classifiers));
+        }
+        xml.append("\"/>\n");
+      }
+      xml.append(indent).append("</eClassifiers>\n");
+    }
+    if (depth < nesting) {
+      String sub = "sub" + (depth + 1);
+      xml.append(indent)
+          .append("<eSubpackages name=\"")
+          .append(sub)
+          .append("\" nsURI=\"http://vitruv.tools/benchmark/")
+          .append(name)
+          .append('/')
+          .append(sub)
+          .append("\" nsPrefix=\"")
+          .append(sub)
+          .append("\">\n");
+      appendPackage(xml, name, path + "/" + sub, depth + 1);
+      xml.append(indent).append("</eSubpackages>\n");
+    }
+  }
+
+  private void appendGenPackage(
+      StringBuilder xml, String ecorePackage, String path, int depth, String indent) {
+    for (int c = 0; c < classifiers; c++) {
+      String classRef = ecorePackage + path + "/" + className(c);
+      xml.append(indent).append("<genClasses ecoreClass=\"").append(classRef).append("\">\n");
+      for (int f = 0; f < features; f++) {
+        String kind = f % 2 == 0 ? "EAttribute" : "EReference";
+        String feature = f % 2 == 0 ? "attribute" + f : "reference" + f;
+        xml.append(indent)
+            .append("  <genFeatures createChild=\"false\" ecoreFeature=\"ecore:")
+            .append(kind)
+            .append(' ')
+            .append(classRef)
+            .append('/')
+            .append(feature)
+            .append("\"/>\n");
+      }
+      xml.append(indent).append("</genClasses>\n");
+    }
+    if (depth < nesting) {
+      String sub = "sub" + (depth + 1);
+      xml.append(indent)
+          .append("<nestedGenPackages prefix=\"")
+          .append(sub)
+          .append("\" basePackage=\"tools.vitruv.benchmark\" ecorePackage=\"")
+          .append(ecorePackage)
+          .append(path)
+          .append('/')
+          .append(sub)
+          .append("\">\n");
+      appendGenPackage(xml, ecorePackage, path + "/" + sub, depth + 1, indent + "  ");
+      xml.append(indent).append("</nestedGenPackages>\n");
+    }
+  }
+
+  private static String className(int index) {
+    return "Class" + index;
+  }
+}
@@ -0,0 +1,52 @@
+package tools.vitruv.methodologist.builder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import tools.vitruv.methodologist.builder.configuration.MetamodelLoadResult;
+
+/**
+ * Outcome of a metamodel build: whether it succeeded, the number of errors and warnings, a
+ * human-readable report, the namespace URIs of the loaded metamodels, and the outcome of loading
+ * each metamodel.
+ */
+public record BuildReport(
+    boolean success,
+    int errors,
+    int warnings,
+    String report,
+    List<String> nsUris,
+    List<MetamodelLoadResult> metamodels) {
+
+  /** Creates the report of a successful build. */
+  public static BuildReport success(
+      String report, List<String> nsUris, List<MetamodelLoadResult> metamodels) {
+    return new BuildReport(true, 0, 0, report, nsUris, metamodels);
+  }
+
+  /**
+   * Creates the report of a build that failed with the given exception. Every invalid metamodel
+   * counts as an error, and a failure outside of loading the metamodels counts as one.
+   */
+  public static BuildReport failure(
+      Exception e, List<String> nsUris, List<MetamodelLoadResult> metamodels) {
+    int invalid = (int) metamodels.stream().filter(m -> !m.success()).count();
+    return new BuildReport(
+        false, Math.max(1, invalid), 0, "Build failed: " + e.getMessage(), nsUris, metamodels);
+  }
+
+  /**
+   * Returns the report as a map with the keys {@code success}, {@code errors}, {@code warnings},
+   * {@code report}, {@code nsUris} and {@code metamodels}, the layout of result.json.
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("success", success);
+    result.put("errors", errors);
+    result.put("warnings", warnings);
+    result.put("report", report);
+    result.put("nsUris", nsUris);
+    result.put("metamodels", metamodels.stream().map(MetamodelLoadResult::toMap).toList());
+    return result;
+  }
+}
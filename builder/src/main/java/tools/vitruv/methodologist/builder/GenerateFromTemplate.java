@@ -20,14 +20,23 @@ import tools.vitruv.methodologist.builder.configuration.VitruvConfiguration;
  * definition to a file on disk.
  */
 public class GenerateFromTemplate {
+  /** Name of the generated workflow file. */
+  public static final String WORKFLOW_FILE_NAME = "workflow.mwe2";
+
+  /**
+   * The FreeMarker configuration shared by all instances. It is thread-safe once configured and
+   * caches the parsed templates, so each template is only loaded and parsed once.
+   */
+  private static final Configuration CONFIGURATION = cfg();
+
   /**
    * Creates and configures a FreeMarker configuration instance. Uses UTF-8 encoding, loads
    * templates from the classpath under /templates, and throws exceptions on template errors.
    */
-  private Configuration cfg() {
+  private static Configuration cfg() {
     Configuration c = new Configuration(Configuration.VERSION_2_3_31);
     c.setDefaultEncoding("UTF-8");
-    c.setClassForTemplateLoading(this.getClass(), "/templates");
+    c.setClassForTemplateLoading(GenerateFromTemplate.class, "/templates");
     c.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
     return c;
   }
@@ -41,6 +50,22 @@ public class GenerateFromTemplate {
    */
   public Path generateMwe2(List<MetamodelLocation> models, VitruvConfiguration config)
       throws IOException {
+    Path outDir = config.getLocalPath();
+    Files.createDirectories(outDir);
+    Path mwe2 = outDir.resolve(WORKFLOW_FILE_NAME);
+
+    try (Writer w = new OutputStreamWriter(Files.newOutputStream(mwe2))) {
+      renderMwe2(models, config, w);
+    }
+    return mwe2;
+  }
+
+  /**
+   * Renders the workflow.mwe2 content from the generator.ftl template into the given writer,
+   * without touching the file system. Throws an IOException if rendering fails.
+   */
+  public void renderMwe2(List<MetamodelLocation> models, VitruvConfiguration config, Writer out)
+      throws IOException {
     List<Map<String, Object>> items = new ArrayList<Map<String, Object>>();
     for (MetamodelLocation m : models) {
       items.add(
@@ -54,16 +79,11 @@ public class GenerateFromTemplate {
     }
     Map<String, Object> data = Map.of("items", items);
 
-    Template t = cfg().getTemplate("generator.ftl");
-    Path outDir = config.getLocalPath();
-    Files.createDirectories(outDir);
-    Path mwe2 = outDir.resolve("workflow.mwe2");
-
-    try (Writer w = new OutputStreamWriter(Files.newOutputStream(mwe2))) {
-      t.process(data, w);
+    Template t = CONFIGURATION.getTemplate("generator.ftl");
+    try {
+      t.process(data, out);
     } catch (Exception e) {
       throw new IOException("Failed to render mwe2: " + e.getMessage(), e);
     }
-    return mwe2;
   }
 }
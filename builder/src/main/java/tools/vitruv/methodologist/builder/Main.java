@@ -10,13 +10,12 @@ import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import tools.vitruv.methodologist.builder.configuration.MetamodelLocation;
-import tools.vitruv.methodologist.builder.configuration.VitruvConfiguration;
 
 /**
  * Entry point for the metamodel builder CLI tool. Supports command-line arguments for providing
  * metamodel definitions and generates a workflow file (MWE2) from the given Ecore and GenModel
- * files. Produces a result.json file containing success, error, and diagnostic information.
+ * files. Produces a result.json file containing success, error, and diagnostic information. The
+ * build itself is done by {@link MetamodelBuilder}, which can also be used as a library.
  */
 public class Main {
   private static final Logger log = LoggerFactory.getLogger(Main.class);
@@ -30,20 +29,17 @@ public class Main {
     Map<String, String> parsedArgs = parseArgs(args);
     String out = parsedArgs.getOrDefault("--out", System.getProperty("java.io.tmpdir") + "/mm-out");
 
-    Map<String, Object> result = new HashMap<>();
-    List<String> nsUris = List.of();
-
+    BuildReport report;
     try {
-      String pairs = resolvePairs(parsedArgs);
-      VitruvConfiguration cfg = buildAndValidateConfiguration(out, pairs);
-      nsUris = extractNsUris(cfg);
-
-      handleSuccess(out, result, nsUris, cfg);
-      System.exit(0);
+      report = new MetamodelBuilder().build(resolvePairs(parsedArgs), Paths.get(out));
     } catch (Exception e) {
-      handleFailure(out, result, nsUris, e);
-      System.exit(1);
+      report = BuildReport.failure(e, List.of(), List.of());
     }
+
+    Map<String, Object> result = report.toMap();
+    log.info("Result: {}", result);
+    writeResult(out, result);
+    System.exit(report.success() ? 0 : 1);
   }
 
   private static String resolvePairs(Map<String, String> args) {
@@ -79,62 +75,6 @@ public class Main {
     return sb.toString().replaceAll(";+?$", "");
   }
 
-  private static VitruvConfiguration buildAndValidateConfiguration(String out, String pairs) {
-    VitruvConfiguration cfg = new VitruvConfiguration();
-    cfg.setLocalPath(Paths.get(out));
-    cfg.setMetaModelLocations(pairs);
-    validateMetamodelLocations(cfg);
-    return cfg;
-  }
-
-  private static void validateMetamodelLocations(VitruvConfiguration cfg) {
-    if (cfg.getMetaModelLocations().isEmpty()) {
-      throw new IllegalStateException(
-          "No valid metamodels found (ecore/genmodel load failed or empty).");
-    }
-    cfg.getMetaModelLocations().forEach(Main::validateMetamodelLocation);
-  }
-
-  private static void validateMetamodelLocation(MetamodelLocation loc) {
-    if (!loc.ecore().isFile() || loc.ecore().length() == 0L) {
-      throw new IllegalArgumentException("Ecore is missing/empty: " + loc.ecore());
-    }
-    if (!loc.genmodel().isFile() || loc.genmodel().length() == 0L) {
-      throw new IllegalArgumentException("GenModel is missing/empty: " + loc.genmodel());
-    }
-  }
-
-  private static List<String> extractNsUris(VitruvConfiguration cfg) {
-    return cfg.getMetaModelLocations().stream().map(MetamodelLocation::nsUri).toList();
-  }
-
-  private static void handleSuccess(
-      String out, Map<String, Object> result, List<String> nsUris, VitruvConfiguration cfg)
-      throws Exception {
-    result.put("success", true);
-    result.put("errors", 0);
-    result.put("warnings", 0);
-
-    Path mwe2 = new GenerateFromTemplate().generateMwe2(cfg.getMetaModelLocations(), cfg);
-    result.put("report", "Generated " + mwe2.getFileName());
-    result.put("nsUris", nsUris);
-
-    log.info("Result: {}", result);
-    writeResult(out, result);
-  }
-
-  private static void handleFailure(
-      String out, Map<String, Object> result, List<String> nsUris, Exception e) throws Exception {
-    result.put("success", false);
-    result.put("errors", 1);
-    result.put("warnings", 0);
-    result.put("report", "Build failed: " + e.getMessage());
-    result.put("nsUris", nsUris);
-
-    log.info("Result: {}", result);
-    writeResult(out, result);
-  }
-
   private static String expandPath(String path) {
     if (path == null) {
       return null;
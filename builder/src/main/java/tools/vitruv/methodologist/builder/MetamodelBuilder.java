@@ -0,0 +1,92 @@
+package tools.vitruv.methodologist.builder;
+
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import tools.vitruv.methodologist.builder.configuration.MetamodelLocation;
+import tools.vitruv.methodologist.builder.configuration.VitruvConfiguration;
+
+/**
+ * Library entry point of the metamodel builder. Validates Ecore and GenModel pairs and generates
+ * the MWE2 workflow for them. An instance is thread-safe and meant to be reused; the EMF resource
+ * factories and the FreeMarker templates are set up once per class loader.
+ *
+ * <p>As a {@link BiFunction} it takes the contents of one Ecore and GenModel pair and returns the
+ * {@link BuildReport#toMap() report as a map}. Since that signature only uses JDK types, a caller
+ * can load the builder in an isolated class loader and call it without sharing any builder class.
+ */
+public class MetamodelBuilder implements BiFunction<byte[], byte[], Map<String, Object>> {
+  private static final String ECORE_NAME = "model.ecore";
+  private static final String GENMODEL_NAME = "model.genmodel";
+
+  private final GenerateFromTemplate generator = new GenerateFromTemplate();
+
+  /**
+   * Builds the metamodel pairs given as {@code "ecore,genmodel;ecore2,genmodel2"} file paths and
+   * writes the workflow.mwe2 file into {@code out}. Failures are reported, not thrown.
+   */
+  public BuildReport build(String pairs, Path out) {
+    VitruvConfiguration cfg = new VitruvConfiguration();
+    try {
+      cfg.setLocalPath(out);
+      cfg.setMetaModelLocations(pairs);
+      validateMetamodelLocations(cfg);
+
+      Path mwe2 = generator.generateMwe2(cfg.getMetaModelLocations(), cfg);
+      return BuildReport.success(
+          "Generated " + mwe2.getFileName(), extractNsUris(cfg), cfg.getLoadResults());
+    } catch (Exception e) {
+      return BuildReport.failure(e, extractNsUris(cfg), cfg.getLoadResults());
+    }
+  }
+
+  /**
+   * Builds one metamodel pair from the contents of its Ecore and GenModel files. The workflow is
+   * rendered in memory only; nothing is read from or written to the file system. Failures are
+   * reported, not thrown.
+   */
+  public BuildReport build(byte[] ecore, byte[] genModel) {
+    VitruvConfiguration cfg = new VitruvConfiguration();
+    try {
+      cfg.setLocalPath(Path.of(System.getProperty("java.io.tmpdir"), "mm-out"));
+      cfg.addMetaModel(ECORE_NAME, ecore, GENMODEL_NAME, genModel);
+
+      generator.renderMwe2(cfg.getMetaModelLocations(), cfg, Writer.nullWriter());
+      return BuildReport.success(
+          "Generated " + GenerateFromTemplate.WORKFLOW_FILE_NAME,
+          extractNsUris(cfg),
+          cfg.getLoadResults());
+    } catch (Exception e) {
+      return BuildReport.failure(e, extractNsUris(cfg), cfg.getLoadResults());
+    }
+  }
+
+  /** Builds one metamodel pair from its contents and returns the report as a map. */
+  @Override
+  public Map<String, Object> apply(byte[] ecore, byte[] genModel) {
+    return build(ecore, genModel).toMap();
+  }
+
+  private static void validateMetamodelLocations(VitruvConfiguration cfg) {
+    if (cfg.getMetaModelLocations().isEmpty()) {
+      throw new IllegalStateException(
+          "No valid metamodels found (ecore/genmodel load failed or empty).");
+    }
+    cfg.getMetaModelLocations().forEach(MetamodelBuilder::validateMetamodelLocation);
+  }
+
+  private static void validateMetamodelLocation(MetamodelLocation loc) {
+    if (!loc.ecore().isFile() || loc.ecore().length() == 0L) {
+      throw new IllegalArgumentException("Ecore is missing/empty: " + loc.ecore());
+    }
+    if (!loc.genmodel().isFile() || loc.genmodel().length() == 0L) {
+      throw new IllegalArgumentException("GenModel is missing/empty: " + loc.genmodel());
+    }
+  }
+
+  private static List<String> extractNsUris(VitruvConfiguration cfg) {
+    return cfg.getMetaModelLocations().stream().map(MetamodelLocation::nsUri).toList();
+  }
+}
@@ -0,0 +1,82 @@
+package tools.vitruv.methodologist.builder.configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of validated Ecore and GenModel pairs, keyed by the SHA-256 hash of their file names and
+ * contents. The file names are part of the key because the GenModel refers to its Ecore by a
+ * relative path. Holds at most a fixed number of pairs and evicts the least recently used one.
+ *
+ * <p>Only the values a build derives from a pair are cached, not the parsed models: an {@link
+ * org.eclipse.emf.ecore.EPackage} keeps its whole resource set reachable, which would pin every
+ * cached model graph in memory. The cache is thread-safe; two threads missing the same key at the
+ * same time both load the pair and the last one wins.
+ */
+public final class MetamodelCache {
+  /** Default number of pairs kept by the shared cache. */
+  public static final int DEFAULT_MAX_ENTRIES = 128;
+
+  private final Map<String, LoadedMetamodel> entries;
+
+  /** Creates a cache holding at most {@code maxEntries} pairs. */
+  public MetamodelCache(int maxEntries) {
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, LoadedMetamodel> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  /**
+   * The values read from a validated pair: the namespace URI of the Ecore package and the model
+   * plugin id of its GenModel.
+   */
+  public record LoadedMetamodel(String nsUri, String modelPluginId) {}
+
+  /** Returns the key of the given pair. */
+  public static String key(String ecoreName, byte[] ecore, String genModelName, byte[] genModel) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      update(digest, ecoreName.getBytes(StandardCharsets.UTF_8));
+      update(digest, ecore);
+      update(digest, genModelName.getBytes(StandardCharsets.UTF_8));
+      update(digest, genModel);
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /** Returns the cached pair for the key, or {@code null} if it is not cached. */
+  public synchronized LoadedMetamodel get(String key) {
+    return entries.get(key);
+  }
+
+  /** Caches a validated pair under the key. */
+  public synchronized void put(String key, LoadedMetamodel metamodel) {
+    entries.put(key, metamodel);
+  }
+
+  /** Returns the number of cached pairs. */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static void update(MessageDigest digest, byte[] bytes) {
+    digest.update(
+        new byte[] {
+          (byte) (bytes.length >>> 24),
+          (byte) (bytes.length >>> 16),
+          (byte) (bytes.length >>> 8),
+          (byte) bytes.length
+        });
+    digest.update(bytes);
+  }
+}
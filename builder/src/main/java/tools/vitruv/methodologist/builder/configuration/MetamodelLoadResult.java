@@ -0,0 +1,35 @@
+package tools.vitruv.methodologist.builder.configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of loading and validating one Ecore and GenModel pair. {@code nsUri} is {@code null} and
+ * {@code message} holds the error if the pair is invalid.
+ */
+public record MetamodelLoadResult(
+    String ecore,
+    String genmodel,
+    String nsUri,
+    boolean success,
+    boolean cached,
+    long durationMillis,
+    String message) {
+
+  /**
+   * Returns the result as a map with the keys {@code ecore}, {@code genmodel}, {@code nsUri},
+   * {@code success}, {@code cached}, {@code durationMillis} and {@code message}, as written to
+   * result.json.
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("ecore", ecore);
+    result.put("genmodel", genmodel);
+    result.put("nsUri", nsUri);
+    result.put("success", success);
+    result.put("cached", cached);
+    result.put("durationMillis", durationMillis);
+    result.put("message", message);
+    return result;
+  }
+}
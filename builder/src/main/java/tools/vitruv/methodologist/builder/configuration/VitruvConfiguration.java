@@ -3,10 +3,19 @@ package tools.vitruv.methodologist.builder.configuration;
 import static tools.vitruv.methodologist.builder.SimpleValidators.assertValidEcore;
 import static tools.vitruv.methodologist.builder.SimpleValidators.assertValidGenModel;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.emf.codegen.ecore.genmodel.GenModel;
 import org.eclipse.emf.codegen.ecore.genmodel.GenModelPackage;
 import org.eclipse.emf.common.util.URI;
@@ -15,18 +24,51 @@ import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import tools.vitruv.methodologist.builder.configuration.MetamodelCache.LoadedMetamodel;
 
 /**
  * Configuration object for Vitruv metamodel builds. Stores references to validated metamodels
  * (Ecore and GenModel pairs), the local output path, and the base package name. Responsible for
  * parsing input pairs, loading resources with EMF, and validating their correctness before they are
- * used in code generation.
+ * used in code generation. Pairs are loaded in parallel and the values read from validated pairs
+ * are cached by content, see {@link MetamodelCache}.
  */
 public class VitruvConfiguration {
+  static {
+    Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
+    reg.getExtensionToFactoryMap().put("ecore", new XMIResourceFactoryImpl());
+    reg.getExtensionToFactoryMap().put("genmodel", new XMIResourceFactoryImpl());
+    GenModelPackage.eINSTANCE.eClass();
+  }
+
+  /** Pairs parsed by any configuration in this class loader. */
+  private static final MetamodelCache SHARED_CACHE =
+      new MetamodelCache(MetamodelCache.DEFAULT_MAX_ENTRIES);
+
+  /** Loads the pairs of a configuration in parallel. Its threads are daemon threads. */
+  private static final ForkJoinPool LOADER_POOL =
+      new ForkJoinPool(
+          Runtime.getRuntime().availableProcessors(),
+          VitruvConfiguration::loaderThread,
+          null,
+          false);
+
+  private final MetamodelCache cache;
   private final List<MetamodelLocation> metamodels = new ArrayList<>();
+  private final List<MetamodelLoadResult> loadResults = new ArrayList<>();
   private Path localPath;
   private String packageName;
 
+  /** Creates a configuration that shares parsed pairs with all other configurations. */
+  public VitruvConfiguration() {
+    this(SHARED_CACHE);
+  }
+
+  /** Creates a configuration that looks up and stores parsed pairs in the given cache. */
+  public VitruvConfiguration(MetamodelCache cache) {
+    this.cache = cache;
+  }
+
   /**
    * Removes the last segment after a dot from a string, often used to trim a plugin identifier into
    * a package name.
@@ -55,19 +97,18 @@ public class VitruvConfiguration {
    * Parses a string of pairs describing Ecore and GenModel files, loads them with EMF, validates
    * them, and stores the results. The expected format is: {@code
    * "path/to/model.ecore,path/to/model.genmodel;path/to/other.ecore,path/to/other.genmodel"}
-   * Invalid or missing files will cause exceptions. On success, the namespace URI and package name
-   * are derived from the resources.
+   * Missing files cause an exception before anything is loaded. The pairs are then loaded and
+   * validated in parallel, each in its own resource set, and their outcomes are recorded in {@link
+   * #getLoadResults()} in input order. If a pair is invalid, the exception of the first invalid
+   * pair is thrown after all pairs were loaded. On success, the namespace URI and package name are
+   * derived from the resources.
    */
   public void setMetaModelLocations(String pairs) {
-    Resource.Factory.Registry reg = Resource.Factory.Registry.INSTANCE;
-    reg.getExtensionToFactoryMap().put("ecore", new XMIResourceFactoryImpl());
-    reg.getExtensionToFactoryMap().put("genmodel", new XMIResourceFactoryImpl());
-    GenModelPackage.eINSTANCE.eClass();
-
     if (pairs == null || pairs.isBlank()) {
       return;
     }
 
+    List<File[]> files = new ArrayList<>();
     for (String pair : pairs.split(";")) {
       if (pair.isBlank() || !pair.contains(",")) {
         continue;
@@ -85,22 +126,156 @@ public class VitruvConfiguration {
       if (!gen.isFile() || gen.length() == 0L) {
         throw new IllegalArgumentException("GenModel missing/empty: " + gen);
       }
+      files.add(new File[] {ecore, gen});
+    }
+
+    List<ForkJoinTask<LoadedPair>> tasks = new ArrayList<>();
+    for (File[] pair : files) {
+      tasks.add(LOADER_POOL.submit(() -> load(pair[0], pair[1])));
+    }
+    add(tasks.stream().map(ForkJoinTask::join).toList());
+  }
+
+  /**
+   * Loads an Ecore and GenModel pair from their contents, validates it, and stores the result
+   * like {@link #setMetaModelLocations(String)} does for files. The pair is located under the
+   * local path with the given file names, which are only used for relative references and
+   * messages; nothing is read from or written to the file system.
+   */
+  public void addMetaModel(String ecoreName, byte[] ecore, String genModelName, byte[] genModel) {
+    if (ecore == null || ecore.length == 0) {
+      throw new IllegalArgumentException("Ecore missing/empty: " + ecoreName);
+    }
+    if (genModel == null || genModel.length == 0) {
+      throw new IllegalArgumentException("GenModel missing/empty: " + genModelName);
+    }
+
+    File ecoreFile = localPath.resolve(ecoreName).toFile();
+    File genFile = localPath.resolve(genModelName).toFile();
+    add(List.of(load(ecoreFile, ecore, genFile, genModel)));
+  }
+
+  /** Returns the outcome of every pair loaded so far, in input order. */
+  public List<MetamodelLoadResult> getLoadResults() {
+    return loadResults;
+  }
+
+  private void add(List<LoadedPair> pairs) {
+    RuntimeException failure = null;
+    for (LoadedPair pair : pairs) {
+      loadResults.add(pair.result());
+      if (pair.error() != null) {
+        failure = failure == null ? pair.error() : failure;
+        continue;
+      }
+      this.metamodels.add(pair.location());
+      this.setPackageName(pair.packageName());
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
 
-      ResourceSet rs = new ResourceSetImpl();
+  private LoadedPair load(File ecoreFile, File genFile) {
+    try {
+      return load(
+          ecoreFile,
+          Files.readAllBytes(ecoreFile.toPath()),
+          genFile,
+          Files.readAllBytes(genFile.toPath()));
+    } catch (IOException e) {
+      return failed(ecoreFile, genFile, 0L, new UncheckedIOException(e.getMessage(), e));
+    }
+  }
 
-      Resource eRes = rs.getResource(URI.createFileURI(ecore.getAbsolutePath()), true);
-      assertValidEcore(eRes, "Ecore: " + ecore.getName());
-      EPackage ep = (EPackage) eRes.getContents().get(0);
+  private LoadedPair load(File ecoreFile, byte[] ecore, File genFile, byte[] genModel) {
+    long start = System.nanoTime();
+    try {
+      String key =
+          MetamodelCache.key(
+              relativeEcorePath(ecoreFile, genFile), ecore, genFile.getName(), genModel);
+      LoadedMetamodel loaded = cache.get(key);
+      boolean cached = loaded != null;
+      if (!cached) {
+        loaded = parse(ecoreFile, ecore, genFile, genModel);
+        cache.put(key, loaded);
+      }
+      String nsUri = loaded.nsUri();
+      return new LoadedPair(
+          new MetamodelLocation(ecoreFile, genFile, nsUri),
+          removeLastSegment(loaded.modelPluginId()),
+          new MetamodelLoadResult(
+              ecoreFile.getName(),
+              genFile.getName(),
+              nsUri,
+              true,
+              cached,
+              millisSince(start),
+              null),
+          null);
+    } catch (RuntimeException e) {
+      return failed(ecoreFile, genFile, millisSince(start), e);
+    }
+  }
 
-      Resource gRes = rs.getResource(URI.createFileURI(gen.getAbsolutePath()), true);
-      assertValidGenModel(gRes, "GenModel: " + gen.getName());
-      GenModel gm = (GenModel) gRes.getContents().get(0);
+  private static LoadedMetamodel parse(
+      File ecoreFile, byte[] ecore, File genFile, byte[] genModel) {
+    ResourceSet rs = new ResourceSetImpl();
 
-      this.metamodels.add(new MetamodelLocation(ecore, gen, ep.getNsURI()));
-      this.setPackageName(removeLastSegment(gm.getModelPluginID()));
+    Resource eRes = load(rs, ecoreFile, ecore, "Ecore: " + ecoreFile.getName());
+    assertValidEcore(eRes, "Ecore: " + ecoreFile.getName());
+    EPackage ep = (EPackage) eRes.getContents().get(0);
+
+    Resource gRes = load(rs, genFile, genModel, "GenModel: " + genFile.getName());
+    assertValidGenModel(gRes, "GenModel: " + genFile.getName());
+    GenModel gm = (GenModel) gRes.getContents().get(0);
+
+    return new LoadedMetamodel(ep.getNsURI(), gm.getModelPluginID());
+  }
+
+  private static Resource load(ResourceSet rs, File location, byte[] content, String label) {
+    Resource res = rs.createResource(URI.createFileURI(location.getAbsolutePath()));
+    try (InputStream in = new ByteArrayInputStream(content)) {
+      res.load(in, null);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(label + " parse error: " + e.getMessage(), e);
     }
+    return res;
   }
 
+  private static String relativeEcorePath(File ecoreFile, File genFile) {
+    Path genDir = genFile.getAbsoluteFile().toPath().getParent();
+    Path ecore = ecoreFile.getAbsoluteFile().toPath();
+    return genDir == null ? ecore.toString() : genDir.relativize(ecore).toString();
+  }
+
+  private static LoadedPair failed(File ecoreFile, File genFile, long millis, RuntimeException e) {
+    return new LoadedPair(
+        null,
+        null,
+        new MetamodelLoadResult(
+            ecoreFile.getName(), genFile.getName(), null, false, false, millis, e.getMessage()),
+        e);
+  }
+
+  private static long millisSince(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  private static ForkJoinWorkerThread loaderThread(ForkJoinPool pool) {
+    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    thread.setName("metamodel-loader-" + thread.getPoolIndex());
+    thread.setContextClassLoader(VitruvConfiguration.class.getClassLoader());
+    return thread;
+  }
+
+  /** A loaded pair, or the error that made it invalid. */
+  private record LoadedPair(
+      MetamodelLocation location,
+      String packageName,
+      MetamodelLoadResult result,
+      RuntimeException error) {}
+
   /** Returns the current package name, stripped of whitespace. */
   public String getPackageName() {
     return packageName;
@@ -0,0 +1,105 @@
+package tools.vitruv.methodologist.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.vitruv.methodologist.builder.configuration.MetamodelLoadResult;
+
+class MetamodelBuilderTest {
+
+  private final MetamodelBuilder builder = new MetamodelBuilder();
+
+  private static byte[] resource(String name) throws IOException {
+    try (InputStream in = MetamodelBuilderTest.class.getResourceAsStream("/model/" + name)) {
+      assertThat(in).as(name).isNotNull();
+      return in.readAllBytes();
+    }
+  }
+
+  private static String pair(Path dir, String name) throws IOException {
+    Path ecore = Files.write(dir.resolve(name + ".ecore"), resource(name + ".ecore"));
+    Path genModel = Files.write(dir.resolve(name + ".genmodel"), resource(name + ".genmodel"));
+    return ecore + "," + genModel;
+  }
+
+  @Test
+  void buildFromBytes_validPair_succeedsWithNsUri() throws Exception {
+    BuildReport report = builder.build(resource("model.ecore"), resource("model.genmodel"));
+
+    assertThat(report.success()).as(report.report()).isTrue();
+    assertThat(report.errors()).isZero();
+    assertThat(report.nsUris()).containsExactly("http://vitruv.tools/cli/model");
+  }
+
+  @Test
+  void buildFromBytes_invalidEcore_reportsFailure() throws Exception {
+    BuildReport report =
+        builder.build("not xml".getBytes(StandardCharsets.UTF_8), resource("model.genmodel"));
+
+    assertThat(report.success()).isFalse();
+    assertThat(report.errors()).isEqualTo(1);
+    assertThat(report.report()).startsWith("Build failed:");
+  }
+
+  @Test
+  void buildFromBytes_samePairTwice_secondIsCached() throws Exception {
+    builder.build(resource("model.ecore"), resource("model.genmodel"));
+    BuildReport report = builder.build(resource("model.ecore"), resource("model.genmodel"));
+
+    assertThat(report.metamodels()).singleElement().satisfies(m -> assertThat(m.cached()).isTrue());
+  }
+
+  @Test
+  void buildFromPairs_reportsEveryMetamodelInInputOrder(@TempDir Path dir) throws Exception {
+    String pairs = pair(dir, "model2") + ";" + pair(dir, "model");
+
+    BuildReport report = builder.build(pairs, dir.resolve("out"));
+
+    assertThat(report.success()).as(report.report()).isTrue();
+    assertThat(report.nsUris())
+        .containsExactly("http://vitruv.tools/cli/model2", "http://vitruv.tools/cli/model");
+    assertThat(report.metamodels())
+        .extracting(MetamodelLoadResult::ecore, MetamodelLoadResult::success)
+        .containsExactly(tuple("model2.ecore", true), tuple("model.ecore", true));
+  }
+
+  @Test
+  void buildFromPairs_oneInvalidPair_reportsEachOutcome(@TempDir Path dir) throws Exception {
+    Files.writeString(dir.resolve("broken.ecore"), "not xml");
+    Files.write(dir.resolve("broken.genmodel"), resource("model.genmodel"));
+    String pairs =
+        pair(dir, "model")
+            + ";"
+            + dir.resolve("broken.ecore")
+            + ","
+            + dir.resolve("broken.genmodel");
+
+    BuildReport report = builder.build(pairs, dir.resolve("out"));
+
+    assertThat(report.success()).isFalse();
+    assertThat(report.errors()).isEqualTo(1);
+    assertThat(report.report()).startsWith("Build failed: Ecore: broken.ecore");
+    assertThat(report.metamodels())
+        .extracting(MetamodelLoadResult::ecore, MetamodelLoadResult::success)
+        .containsExactly(tuple("model.ecore", true), tuple("broken.ecore", false));
+    assertThat(report.toMap()).containsKey("metamodels");
+  }
+
+  @Test
+  void apply_returnsReportAsMap() throws Exception {
+    Map<String, Object> result = builder.apply(resource("model.ecore"), resource("model.genmodel"));
+
+    assertThat(result)
+        .containsEntry("success", true)
+        .containsEntry("errors", 0)
+        .containsKeys("warnings", "report", "nsUris");
+  }
+}